@@ -0,0 +1,25 @@
+package com.crypto.cryptocompare.benchmarks;
+
+import java.util.Arrays;
+
+/**
+ * Entry point of the benchmarks jar: runs JMH with the gc profiler unless a profiler is
+ * given, so every result reports allocation next to throughput
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {}
+
+    public static void main(String[] args) throws Exception {
+        if (Arrays.asList(args).contains("-prof") || Arrays.asList(args).contains("-h") || Arrays.asList(args).contains("-l")) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        String[] withGc = new String[args.length + 2];
+        withGc[0] = "-prof";
+        withGc[1] = "gc";
+        System.arraycopy(args, 0, withGc, 2, args.length);
+        org.openjdk.jmh.Main.main(withGc);
+    }
+}
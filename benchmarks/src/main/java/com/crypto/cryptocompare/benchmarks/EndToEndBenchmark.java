@@ -0,0 +1,92 @@
+package com.crypto.cryptocompare.benchmarks;
+
+import com.crypto.cryptocompare.api.CryptoCompareApi;
+import com.crypto.cryptocompare.model.OhlcvSeries;
+import com.google.gson.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole calls through CryptoCompareApi against the local server: url building, the
+ * transport, decoding and the api's own bookkeeping. Rate limiting is turned off so the
+ * client's cost is measured rather than the quota.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EndToEndBenchmark {
+
+    private static final byte[] PRICE_RESPONSE =
+            "{\"BTC\":0.07123,\"USD\":712.53,\"EUR\":650.12}".getBytes(StandardCharsets.UTF_8);
+
+    private LocalApiServer server;
+
+    private CryptoCompareApi api;
+
+    private Map<String, Object> params;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.server = new LocalApiServer()
+                .respond("/price", PRICE_RESPONSE)
+                .respond("/all/coinlist", Payloads.coinList(3000))
+                .respond("/pricemultifull", Payloads.priceMultiFull(20, 5))
+                .respond("/histominute", Payloads.histo(2000));
+        this.api = CryptoCompareApi.builder()
+                .baseUrl(this.server.baseUrl())
+                .rateLimiter(null)
+                .build();
+        this.params = new LinkedHashMap<>();
+        this.params.put("extraParams", "Benchmarks");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        this.api.close();
+        this.server.close();
+    }
+
+    @Benchmark
+    public JsonObject price() {
+        return this.api.price("ETH", "BTC,USD,EUR", this.params);
+    }
+
+    @Benchmark
+    public JsonObject coinList() {
+        return this.api.coinList();
+    }
+
+    @Benchmark
+    public JsonObject priceMultiFull() {
+        return this.api.priceMultiFull("BTC,ETH,XRP,LTC,DASH", "USD,EUR,BTC", this.params);
+    }
+
+    @Benchmark
+    public JsonObject histoMinute() {
+        return this.api.histoMinute("BTC", "USD", this.params);
+    }
+
+    @Benchmark
+    public OhlcvSeries histoMinuteSeries() {
+        return this.api.histoMinuteSeries("BTC", "USD", this.params);
+    }
+}
@@ -0,0 +1,133 @@
+package com.crypto.cryptocompare.benchmarks;
+
+import com.crypto.cryptocompare.history.BarAggregator;
+import com.crypto.cryptocompare.history.Resolution;
+import com.crypto.cryptocompare.indicator.MovingAverage;
+import com.crypto.cryptocompare.indicator.RollingExtremes;
+import com.crypto.cryptocompare.indicator.RollingVwap;
+import com.crypto.cryptocompare.model.OhlcvSeries;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One day-long (1440 minute) SMA, VWAP and high/low window updated for every new minute
+ * bar, rescanning the window each time versus the rolling indicators, plus minute bars
+ * resampled to hours with a BarAggregator
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IndicatorBenchmark {
+
+    private static final int WINDOW = 1440;
+
+    private static final int BARS = 1 << 14;
+
+    private double[] close;
+
+    private double[] high;
+
+    private double[] low;
+
+    private double[] volumeFrom;
+
+    private double[] volumeTo;
+
+    private OhlcvSeries minutes;
+
+    private int next;
+
+    private MovingAverage sma;
+
+    private RollingVwap vwap;
+
+    private RollingExtremes extremes;
+
+    private BarAggregator hours;
+
+    private double sink;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        this.close = new double[BARS];
+        this.high = new double[BARS];
+        this.low = new double[BARS];
+        this.volumeFrom = new double[BARS];
+        this.volumeTo = new double[BARS];
+        OhlcvSeries.Builder builder = OhlcvSeries.builder();
+        double price = 4000;
+        for (int i = 0; i < BARS; i++) {
+            double open = price;
+            price += random.nextGaussian();
+            this.close[i] = price;
+            this.high[i] = Math.max(open, price) + random.nextDouble();
+            this.low[i] = Math.min(open, price) - random.nextDouble();
+            this.volumeFrom[i] = random.nextDouble() * 10;
+            this.volumeTo[i] = this.volumeFrom[i] * price;
+            builder.add(1500000000L + 60L * i, open, this.high[i], this.low[i], price, this.volumeFrom[i], this.volumeTo[i]);
+        }
+        this.minutes = builder.build();
+
+        this.sma = new MovingAverage(WINDOW);
+        this.vwap = new RollingVwap(WINDOW);
+        this.extremes = new RollingExtremes(WINDOW);
+        this.hours = new BarAggregator(Resolution.HOUR, (time, open, high, low, close, volumeFrom, volumeTo) -> this.sink += close);
+        for (int i = 0; i < WINDOW; i++) {
+            this.rolling();
+        }
+    }
+
+    /**
+     * Indicators as of the latest bar, computed over the window ending there
+     * @return
+     */
+    @Benchmark
+    public double rescan() {
+        int end = this.next;
+        this.next = (this.next + 1) & (BARS - 1);
+        double sum = 0;
+        double turnover = 0;
+        double volume = 0;
+        double high = Double.NEGATIVE_INFINITY;
+        double low = Double.POSITIVE_INFINITY;
+        for (int k = 0; k < WINDOW; k++) {
+            int i = (end - k) & (BARS - 1);
+            sum += this.close[i];
+            turnover += this.volumeTo[i];
+            volume += this.volumeFrom[i];
+            high = Math.max(high, this.high[i]);
+            low = Math.min(low, this.low[i]);
+        }
+        return sum / WINDOW + turnover / volume + high - low;
+    }
+
+    @Benchmark
+    public double rolling() {
+        int i = this.next;
+        this.next = (this.next + 1) & (BARS - 1);
+        this.sma.add(this.close[i]);
+        this.vwap.addBar(this.volumeFrom[i], this.volumeTo[i]);
+        this.extremes.add(this.high[i], this.low[i]);
+        return this.sma.value() + this.vwap.value() + this.extremes.high() - this.extremes.low();
+    }
+
+    @Benchmark
+    public OhlcvSeries resampleHours() {
+        return BarAggregator.resample(this.minutes, Resolution.HOUR);
+    }
+}
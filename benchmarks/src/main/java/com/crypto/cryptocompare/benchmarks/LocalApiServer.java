@@ -0,0 +1,80 @@
+package com.crypto.cryptocompare.benchmarks;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Embedded HTTP server serving canned API responses, so benchmarks measure the client
+ * rather than the network or the upstream service
+ */
+public class LocalApiServer implements AutoCloseable {
+
+    static {
+        // Without TCP_NODELAY every response waits out the client's delayed ACK
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+
+    private final ExecutorService executor;
+
+    /**
+     * Canned bodies keyed by the path suffix they answer
+     */
+    private final Map<String, byte[]> responses = new ConcurrentHashMap<>();
+
+    public LocalApiServer() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        this.executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        this.server.setExecutor(this.executor);
+        this.server.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            byte[] body = null;
+            for (Map.Entry<String, byte[]> response : this.responses.entrySet()) {
+                if (path.endsWith(response.getKey())) {
+                    body = response.getValue();
+                    break;
+                }
+            }
+
+            if (body == null) {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        this.server.start();
+    }
+
+    public LocalApiServer respond(String pathSuffix, byte[] body) {
+        this.responses.put(pathSuffix, body);
+        return this;
+    }
+
+    /**
+     * Base url to hand to the client, ending with a slash
+     * @return
+     */
+    public String baseUrl() {
+        return "http://127.0.0.1:" + this.server.getAddress().getPort() + "/data/";
+    }
+
+    @Override
+    public void close() {
+        this.server.stop(0);
+        this.executor.shutdownNow();
+    }
+}
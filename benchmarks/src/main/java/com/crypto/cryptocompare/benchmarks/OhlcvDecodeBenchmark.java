@@ -0,0 +1,76 @@
+package com.crypto.cryptocompare.benchmarks;
+
+import com.crypto.cryptocompare.model.OhlcvSeries;
+import com.crypto.cryptocompare.model.OhlcvSeriesDecoder;
+import com.crypto.cryptocompare.transport.ResponseDecoders;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turning a histo response into primitive arrays: through the JsonObject tree versus
+ * streaming straight into an OhlcvSeries. Run with {@code -prof gc} to compare allocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OhlcvDecodeBenchmark {
+
+    @Param({"100", "2000"})
+    private int candles;
+
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        this.body = Payloads.histo(this.candles);
+    }
+
+    @Benchmark
+    public double[] tree() throws IOException {
+        JsonObject response = ResponseDecoders.JSON_OBJECT.decode(new ByteArrayInputStream(this.body));
+        JsonArray data = response.getAsJsonArray("Data");
+
+        int size = data.size();
+        long[] time = new long[size];
+        double[] open = new double[size];
+        double[] high = new double[size];
+        double[] low = new double[size];
+        double[] close = new double[size];
+        double[] volumeFrom = new double[size];
+        double[] volumeTo = new double[size];
+        for (int i = 0; i < size; i++) {
+            JsonObject candle = data.get(i).getAsJsonObject();
+            time[i] = candle.get("time").getAsLong();
+            open[i] = candle.get("open").getAsDouble();
+            high[i] = candle.get("high").getAsDouble();
+            low[i] = candle.get("low").getAsDouble();
+            close[i] = candle.get("close").getAsDouble();
+            volumeFrom[i] = candle.get("volumefrom").getAsDouble();
+            volumeTo[i] = candle.get("volumeto").getAsDouble();
+        }
+        return close;
+    }
+
+    @Benchmark
+    public OhlcvSeries columnar() throws IOException {
+        return OhlcvSeriesDecoder.INSTANCE.decode(new ByteArrayInputStream(this.body));
+    }
+}
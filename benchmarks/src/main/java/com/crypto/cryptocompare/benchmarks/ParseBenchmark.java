@@ -0,0 +1,80 @@
+package com.crypto.cryptocompare.benchmarks;
+
+import com.crypto.cryptocompare.json.LazyJsonObject;
+import com.crypto.cryptocompare.model.FullPriceMatrixDecoder;
+import com.crypto.cryptocompare.model.OhlcvSeriesDecoder;
+import com.crypto.cryptocompare.model.SymbolTableDecoder;
+import com.crypto.cryptocompare.transport.ResponseDecoder;
+import com.crypto.cryptocompare.transport.ResponseDecoders;
+import com.google.gson.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding response bodies into JsonObject trees, the way every untyped endpoint does,
+ * and with the matching typed decoder: the coin list (large, many small objects) into a
+ * SymbolTable, pricemultifull (deeply nested, string heavy) into a FullPriceMatrix and
+ * histominute (a long array of numbers) into an OhlcvSeries, plus indexing the body as a
+ * LazyJsonObject
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParseBenchmark {
+
+    @Param({"coinList", "priceMultiFull", "histoMinute"})
+    private String payload;
+
+    private byte[] body;
+
+    private ResponseDecoder<?> typedDecoder;
+
+    @Setup
+    public void setUp() {
+        switch (this.payload) {
+            case "coinList":
+                this.body = Payloads.coinList(3000);
+                this.typedDecoder = SymbolTableDecoder.INSTANCE;
+                break;
+            case "priceMultiFull":
+                this.body = Payloads.priceMultiFull(20, 5);
+                this.typedDecoder = FullPriceMatrixDecoder.INSTANCE;
+                break;
+            default:
+                this.body = Payloads.histo(2000);
+                this.typedDecoder = OhlcvSeriesDecoder.INSTANCE;
+                break;
+        }
+    }
+
+    @Benchmark
+    public JsonObject jsonObject() throws IOException {
+        return ResponseDecoders.JSON_OBJECT.decode(new ByteArrayInputStream(this.body));
+    }
+
+    @Benchmark
+    public LazyJsonObject lazy() throws IOException {
+        return ResponseDecoders.LAZY_JSON_OBJECT.decode(new ByteArrayInputStream(this.body));
+    }
+
+    @Benchmark
+    public Object typed() throws IOException {
+        return this.typedDecoder.decode(new ByteArrayInputStream(this.body));
+    }
+}
@@ -0,0 +1,177 @@
+package com.crypto.cryptocompare.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Synthetic response bodies shaped like the ones the API returns, generated from a fixed
+ * seed so every run decodes the same bytes
+ */
+public final class Payloads {
+
+    private Payloads() {}
+
+    /**
+     * A histominute/histohour/histoday body
+     * @param candles number of entries in Data
+     * @return
+     */
+    public static byte[] histo(int candles) {
+        Random random = new Random(42);
+        long time = 1515000000L;
+        double close = 15000;
+
+        StringBuilder sb = new StringBuilder(candles * 120);
+        sb.append("{\"Response\":\"Success\",\"Type\":100,\"Aggregated\":false,\"Data\":[");
+        for (int i = 0; i < candles; i++) {
+            double open = close;
+            close = open + (random.nextDouble() - 0.5) * 40;
+            double high = Math.max(open, close) + random.nextDouble() * 10;
+            double low = Math.min(open, close) - random.nextDouble() * 10;
+            double volumeFrom = random.nextDouble() * 50;
+
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(String.format(Locale.ROOT,
+                    "{\"time\":%d,\"close\":%.2f,\"high\":%.2f,\"low\":%.2f,\"open\":%.2f,\"volumefrom\":%.4f,\"volumeto\":%.2f}",
+                    time + i * 60L, close, high, low, open, volumeFrom, volumeFrom * close));
+        }
+        sb.append("],\"TimeTo\":").append(time + (candles - 1) * 60L)
+                .append(",\"TimeFrom\":").append(time)
+                .append(",\"FirstValueInArray\":true,\"ConversionType\":{\"type\":\"direct\",\"conversionSymbol\":\"\"}}");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * An all/coinlist body
+     * @param coins number of entries in Data
+     * @return
+     */
+    public static byte[] coinList(int coins) {
+        Random random = new Random(42);
+        String[] algorithms = {"SHA256", "Scrypt", "X11", "Ethash", "N/A"};
+        String[] proofTypes = {"PoW", "PoS", "PoW/PoS", "N/A"};
+
+        StringBuilder sb = new StringBuilder(coins * 400);
+        sb.append("{\"Response\":\"Success\",\"Message\":\"Coin list succesfully returned!\",")
+                .append("\"BaseImageUrl\":\"https://www.cryptocompare.com\",\"BaseLinkUrl\":\"https://www.cryptocompare.com\",")
+                .append("\"DefaultWatchlist\":{\"CoinIs\":\"1182,7605,5038,24854,3807,3808,202330,5324,5031,20131\",\"Sponsored\":\"\"},")
+                .append("\"Data\":{");
+        for (int i = 0; i < coins; i++) {
+            String symbol = symbol(i);
+            String name = "Coin " + symbol.charAt(0) + symbol.substring(1).toLowerCase(Locale.ROOT);
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append('"').append(symbol).append("\":{")
+                    .append("\"Id\":\"").append(1000 + i).append("\",")
+                    .append("\"Url\":\"/coins/").append(symbol.toLowerCase(Locale.ROOT)).append("/overview\",")
+                    .append("\"ImageUrl\":\"/media/").append(19000 + i).append('/').append(symbol.toLowerCase(Locale.ROOT)).append(".png\",")
+                    .append("\"Name\":\"").append(symbol).append("\",")
+                    .append("\"Symbol\":\"").append(symbol).append("\",")
+                    .append("\"CoinName\":\"").append(name).append("\",")
+                    .append("\"FullName\":\"").append(name).append(" (").append(symbol).append(")\",")
+                    .append("\"Algorithm\":\"").append(algorithms[random.nextInt(algorithms.length)]).append("\",")
+                    .append("\"ProofType\":\"").append(proofTypes[random.nextInt(proofTypes.length)]).append("\",")
+                    .append("\"FullyPremined\":\"0\",")
+                    .append("\"TotalCoinSupply\":\"").append(1000000 + random.nextInt(100000000)).append("\",")
+                    .append("\"PreMinedValue\":\"N/A\",\"TotalCoinsFreeFloat\":\"N/A\",")
+                    .append("\"SortOrder\":\"").append(i + 1).append("\",")
+                    .append("\"Sponsored\":false}");
+        }
+        sb.append("},\"Type\":100}");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A pricemultifull body with its RAW and DISPLAY sections
+     * @param fsyms number of from symbols
+     * @param tsyms number of to symbols
+     * @return
+     */
+    public static byte[] priceMultiFull(int fsyms, int tsyms) {
+        Random random = new Random(42);
+        long lastUpdate = 1515000000L;
+
+        StringBuilder raw = new StringBuilder(fsyms * tsyms * 700);
+        StringBuilder display = new StringBuilder(fsyms * tsyms * 600);
+        for (int f = 0; f < fsyms; f++) {
+            String fsym = symbol(f);
+            raw.append(f > 0 ? "," : "").append('"').append(fsym).append("\":{");
+            display.append(f > 0 ? "," : "").append('"').append(fsym).append("\":{");
+            for (int t = 0; t < tsyms; t++) {
+                String tsym = symbol(1000 + t);
+                double price = 0.01 + random.nextDouble() * 10000;
+                double open = price * (0.95 + random.nextDouble() * 0.1);
+                double volume = random.nextDouble() * 100000;
+
+                raw.append(t > 0 ? "," : "").append('"').append(tsym).append("\":").append(String.format(Locale.ROOT,
+                        "{\"TYPE\":\"5\",\"MARKET\":\"CCCAGG\",\"FROMSYMBOL\":\"%s\",\"TOSYMBOL\":\"%s\",\"FLAGS\":\"4\","
+                                + "\"PRICE\":%.4f,\"LASTUPDATE\":%d,\"LASTVOLUME\":%.6f,\"LASTVOLUMETO\":%.4f,"
+                                + "\"LASTTRADEID\":\"%d\",\"VOLUMEDAY\":%.4f,\"VOLUMEDAYTO\":%.4f,"
+                                + "\"VOLUME24HOUR\":%.4f,\"VOLUME24HOURTO\":%.4f,\"OPENDAY\":%.4f,\"HIGHDAY\":%.4f,"
+                                + "\"LOWDAY\":%.4f,\"OPEN24HOUR\":%.4f,\"HIGH24HOUR\":%.4f,\"LOW24HOUR\":%.4f,"
+                                + "\"LASTMARKET\":\"Bitfinex\",\"CHANGE24HOUR\":%.4f,\"CHANGEPCT24HOUR\":%.6f,"
+                                + "\"CHANGEDAY\":%.4f,\"CHANGEPCTDAY\":%.6f,\"SUPPLY\":%d,\"MKTCAP\":%.2f,"
+                                + "\"TOTALVOLUME24H\":%.4f,\"TOTALVOLUME24HTO\":%.4f}",
+                        fsym, tsym, price, lastUpdate + t, random.nextDouble(), random.nextDouble() * price,
+                        random.nextInt(100000000), volume, volume * price, volume, volume * price,
+                        open, price * 1.02, open * 0.98, open, price * 1.03, open * 0.97,
+                        price - open, (price - open) / open * 100, price - open, (price - open) / open * 100,
+                        16800000 + f, price * 16800000, volume * 3, volume * 3 * price));
+
+                display.append(t > 0 ? "," : "").append('"').append(tsym).append("\":").append(String.format(Locale.ROOT,
+                        "{\"FROMSYMBOL\":\"%s\",\"TOSYMBOL\":\"%s\",\"MARKET\":\"CryptoCompare Index\","
+                                + "\"PRICE\":\"%s %,.2f\",\"LASTUPDATE\":\"Just now\",\"LASTVOLUME\":\"%s %.4f\","
+                                + "\"VOLUME24HOUR\":\"%s %,.1f\",\"OPEN24HOUR\":\"%s %,.2f\",\"HIGH24HOUR\":\"%s %,.2f\","
+                                + "\"LOW24HOUR\":\"%s %,.2f\",\"LASTMARKET\":\"Bitfinex\",\"CHANGE24HOUR\":\"%s %.2f\","
+                                + "\"CHANGEPCT24HOUR\":\"%.2f\",\"SUPPLY\":\"%s %,d\",\"MKTCAP\":\"%s %.2f B\"}",
+                        fsym, tsym, tsym, price, fsym, random.nextDouble(), fsym, volume, tsym, open,
+                        tsym, price * 1.03, tsym, open * 0.97, tsym, price - open, (price - open) / open * 100,
+                        fsym, 16800000 + f, tsym, price * 0.0168));
+            }
+            raw.append('}');
+            display.append('}');
+        }
+        return ("{\"RAW\":{" + raw + "},\"DISPLAY\":{" + display + "}}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * pricemulti body: a plain matrix of prices
+     * @param fsyms number of from symbols
+     * @param tsyms number of to symbols
+     * @return
+     */
+    public static byte[] priceMulti(int fsyms, int tsyms) {
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder(fsyms * tsyms * 24);
+        sb.append('{');
+        for (int f = 0; f < fsyms; f++) {
+            sb.append(f > 0 ? "," : "").append('"').append(symbol(f)).append("\":{");
+            for (int t = 0; t < tsyms; t++) {
+                sb.append(t > 0 ? "," : "").append('"').append(symbol(1000 + t)).append("\":")
+                        .append(String.format(Locale.ROOT, "%.6f", 0.0001 + random.nextDouble() * 10000));
+            }
+            sb.append('}');
+        }
+        sb.append('}');
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A distinct upper case symbol for every index, e.g. CA, CB, ..., CAA
+     * @param index
+     * @return
+     */
+    public static String symbol(int index) {
+        StringBuilder sb = new StringBuilder("C");
+        int value = index;
+        do {
+            sb.insert(1, (char) ('A' + value % 26));
+            value = value / 26 - 1;
+        } while (value >= 0);
+        return sb.toString();
+    }
+}
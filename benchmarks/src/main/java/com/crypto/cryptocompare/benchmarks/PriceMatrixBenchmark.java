@@ -0,0 +1,104 @@
+package com.crypto.cryptocompare.benchmarks;
+
+import com.crypto.cryptocompare.model.PriceMatrix;
+import com.crypto.cryptocompare.model.PriceMatrixDecoder;
+import com.crypto.cryptocompare.transport.ResponseDecoders;
+import com.google.gson.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading every cell of a 200x20 pricemulti response, through the JsonObject tree by
+ * symbol versus a PriceMatrix by precomputed index, plus decoding the body both ways
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PriceMatrixBenchmark {
+
+    private static final int FSYMS = 200;
+
+    private static final int TSYMS = 20;
+
+    private byte[] body;
+
+    private String[] fsyms;
+
+    private String[] tsyms;
+
+    private JsonObject tree;
+
+    private PriceMatrix matrix;
+
+    private int[] rows;
+
+    private int[] columns;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.body = Payloads.priceMulti(FSYMS, TSYMS);
+        this.tree = ResponseDecoders.JSON_OBJECT.decode(new ByteArrayInputStream(this.body));
+        this.matrix = PriceMatrixDecoder.INSTANCE.decode(new ByteArrayInputStream(this.body));
+
+        this.fsyms = new String[FSYMS];
+        this.rows = new int[FSYMS];
+        for (int f = 0; f < FSYMS; f++) {
+            this.fsyms[f] = Payloads.symbol(f);
+            this.rows[f] = this.matrix.fromIndex(this.fsyms[f]);
+        }
+        this.tsyms = new String[TSYMS];
+        this.columns = new int[TSYMS];
+        for (int t = 0; t < TSYMS; t++) {
+            this.tsyms[t] = Payloads.symbol(1000 + t);
+            this.columns[t] = this.matrix.toIndex(this.tsyms[t]);
+        }
+    }
+
+    @Benchmark
+    public double readAllJsonObject() {
+        double sum = 0;
+        for (String fsym : this.fsyms) {
+            JsonObject row = this.tree.getAsJsonObject(fsym);
+            for (String tsym : this.tsyms) {
+                sum += row.get(tsym).getAsDouble();
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double readAllPriceMatrix() {
+        double sum = 0;
+        for (int row : this.rows) {
+            for (int column : this.columns) {
+                sum += this.matrix.get(row, column);
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public JsonObject decodeJsonObject() throws IOException {
+        return ResponseDecoders.JSON_OBJECT.decode(new ByteArrayInputStream(this.body));
+    }
+
+    @Benchmark
+    public PriceMatrix decodePriceMatrix() throws IOException {
+        return PriceMatrixDecoder.INSTANCE.decode(new ByteArrayInputStream(this.body));
+    }
+}
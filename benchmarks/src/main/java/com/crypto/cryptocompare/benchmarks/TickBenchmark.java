@@ -0,0 +1,82 @@
+package com.crypto.cryptocompare.benchmarks;
+
+import com.crypto.cryptocompare.stream.Tick;
+import com.crypto.cryptocompare.stream.TickDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding streamer CCCAGG updates: TickDecoder into a reused Tick versus splitting the
+ * message String on '~' and parsing each value, the way the streamer's own JavaScript
+ * utilities do
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TickBenchmark {
+
+    private static final String[] MESSAGES = {
+            "5~CCCAGG~BTC~USD~1~6500.12~1530000000~0.015~97.5~281289312~43210.5~280000000~Bitstamp~40ce9",
+            "5~CCCAGG~ETH~USD~2~470.31~1530000001~1.25~587.8875~120000.75~56000000~c69",
+            "5~CCCAGG~BTC~EUR~4~5600.5~1530000002~9",
+    };
+
+    private byte[][] bytes;
+
+    private TickDecoder decoder;
+
+    private Tick tick;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        this.bytes = new byte[MESSAGES.length][];
+        for (int i = 0; i < MESSAGES.length; i++) {
+            this.bytes[i] = MESSAGES[i].getBytes(StandardCharsets.UTF_8);
+        }
+        this.decoder = new TickDecoder();
+        this.tick = new Tick();
+    }
+
+    @Benchmark
+    public double tickDecoder() {
+        byte[] message = this.bytes[this.next++ % this.bytes.length];
+        this.decoder.decode(message, 0, message.length, this.tick);
+        return this.tick.price();
+    }
+
+    @Benchmark
+    public double stringSplit() {
+        byte[] message = this.bytes[this.next++ % this.bytes.length];
+        String[] values = new String(message, StandardCharsets.UTF_8).split("~");
+        int mask = Integer.parseInt(values[values.length - 1], 16);
+        double price = Double.NaN;
+        int index = 5;
+        for (int field = 1; field <= 0x40000; field <<= 1) {
+            if ((mask & field) != 0) {
+                String value = values[index++];
+                if (field == 0x1) {
+                    price = Double.parseDouble(value);
+                } else if (field != 0x80 && field != 0x40000) {
+                    Double.parseDouble(value);
+                }
+            }
+        }
+        return price;
+    }
+}
@@ -0,0 +1,85 @@
+package com.crypto.cryptocompare.benchmarks;
+
+import com.crypto.cryptocompare.transport.HttpTransport;
+import com.crypto.cryptocompare.transport.ResponseDecoders;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests per second against a local server: a fresh connection per request (how
+ * ApiUtils.getResponseBody used to behave) versus the keep-alive HttpTransport.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class TransportBenchmark {
+
+    private static final byte[] PRICE_RESPONSE =
+            "{\"BTC\":0.07123,\"USD\":712.53,\"EUR\":650.12}".getBytes(StandardCharsets.UTF_8);
+
+    private LocalApiServer server;
+
+    private HttpTransport transport;
+
+    private String requestUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.server = new LocalApiServer().respond("/price", PRICE_RESPONSE);
+        this.transport = HttpTransport.builder().maxConnections(4).build();
+        this.requestUrl = this.server.baseUrl() + "price?fsym=ETH&tsyms=BTC,USD,EUR";
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        this.transport.close();
+        this.server.close();
+    }
+
+    @Benchmark
+    public JsonObject freshConnectionPerRequest() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(this.requestUrl).openConnection();
+        connection.setRequestMethod("GET");
+
+        StringBuilder sb = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                sb.append(line);
+            }
+        } finally {
+            connection.disconnect();
+        }
+        return new JsonParser().parse(sb.toString()).getAsJsonObject();
+    }
+
+    @Benchmark
+    public JsonObject pooledTransport() throws IOException {
+        return this.transport.get(this.requestUrl, ResponseDecoders.JSON_OBJECT);
+    }
+}
@@ -0,0 +1,112 @@
+package com.crypto.cryptocompare.benchmarks;
+
+import com.crypto.cryptocompare.utils.ApiUtils;
+import com.crypto.cryptocompare.utils.UrlBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building a price request url with no optional parameters and with a typical set of
+ * three: the original StringBuilder plus string concatenation loop, kept here as the
+ * baseline, then ApiUtils.appendOptionalParameters and UrlBuilder. Run with -prof gc to
+ * compare bytes allocated per url.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UrlBenchmark {
+
+    private static final String PRICE_ENDPOINT = "https://min-api.cryptocompare.com/data/price";
+
+    private static final String PRICE_URL = PRICE_ENDPOINT + "?fsym=ETH&tsyms=BTC,USD,EUR";
+
+    private Map<String, Object> noParams;
+
+    private Map<String, Object> threeParams;
+
+    @Setup
+    public void setUp() {
+        this.noParams = new LinkedHashMap<>();
+        this.threeParams = new LinkedHashMap<>();
+        this.threeParams.put("e", "Coinbase");
+        this.threeParams.put("extraParams", "My Trading App");
+        this.threeParams.put("sign", true);
+    }
+
+    @Benchmark
+    public String legacyNoOptionalParameters() {
+        return legacyPriceUrl(this.noParams);
+    }
+
+    @Benchmark
+    public String legacyThreeOptionalParameters() {
+        return legacyPriceUrl(this.threeParams);
+    }
+
+    @Benchmark
+    public String noOptionalParameters() {
+        return ApiUtils.appendOptionalParameters(PRICE_URL, this.noParams);
+    }
+
+    @Benchmark
+    public String threeOptionalParameters() {
+        return ApiUtils.appendOptionalParameters(PRICE_URL, this.threeParams);
+    }
+
+    @Benchmark
+    public String builderNoOptionalParameters() {
+        return UrlBuilder.of(PRICE_ENDPOINT)
+                .param("fsym", "ETH")
+                .param("tsyms", "BTC,USD,EUR")
+                .params(this.noParams)
+                .build();
+    }
+
+    @Benchmark
+    public String builderThreeOptionalParameters() {
+        return UrlBuilder.of(PRICE_ENDPOINT)
+                .param("fsym", "ETH")
+                .param("tsyms", "BTC,USD,EUR")
+                .params(this.threeParams)
+                .build();
+    }
+
+    /**
+     * How CryptoCompareApi built the price url before UrlBuilder
+     * @param optionalParams
+     * @return
+     */
+    private static String legacyPriceUrl(Map<String, Object> optionalParams) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(PRICE_ENDPOINT)
+                .append("?fsym=")
+                .append("ETH")
+                .append("&tsyms=")
+                .append("BTC,USD,EUR");
+
+        String url = sb.toString();
+        for (Map.Entry<String, Object> param : optionalParams.entrySet()) {
+            String value = (param.getKey().equals("extraParams"))
+                    ? param.getValue().toString().replaceAll(" ", "%20")
+                    : param.getValue().toString();
+
+            url += "&" + param.getKey() + "=" + value;
+        }
+        return url;
+    }
+}
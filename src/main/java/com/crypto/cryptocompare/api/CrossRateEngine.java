@@ -0,0 +1,423 @@
+package com.crypto.cryptocompare.api;
+
+import com.crypto.cryptocompare.model.PriceMatrix;
+import com.crypto.cryptocompare.model.SymbolTable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Converts between any two symbols locally by triangulating through a pivot, BTC by
+ * default, the way the API itself converts pairs that do not trade directly. Only one
+ * quote per symbol is fetched: every coin against the pivot, and the pivot against every
+ * currency, so N coins and M currencies take N + M prices in a few pricemulti requests
+ * instead of N x M. Currencies are quoted from the pivot side because the API rounds small
+ * prices such as USD in BTC to a few significant digits.
+ *
+ * Each symbol's value in the pivot and the time it was quoted are kept in primitive arrays
+ * indexed by symbol id, so {@link #convert(int, int)} is two reads and a division and
+ * takes no lock. A derived rate is as old as the older of its two legs, see
+ * {@link #ageMillis(int, int)}. Refreshes only fetch the legs that are too old, and
+ * {@link #quote(String, String, double)} updates a single leg, e.g. from a streaming tick.
+ *
+ * Symbols are upper-cased, the way the API answers with them. Rates through the pivot can
+ * differ slightly from the direct price of pairs that do trade.
+ */
+public class CrossRateEngine implements Closeable {
+
+    /**
+     * Logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(CrossRateEngine.class);
+
+    public static final String DEFAULT_PIVOT = "BTC";
+
+    private static final long NEVER = Long.MIN_VALUE;
+
+    private final CryptoCompareApi api;
+
+    private final String pivot;
+
+    /**
+     * Every symbol the engine converts, the pivot first
+     */
+    private final SymbolTable symbols;
+
+    /**
+     * Ids of the coins, quoted against the pivot, and of the currencies, quoted by it
+     */
+    private final int[] coins;
+
+    private final int[] currencies;
+
+    /**
+     * Value of one unit of each symbol in the pivot, as raw double bits
+     */
+    private final AtomicLongArray inPivot;
+
+    /**
+     * When each value was last quoted, epoch millis
+     */
+    private final AtomicLongArray quotedAt;
+
+    private final Map<String, Object> optionalParams;
+
+    private final LongSupplier clock;
+
+    private ScheduledExecutorService scheduler;
+
+    /*************************
+     * Constructors
+     *************************/
+
+    private CrossRateEngine(Builder builder) {
+        this.api = builder.api;
+        this.pivot = builder.pivot;
+        this.optionalParams = builder.optionalParams;
+        this.clock = builder.clock;
+
+        builder.coins.remove(this.pivot);
+        builder.currencies.remove(this.pivot);
+        builder.coins.removeAll(builder.currencies);
+        SymbolTable.Builder symbols = SymbolTable.builder().add(this.pivot, 0, null, 0);
+        for (String coin : builder.coins) {
+            symbols.add(coin, 0, null, 0);
+        }
+        for (String currency : builder.currencies) {
+            symbols.add(currency, 0, null, 0);
+        }
+        this.symbols = symbols.build();
+        this.coins = this.ids(builder.coins);
+        this.currencies = this.ids(builder.currencies);
+
+        this.inPivot = new AtomicLongArray(this.symbols.size());
+        this.quotedAt = new AtomicLongArray(this.symbols.size());
+        for (int id = 1; id < this.symbols.size(); id++) {
+            this.inPivot.set(id, Double.doubleToRawLongBits(Double.NaN));
+            this.quotedAt.set(id, NEVER);
+        }
+        this.inPivot.set(0, Double.doubleToRawLongBits(1));
+        this.quotedAt.set(0, Long.MAX_VALUE);
+    }
+
+    public static Builder builder(CryptoCompareApi api) {
+        return new Builder(api);
+    }
+
+    /**
+     * Id of a symbol, to resolve once and pass to {@link #convert(int, int)}
+     * @param symbol in any case
+     * @return the id, or {@link SymbolTable#NO_SYMBOL} when the engine does not know it
+     */
+    public int id(String symbol) {
+        return this.symbols.id(Symbols.normalize(symbol));
+    }
+
+    public String symbol(int id) {
+        return this.symbols.symbol(id);
+    }
+
+    public String pivot() {
+        return this.pivot;
+    }
+
+    /**
+     * Price of one unit of from in to
+     * @param from symbol id
+     * @param to symbol id
+     * @return the rate, NaN until both legs have been quoted
+     */
+    public double convert(int from, int to) {
+        return Double.longBitsToDouble(this.inPivot.get(from)) / Double.longBitsToDouble(this.inPivot.get(to));
+    }
+
+    /**
+     * Price of one unit of from in to
+     * @param from
+     * @param to
+     * @return the rate, NaN when a symbol is unknown or not quoted yet
+     */
+    public double convert(String from, String to) {
+        int fromId = this.id(from);
+        int toId = this.id(to);
+        return (fromId < 0 || toId < 0) ? Double.NaN : this.convert(fromId, toId);
+    }
+
+    /**
+     * Price of one unit of from in to, if it is recent enough
+     * @param from symbol id
+     * @param to symbol id
+     * @param maxAgeMillis
+     * @return the rate, or NaN when either leg is older than maxAgeMillis
+     */
+    public double convert(int from, int to, long maxAgeMillis) {
+        return (this.ageMillis(from, to) > maxAgeMillis) ? Double.NaN : this.convert(from, to);
+    }
+
+    /**
+     * Age of a derived rate, that of its older leg
+     * @param from symbol id
+     * @param to symbol id
+     * @return millis since the older leg was quoted, Long.MAX_VALUE if one never was
+     */
+    public long ageMillis(int from, int to) {
+        long quotedAt = Math.min(this.quotedAt.get(from), this.quotedAt.get(to));
+        return (quotedAt == NEVER) ? Long.MAX_VALUE : Math.max(0, this.clock.getAsLong() - quotedAt);
+    }
+
+    /**
+     * Set one leg from a price of a symbol in the pivot or of the pivot in a symbol; other
+     * pairs are ignored
+     * @param fsym
+     * @param tsym
+     * @param price
+     * @return whether a leg was updated
+     */
+    public boolean quote(String fsym, String tsym, double price) {
+        if (!(price > 0) || Double.isInfinite(price)) {
+            return false;
+        }
+        fsym = Symbols.normalize(fsym);
+        tsym = Symbols.normalize(tsym);
+        if (this.pivot.equals(tsym)) {
+            int id = this.id(fsym);
+            if (id > 0) {
+                this.set(id, price, this.clock.getAsLong());
+                return true;
+            }
+        } else if (this.pivot.equals(fsym)) {
+            int id = this.id(tsym);
+            if (id > 0) {
+                this.set(id, 1 / price, this.clock.getAsLong());
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Fetch every leg
+     * @return legs updated
+     */
+    public int refresh() {
+        return this.refreshOlderThan(-1);
+    }
+
+    /**
+     * Fetch the legs quoted longer ago than maxAge, or never
+     * @param maxAge
+     * @param unit
+     * @return legs updated
+     */
+    public int refreshStale(long maxAge, TimeUnit unit) {
+        return this.refreshOlderThan(unit.toMillis(maxAge));
+    }
+
+    /**
+     * Keep every leg younger than about maxAge in the background, refreshing the stale
+     * ones twice per maxAge. A failed refresh is logged and retried on the next round.
+     * @param maxAge
+     * @param unit
+     * @return
+     */
+    public synchronized CrossRateEngine start(long maxAge, TimeUnit unit) {
+        if (this.scheduler == null) {
+            long half = Math.max(1, unit.toMillis(maxAge) / 2);
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "cryptocompare-cross-rates");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.scheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    this.refreshStale(half, TimeUnit.MILLISECONDS);
+                } catch (RuntimeException ex) {
+                    logger.warn("Could not refresh cross rates through {}", this.pivot, ex);
+                }
+            }, 0, half, TimeUnit.MILLISECONDS);
+        }
+        return this;
+    }
+
+    /**
+     * Stop refreshing in the background; the rates stay readable
+     */
+    @Override
+    public synchronized void close() {
+        if (this.scheduler != null) {
+            this.scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Fetch the coins, then the currencies, older than the limit; a failed request does not
+     * stop the others
+     * @param maxAgeMillis negative to fetch all
+     * @return legs updated
+     * @throws RuntimeException the first failure, once all requests were tried
+     */
+    private synchronized int refreshOlderThan(long maxAgeMillis) {
+        long now = this.clock.getAsLong();
+        List<String> coins = this.stale(this.coins, now, maxAgeMillis);
+        List<String> currencies = this.stale(this.currencies, now, maxAgeMillis);
+
+        int updated = 0;
+        RuntimeException failure = null;
+        for (List<String> chunk : Symbols.chunk(coins, PriceBatcher.MAX_FSYMS_LENGTH)) {
+            try {
+                PriceMatrix matrix = this.api.priceMultiMatrix(String.join(",", chunk), this.pivot, this.optionalParams);
+                long quotedAt = this.clock.getAsLong();
+                int column = matrix.toIndex(this.pivot);
+                for (int row = 0; row < matrix.rows() && column >= 0; row++) {
+                    double price = matrix.get(row, column);
+                    int id = this.id(matrix.fromSymbol(row));
+                    if (id > 0 && price > 0) {
+                        this.set(id, price, quotedAt);
+                        updated++;
+                    }
+                }
+            } catch (RuntimeException ex) {
+                failure = (failure == null) ? ex : failure;
+            }
+        }
+        for (List<String> chunk : Symbols.chunk(currencies, PriceBatcher.MAX_TSYMS_LENGTH)) {
+            try {
+                PriceMatrix matrix = this.api.priceMultiMatrix(this.pivot, String.join(",", chunk), this.optionalParams);
+                long quotedAt = this.clock.getAsLong();
+                int row = matrix.fromIndex(this.pivot);
+                for (int column = 0; column < matrix.columns() && row >= 0; column++) {
+                    double price = matrix.get(row, column);
+                    int id = this.id(matrix.toSymbol(column));
+                    if (id > 0 && price > 0) {
+                        this.set(id, 1 / price, quotedAt);
+                        updated++;
+                    }
+                }
+            } catch (RuntimeException ex) {
+                failure = (failure == null) ? ex : failure;
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+        return updated;
+    }
+
+    private List<String> stale(int[] ids, long now, long maxAgeMillis) {
+        List<String> stale = new ArrayList<>();
+        for (int id : ids) {
+            long quotedAt = this.quotedAt.get(id);
+            if (maxAgeMillis < 0 || quotedAt == NEVER || now - quotedAt > maxAgeMillis) {
+                stale.add(this.symbols.symbol(id));
+            }
+        }
+        return stale;
+    }
+
+    private void set(int id, double inPivot, long quotedAt) {
+        this.inPivot.set(id, Double.doubleToRawLongBits(inPivot));
+        this.quotedAt.set(id, quotedAt);
+    }
+
+    private int[] ids(Set<String> symbols) {
+        int[] ids = new int[symbols.size()];
+        int i = 0;
+        for (String symbol : symbols) {
+            ids[i++] = this.symbols.id(symbol);
+        }
+        return ids;
+    }
+
+    /**
+     * Configuration for a CrossRateEngine
+     */
+    public static class Builder {
+
+        private final CryptoCompareApi api;
+
+        private String pivot = DEFAULT_PIVOT;
+
+        private final Set<String> coins = new LinkedHashSet<>();
+
+        private final Set<String> currencies = new LinkedHashSet<>();
+
+        private Map<String, Object> optionalParams = Collections.emptyMap();
+
+        private LongSupplier clock = System::currentTimeMillis;
+
+        private Builder(CryptoCompareApi api) {
+            this.api = api;
+        }
+
+        /**
+         * Symbol every rate goes through, {@link #DEFAULT_PIVOT} by default
+         * @param pivot
+         * @return
+         */
+        public Builder pivot(String pivot) {
+            this.pivot = Symbols.normalize(pivot);
+            return this;
+        }
+
+        /**
+         * Symbols quoted against the pivot, typically coins
+         * @param coins
+         * @return
+         */
+        public Builder coins(String... coins) {
+            for (String coin : coins) {
+                this.coins.add(Symbols.normalize(coin));
+            }
+            return this;
+        }
+
+        /**
+         * Symbols the pivot is quoted in, typically fiat currencies
+         * @param currencies
+         * @return
+         */
+        public Builder currencies(String... currencies) {
+            for (String currency : currencies) {
+                this.currencies.add(Symbols.normalize(currency));
+            }
+            return this;
+        }
+
+        /**
+         * Extra parameters sent with every request, e.g. an exchange
+         * @param optionalParams
+         * @return
+         */
+        public Builder optionalParams(Map<String, Object> optionalParams) {
+            this.optionalParams = optionalParams;
+            return this;
+        }
+
+        /**
+         * Source of the current time in epoch millis, for tests
+         * @param clock
+         * @return
+         */
+        Builder clock(LongSupplier clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public CrossRateEngine build() {
+            return new CrossRateEngine(this);
+        }
+    }
+}
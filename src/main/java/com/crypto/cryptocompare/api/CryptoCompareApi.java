@@ -1,13 +1,37 @@
 package com.crypto.cryptocompare.api;
 
-import com.crypto.cryptocompare.utils.ApiUtils;
+import com.crypto.cryptocompare.cache.RequestCoalescer;
+import com.crypto.cryptocompare.cache.RequestKey;
+import com.crypto.cryptocompare.cache.ResponseCache;
+import com.crypto.cryptocompare.json.LazyJsonObject;
+import com.crypto.cryptocompare.metrics.RequestListener;
+import com.crypto.cryptocompare.model.FullPriceMatrix;
+import com.crypto.cryptocompare.model.FullPriceMatrixDecoder;
+import com.crypto.cryptocompare.model.OhlcvSeries;
+import com.crypto.cryptocompare.model.OhlcvSeriesDecoder;
+import com.crypto.cryptocompare.model.PriceMatrix;
+import com.crypto.cryptocompare.model.PriceMatrixDecoder;
+import com.crypto.cryptocompare.model.SymbolTable;
+import com.crypto.cryptocompare.model.SymbolTableDecoder;
+import com.crypto.cryptocompare.ratelimit.RateLimiter;
+import com.crypto.cryptocompare.transport.HttpTransport;
+import com.crypto.cryptocompare.transport.RequestTimings;
+import com.crypto.cryptocompare.transport.ResponseDecoder;
+import com.crypto.cryptocompare.transport.ResponseDecoders;
+import com.crypto.cryptocompare.transport.Transport;
+import com.crypto.cryptocompare.utils.UrlBuilder;
 import com.google.gson.JsonObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
-public class CryptoCompareApi {
+public class CryptoCompareApi implements Closeable {
 
     /**
      * Logger
@@ -17,28 +41,121 @@ public class CryptoCompareApi {
     /**
      * Base Url for CryptoCompare API requests
      */
-    private final String BASE_URL = "https://min-api.cryptocompare.com/data/";
+    public static final String DEFAULT_BASE_URL = "https://min-api.cryptocompare.com/data/";
 
     /**
      * Original Url (soon to be decremented)
      */
-    private final String DEPRECATED_URL = "https://cryptocompare.com/api/data/";
+    public static final String DEFAULT_DEPRECATED_URL = "https://cryptocompare.com/api/data/";
 
+    /**
+     * Carries requests to the API
+     */
+    private final Transport transport;
+
+    /**
+     * Full url of each endpoint, indexed by ordinal
+     */
+    private final String[] endpointUrls;
+
+    /**
+     * Response cache, null when caching is off
+     */
+    private final ResponseCache cache;
+
+    /**
+     * Shares in-flight requests between identical calls, null when off
+     */
+    private final RequestCoalescer coalescer;
+
+    /**
+     * Keeps requests within the API quotas, null when off
+     */
+    private final RateLimiter rateLimiter;
+
+    /**
+     * Told about every call, null when off
+     */
+    private final RequestListener listener;
 
     /*************************
-     * Empty Constructor
+     * Constructors
      *************************/
 
-    public CryptoCompareApi() {}
+    public CryptoCompareApi() {
+        this(builder());
+    }
+
+    public CryptoCompareApi(Transport transport) {
+        this(builder().transport(transport));
+    }
+
+    private CryptoCompareApi(Builder builder) {
+        this.transport = (builder.transport != null) ? builder.transport : new HttpTransport();
+        this.endpointUrls = new String[Endpoint.values().length];
+        for (Endpoint endpoint : Endpoint.values()) {
+            String base = (endpoint.host() == Endpoint.Host.DEPRECATED) ? builder.deprecatedUrl : builder.baseUrl;
+            this.endpointUrls[endpoint.ordinal()] = base + endpoint.path();
+        }
+        this.cache = builder.cache;
+        this.coalescer = builder.coalescer;
+        this.rateLimiter = builder.rateLimiter;
+        this.listener = builder.listener;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Limiter the calls go through, null when off
+     * @return
+     */
+    RateLimiter rateLimiter() {
+        return this.rateLimiter;
+    }
+
+    /**
+     * Requests the transport sends at the same time
+     * @return the limit, or 0 when there is none
+     */
+    int maxConnections() {
+        return this.transport.maxConnections();
+    }
+
+    /**
+     * Release the transport
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        this.transport.close();
+    }
 
     /**
      * Get general info for all the coins available on the website
      * @return
      */
     public JsonObject coinList() {
-        String requestUrl = this.BASE_URL + "all/coinlist";
-        JsonObject response = ApiUtils.getResponseBody(requestUrl);
-        return response;
+        return this.execute(Endpoint.COIN_LIST, this.coinListUrl());
+    }
+
+    /**
+     * Same as {@link #coinList()}, kept as raw bytes with each coin parsed only when it is
+     * first read, for callers that look at a few coins out of thousands
+     * @return
+     */
+    public LazyJsonObject coinListLazy() {
+        return this.execute(Endpoint.COIN_LIST, this.coinListUrl(), ResponseDecoders.LAZY_JSON_OBJECT);
+    }
+
+    /**
+     * Same as {@link #coinList()}, decoded into a SymbolTable of the symbols, ids, names
+     * and sort orders only
+     * @return
+     */
+    public SymbolTable coinListSymbols() {
+        return this.execute(Endpoint.COIN_LIST, this.coinListUrl(), SymbolTableDecoder.INSTANCE);
     }
 
     /**
@@ -47,20 +164,9 @@ public class CryptoCompareApi {
      * @param tsyms to symbols, include multiple symbols
      * @param optionalParams
      * @return
-     * TODO: handle errors/space characters in tsyms
      */
     public JsonObject price(String fsym, String tsyms, Map<String, Object> optionalParams) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(this.BASE_URL)
-                .append("price?fsym=")
-                .append(fsym)
-                .append("&tsyms=")
-                .append(tsyms);
-
-        String requestUrl = ApiUtils.appendOptionalParameters(sb.toString(), optionalParams);
-
-        JsonObject response = ApiUtils.getResponseBody(requestUrl);
-        return response;
+        return this.execute(Endpoint.PRICE, this.priceUrl(fsym, tsyms, optionalParams));
     }
 
     /**
@@ -71,17 +177,18 @@ public class CryptoCompareApi {
      * @return
      */
     public JsonObject priceMulti(String fsyms, String tsyms, Map<String, Object> optionalParams) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(this.BASE_URL)
-                .append("pricemulti?fsyms=")
-                .append(fsyms)
-                .append("&tsyms=")
-                .append(tsyms);
-
-        String requestUrl = ApiUtils.appendOptionalParameters(sb.toString(), optionalParams);
+        return this.execute(Endpoint.PRICE_MULTI, this.priceMultiUrl(fsyms, tsyms, optionalParams));
+    }
 
-        JsonObject response = ApiUtils.getResponseBody(requestUrl);
-        return response;
+    /**
+     * Same as {@link #priceMulti(String, String, Map)}, decoded into a dense matrix
+     * @param fsyms From Symbols, include multiple symbols
+     * @param tsyms To Symbols, include multiple symbols
+     * @param optionalParams
+     * @return
+     */
+    public PriceMatrix priceMultiMatrix(String fsyms, String tsyms, Map<String, Object> optionalParams) {
+        return this.execute(Endpoint.PRICE_MULTI, this.priceMultiUrl(fsyms, tsyms, optionalParams), PriceMatrixDecoder.INSTANCE);
     }
 
 
@@ -96,17 +203,19 @@ public class CryptoCompareApi {
      * @return
      */
     public JsonObject priceMultiFull(String fsyms, String tsyms, Map<String, Object> optionalParams) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(this.BASE_URL)
-                .append("pricemultifull?fsyms=")
-                .append(fsyms)
-                .append("&tsyms=")
-                .append(tsyms);
-
-        String requestUrl = ApiUtils.appendOptionalParameters(sb.toString(), optionalParams);
+        return this.execute(Endpoint.PRICE_MULTI_FULL, this.priceMultiFullUrl(fsyms, tsyms, optionalParams));
+    }
 
-        JsonObject response = ApiUtils.getResponseBody(requestUrl);
-        return response;
+    /**
+     * Same as {@link #priceMultiFull(String, String, Map)}, with the numeric RAW fields
+     * decoded into one dense matrix per field and the DISPLAY section skipped
+     * @param fsyms From Symbol
+     * @param tsyms To Symbols, include multiple symbols
+     * @param optionalParams
+     * @return
+     */
+    public FullPriceMatrix priceMultiFullMatrix(String fsyms, String tsyms, Map<String, Object> optionalParams) {
+        return this.execute(Endpoint.PRICE_MULTI_FULL, this.priceMultiFullUrl(fsyms, tsyms, optionalParams), FullPriceMatrixDecoder.INSTANCE);
     }
 
 
@@ -120,19 +229,7 @@ public class CryptoCompareApi {
      * @return
      */
     public JsonObject generateAvg(String fsym, String tsym, String e, Map<String, Object> optionalParams) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(this.BASE_URL)
-                .append("generateAvg?fsym=")
-                .append(fsym)
-                .append("&tsym=")
-                .append(tsym)
-                .append("&e=")
-                .append(e);
-
-        String requestUrl = ApiUtils.appendOptionalParameters(sb.toString(), optionalParams);
-
-        JsonObject response = ApiUtils.getResponseBody(requestUrl);
-        return response;
+        return this.execute(Endpoint.GENERATE_AVG, this.generateAvgUrl(fsym, tsym, e, optionalParams));
     }
 
     /**
@@ -151,17 +248,7 @@ public class CryptoCompareApi {
      * @return
      */
     public JsonObject dayAvg(String fsym, String tsym, Map<String, Object> optionalParams) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(this.BASE_URL)
-                .append("dayAvg?fsym=")
-                .append(fsym)
-                .append("&tsym=")
-                .append(tsym);
-
-        String requestUrl = ApiUtils.appendOptionalParameters(sb.toString(), optionalParams);
-
-        JsonObject response = ApiUtils.getResponseBody(requestUrl);
-        return response;
+        return this.execute(Endpoint.DAY_AVG, this.dayAvgUrl(fsym, tsym, optionalParams));
     }
 
 
@@ -178,17 +265,7 @@ public class CryptoCompareApi {
      * @return
      */
     public JsonObject priceHistorical(String fsym, String tsyms, Map<String, Object> optionalParams) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(this.BASE_URL)
-                .append("pricehistorical?fsym=")
-                .append(fsym)
-                .append("&tsyms=")
-                .append(tsyms);
-
-        String requestUrl = ApiUtils.appendOptionalParameters(sb.toString(), optionalParams);
-
-        JsonObject response = ApiUtils.getResponseBody(requestUrl);
-        return response;
+        return this.execute(Endpoint.PRICE_HISTORICAL, this.priceHistoricalUrl(fsym, tsyms, optionalParams));
     }
 
 
@@ -201,15 +278,7 @@ public class CryptoCompareApi {
      * @return
      */
     public JsonObject coinSnapshot(String fsym, String tsym) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(this.DEPRECATED_URL)
-                .append("coinsnapshot?fsym=")
-                .append(fsym)
-                .append("&tsym=")
-                .append(tsym);
-
-        JsonObject response = ApiUtils.getResponseBody(sb.toString());
-        return response;
+        return this.execute(Endpoint.COIN_SNAPSHOT, this.coinSnapshotUrl(fsym, tsym));
     }
 
     /**
@@ -220,13 +289,7 @@ public class CryptoCompareApi {
      * @return
      */
     public JsonObject coinSnapshotFullById(Integer id) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(this.DEPRECATED_URL)
-                .append("coinsnapshotfullbyid?id=")
-                .append(id.toString());
-
-        JsonObject response = ApiUtils.getResponseBody(sb.toString());
-        return response;
+        return this.execute(Endpoint.COIN_SNAPSHOT_FULL_BY_ID, this.coinSnapshotFullByIdUrl(id));
     }
 
     /**
@@ -237,13 +300,7 @@ public class CryptoCompareApi {
      * @return
      */
     public JsonObject socialStats(Integer id) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(this.DEPRECATED_URL)
-                .append("socialstats?id=")
-                .append(id.toString());
-
-        JsonObject response = ApiUtils.getResponseBody(sb.toString());
-        return response;
+        return this.execute(Endpoint.SOCIAL_STATS, this.socialStatsUrl(id));
     }
 
     /**
@@ -257,17 +314,18 @@ public class CryptoCompareApi {
      * @return
      */
     public JsonObject histoMinute(String fsym, String tsym, Map<String, Object> optionalParams) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(this.BASE_URL)
-                .append("histominute?fsym=")
-                .append(fsym)
-                .append("&tsym=")
-                .append(tsym);
-
-        String requestUrl = ApiUtils.appendOptionalParameters(sb.toString(), optionalParams);
+        return this.execute(Endpoint.HISTO_MINUTE, this.histoMinuteUrl(fsym, tsym, optionalParams));
+    }
 
-        JsonObject response = ApiUtils.getResponseBody(requestUrl);
-        return response;
+    /**
+     * Same as {@link #histoMinute(String, String, Map)}, decoded into primitive columns
+     * @param fsym From Symbol
+     * @param tsym To Symbols
+     * @param optionalParams
+     * @return
+     */
+    public OhlcvSeries histoMinuteSeries(String fsym, String tsym, Map<String, Object> optionalParams) {
+        return this.execute(Endpoint.HISTO_MINUTE, this.histoMinuteUrl(fsym, tsym, optionalParams), OhlcvSeriesDecoder.INSTANCE);
     }
 
 
@@ -281,17 +339,18 @@ public class CryptoCompareApi {
      * @return
      */
     public JsonObject histoHour(String fsym, String tsym, Map<String, Object> optionalParams) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(this.BASE_URL)
-                .append("histohour?fsym=")
-                .append(fsym)
-                .append("&tsym=")
-                .append(tsym);
-
-        String requestUrl = ApiUtils.appendOptionalParameters(sb.toString(), optionalParams);
+        return this.execute(Endpoint.HISTO_HOUR, this.histoHourUrl(fsym, tsym, optionalParams));
+    }
 
-        JsonObject response = ApiUtils.getResponseBody(requestUrl);
-        return response;
+    /**
+     * Same as {@link #histoHour(String, String, Map)}, decoded into primitive columns
+     * @param fsym From Symbol
+     * @param tsym To Symbols
+     * @param optionalParams
+     * @return
+     */
+    public OhlcvSeries histoHourSeries(String fsym, String tsym, Map<String, Object> optionalParams) {
+        return this.execute(Endpoint.HISTO_HOUR, this.histoHourUrl(fsym, tsym, optionalParams), OhlcvSeriesDecoder.INSTANCE);
     }
 
 
@@ -305,17 +364,18 @@ public class CryptoCompareApi {
      * @return
      */
     public JsonObject histoDay(String fsym, String tsym, Map<String, Object> optionalParams) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(this.BASE_URL)
-                .append("histoday?fsym=")
-                .append(fsym)
-                .append("&tsym=")
-                .append(tsym);
-
-        String requestUrl = ApiUtils.appendOptionalParameters(sb.toString(), optionalParams);
+        return this.execute(Endpoint.HISTO_DAY, this.histoDayUrl(fsym, tsym, optionalParams));
+    }
 
-        JsonObject response = ApiUtils.getResponseBody(requestUrl);
-        return response;
+    /**
+     * Same as {@link #histoDay(String, String, Map)}, decoded into primitive columns
+     * @param fsym From Symbol
+     * @param tsym To Symbols
+     * @param optionalParams
+     * @return
+     */
+    public OhlcvSeries histoDaySeries(String fsym, String tsym, Map<String, Object> optionalParams) {
+        return this.execute(Endpoint.HISTO_DAY, this.histoDayUrl(fsym, tsym, optionalParams), OhlcvSeriesDecoder.INSTANCE);
     }
 
 
@@ -325,12 +385,15 @@ public class CryptoCompareApi {
      * @return
      */
     public JsonObject miningEquipment() {
-        StringBuilder sb = new StringBuilder();
-        sb.append(this.DEPRECATED_URL)
-                .append("miningequipment");
+        return this.execute(Endpoint.MINING_EQUIPMENT, this.miningEquipmentUrl());
+    }
 
-        JsonObject response = ApiUtils.getResponseBody(sb.toString());
-        return response;
+    /**
+     * Same as {@link #miningEquipment()}, kept as raw bytes and parsed as it is read
+     * @return
+     */
+    public LazyJsonObject miningEquipmentLazy() {
+        return this.execute(Endpoint.MINING_EQUIPMENT, this.miningEquipmentUrl(), ResponseDecoders.LAZY_JSON_OBJECT);
     }
 
 
@@ -343,15 +406,362 @@ public class CryptoCompareApi {
      * @return
      */
     public JsonObject topPairs(String fsym, Map<String, Object> optionalParams) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(this.BASE_URL)
-                .append("top/pairs?fsym=")
-                .append(fsym);
+        return this.execute(Endpoint.TOP_PAIRS, this.topPairsUrl(fsym, optionalParams));
+    }
+
+    /*************************
+     * Request urls, shared with CryptoCompareAsyncApi
+     *************************/
 
-        String requestUrl = ApiUtils.appendOptionalParameters(sb.toString(), optionalParams);
+    String coinListUrl() {
+        return this.urlOf(Endpoint.COIN_LIST);
+    }
+
+    String priceUrl(String fsym, String tsyms, Map<String, Object> optionalParams) {
+        return this.url(Endpoint.PRICE)
+                .param("fsym", fsym)
+                .param("tsyms", tsyms)
+                .params(optionalParams)
+                .build();
+    }
+
+    String priceMultiUrl(String fsyms, String tsyms, Map<String, Object> optionalParams) {
+        return this.url(Endpoint.PRICE_MULTI)
+                .param("fsyms", fsyms)
+                .param("tsyms", tsyms)
+                .params(optionalParams)
+                .build();
+    }
+
+    String priceMultiFullUrl(String fsyms, String tsyms, Map<String, Object> optionalParams) {
+        return this.url(Endpoint.PRICE_MULTI_FULL)
+                .param("fsyms", fsyms)
+                .param("tsyms", tsyms)
+                .params(optionalParams)
+                .build();
+    }
+
+    String generateAvgUrl(String fsym, String tsym, String e, Map<String, Object> optionalParams) {
+        return this.url(Endpoint.GENERATE_AVG)
+                .param("fsym", fsym)
+                .param("tsym", tsym)
+                .param("e", e)
+                .params(optionalParams)
+                .build();
+    }
+
+    String dayAvgUrl(String fsym, String tsym, Map<String, Object> optionalParams) {
+        return this.url(Endpoint.DAY_AVG)
+                .param("fsym", fsym)
+                .param("tsym", tsym)
+                .params(optionalParams)
+                .build();
+    }
+
+    String priceHistoricalUrl(String fsym, String tsyms, Map<String, Object> optionalParams) {
+        return this.url(Endpoint.PRICE_HISTORICAL)
+                .param("fsym", fsym)
+                .param("tsyms", tsyms)
+                .params(optionalParams)
+                .build();
+    }
+
+    String coinSnapshotUrl(String fsym, String tsym) {
+        return this.url(Endpoint.COIN_SNAPSHOT)
+                .param("fsym", fsym)
+                .param("tsym", tsym)
+                .build();
+    }
+
+    String coinSnapshotFullByIdUrl(Integer id) {
+        return this.url(Endpoint.COIN_SNAPSHOT_FULL_BY_ID)
+                .param("id", id)
+                .build();
+    }
+
+    String socialStatsUrl(Integer id) {
+        return this.url(Endpoint.SOCIAL_STATS)
+                .param("id", id)
+                .build();
+    }
+
+    String histoMinuteUrl(String fsym, String tsym, Map<String, Object> optionalParams) {
+        return this.url(Endpoint.HISTO_MINUTE)
+                .param("fsym", fsym)
+                .param("tsym", tsym)
+                .params(optionalParams)
+                .build();
+    }
+
+    String histoHourUrl(String fsym, String tsym, Map<String, Object> optionalParams) {
+        return this.url(Endpoint.HISTO_HOUR)
+                .param("fsym", fsym)
+                .param("tsym", tsym)
+                .params(optionalParams)
+                .build();
+    }
 
-        JsonObject response = ApiUtils.getResponseBody(requestUrl);
+    String histoDayUrl(String fsym, String tsym, Map<String, Object> optionalParams) {
+        return this.url(Endpoint.HISTO_DAY)
+                .param("fsym", fsym)
+                .param("tsym", tsym)
+                .params(optionalParams)
+                .build();
+    }
+
+    String miningEquipmentUrl() {
+        return this.urlOf(Endpoint.MINING_EQUIPMENT);
+    }
+
+    String topPairsUrl(String fsym, Map<String, Object> optionalParams) {
+        return this.url(Endpoint.TOP_PAIRS)
+                .param("fsym", fsym)
+                .params(optionalParams)
+                .build();
+    }
+
+    /**
+     * Url of an endpoint, resolved once against the base url of its host
+     * @param endpoint
+     * @return
+     */
+    private String urlOf(Endpoint endpoint) {
+        return this.endpointUrls[endpoint.ordinal()];
+    }
+
+    private UrlBuilder url(Endpoint endpoint) {
+        return UrlBuilder.of(this.urlOf(endpoint));
+    }
+
+    /**
+     * Send the request through the transport and parse the response
+     * @param endpoint
+     * @param requestUrl
+     * @return
+     */
+    JsonObject execute(Endpoint endpoint, String requestUrl) {
+        return this.execute(endpoint, requestUrl, ResponseDecoders.JSON_OBJECT);
+    }
+
+    /**
+     * Answer from the cache when possible, join an identical request already in flight,
+     * and otherwise send the request through the transport and decode the response
+     * @param endpoint
+     * @param requestUrl
+     * @param decoder
+     * @param <T>
+     * @return
+     */
+    <T> T execute(Endpoint endpoint, String requestUrl, ResponseDecoder<T> decoder) {
+        if (this.cache == null && this.coalescer == null) {
+            return this.fetch(endpoint, requestUrl, decoder, false);
+        }
+
+        RequestKey key = new RequestKey(endpoint, requestUrl, decoder);
+        T cached = this.cached(key);
+        return (cached != null) ? cached : this.load(key, requestUrl, decoder, false);
+    }
+
+    /**
+     * Same as execute, but waits for the rate limiter without holding a thread: the
+     * request is handed to the executor once its permit is granted
+     * @param endpoint
+     * @param requestUrl
+     * @param decoder
+     * @param executor runs the request
+     * @param <T>
+     * @return
+     */
+    <T> CompletableFuture<T> executeAsync(Endpoint endpoint, String requestUrl, ResponseDecoder<T> decoder, Executor executor) {
+        if (this.rateLimiter == null) {
+            return CompletableFuture.supplyAsync(() -> this.execute(endpoint, requestUrl, decoder), executor);
+        }
+
+        RequestKey key = new RequestKey(endpoint, requestUrl, decoder);
+        T cached = this.cached(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return this.rateLimiter.acquireAsync(endpoint.host())
+                .thenApplyAsync(permit -> this.load(key, requestUrl, decoder, true), executor);
+    }
+
+    private <T> T cached(RequestKey key) {
+        T cached = (this.cache != null) ? this.cache.<T>get(key) : null;
+        if (cached != null && this.listener != null) {
+            this.listener.onCacheHit(key.endpoint());
+        }
+        return cached;
+    }
+
+    /**
+     * Fetch a response, through the coalescer when there is one, and cache it
+     * @param key
+     * @param requestUrl
+     * @param decoder
+     * @param permitHeld whether a rate limit permit was already taken for the request
+     * @param <T>
+     * @return
+     */
+    private <T> T load(RequestKey key, String requestUrl, ResponseDecoder<T> decoder, boolean permitHeld) {
+        if (this.coalescer != null) {
+            return this.coalescer.execute(key, () -> this.fetchAndCache(key, requestUrl, decoder, permitHeld));
+        }
+        return this.fetchAndCache(key, requestUrl, decoder, permitHeld);
+    }
+
+    private <T> T fetchAndCache(RequestKey key, String requestUrl, ResponseDecoder<T> decoder, boolean permitHeld) {
+        T response = this.fetch(key.endpoint(), requestUrl, decoder, permitHeld);
+        if (this.cache != null && !ResponseDecoders.isErrorResponse(response)) {
+            this.cache.put(key, response);
+        }
         return response;
     }
 
-}
+    /**
+     * Send the request, taking a rate limit permit first unless one is already held
+     * @param endpoint
+     * @param requestUrl
+     * @param decoder
+     * @param permitHeld
+     * @param <T>
+     * @return
+     */
+    private <T> T fetch(Endpoint endpoint, String requestUrl, ResponseDecoder<T> decoder, boolean permitHeld) {
+        RequestTimings timings = (this.listener != null) ? RequestTimings.start() : null;
+        long start = System.nanoTime();
+        if (this.rateLimiter != null && !permitHeld) {
+            this.rateLimiter.acquire(endpoint.host());
+            if (timings != null) {
+                timings.recordThrottle(System.nanoTime() - start);
+            }
+        }
+
+        try {
+            T response = this.transport.get(requestUrl, decoder);
+            if (timings != null) {
+                timings.stop(System.nanoTime() - start);
+                this.listener.onResponse(endpoint, timings);
+            }
+            return response;
+        } catch (IOException ex) {
+            this.notifyError(endpoint, timings, start, ex);
+            logger.error("Error getting response body for {}", requestUrl);
+            throw new UncheckedIOException(ex);
+        } catch (RuntimeException ex) {
+            this.notifyError(endpoint, timings, start, ex);
+            throw ex;
+        }
+    }
+
+    private void notifyError(Endpoint endpoint, RequestTimings timings, long start, Exception error) {
+        if (timings != null) {
+            timings.stop(System.nanoTime() - start);
+            this.listener.onError(endpoint, timings, error);
+        }
+    }
+
+    /**
+     * Configuration for a CryptoCompareApi
+     */
+    public static class Builder {
+
+        private Transport transport;
+
+        private String baseUrl = DEFAULT_BASE_URL;
+
+        private String deprecatedUrl = DEFAULT_DEPRECATED_URL;
+
+        private ResponseCache cache;
+
+        private RequestCoalescer coalescer;
+
+        private RateLimiter rateLimiter = RateLimiter.defaults();
+
+        private RequestListener listener;
+
+        private Builder() {}
+
+        /**
+         * Transport used for every request, an HttpTransport with default settings otherwise
+         * @param transport
+         * @return
+         */
+        public Builder transport(Transport transport) {
+            this.transport = transport;
+            return this;
+        }
+
+        /**
+         * Url the min-api endpoints are resolved against, e.g. a local stub server
+         * @param baseUrl
+         * @return
+         */
+        public Builder baseUrl(String baseUrl) {
+            this.baseUrl = withTrailingSlash(baseUrl);
+            return this;
+        }
+
+        /**
+         * Url the deprecated endpoints (coin snapshots, social stats, mining equipment) are resolved against
+         * @param deprecatedUrl
+         * @return
+         */
+        public Builder deprecatedUrl(String deprecatedUrl) {
+            this.deprecatedUrl = withTrailingSlash(deprecatedUrl);
+            return this;
+        }
+
+        /**
+         * Cache responses in process; cached values are shared between callers and must
+         * not be modified
+         * @param cache
+         * @return
+         */
+        public Builder cache(ResponseCache cache) {
+            this.cache = cache;
+            return this;
+        }
+
+        /**
+         * Let concurrent identical requests share one HTTP exchange and one parsed
+         * response, which must then not be modified
+         * @param coalescer
+         * @return
+         */
+        public Builder coalescer(RequestCoalescer coalescer) {
+            this.coalescer = coalescer;
+            return this;
+        }
+
+        /**
+         * Limiter every request to the API goes through, {@link RateLimiter#defaults()}
+         * unless set; null turns rate limiting off
+         * @param rateLimiter
+         * @return
+         */
+        public Builder rateLimiter(RateLimiter rateLimiter) {
+            this.rateLimiter = rateLimiter;
+            return this;
+        }
+
+        /**
+         * Listener told about every call, e.g. a MetricsRecorder
+         * @param listener
+         * @return
+         */
+        public Builder listener(RequestListener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        public CryptoCompareApi build() {
+            return new CryptoCompareApi(this);
+        }
+
+        private static String withTrailingSlash(String url) {
+            return url.endsWith("/") ? url : url + "/";
+        }
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,304 @@
+package com.crypto.cryptocompare.api;
+
+import com.crypto.cryptocompare.json.LazyJsonObject;
+import com.crypto.cryptocompare.model.FullPriceMatrix;
+import com.crypto.cryptocompare.model.FullPriceMatrixDecoder;
+import com.crypto.cryptocompare.model.OhlcvSeries;
+import com.crypto.cryptocompare.model.OhlcvSeriesDecoder;
+import com.crypto.cryptocompare.model.PriceMatrix;
+import com.crypto.cryptocompare.model.PriceMatrixDecoder;
+import com.crypto.cryptocompare.model.SymbolTable;
+import com.crypto.cryptocompare.model.SymbolTableDecoder;
+import com.crypto.cryptocompare.transport.ResponseDecoder;
+import com.crypto.cryptocompare.transport.ResponseDecoders;
+import com.google.gson.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking counterpart of CryptoCompareApi. Each call returns immediately with a
+ * future completed on the executor once the response has been parsed. When no executor
+ * is supplied, a virtual thread per task is used on Java 21+ and on older runtimes a
+ * pool of daemon threads as large as the transport's connection limit.
+ */
+public class CryptoCompareAsyncApi implements Closeable {
+
+    /**
+     * Logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(CryptoCompareAsyncApi.class);
+
+    /**
+     * Synchronous client that builds the urls and performs the requests
+     */
+    private final CryptoCompareApi api;
+
+    /**
+     * Name of the threads of the default pool, followed by a counter
+     */
+    static final String THREAD_NAME_PREFIX = "cryptocompare-async-";
+
+    private final Executor executor;
+
+    /**
+     * Whether the executor was created here and must be shut down on close
+     */
+    private final boolean ownsExecutor;
+
+
+    /*************************
+     * Constructors
+     *************************/
+
+    public CryptoCompareAsyncApi() {
+        this(new CryptoCompareApi());
+    }
+
+    public CryptoCompareAsyncApi(CryptoCompareApi api) {
+        this(api, defaultExecutor(api.maxConnections()), true);
+    }
+
+    /**
+     * @param api client used for the requests
+     * @param executor runs the requests; left running on close
+     */
+    public CryptoCompareAsyncApi(CryptoCompareApi api, Executor executor) {
+        this(api, executor, false);
+    }
+
+    private CryptoCompareAsyncApi(CryptoCompareApi api, Executor executor, boolean ownsExecutor) {
+        this.api = api;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    /**
+     * Shut down the executor if it was created by this client, then close the underlying client
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.ownsExecutor) {
+            ((ExecutorService) this.executor).shutdown();
+        }
+        this.api.close();
+    }
+
+    /**
+     * @see CryptoCompareApi#coinList()
+     */
+    public CompletableFuture<JsonObject> coinList() {
+        return this.submit(Endpoint.COIN_LIST, this.api.coinListUrl());
+    }
+
+    /**
+     * @see CryptoCompareApi#coinListLazy()
+     */
+    public CompletableFuture<LazyJsonObject> coinListLazy() {
+        return this.submit(Endpoint.COIN_LIST, this.api.coinListUrl(), ResponseDecoders.LAZY_JSON_OBJECT);
+    }
+
+    /**
+     * @see CryptoCompareApi#coinListSymbols()
+     */
+    public CompletableFuture<SymbolTable> coinListSymbols() {
+        return this.submit(Endpoint.COIN_LIST, this.api.coinListUrl(), SymbolTableDecoder.INSTANCE);
+    }
+
+    /**
+     * @see CryptoCompareApi#price(String, String, Map)
+     */
+    public CompletableFuture<JsonObject> price(String fsym, String tsyms, Map<String, Object> optionalParams) {
+        return this.submit(Endpoint.PRICE, this.api.priceUrl(fsym, tsyms, optionalParams));
+    }
+
+    /**
+     * @see CryptoCompareApi#priceMulti(String, String, Map)
+     */
+    public CompletableFuture<JsonObject> priceMulti(String fsyms, String tsyms, Map<String, Object> optionalParams) {
+        return this.submit(Endpoint.PRICE_MULTI, this.api.priceMultiUrl(fsyms, tsyms, optionalParams));
+    }
+
+    /**
+     * @see CryptoCompareApi#priceMultiMatrix(String, String, Map)
+     */
+    public CompletableFuture<PriceMatrix> priceMultiMatrix(String fsyms, String tsyms, Map<String, Object> optionalParams) {
+        return this.submit(Endpoint.PRICE_MULTI, this.api.priceMultiUrl(fsyms, tsyms, optionalParams), PriceMatrixDecoder.INSTANCE);
+    }
+
+    /**
+     * @see CryptoCompareApi#priceMultiFull(String, String, Map)
+     */
+    public CompletableFuture<JsonObject> priceMultiFull(String fsyms, String tsyms, Map<String, Object> optionalParams) {
+        return this.submit(Endpoint.PRICE_MULTI_FULL, this.api.priceMultiFullUrl(fsyms, tsyms, optionalParams));
+    }
+
+    /**
+     * @see CryptoCompareApi#priceMultiFullMatrix(String, String, Map)
+     */
+    public CompletableFuture<FullPriceMatrix> priceMultiFullMatrix(String fsyms, String tsyms, Map<String, Object> optionalParams) {
+        return this.submit(Endpoint.PRICE_MULTI_FULL, this.api.priceMultiFullUrl(fsyms, tsyms, optionalParams), FullPriceMatrixDecoder.INSTANCE);
+    }
+
+    /**
+     * @see CryptoCompareApi#generateAvg(String, String, String, Map)
+     */
+    public CompletableFuture<JsonObject> generateAvg(String fsym, String tsym, String e, Map<String, Object> optionalParams) {
+        return this.submit(Endpoint.GENERATE_AVG, this.api.generateAvgUrl(fsym, tsym, e, optionalParams));
+    }
+
+    /**
+     * @see CryptoCompareApi#dayAvg(String, String, Map)
+     */
+    public CompletableFuture<JsonObject> dayAvg(String fsym, String tsym, Map<String, Object> optionalParams) {
+        return this.submit(Endpoint.DAY_AVG, this.api.dayAvgUrl(fsym, tsym, optionalParams));
+    }
+
+    /**
+     * @see CryptoCompareApi#priceHistorical(String, String, Map)
+     */
+    public CompletableFuture<JsonObject> priceHistorical(String fsym, String tsyms, Map<String, Object> optionalParams) {
+        return this.submit(Endpoint.PRICE_HISTORICAL, this.api.priceHistoricalUrl(fsym, tsyms, optionalParams));
+    }
+
+    /**
+     * @see CryptoCompareApi#coinSnapshot(String, String)
+     */
+    public CompletableFuture<JsonObject> coinSnapshot(String fsym, String tsym) {
+        return this.submit(Endpoint.COIN_SNAPSHOT, this.api.coinSnapshotUrl(fsym, tsym));
+    }
+
+    /**
+     * @see CryptoCompareApi#coinSnapshotFullById(Integer)
+     */
+    public CompletableFuture<JsonObject> coinSnapshotFullById(Integer id) {
+        return this.submit(Endpoint.COIN_SNAPSHOT_FULL_BY_ID, this.api.coinSnapshotFullByIdUrl(id));
+    }
+
+    /**
+     * @see CryptoCompareApi#socialStats(Integer)
+     */
+    public CompletableFuture<JsonObject> socialStats(Integer id) {
+        return this.submit(Endpoint.SOCIAL_STATS, this.api.socialStatsUrl(id));
+    }
+
+    /**
+     * @see CryptoCompareApi#histoMinute(String, String, Map)
+     */
+    public CompletableFuture<JsonObject> histoMinute(String fsym, String tsym, Map<String, Object> optionalParams) {
+        return this.submit(Endpoint.HISTO_MINUTE, this.api.histoMinuteUrl(fsym, tsym, optionalParams));
+    }
+
+    /**
+     * @see CryptoCompareApi#histoMinuteSeries(String, String, Map)
+     */
+    public CompletableFuture<OhlcvSeries> histoMinuteSeries(String fsym, String tsym, Map<String, Object> optionalParams) {
+        return this.submit(Endpoint.HISTO_MINUTE, this.api.histoMinuteUrl(fsym, tsym, optionalParams), OhlcvSeriesDecoder.INSTANCE);
+    }
+
+    /**
+     * @see CryptoCompareApi#histoHour(String, String, Map)
+     */
+    public CompletableFuture<JsonObject> histoHour(String fsym, String tsym, Map<String, Object> optionalParams) {
+        return this.submit(Endpoint.HISTO_HOUR, this.api.histoHourUrl(fsym, tsym, optionalParams));
+    }
+
+    /**
+     * @see CryptoCompareApi#histoHourSeries(String, String, Map)
+     */
+    public CompletableFuture<OhlcvSeries> histoHourSeries(String fsym, String tsym, Map<String, Object> optionalParams) {
+        return this.submit(Endpoint.HISTO_HOUR, this.api.histoHourUrl(fsym, tsym, optionalParams), OhlcvSeriesDecoder.INSTANCE);
+    }
+
+    /**
+     * @see CryptoCompareApi#histoDay(String, String, Map)
+     */
+    public CompletableFuture<JsonObject> histoDay(String fsym, String tsym, Map<String, Object> optionalParams) {
+        return this.submit(Endpoint.HISTO_DAY, this.api.histoDayUrl(fsym, tsym, optionalParams));
+    }
+
+    /**
+     * @see CryptoCompareApi#histoDaySeries(String, String, Map)
+     */
+    public CompletableFuture<OhlcvSeries> histoDaySeries(String fsym, String tsym, Map<String, Object> optionalParams) {
+        return this.submit(Endpoint.HISTO_DAY, this.api.histoDayUrl(fsym, tsym, optionalParams), OhlcvSeriesDecoder.INSTANCE);
+    }
+
+    /**
+     * @see CryptoCompareApi#miningEquipment()
+     */
+    public CompletableFuture<JsonObject> miningEquipment() {
+        return this.submit(Endpoint.MINING_EQUIPMENT, this.api.miningEquipmentUrl());
+    }
+
+    /**
+     * @see CryptoCompareApi#miningEquipmentLazy()
+     */
+    public CompletableFuture<LazyJsonObject> miningEquipmentLazy() {
+        return this.submit(Endpoint.MINING_EQUIPMENT, this.api.miningEquipmentUrl(), ResponseDecoders.LAZY_JSON_OBJECT);
+    }
+
+    /**
+     * @see CryptoCompareApi#topPairs(String, Map)
+     */
+    public CompletableFuture<JsonObject> topPairs(String fsym, Map<String, Object> optionalParams) {
+        return this.submit(Endpoint.TOP_PAIRS, this.api.topPairsUrl(fsym, optionalParams));
+    }
+
+    /**
+     * Run the request on the executor once the rate limiter lets it through
+     * @param endpoint
+     * @param requestUrl
+     * @return
+     */
+    private CompletableFuture<JsonObject> submit(Endpoint endpoint, String requestUrl) {
+        return this.submit(endpoint, requestUrl, ResponseDecoders.JSON_OBJECT);
+    }
+
+    private <T> CompletableFuture<T> submit(Endpoint endpoint, String requestUrl, ResponseDecoder<T> decoder) {
+        return this.api.executeAsync(endpoint, requestUrl, decoder, this.executor);
+    }
+
+    /**
+     * A virtual thread per task when the runtime has them (Java 21+), otherwise a pool of
+     * daemon threads no larger than the transport's connection limit, with the requests
+     * beyond it queued rather than each parking a thread on the transport. Looked up
+     * reflectively so the library still targets Java 8.
+     * @param maxConnections requests the transport sends at the same time, 0 for no limit
+     * @return
+     */
+    static ExecutorService defaultExecutor(int maxConnections) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            logger.debug("Virtual threads unavailable, using a platform thread pool");
+        }
+
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        int threads = (maxConnections > 0) ? maxConnections : Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), threadFactory);
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
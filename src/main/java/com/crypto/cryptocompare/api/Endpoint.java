@@ -0,0 +1,75 @@
+package com.crypto.cryptocompare.api;
+
+/**
+ * Endpoints of the CryptoCompare API, with the path each one is served under
+ */
+public enum Endpoint {
+    COIN_LIST("all/coinlist", Host.MIN_API),
+    PRICE("price", Host.MIN_API),
+    PRICE_MULTI("pricemulti", Host.MIN_API),
+    PRICE_MULTI_FULL("pricemultifull", Host.MIN_API),
+    GENERATE_AVG("generateAvg", Host.MIN_API),
+    DAY_AVG("dayAvg", Host.MIN_API),
+    PRICE_HISTORICAL("pricehistorical", Host.MIN_API),
+    COIN_SNAPSHOT("coinsnapshot", Host.DEPRECATED),
+    COIN_SNAPSHOT_FULL_BY_ID("coinsnapshotfullbyid", Host.DEPRECATED),
+    SOCIAL_STATS("socialstats", Host.DEPRECATED),
+    HISTO_MINUTE("histominute", Host.MIN_API),
+    HISTO_HOUR("histohour", Host.MIN_API),
+    HISTO_DAY("histoday", Host.MIN_API),
+    MINING_EQUIPMENT("miningequipment", Host.DEPRECATED),
+    TOP_PAIRS("top/pairs", Host.MIN_API);
+
+    /**
+     * Which of the two API hosts serves an endpoint
+     */
+    public enum Host {
+        /**
+         * min-api.cryptocompare.com/data/
+         */
+        MIN_API,
+        /**
+         * cryptocompare.com/api/data/, soon to be retired
+         */
+        DEPRECATED
+    }
+
+    private final String path;
+
+    private final Host host;
+
+    Endpoint(String path, Host host) {
+        this.path = path;
+        this.host = host;
+    }
+
+    /**
+     * Host serving a request url, found from the endpoint path at its end so that custom
+     * base urls are recognised too
+     * @param url
+     * @return the host, MIN_API when the path is not one of the endpoints
+     */
+    public static Host hostOf(String url) {
+        int query = url.indexOf('?');
+        int end = (query < 0) ? url.length() : query;
+        for (Endpoint endpoint : values()) {
+            int start = end - endpoint.path.length();
+            if (start > 0 && url.charAt(start - 1) == '/' && url.startsWith(endpoint.path, start)) {
+                return endpoint.host;
+            }
+        }
+        return Host.MIN_API;
+    }
+
+    /**
+     * Path relative to the host's base url
+     * @return
+     */
+    public String path() {
+        return this.path;
+    }
+
+    public Host host() {
+        return this.host;
+    }
+}
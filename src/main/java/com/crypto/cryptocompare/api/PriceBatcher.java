@@ -0,0 +1,342 @@
+package com.crypto.cryptocompare.api;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects {@code price} requests over a short window and sends them as one
+ * {@code pricemulti} request, then hands each caller the slice of the matrix it asked
+ * for, in the same shape {@link CryptoCompareApi#price(String, String, Map)} returns.
+ * Requests are only batched together when their optional parameters match. A batch is
+ * sent when the window closes, when it holds the maximum number of from symbols, or
+ * when adding a request would push {@code fsyms} or {@code tsyms} past the API limits.
+ */
+public class PriceBatcher implements Closeable {
+
+    /**
+     * Longest comma separated fsyms value pricemulti accepts
+     */
+    public static final int MAX_FSYMS_LENGTH = 300;
+
+    /**
+     * Longest comma separated tsyms value pricemulti accepts
+     */
+    public static final int MAX_TSYMS_LENGTH = 100;
+
+    private final CryptoCompareApi api;
+
+    private final long windowNanos;
+
+    private final int maxBatchSize;
+
+    /**
+     * Runs the pricemulti requests
+     */
+    private final Executor executor;
+
+    private final ExecutorService ownedExecutor;
+
+    /**
+     * Closes batches when their window runs out
+     */
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Open batches keyed by their optional parameters
+     */
+    private final Map<String, Batch> openBatches = new HashMap<>();
+
+    private boolean closed;
+
+    /*************************
+     * Constructors
+     *************************/
+
+    /**
+     * @param api client the pricemulti requests go through
+     * @param window how long a batch stays open after its first request
+     * @param unit
+     * @param maxBatchSize from symbols per batch
+     */
+    public PriceBatcher(CryptoCompareApi api, long window, TimeUnit unit, int maxBatchSize) {
+        this(api, window, unit, maxBatchSize, null);
+    }
+
+    /**
+     * @param api client the pricemulti requests go through
+     * @param window how long a batch stays open after its first request
+     * @param unit
+     * @param maxBatchSize from symbols per batch
+     * @param executor runs the requests; left running on close
+     */
+    public PriceBatcher(CryptoCompareApi api, long window, TimeUnit unit, int maxBatchSize, Executor executor) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be positive");
+        }
+        this.api = api;
+        this.windowNanos = unit.toNanos(window);
+        this.maxBatchSize = maxBatchSize;
+        this.ownedExecutor = (executor == null) ? CryptoCompareAsyncApi.defaultExecutor(api.maxConnections()) : null;
+        this.executor = (executor == null) ? this.ownedExecutor : executor;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cryptocompare-price-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queue a price request; symbols are upper-cased, as the API answers with them
+     * @param fsym from symbol
+     * @param tsyms to symbols, include multiple symbols
+     * @param optionalParams
+     * @return the same response price() would give, once the batch has been answered
+     */
+    public CompletableFuture<JsonObject> price(String fsym, String tsyms, Map<String, Object> optionalParams) {
+        PendingPrice request = new PendingPrice(Symbols.normalize(fsym), splitSymbols(tsyms));
+        String group = groupKey(optionalParams);
+
+        Batch full = null;
+        Batch ready = null;
+        synchronized (this) {
+            if (this.closed) {
+                throw new IllegalStateException("PriceBatcher is closed");
+            }
+
+            Batch batch = this.openBatches.get(group);
+            if (batch != null && !batch.accepts(request)) {
+                this.openBatches.remove(group);
+                full = batch;
+                batch = null;
+            }
+            if (batch == null) {
+                Batch opened = new Batch(group, optionalParams);
+                opened.timer = this.scheduler.schedule(() -> this.closeWindow(opened), this.windowNanos, TimeUnit.NANOSECONDS);
+                this.openBatches.put(group, opened);
+                batch = opened;
+            }
+
+            batch.add(request);
+            if (batch.fsyms.size() >= this.maxBatchSize) {
+                this.openBatches.remove(group);
+                ready = batch;
+            }
+        }
+
+        if (full != null) {
+            this.send(full);
+        }
+        if (ready != null) {
+            this.send(ready);
+        }
+        return request.future;
+    }
+
+    /**
+     * Send every open batch and stop accepting requests
+     */
+    @Override
+    public void close() {
+        List<Batch> remaining;
+        synchronized (this) {
+            this.closed = true;
+            remaining = new ArrayList<>(this.openBatches.values());
+            this.openBatches.clear();
+        }
+
+        for (Batch batch : remaining) {
+            this.send(batch);
+        }
+        this.scheduler.shutdown();
+        if (this.ownedExecutor != null) {
+            this.ownedExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Window of a batch ran out
+     * @param batch
+     */
+    private void closeWindow(Batch batch) {
+        synchronized (this) {
+            // The batch may already have been sent for being full
+            if (this.openBatches.get(batch.group) != batch) {
+                return;
+            }
+            this.openBatches.remove(batch.group);
+        }
+        this.send(batch);
+    }
+
+    private void send(Batch batch) {
+        if (batch.timer != null) {
+            batch.timer.cancel(false);
+        }
+
+        CompletableFuture
+                .supplyAsync(() -> this.api.priceMulti(batch.fsymsParam(), batch.tsymsParam(), batch.optionalParams), this.executor)
+                .whenComplete((response, error) -> {
+                    for (PendingPrice request : batch.requests) {
+                        if (error != null) {
+                            request.future.completeExceptionally(error);
+                        } else {
+                            request.future.complete(slice(response, request));
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Cut a caller's row out of the pricemulti response
+     * @param response
+     * @param request
+     * @return
+     */
+    private static JsonObject slice(JsonObject response, PendingPrice request) {
+        JsonElement status = response.get("Response");
+        if (status != null && status.isJsonPrimitive() && "Error".equals(status.getAsString())) {
+            return response;
+        }
+
+        JsonElement row = response.get(request.fsym);
+        if (row == null || !row.isJsonObject()) {
+            JsonObject error = new JsonObject();
+            error.addProperty("Response", "Error");
+            error.addProperty("Message", "There is no data for the symbol " + request.fsym + " .");
+            return error;
+        }
+
+        JsonObject prices = new JsonObject();
+        for (String tsym : request.tsyms) {
+            JsonElement price = row.getAsJsonObject().get(tsym);
+            if (price != null) {
+                prices.add(tsym, price);
+            }
+        }
+        return prices;
+    }
+
+    private static List<String> splitSymbols(String symbols) {
+        List<String> result = new ArrayList<>();
+        for (String symbol : symbols.split(",")) {
+            String normalized = Symbols.normalize(symbol);
+            if (!normalized.isEmpty()) {
+                result.add(normalized);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Requests can only share a batch when their optional parameters are the same
+     * @param optionalParams
+     * @return
+     */
+    private static String groupKey(Map<String, Object> optionalParams) {
+        if (optionalParams == null || optionalParams.isEmpty()) {
+            return "";
+        }
+        return new TreeMap<>(optionalParams).toString();
+    }
+
+    /**
+     * Length of the comma separated list once the symbols are joined
+     * @param symbols
+     * @return
+     */
+    private static int joinedLength(Set<String> symbols) {
+        int length = Math.max(0, symbols.size() - 1);
+        for (String symbol : symbols) {
+            length += symbol.length();
+        }
+        return length;
+    }
+
+    /**
+     * A caller waiting on its slice of a batch
+     */
+    private static final class PendingPrice {
+
+        private final String fsym;
+
+        private final List<String> tsyms;
+
+        private final CompletableFuture<JsonObject> future = new CompletableFuture<>();
+
+        private PendingPrice(String fsym, List<String> tsyms) {
+            this.fsym = fsym;
+            this.tsyms = tsyms;
+        }
+    }
+
+    /**
+     * Requests that will be sent together as one pricemulti call
+     */
+    private static final class Batch {
+
+        private final String group;
+
+        private final Map<String, Object> optionalParams;
+
+        private final Set<String> fsyms = new LinkedHashSet<>();
+
+        private final Set<String> tsyms = new LinkedHashSet<>();
+
+        private final List<PendingPrice> requests = new ArrayList<>();
+
+        private ScheduledFuture<?> timer;
+
+        private Batch(String group, Map<String, Object> optionalParams) {
+            this.group = group;
+            this.optionalParams = (optionalParams == null) ? Collections.<String, Object>emptyMap() : optionalParams;
+        }
+
+        /**
+         * Whether the request fits without breaking the fsyms/tsyms length limits
+         * @param request
+         * @return
+         */
+        private boolean accepts(PendingPrice request) {
+            if (this.requests.isEmpty()) {
+                return true;
+            }
+
+            Set<String> fsyms = new LinkedHashSet<>(this.fsyms);
+            fsyms.add(request.fsym);
+            Set<String> tsyms = new LinkedHashSet<>(this.tsyms);
+            tsyms.addAll(request.tsyms);
+            return joinedLength(fsyms) <= MAX_FSYMS_LENGTH && joinedLength(tsyms) <= MAX_TSYMS_LENGTH;
+        }
+
+        private void add(PendingPrice request) {
+            this.fsyms.add(request.fsym);
+            this.tsyms.addAll(request.tsyms);
+            this.requests.add(request);
+        }
+
+        private String fsymsParam() {
+            return String.join(",", this.fsyms);
+        }
+
+        private String tsymsParam() {
+            return String.join(",", this.tsyms);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.crypto.cryptocompare.api;
+
+import com.crypto.cryptocompare.model.CurrencyPair;
+
+/**
+ * Receives the price changes of a {@link PriceWatcher} subscription. Calls come from the
+ * watcher's scheduler thread, one at a time.
+ */
+public interface PriceListener {
+
+    /**
+     * The price of a watched pair moved past the subscription's threshold since it was
+     * last reported
+     * @param pair
+     * @param previous price last reported, NaN the first time the pair is seen
+     * @param current
+     */
+    void onPriceChange(CurrencyPair pair, double previous, double current);
+
+    /**
+     * A poll failed; the last reported prices are kept and the next poll backs off
+     * @param error
+     */
+    default void onFailure(RuntimeException error) {}
+}
@@ -0,0 +1,540 @@
+package com.crypto.cryptocompare.api;
+
+import com.crypto.cryptocompare.model.CurrencyPair;
+import com.crypto.cryptocompare.model.PriceMatrix;
+import com.crypto.cryptocompare.model.SymbolTable;
+import com.crypto.cryptocompare.ratelimit.RateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls the prices of a watchlist on one scheduler and tells listeners only about the
+ * pairs that moved. Every subscription is merged into as few {@code pricemulti} requests
+ * as the fsyms/tsyms length limits allow, and each response is decoded into a
+ * {@link PriceMatrix} and compared with the price last reported to each subscription.
+ *
+ * The poll interval follows the rate limit budget: when the api's limiter has fewer
+ * permits left than two polls would take, or a poll fails, the interval doubles up to
+ * the maximum, and it halves back towards the configured interval once the budget
+ * recovers. A failed request is reported to the subscriptions with pairs in it only.
+ */
+public class PriceWatcher implements Closeable {
+
+    /**
+     * Logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(PriceWatcher.class);
+
+    /**
+     * Polls worth of permits the limiter must have left for the interval not to grow
+     */
+    static final int RESERVE_POLLS = 2;
+
+    private final CryptoCompareApi api;
+
+    private final long intervalNanos;
+
+    private final long maxIntervalNanos;
+
+    private final double threshold;
+
+    private final Map<String, Object> optionalParams;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final ScheduledExecutorService ownedScheduler;
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * Requests covering every subscription, null when they changed since the last poll
+     */
+    private volatile List<Request> requests;
+
+    private volatile long currentIntervalNanos;
+
+    private ScheduledFuture<?> next;
+
+    private boolean closed;
+
+    /*************************
+     * Constructors
+     *************************/
+
+    private PriceWatcher(Builder builder) {
+        this.api = builder.api;
+        this.intervalNanos = builder.intervalNanos;
+        this.maxIntervalNanos = Math.max(builder.intervalNanos, builder.maxIntervalNanos);
+        this.threshold = builder.threshold;
+        this.optionalParams = builder.optionalParams;
+        this.currentIntervalNanos = this.intervalNanos;
+        this.ownedScheduler = (builder.scheduler == null)
+                ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "cryptocompare-price-watcher");
+                    thread.setDaemon(true);
+                    return thread;
+                })
+                : null;
+        this.scheduler = (builder.scheduler == null) ? this.ownedScheduler : builder.scheduler;
+    }
+
+    public static Builder builder(CryptoCompareApi api) {
+        return new Builder(api);
+    }
+
+    /**
+     * Watch every pair of fsyms x tsyms with the watcher's threshold; symbols are
+     * upper-cased, as the API answers with them
+     * @param fsyms From Symbols, include multiple symbols
+     * @param tsyms To Symbols, include multiple symbols
+     * @param listener
+     * @return close it to stop watching
+     */
+    public Subscription watch(String fsyms, String tsyms, PriceListener listener) {
+        return this.watch(fsyms, tsyms, this.threshold, listener);
+    }
+
+    /**
+     * Watch every pair of fsyms x tsyms
+     * @param fsyms From Symbols, include multiple symbols
+     * @param tsyms To Symbols, include multiple symbols
+     * @param threshold relative move that gets reported, e.g. 0.001 for 0.1%; 0 reports any change
+     * @param listener
+     * @return close it to stop watching
+     */
+    public Subscription watch(String fsyms, String tsyms, double threshold, PriceListener listener) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("threshold must not be negative");
+        }
+        Subscription subscription = new Subscription(splitSymbols(fsyms), splitSymbols(tsyms), threshold, listener);
+        this.subscriptions.add(subscription);
+        this.requests = null;
+        return subscription;
+    }
+
+    /**
+     * Start polling right away and then every interval
+     * @return
+     */
+    public synchronized PriceWatcher start() {
+        if (this.closed) {
+            throw new IllegalStateException("PriceWatcher is closed");
+        }
+        if (this.next == null) {
+            this.next = this.scheduler.schedule(this::run, 0, TimeUnit.NANOSECONDS);
+        }
+        return this;
+    }
+
+    /**
+     * Poll once on the calling thread and notify the listeners
+     * @return whether every request succeeded
+     */
+    public synchronized boolean poll() {
+        List<Request> requests = this.requests;
+        if (requests == null) {
+            requests = plan(this.subscriptions);
+            this.requests = requests;
+        }
+
+        boolean succeeded = true;
+        for (Request request : requests) {
+            PriceMatrix matrix;
+            try {
+                matrix = this.api.priceMultiMatrix(request.fsyms, request.tsyms, this.optionalParams);
+            } catch (RuntimeException ex) {
+                logger.warn("Could not poll prices of {} in {}", request.fsyms, request.tsyms, ex);
+                for (Subscription subscription : this.subscriptions) {
+                    if (request.covers(subscription)) {
+                        subscription.fail(ex);
+                    }
+                }
+                succeeded = false;
+                continue;
+            }
+            for (Subscription subscription : this.subscriptions) {
+                subscription.update(matrix);
+            }
+        }
+
+        RateLimiter limiter = this.api.rateLimiter();
+        int available = (limiter == null) ? Integer.MAX_VALUE : limiter.availablePermits(Endpoint.PRICE_MULTI.host());
+        this.currentIntervalNanos = nextInterval(this.currentIntervalNanos, this.intervalNanos, this.maxIntervalNanos,
+                succeeded, available, requests.size());
+        return succeeded;
+    }
+
+    /**
+     * Delay before the next poll
+     * @param unit
+     * @return
+     */
+    public long currentInterval(TimeUnit unit) {
+        return unit.convert(this.currentIntervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Number of pricemulti requests each poll sends
+     * @return
+     */
+    public int requestsPerPoll() {
+        List<Request> requests = this.requests;
+        return (requests == null) ? plan(this.subscriptions).size() : requests.size();
+    }
+
+    /**
+     * Stop polling
+     */
+    @Override
+    public synchronized void close() {
+        this.closed = true;
+        if (this.next != null) {
+            this.next.cancel(false);
+        }
+        if (this.ownedScheduler != null) {
+            this.ownedScheduler.shutdown();
+        }
+    }
+
+    private void run() {
+        try {
+            this.poll();
+        } catch (RuntimeException ex) {
+            logger.warn("Price poll failed", ex);
+        }
+        synchronized (this) {
+            if (!this.closed) {
+                this.next = this.scheduler.schedule(this::run, this.currentIntervalNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Interval after a poll: doubled when it failed or the budget is running low, halved
+     * back towards the base interval otherwise
+     * @param current
+     * @param base
+     * @param max
+     * @param succeeded
+     * @param available permits the limiter has left
+     * @param requestsPerPoll
+     * @return
+     */
+    static long nextInterval(long current, long base, long max, boolean succeeded, int available, int requestsPerPoll) {
+        if (!succeeded || available < (long) requestsPerPoll * RESERVE_POLLS) {
+            return Math.min(max, current * 2);
+        }
+        return Math.max(base, current / 2);
+    }
+
+    /**
+     * Merge the subscriptions into requests: the to symbols are split into chunks within
+     * the tsyms limit, and for each chunk the from symbols needing any of them are split
+     * within the fsyms limit
+     * @param subscriptions
+     * @return
+     */
+    static List<Request> plan(List<Subscription> subscriptions) {
+        Set<String> tsyms = new LinkedHashSet<>();
+        for (Subscription subscription : subscriptions) {
+            if (!subscription.closed) {
+                tsyms.addAll(Arrays.asList(subscription.tsyms));
+            }
+        }
+
+        List<Request> requests = new ArrayList<>();
+        for (List<String> tsymChunk : Symbols.chunk(tsyms, PriceBatcher.MAX_TSYMS_LENGTH)) {
+            Set<String> fsyms = new LinkedHashSet<>();
+            for (Subscription subscription : subscriptions) {
+                if (!subscription.closed && !Collections.disjoint(tsymChunk, Arrays.asList(subscription.tsyms))) {
+                    fsyms.addAll(Arrays.asList(subscription.fsyms));
+                }
+            }
+            for (List<String> fsymChunk : Symbols.chunk(fsyms, PriceBatcher.MAX_FSYMS_LENGTH)) {
+                requests.add(new Request(fsymChunk, tsymChunk));
+            }
+        }
+        return requests;
+    }
+
+    private static String[] splitSymbols(String symbols) {
+        Set<String> result = new LinkedHashSet<>();
+        for (String symbol : symbols.split(",")) {
+            String normalized = Symbols.normalize(symbol);
+            if (!normalized.isEmpty()) {
+                result.add(normalized);
+            }
+        }
+        if (result.isEmpty()) {
+            throw new IllegalArgumentException("No symbols in '" + symbols + "'");
+        }
+        return result.toArray(new String[0]);
+    }
+
+    /**
+     * One pricemulti call of a poll
+     */
+    static final class Request {
+
+        final String fsyms;
+
+        final String tsyms;
+
+        private final List<String> fsymList;
+
+        private final List<String> tsymList;
+
+        private Request(List<String> fsyms, List<String> tsyms) {
+            this.fsyms = String.join(",", fsyms);
+            this.tsyms = String.join(",", tsyms);
+            this.fsymList = fsyms;
+            this.tsymList = tsyms;
+        }
+
+        /**
+         * Whether the request prices any pair the subscription watches
+         * @param subscription
+         * @return
+         */
+        boolean covers(Subscription subscription) {
+            return !Collections.disjoint(this.fsymList, Arrays.asList(subscription.fsyms))
+                    && !Collections.disjoint(this.tsymList, Arrays.asList(subscription.tsyms));
+        }
+
+        @Override
+        public String toString() {
+            return this.fsyms + " in " + this.tsyms;
+        }
+    }
+
+    /**
+     * The pairs one listener watches and the prices last reported to it
+     */
+    public final class Subscription implements Closeable {
+
+        private final String[] fsyms;
+
+        private final String[] tsyms;
+
+        private final double threshold;
+
+        private final PriceListener listener;
+
+        /**
+         * Row-major over fsyms x tsyms, like the pairs
+         */
+        private final CurrencyPair[] pairs;
+
+        private final double[] reported;
+
+        private final int[] columns;
+
+        private volatile boolean closed;
+
+        private Subscription(String[] fsyms, String[] tsyms, double threshold, PriceListener listener) {
+            this.fsyms = fsyms;
+            this.tsyms = tsyms;
+            this.threshold = threshold;
+            this.listener = listener;
+            this.pairs = new CurrencyPair[fsyms.length * tsyms.length];
+            for (int f = 0; f < fsyms.length; f++) {
+                for (int t = 0; t < tsyms.length; t++) {
+                    this.pairs[f * tsyms.length + t] = new CurrencyPair(fsyms[f], tsyms[t]);
+                }
+            }
+            this.reported = new double[this.pairs.length];
+            Arrays.fill(this.reported, Double.NaN);
+            this.columns = new int[tsyms.length];
+        }
+
+        /**
+         * Last price reported for a pair
+         * @param fsym
+         * @param tsym
+         * @return NaN until the pair has been seen
+         */
+        public double price(String fsym, String tsym) {
+            fsym = Symbols.normalize(fsym);
+            tsym = Symbols.normalize(tsym);
+            for (int f = 0; f < this.fsyms.length; f++) {
+                for (int t = 0; t < this.tsyms.length; t++) {
+                    if (this.fsyms[f].equals(fsym) && this.tsyms[t].equals(tsym)) {
+                        return this.reported[f * this.tsyms.length + t];
+                    }
+                }
+            }
+            return Double.NaN;
+        }
+
+        /**
+         * Stop watching; the requests are merged again without this subscription
+         */
+        @Override
+        public void close() {
+            this.closed = true;
+            PriceWatcher.this.subscriptions.remove(this);
+            PriceWatcher.this.requests = null;
+        }
+
+        /**
+         * Report the pairs of the matrix that moved past the threshold
+         * @param matrix
+         */
+        private void update(PriceMatrix matrix) {
+            if (this.closed) {
+                return;
+            }
+            for (int t = 0; t < this.tsyms.length; t++) {
+                this.columns[t] = matrix.toIndex(this.tsyms[t]);
+            }
+            for (int f = 0; f < this.fsyms.length; f++) {
+                int row = matrix.fromIndex(this.fsyms[f]);
+                if (row == SymbolTable.NO_SYMBOL) {
+                    continue;
+                }
+                for (int t = 0; t < this.tsyms.length; t++) {
+                    int column = this.columns[t];
+                    if (column == SymbolTable.NO_SYMBOL) {
+                        continue;
+                    }
+                    double current = matrix.get(row, column);
+                    int index = f * this.tsyms.length + t;
+                    double previous = this.reported[index];
+                    if (!Double.isNaN(current) && this.moved(previous, current)) {
+                        this.reported[index] = current;
+                        this.notify(this.pairs[index], previous, current);
+                    }
+                }
+            }
+        }
+
+        private boolean moved(double previous, double current) {
+            if (Double.isNaN(previous)) {
+                return true;
+            }
+            if (this.threshold == 0) {
+                return current != previous;
+            }
+            return Math.abs(current - previous) > this.threshold * Math.abs(previous);
+        }
+
+        private void notify(CurrencyPair pair, double previous, double current) {
+            try {
+                this.listener.onPriceChange(pair, previous, current);
+            } catch (RuntimeException ex) {
+                logger.warn("Price listener failed on {}", pair, ex);
+            }
+        }
+
+        private void fail(RuntimeException error) {
+            if (this.closed) {
+                return;
+            }
+            try {
+                this.listener.onFailure(error);
+            } catch (RuntimeException ex) {
+                logger.warn("Price listener failed", ex);
+            }
+        }
+    }
+
+    /**
+     * Configuration for a PriceWatcher
+     */
+    public static class Builder {
+
+        private final CryptoCompareApi api;
+
+        private long intervalNanos = TimeUnit.SECONDS.toNanos(10);
+
+        private long maxIntervalNanos = TimeUnit.MINUTES.toNanos(5);
+
+        private double threshold;
+
+        private Map<String, Object> optionalParams = Collections.emptyMap();
+
+        private ScheduledExecutorService scheduler;
+
+        private Builder(CryptoCompareApi api) {
+            this.api = api;
+        }
+
+        /**
+         * Poll interval while the rate limit budget allows it, 10 seconds by default
+         * @param interval
+         * @param unit
+         * @return
+         */
+        public Builder interval(long interval, TimeUnit unit) {
+            if (interval < 1) {
+                throw new IllegalArgumentException("interval must be positive");
+            }
+            this.intervalNanos = unit.toNanos(interval);
+            return this;
+        }
+
+        /**
+         * Longest the interval grows to when the budget runs low, 5 minutes by default
+         * @param maxInterval
+         * @param unit
+         * @return
+         */
+        public Builder maxInterval(long maxInterval, TimeUnit unit) {
+            this.maxIntervalNanos = unit.toNanos(maxInterval);
+            return this;
+        }
+
+        /**
+         * Default relative move that gets reported, e.g. 0.001 for 0.1%; 0, the default,
+         * reports any change
+         * @param threshold
+         * @return
+         */
+        public Builder threshold(double threshold) {
+            if (threshold < 0) {
+                throw new IllegalArgumentException("threshold must not be negative");
+            }
+            this.threshold = threshold;
+            return this;
+        }
+
+        /**
+         * Extra parameters sent with every request, e.g. an exchange
+         * @param optionalParams
+         * @return
+         */
+        public Builder optionalParams(Map<String, Object> optionalParams) {
+            this.optionalParams = optionalParams;
+            return this;
+        }
+
+        /**
+         * Scheduler the polls run on, left running on close; a daemon thread of the
+         * watcher's own by default
+         * @param scheduler
+         * @return
+         */
+        public Builder scheduler(ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        public PriceWatcher build() {
+            return new PriceWatcher(this);
+        }
+    }
+}
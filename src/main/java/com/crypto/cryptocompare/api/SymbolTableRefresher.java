@@ -0,0 +1,92 @@
+package com.crypto.cryptocompare.api;
+
+import com.crypto.cryptocompare.model.SymbolTable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps a SymbolTable current by reloading the coin list in the background. Readers get
+ * the latest table with {@link #current()}, a single volatile read, and never wait on a
+ * refresh: a new table is built on the side and swapped in whole. Each new table keeps
+ * the ids of the one it replaces, so ids held by callers stay valid.
+ */
+public class SymbolTableRefresher implements Closeable {
+
+    /**
+     * Logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(SymbolTableRefresher.class);
+
+    private final CryptoCompareApi api;
+
+    private final AtomicReference<SymbolTable> table = new AtomicReference<>(SymbolTable.EMPTY);
+
+    private final ScheduledExecutorService scheduler;
+
+    /*************************
+     * Constructors
+     *************************/
+
+    /**
+     * @param api client the coin list is loaded through
+     */
+    public SymbolTableRefresher(CryptoCompareApi api) {
+        this.api = api;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cryptocompare-symbol-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Latest table, empty until the first load completes
+     * @return
+     */
+    public SymbolTable current() {
+        return this.table.get();
+    }
+
+    /**
+     * Load the coin list now and swap in the new table
+     * @return the table now current
+     */
+    public synchronized SymbolTable refresh() {
+        SymbolTable fresh = this.api.coinListSymbols();
+        SymbolTable merged = fresh.withIdsOf(this.table.get());
+        this.table.set(merged);
+        return merged;
+    }
+
+    /**
+     * Load the coin list right away and then every period in the background. A failed
+     * load is logged and the current table kept until the next one.
+     * @param period
+     * @param unit
+     * @return
+     */
+    public SymbolTableRefresher start(long period, TimeUnit unit) {
+        this.scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                this.refresh();
+            } catch (RuntimeException ex) {
+                logger.warn("Could not refresh the symbol table, keeping {} symbols", this.current().size(), ex);
+            }
+        }, 0, period, unit);
+        return this;
+    }
+
+    /**
+     * Stop refreshing; the current table stays readable
+     */
+    @Override
+    public void close() {
+        this.scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,50 @@
+package com.crypto.cryptocompare.api;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Symbol list helpers shared by the clients that merge symbols into pricemulti requests
+ */
+final class Symbols {
+
+    private Symbols() {}
+
+    /**
+     * A symbol the way the API spells it back, which is how its responses are keyed
+     * @param symbol
+     * @return trimmed and upper-cased
+     */
+    static String normalize(String symbol) {
+        return symbol.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Split symbols into lists whose comma separated form fits the limit
+     * @param symbols
+     * @param maxLength
+     * @return
+     */
+    static List<List<String>> chunk(Collection<String> symbols, int maxLength) {
+        List<List<String>> chunks = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        int length = 0;
+        for (String symbol : symbols) {
+            int added = current.isEmpty() ? symbol.length() : symbol.length() + 1;
+            if (!current.isEmpty() && length + added > maxLength) {
+                chunks.add(current);
+                current = new ArrayList<>();
+                added = symbol.length();
+                length = 0;
+            }
+            current.add(symbol);
+            length += added;
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
+    }
+}
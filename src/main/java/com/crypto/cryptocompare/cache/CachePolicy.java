@@ -0,0 +1,130 @@
+package com.crypto.cryptocompare.cache;
+
+import com.crypto.cryptocompare.api.Endpoint;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How long responses of each endpoint stay fresh. Prices go stale within seconds while
+ * reference data (coin list, social stats, mining equipment) changes rarely. Historical
+ * bars that closed before the current period can never change, so a histo request whose
+ * {@code toTs} lies in the past is cached for good.
+ */
+public class CachePolicy {
+
+    /**
+     * Time to live meaning the response never expires
+     */
+    public static final long FOREVER = Long.MAX_VALUE;
+
+    private static final long SECOND = 1000L;
+    private static final long MINUTE = 60 * SECOND;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+
+    private final Map<Endpoint, Long> ttlMillis = new EnumMap<>(Endpoint.class);
+
+    private CachePolicy() {
+        this.ttlMillis.put(Endpoint.COIN_LIST, HOUR);
+        this.ttlMillis.put(Endpoint.PRICE, SECOND);
+        this.ttlMillis.put(Endpoint.PRICE_MULTI, SECOND);
+        this.ttlMillis.put(Endpoint.PRICE_MULTI_FULL, SECOND);
+        this.ttlMillis.put(Endpoint.GENERATE_AVG, SECOND);
+        this.ttlMillis.put(Endpoint.DAY_AVG, MINUTE);
+        this.ttlMillis.put(Endpoint.PRICE_HISTORICAL, MINUTE);
+        this.ttlMillis.put(Endpoint.COIN_SNAPSHOT, 10 * SECOND);
+        this.ttlMillis.put(Endpoint.COIN_SNAPSHOT_FULL_BY_ID, HOUR);
+        this.ttlMillis.put(Endpoint.SOCIAL_STATS, HOUR);
+        this.ttlMillis.put(Endpoint.HISTO_MINUTE, 10 * SECOND);
+        this.ttlMillis.put(Endpoint.HISTO_HOUR, MINUTE);
+        this.ttlMillis.put(Endpoint.HISTO_DAY, MINUTE);
+        this.ttlMillis.put(Endpoint.MINING_EQUIPMENT, HOUR);
+        this.ttlMillis.put(Endpoint.TOP_PAIRS, MINUTE);
+    }
+
+    /**
+     * Default time to live for every endpoint
+     * @return
+     */
+    public static CachePolicy defaults() {
+        return new CachePolicy();
+    }
+
+    /**
+     * Override the time to live of an endpoint; 0 disables caching for it
+     * @param endpoint
+     * @param ttl
+     * @param unit
+     * @return
+     */
+    public CachePolicy ttl(Endpoint endpoint, long ttl, TimeUnit unit) {
+        this.ttlMillis.put(endpoint, unit.toMillis(ttl));
+        return this;
+    }
+
+    /**
+     * Time to live for a request, {@link #FOREVER} for bars that have already closed
+     * @param key
+     * @param nowMillis current wall clock time
+     * @return
+     */
+    public long ttlMillis(RequestKey key, long nowMillis) {
+        long ttl = this.ttlMillis.getOrDefault(key.endpoint(), 0L);
+        if (ttl == 0) {
+            return 0;
+        }
+
+        long period = periodMillis(key.endpoint());
+        if (period > 0) {
+            long toTsMillis = queryLong(key.url(), "toTs") * SECOND;
+            long currentPeriodStart = nowMillis - (nowMillis % period);
+            if (toTsMillis > 0 && toTsMillis < currentPeriodStart) {
+                return FOREVER;
+            }
+        }
+        return ttl;
+    }
+
+    /**
+     * Length of one bar for the histo endpoints, 0 for anything else
+     * @param endpoint
+     * @return
+     */
+    private static long periodMillis(Endpoint endpoint) {
+        switch (endpoint) {
+            case HISTO_MINUTE:
+                return MINUTE;
+            case HISTO_HOUR:
+                return HOUR;
+            case HISTO_DAY:
+                return DAY;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Numeric value of a query parameter, 0 when absent or not a number
+     * @param url
+     * @param name
+     * @return
+     */
+    private static long queryLong(String url, String name) {
+        int start = url.indexOf('?');
+        while (start >= 0) {
+            int end = url.indexOf('&', start + 1);
+            String param = url.substring(start + 1, end < 0 ? url.length() : end);
+            if (param.startsWith(name) && param.length() > name.length() && param.charAt(name.length()) == '=') {
+                try {
+                    return Long.parseLong(param.substring(name.length() + 1));
+                } catch (NumberFormatException ex) {
+                    return 0;
+                }
+            }
+            start = end;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,103 @@
+package com.crypto.cryptocompare.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight execution: while a request is in flight, identical requests wait for its
+ * result instead of going to the API themselves. An entry only lives while its request
+ * is running, so nothing accumulates per key.
+ *
+ * The result is shared by every caller that joined and must be treated as read-only.
+ */
+public class RequestCoalescer {
+
+    private final ConcurrentHashMap<RequestKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder executed = new LongAdder();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Run the loader, or wait for the identical request already running
+     * @param key
+     * @param loader performs the request; its exceptions reach every waiting caller
+     * @param <T>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(RequestKey key, Supplier<T> loader) {
+        CompletableFuture<Object> call = new CompletableFuture<>();
+        CompletableFuture<Object> existing = this.inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            this.coalesced.increment();
+            return (T) join(existing);
+        }
+
+        this.executed.increment();
+        try {
+            T result = loader.get();
+            call.complete(result);
+            return result;
+        } catch (RuntimeException | Error ex) {
+            call.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            this.inFlight.remove(key, call);
+        }
+    }
+
+    /**
+     * Requests currently running
+     * @return
+     */
+    public int inFlightCount() {
+        return this.inFlight.size();
+    }
+
+    /**
+     * Requests that actually went to the API
+     * @return
+     */
+    public long executedCount() {
+        return this.executed.sum();
+    }
+
+    /**
+     * Requests answered by joining one already in flight
+     * @return
+     */
+    public long coalescedCount() {
+        return this.coalesced.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "RequestCoalescer{inFlight=" + this.inFlightCount()
+                + ", executed=" + this.executedCount()
+                + ", coalesced=" + this.coalescedCount() + "}";
+    }
+
+    /**
+     * Wait for the leader's result, rethrowing its failure as is
+     * @param call
+     * @return
+     */
+    private static Object join(CompletableFuture<Object> call) {
+        try {
+            return call.join();
+        } catch (CompletionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.crypto.cryptocompare.cache;
+
+import com.crypto.cryptocompare.api.Endpoint;
+import com.crypto.cryptocompare.transport.ResponseDecoder;
+import com.crypto.cryptocompare.utils.ApiUtils;
+
+/**
+ * Identifies a response: the normalized request url plus the decoder that produced the
+ * value, since the same url can be decoded into a JsonObject or a typed model
+ */
+public final class RequestKey {
+
+    private final Endpoint endpoint;
+
+    private final String url;
+
+    private final ResponseDecoder<?> decoder;
+
+    private final int hash;
+
+    public RequestKey(Endpoint endpoint, String requestUrl, ResponseDecoder<?> decoder) {
+        this.endpoint = endpoint;
+        this.url = ApiUtils.normalizeUrl(requestUrl);
+        this.decoder = decoder;
+        this.hash = 31 * this.url.hashCode() + System.identityHashCode(decoder);
+    }
+
+    public Endpoint endpoint() {
+        return this.endpoint;
+    }
+
+    /**
+     * Request url with its query parameters in a stable order
+     * @return
+     */
+    public String url() {
+        return this.url;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof RequestKey)) {
+            return false;
+        }
+        RequestKey key = (RequestKey) other;
+        return this.hash == key.hash && this.decoder == key.decoder && this.url.equals(key.url);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+
+    @Override
+    public String toString() {
+        return this.url;
+    }
+}
@@ -0,0 +1,251 @@
+package com.crypto.cryptocompare.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded in-process cache of decoded responses. Reads are a ConcurrentHashMap lookup
+ * plus a timestamp write on the entry, with no lock. When an insert pushes the cache over
+ * its capacity, one writer evicts the least recently used entries down to 90% of the
+ * capacity, so eviction is paid for in batches rather than on every put.
+ *
+ * Cached values are shared by every caller that hits them and must be treated as read-only.
+ */
+public class ResponseCache {
+
+    /**
+     * Share of the capacity kept after an eviction pass
+     */
+    private static final double EVICTION_TARGET = 0.9;
+
+    private final int maxEntries;
+
+    private final CachePolicy policy;
+
+    private final ConcurrentHashMap<RequestKey, Entry> entries;
+
+    /**
+     * Serializes eviction passes; readers never take it
+     */
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final LongSupplier nanoClock;
+
+    private final LongSupplier millisClock;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private final LongAdder expirations = new LongAdder();
+
+    /*************************
+     * Constructors
+     *************************/
+
+    public ResponseCache(int maxEntries) {
+        this(maxEntries, CachePolicy.defaults());
+    }
+
+    public ResponseCache(int maxEntries, CachePolicy policy) {
+        this(maxEntries, policy, System::nanoTime, System::currentTimeMillis);
+    }
+
+    ResponseCache(int maxEntries, CachePolicy policy, LongSupplier nanoClock, LongSupplier millisClock) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.policy = policy;
+        this.entries = new ConcurrentHashMap<>(Math.min(maxEntries, 1024));
+        this.nanoClock = nanoClock;
+        this.millisClock = millisClock;
+    }
+
+    /**
+     * Fresh value cached for the key
+     * @param key
+     * @param <T>
+     * @return the value, or null when absent or expired
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(RequestKey key) {
+        Entry entry = this.entries.get(key);
+        if (entry == null) {
+            this.misses.increment();
+            return null;
+        }
+
+        long now = this.nanoClock.getAsLong();
+        if (entry.isExpired(now)) {
+            if (this.entries.remove(key, entry)) {
+                this.expirations.increment();
+            }
+            this.misses.increment();
+            return null;
+        }
+
+        entry.lastAccessNanos = now;
+        this.hits.increment();
+        return (T) entry.value;
+    }
+
+    /**
+     * Cache a value for as long as the policy allows
+     * @param key
+     * @param value
+     */
+    public void put(RequestKey key, Object value) {
+        long ttlMillis = this.policy.ttlMillis(key, this.millisClock.getAsLong());
+        if (ttlMillis <= 0 || value == null) {
+            return;
+        }
+
+        long now = this.nanoClock.getAsLong();
+        long expiresAtNanos = (ttlMillis == CachePolicy.FOREVER)
+                ? Long.MAX_VALUE
+                : now + ttlMillis * 1000000L;
+        this.entries.put(key, new Entry(value, expiresAtNanos, now));
+
+        if (this.entries.size() > this.maxEntries) {
+            this.evict();
+        }
+    }
+
+    public void invalidateAll() {
+        this.entries.clear();
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    public long hitCount() {
+        return this.hits.sum();
+    }
+
+    public long missCount() {
+        return this.misses.sum();
+    }
+
+    /**
+     * Entries dropped to stay within capacity
+     * @return
+     */
+    public long evictionCount() {
+        return this.evictions.sum();
+    }
+
+    /**
+     * Entries dropped because their time to live ran out
+     * @return
+     */
+    public long expirationCount() {
+        return this.expirations.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "ResponseCache{size=" + this.size()
+                + ", hits=" + this.hitCount()
+                + ", misses=" + this.missCount()
+                + ", evictions=" + this.evictionCount()
+                + ", expirations=" + this.expirationCount() + "}";
+    }
+
+    /**
+     * Drop expired entries, then the least recently used ones, until the cache is back
+     * under its eviction target. Only one thread evicts at a time; others carry on.
+     */
+    private void evict() {
+        if (!this.evictionLock.tryLock()) {
+            return;
+        }
+
+        try {
+            int target = (int) (this.maxEntries * EVICTION_TARGET);
+            if (this.entries.size() <= target) {
+                return;
+            }
+
+            long now = this.nanoClock.getAsLong();
+            List<Candidate> candidates = new ArrayList<>(this.entries.size());
+            for (Map.Entry<RequestKey, Entry> mapping : this.entries.entrySet()) {
+                Entry entry = mapping.getValue();
+                if (!entry.isExpired(now)) {
+                    candidates.add(new Candidate(mapping.getKey(), entry));
+                } else if (this.entries.remove(mapping.getKey(), entry)) {
+                    this.expirations.increment();
+                }
+            }
+
+            int excess = this.entries.size() - target;
+            if (excess <= 0) {
+                return;
+            }
+
+            candidates.sort((a, b) -> Long.compare(a.lastAccessNanos, b.lastAccessNanos));
+            for (int i = 0; i < candidates.size() && excess > 0; i++) {
+                Candidate candidate = candidates.get(i);
+                if (this.entries.remove(candidate.key, candidate.entry)) {
+                    this.evictions.increment();
+                    excess--;
+                }
+            }
+        } finally {
+            this.evictionLock.unlock();
+        }
+    }
+
+    /**
+     * A cached value with its expiry and last access time
+     */
+    private static final class Entry {
+
+        private final Object value;
+
+        private final long expiresAtNanos;
+
+        /**
+         * Written by readers without a lock; an occasionally stale value only makes
+         * eviction slightly less exact
+         */
+        private volatile long lastAccessNanos;
+
+        private Entry(Object value, long expiresAtNanos, long lastAccessNanos) {
+            this.value = value;
+            this.expiresAtNanos = expiresAtNanos;
+            this.lastAccessNanos = lastAccessNanos;
+        }
+
+        private boolean isExpired(long now) {
+            return this.expiresAtNanos != Long.MAX_VALUE && now - this.expiresAtNanos >= 0;
+        }
+    }
+
+    /**
+     * An entry considered for eviction, with its access time frozen so the sort is stable
+     * while readers keep touching the entry
+     */
+    private static final class Candidate {
+
+        private final RequestKey key;
+
+        private final Entry entry;
+
+        private final long lastAccessNanos;
+
+        private Candidate(RequestKey key, Entry entry) {
+            this.key = key;
+            this.entry = entry;
+            this.lastAccessNanos = entry.lastAccessNanos;
+        }
+    }
+}
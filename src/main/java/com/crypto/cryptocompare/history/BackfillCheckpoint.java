@@ -0,0 +1,47 @@
+package com.crypto.cryptocompare.history;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Append-only text file naming the pairs a backfill has finished, one line per pair with
+ * the resolution and range. A line is only written once its series has been handed to the
+ * listener, and a line cut short by a crash simply matches nothing.
+ */
+class BackfillCheckpoint implements Closeable {
+
+    private final Set<String> completed = new HashSet<>();
+
+    private final BufferedWriter writer;
+
+    BackfillCheckpoint(Path file) throws IOException {
+        if (Files.exists(file)) {
+            this.completed.addAll(Files.readAllLines(file, StandardCharsets.UTF_8));
+        }
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    boolean isCompleted(String key) {
+        return this.completed.contains(key);
+    }
+
+    void markCompleted(String key) throws IOException {
+        this.writer.write(key);
+        this.writer.newLine();
+        this.writer.flush();
+        this.completed.add(key);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.writer.close();
+    }
+}
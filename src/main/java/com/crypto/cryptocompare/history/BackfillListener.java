@@ -0,0 +1,32 @@
+package com.crypto.cryptocompare.history;
+
+import com.crypto.cryptocompare.model.CurrencyPair;
+import com.crypto.cryptocompare.model.OhlcvSeries;
+
+/**
+ * Receives the output of a {@link HistoryBackfill}. Calls come from the worker threads but
+ * never overlap, so implementations need no locking of their own.
+ */
+public interface BackfillListener {
+
+    /**
+     * All bars of a pair over the requested range, in time order, one bar per period
+     * @param pair
+     * @param series
+     */
+    void onSeries(CurrencyPair pair, OhlcvSeries series);
+
+    /**
+     * Called after every page fetched
+     * @param progress
+     */
+    default void onProgress(BackfillProgress progress) {}
+
+    /**
+     * A page of the pair could not be fetched; the pair is left out of the checkpoint so a
+     * later run picks it up again
+     * @param pair
+     * @param error
+     */
+    default void onFailure(CurrencyPair pair, RuntimeException error) {}
+}
@@ -0,0 +1,80 @@
+package com.crypto.cryptocompare.history;
+
+/**
+ * Snapshot of how far a backfill has come
+ */
+public final class BackfillProgress {
+
+    private final int totalPairs;
+
+    private final int completedPairs;
+
+    private final int skippedPairs;
+
+    private final int failedPairs;
+
+    private final int totalPages;
+
+    private final int fetchedPages;
+
+    BackfillProgress(int totalPairs, int completedPairs, int skippedPairs, int failedPairs, int totalPages, int fetchedPages) {
+        this.totalPairs = totalPairs;
+        this.completedPairs = completedPairs;
+        this.skippedPairs = skippedPairs;
+        this.failedPairs = failedPairs;
+        this.totalPages = totalPages;
+        this.fetchedPages = fetchedPages;
+    }
+
+    public int totalPairs() {
+        return this.totalPairs;
+    }
+
+    /**
+     * Pairs emitted by this run
+     * @return
+     */
+    public int completedPairs() {
+        return this.completedPairs;
+    }
+
+    /**
+     * Pairs already done according to the checkpoint
+     * @return
+     */
+    public int skippedPairs() {
+        return this.skippedPairs;
+    }
+
+    public int failedPairs() {
+        return this.failedPairs;
+    }
+
+    /**
+     * Pages this run has to fetch, leaving out skipped pairs
+     * @return
+     */
+    public int totalPages() {
+        return this.totalPages;
+    }
+
+    public int fetchedPages() {
+        return this.fetchedPages;
+    }
+
+    /**
+     * Share of the pages fetched, from 0 to 1
+     * @return
+     */
+    public double fraction() {
+        return (this.totalPages == 0) ? 1 : (double) this.fetchedPages / this.totalPages;
+    }
+
+    @Override
+    public String toString() {
+        return "BackfillProgress{pairs=" + this.completedPairs + "/" + this.totalPairs
+                + ", skipped=" + this.skippedPairs
+                + ", failed=" + this.failedPairs
+                + ", pages=" + this.fetchedPages + "/" + this.totalPages + "}";
+    }
+}
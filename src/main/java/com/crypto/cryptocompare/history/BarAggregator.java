@@ -0,0 +1,263 @@
+package com.crypto.cryptocompare.history;
+
+import com.crypto.cryptocompare.model.OhlcvSeries;
+
+/**
+ * Builds coarser bars from finer ones as they arrive, e.g. hours and days from minutes, so
+ * one histominute stream stands in for histohour and histoday. A bar opens with the open
+ * of its first source bar and closes with the close of its last, takes the highest high
+ * and lowest low, and sums both volumes. Bars are aligned to UTC like the API's.
+ *
+ * Source bars must come in time order. A source bar with the same time as the previous one
+ * replaces it, so the still forming minute can be polled again and again; the bar being
+ * built keeps the totals of the source bars before the last apart, which makes a
+ * replacement as cheap as an append. A bar is handed to the listener once a source bar of
+ * a later period arrives, or on {@link #advanceTo(long)} or {@link #flush()}; after that
+ * source bars of its period are rejected rather than starting a second bar for it.
+ *
+ * Not thread safe.
+ */
+public class BarAggregator {
+
+    private static final long NO_BAR = Long.MIN_VALUE;
+
+    private final long period;
+
+    private final BarListener listener;
+
+    /*
+     * Bar being built, without its last source bar
+     */
+    private long openTime = NO_BAR;
+
+    private double open;
+
+    private double high;
+
+    private double low;
+
+    private double volumeFrom;
+
+    private double volumeTo;
+
+    /*
+     * Last source bar, which may still be replaced
+     */
+    private long lastTime = NO_BAR;
+
+    private double lastHigh;
+
+    private double lastLow;
+
+    private double lastClose;
+
+    private double lastVolumeFrom;
+
+    private double lastVolumeTo;
+
+    private boolean lastIsFirst;
+
+    /*
+     * End of the last bar handed to the listener, kept like lastTime across bars
+     */
+    private long closedUntil = NO_BAR;
+
+    /*************************
+     * Constructors
+     *************************/
+
+    /**
+     * @param resolution length of the bars built
+     * @param listener receives each bar once it is closed
+     */
+    public BarAggregator(Resolution resolution, BarListener listener) {
+        this(resolution.seconds(), listener);
+    }
+
+    /**
+     * @param periodSeconds length of the bars built, e.g. 4 * 3600 for four-hour bars
+     * @param listener receives each bar once it is closed
+     */
+    public BarAggregator(long periodSeconds, BarListener listener) {
+        if (periodSeconds <= 0) {
+            throw new IllegalArgumentException("periodSeconds must be positive");
+        }
+        this.period = periodSeconds;
+        this.listener = listener;
+    }
+
+    /**
+     * Resample a whole series, keeping the last bar even if its period is not over, the
+     * way the histo endpoints return the current bar
+     * @param series source bars in time order
+     * @param resolution length of the bars built
+     * @return
+     */
+    public static OhlcvSeries resample(OhlcvSeries series, Resolution resolution) {
+        if (series.isEmpty()) {
+            return OhlcvSeries.EMPTY;
+        }
+        OhlcvSeries.Builder builder = OhlcvSeries.builder()
+                .timeFrom(resolution.align(series.time(0)))
+                .timeTo(resolution.align(series.time(series.size() - 1)));
+        BarAggregator aggregator = new BarAggregator(resolution, builder::add);
+        aggregator.add(series);
+        aggregator.flush();
+        return builder.build();
+    }
+
+    /**
+     * Add a source bar, or replace the last one if it has the same time
+     * @param time open time of the source bar
+     * @param open
+     * @param high
+     * @param low
+     * @param close
+     * @param volumeFrom
+     * @param volumeTo
+     * @return whether a bar was closed by it
+     * @throws IllegalArgumentException if the bar is older than the last one, or falls in a
+     * bar already handed to the listener
+     */
+    public boolean add(long time, double open, double high, double low, double close, double volumeFrom, double volumeTo) {
+        if (time < this.lastTime) {
+            throw new IllegalArgumentException("Bar at " + time + " is older than the last one at " + this.lastTime);
+        }
+        if (time < this.closedUntil) {
+            throw new IllegalArgumentException("Bar at " + time + " falls in a bar already closed at " + this.closedUntil);
+        }
+        boolean closed = false;
+        if (this.openTime != NO_BAR) {
+            if (time == this.lastTime) {
+                this.setLast(time, open, high, low, close, volumeFrom, volumeTo);
+                return false;
+            }
+            if (time >= this.openTime + this.period) {
+                this.emit();
+                closed = true;
+            } else {
+                this.foldLast();
+            }
+        }
+
+        if (this.openTime == NO_BAR) {
+            this.openTime = Math.floorDiv(time, this.period) * this.period;
+            this.high = Double.NEGATIVE_INFINITY;
+            this.low = Double.POSITIVE_INFINITY;
+            this.volumeFrom = 0;
+            this.volumeTo = 0;
+            this.lastIsFirst = true;
+        } else {
+            this.lastIsFirst = false;
+        }
+        this.setLast(time, open, high, low, close, volumeFrom, volumeTo);
+        return closed;
+    }
+
+    /**
+     * Add every bar of a series
+     * @param series source bars in time order
+     * @return number of bars closed
+     */
+    public int add(OhlcvSeries series) {
+        int closed = 0;
+        for (int i = 0; i < series.size(); i++) {
+            if (this.add(series.time(i), series.open(i), series.high(i), series.low(i), series.close(i),
+                    series.volumeFrom(i), series.volumeTo(i))) {
+                closed++;
+            }
+        }
+        return closed;
+    }
+
+    /**
+     * Close the bar being built if its period is over, for when source bars stop coming
+     * @param epochSecond current time
+     * @return whether a bar was closed
+     */
+    public boolean advanceTo(long epochSecond) {
+        if (this.openTime != NO_BAR && epochSecond >= this.openTime + this.period) {
+            this.emit();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Hand the bar being built to the listener as it is, e.g. at the end of a series
+     * @return whether there was a bar
+     */
+    public boolean flush() {
+        if (this.openTime == NO_BAR) {
+            return false;
+        }
+        this.emit();
+        return true;
+    }
+
+    /**
+     * Whether a bar is being built
+     * @return
+     */
+    public boolean hasBar() {
+        return this.openTime != NO_BAR;
+    }
+
+    /**
+     * Open time of the bar being built
+     * @return
+     */
+    public long time() {
+        return this.openTime;
+    }
+
+    public double open() {
+        return this.open;
+    }
+
+    public double high() {
+        return Math.max(this.high, this.lastHigh);
+    }
+
+    public double low() {
+        return Math.min(this.low, this.lastLow);
+    }
+
+    public double close() {
+        return this.lastClose;
+    }
+
+    public double volumeFrom() {
+        return this.volumeFrom + this.lastVolumeFrom;
+    }
+
+    public double volumeTo() {
+        return this.volumeTo + this.lastVolumeTo;
+    }
+
+    private void setLast(long time, double open, double high, double low, double close, double volumeFrom, double volumeTo) {
+        this.lastTime = time;
+        this.lastHigh = high;
+        this.lastLow = low;
+        this.lastClose = close;
+        this.lastVolumeFrom = volumeFrom;
+        this.lastVolumeTo = volumeTo;
+        if (this.lastIsFirst) {
+            this.open = open;
+        }
+    }
+
+    private void foldLast() {
+        this.high = Math.max(this.high, this.lastHigh);
+        this.low = Math.min(this.low, this.lastLow);
+        this.volumeFrom += this.lastVolumeFrom;
+        this.volumeTo += this.lastVolumeTo;
+    }
+
+    private void emit() {
+        long time = this.openTime;
+        this.openTime = NO_BAR;
+        this.closedUntil = time + this.period;
+        this.listener.onBar(time, this.open, this.high(), this.low(), this.lastClose, this.volumeFrom(), this.volumeTo());
+    }
+}
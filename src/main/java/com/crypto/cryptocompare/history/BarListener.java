@@ -0,0 +1,20 @@
+package com.crypto.cryptocompare.history;
+
+/**
+ * Receives the bars closed by a {@link BarAggregator}, as primitives so nothing is
+ * allocated per bar
+ */
+@FunctionalInterface
+public interface BarListener {
+
+    /**
+     * @param time open time of the bar
+     * @param open
+     * @param high
+     * @param low
+     * @param close
+     * @param volumeFrom volume in the from symbol
+     * @param volumeTo volume in the to symbol
+     */
+    void onBar(long time, double open, double high, double low, double close, double volumeFrom, double volumeTo);
+}
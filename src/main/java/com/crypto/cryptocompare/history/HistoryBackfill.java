@@ -0,0 +1,406 @@
+package com.crypto.cryptocompare.history;
+
+import com.crypto.cryptocompare.api.CryptoCompareApi;
+import com.crypto.cryptocompare.model.CurrencyPair;
+import com.crypto.cryptocompare.model.OhlcvSeries;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fetches the bars of many pairs over a time range. The range is cut into pages of at most
+ * {@link #MAX_PAGE_SIZE} bars, and pages are fetched in parallel through the api, so they
+ * share its rate limiter, cache and retries. Once every page of a pair is in, the pages are
+ * stitched into one series: bars outside the range or repeated by overlapping pages are
+ * dropped, and missing periods are filled with a flat bar at the previous close and no
+ * volume, the same way the API fills them.
+ *
+ * With a checkpoint file, every pair handed to the listener is recorded, and a later run
+ * over the same range skips those pairs, so a crashed run resumes where it stopped.
+ */
+public class HistoryBackfill {
+
+    /**
+     * Most bars the histo endpoints return per request
+     */
+    public static final int MAX_PAGE_SIZE = 2000;
+
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    private final CryptoCompareApi api;
+
+    private final List<CurrencyPair> pairs;
+
+    private final Resolution resolution;
+
+    /**
+     * First and last bar of the range, aligned to the resolution
+     */
+    private final long fromTs;
+
+    private final long toTs;
+
+    private final int pageSize;
+
+    private final int parallelism;
+
+    private final Map<String, Object> optionalParams;
+
+    private final Path checkpointFile;
+
+    /*************************
+     * Constructors
+     *************************/
+
+    private HistoryBackfill(Builder builder) {
+        if (builder.resolution == null || builder.toTs < builder.fromTs) {
+            throw new IllegalArgumentException("A resolution and a range are required");
+        }
+        this.api = builder.api;
+        this.pairs = new ArrayList<>(builder.pairs);
+        this.resolution = builder.resolution;
+        this.fromTs = builder.resolution.align(builder.fromTs);
+        this.toTs = builder.resolution.align(builder.toTs);
+        this.pageSize = builder.pageSize;
+        this.parallelism = builder.parallelism;
+        this.optionalParams = builder.optionalParams;
+        this.checkpointFile = builder.checkpointFile;
+    }
+
+    public static Builder builder(CryptoCompareApi api) {
+        return new Builder(api);
+    }
+
+    /**
+     * Fetch every pair not yet in the checkpoint, blocking until all are done or failed
+     * @param listener
+     * @return the final progress
+     * @throws IOException if the checkpoint cannot be read or written
+     */
+    public BackfillProgress run(BackfillListener listener) throws IOException {
+        List<long[]> pages = this.pages();
+        BackfillCheckpoint checkpoint = (this.checkpointFile != null) ? new BackfillCheckpoint(this.checkpointFile) : null;
+
+        List<PairJob> jobs = new ArrayList<>();
+        int skipped = 0;
+        for (CurrencyPair pair : this.pairs) {
+            if (checkpoint != null && checkpoint.isCompleted(this.checkpointKey(pair))) {
+                skipped++;
+            } else {
+                jobs.add(new PairJob(pair, pages.size()));
+            }
+        }
+
+        Run run = new Run(listener, checkpoint, this.pairs.size(), skipped, jobs.size() * pages.size());
+        ExecutorService executor = Executors.newFixedThreadPool(this.parallelism, new BackfillThreadFactory());
+        try {
+            // Pair by pair, so pairs complete, and release their pages, roughly in order
+            List<CompletableFuture<Void>> tasks = new ArrayList<>(run.totalPages);
+            for (PairJob job : jobs) {
+                for (int i = 0; i < pages.size(); i++) {
+                    int page = i;
+                    tasks.add(CompletableFuture.runAsync(() -> this.fetchPage(run, job, page, pages.get(page)), executor));
+                }
+            }
+            CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) ex.getCause()).getCause();
+            }
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        } finally {
+            executor.shutdownNow();
+            if (checkpoint != null) {
+                checkpoint.close();
+            }
+        }
+        return run.progress();
+    }
+
+    /**
+     * Page windows covering the range, newest first, as {first bar, last bar}
+     * @return
+     */
+    List<long[]> pages() {
+        long period = this.resolution.seconds();
+        long span = (long) this.pageSize * period;
+        List<long[]> pages = new ArrayList<>();
+        for (long last = this.toTs; last >= this.fromTs; last -= span) {
+            pages.add(new long[] {Math.max(this.fromTs, last - span + period), last});
+        }
+        return pages;
+    }
+
+    private void fetchPage(Run run, PairJob job, int index, long[] page) {
+        if (job.failed.get()) {
+            return;
+        }
+
+        OhlcvSeries series;
+        try {
+            Map<String, Object> params = new LinkedHashMap<>(this.optionalParams);
+            params.put("toTs", page[1]);
+            params.put("limit", Math.max(1, (page[1] - page[0]) / this.resolution.seconds()));
+            series = this.resolution.fetch(this.api, job.pair.fsym(), job.pair.tsym(), params);
+        } catch (RuntimeException ex) {
+            if (job.failed.compareAndSet(false, true)) {
+                run.failed(job.pair, ex);
+            }
+            return;
+        }
+
+        job.pages[index] = series;
+        OhlcvSeries stitched = (job.remaining.decrementAndGet() == 0) ? this.stitch(job.pages) : null;
+        run.pageFetched(job.pair, stitched, this.checkpointKey(job.pair));
+    }
+
+    /**
+     * Merge the pages of a pair into one ordered series with one bar per period
+     * @param pages newest first
+     * @return
+     */
+    OhlcvSeries stitch(OhlcvSeries[] pages) {
+        long period = this.resolution.seconds();
+        OhlcvSeries.Builder builder = OhlcvSeries.builder().timeFrom(this.fromTs).timeTo(this.toTs);
+
+        long last = Long.MIN_VALUE;
+        double lastClose = 0;
+        for (int p = pages.length - 1; p >= 0; p--) {
+            OhlcvSeries page = pages[p];
+            for (int i = 0; i < page.size(); i++) {
+                long time = page.time(i);
+                if (time <= last || time < this.fromTs || time > this.toTs) {
+                    continue;
+                }
+                if (last != Long.MIN_VALUE) {
+                    for (long gap = last + period; gap < time; gap += period) {
+                        builder.add(gap, lastClose, lastClose, lastClose, lastClose, 0, 0);
+                    }
+                }
+                builder.add(time, page.open(i), page.high(i), page.low(i), page.close(i), page.volumeFrom(i), page.volumeTo(i));
+                last = time;
+                lastClose = page.close(i);
+            }
+        }
+        return builder.build();
+    }
+
+    private String checkpointKey(CurrencyPair pair) {
+        return this.resolution + " " + pair.fsym() + " " + pair.tsym() + " " + this.fromTs + " " + this.toTs;
+    }
+
+    /**
+     * Pages of one pair as they come in
+     */
+    private static final class PairJob {
+
+        private final CurrencyPair pair;
+
+        private final OhlcvSeries[] pages;
+
+        private final AtomicInteger remaining;
+
+        private final AtomicBoolean failed = new AtomicBoolean();
+
+        private PairJob(CurrencyPair pair, int pageCount) {
+            this.pair = pair;
+            this.pages = new OhlcvSeries[pageCount];
+            this.remaining = new AtomicInteger(pageCount);
+        }
+    }
+
+    /**
+     * Counters of a run and the listener, all updated under the run's lock so callbacks
+     * never overlap
+     */
+    private static final class Run {
+
+        private final BackfillListener listener;
+
+        private final BackfillCheckpoint checkpoint;
+
+        private final int totalPairs;
+
+        private final int skippedPairs;
+
+        private final int totalPages;
+
+        private int completedPairs;
+
+        private int failedPairs;
+
+        private int fetchedPages;
+
+        private Run(BackfillListener listener, BackfillCheckpoint checkpoint, int totalPairs, int skippedPairs, int totalPages) {
+            this.listener = listener;
+            this.checkpoint = checkpoint;
+            this.totalPairs = totalPairs;
+            this.skippedPairs = skippedPairs;
+            this.totalPages = totalPages;
+        }
+
+        /**
+         * @param pair
+         * @param completed the stitched series when this was the pair's last page, else null
+         * @param checkpointKey
+         */
+        private synchronized void pageFetched(CurrencyPair pair, OhlcvSeries completed, String checkpointKey) {
+            this.fetchedPages++;
+            if (completed != null) {
+                this.listener.onSeries(pair, completed);
+                this.completedPairs++;
+                if (this.checkpoint != null) {
+                    try {
+                        this.checkpoint.markCompleted(checkpointKey);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                }
+            }
+            this.listener.onProgress(this.progress());
+        }
+
+        private synchronized void failed(CurrencyPair pair, RuntimeException error) {
+            this.failedPairs++;
+            this.listener.onFailure(pair, error);
+        }
+
+        private synchronized BackfillProgress progress() {
+            return new BackfillProgress(this.totalPairs, this.completedPairs, this.skippedPairs, this.failedPairs,
+                    this.totalPages, this.fetchedPages);
+        }
+    }
+
+    private static final class BackfillThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "cryptocompare-backfill-" + this.count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    /**
+     * Configuration for a HistoryBackfill
+     */
+    public static class Builder {
+
+        private final CryptoCompareApi api;
+
+        private final List<CurrencyPair> pairs = new ArrayList<>();
+
+        private Resolution resolution;
+
+        private long fromTs;
+
+        private long toTs = -1;
+
+        private int pageSize = MAX_PAGE_SIZE;
+
+        private int parallelism = DEFAULT_PARALLELISM;
+
+        private Map<String, Object> optionalParams = Collections.emptyMap();
+
+        private Path checkpointFile;
+
+        private Builder(CryptoCompareApi api) {
+            this.api = api;
+        }
+
+        public Builder pairs(List<CurrencyPair> pairs) {
+            this.pairs.addAll(pairs);
+            return this;
+        }
+
+        public Builder pair(String fsym, String tsym) {
+            this.pairs.add(new CurrencyPair(fsym, tsym));
+            return this;
+        }
+
+        public Builder resolution(Resolution resolution) {
+            this.resolution = resolution;
+            return this;
+        }
+
+        /**
+         * Range to fetch, both ends included
+         * @param fromTs unix timestamp in seconds
+         * @param toTs unix timestamp in seconds
+         * @return
+         */
+        public Builder range(long fromTs, long toTs) {
+            this.fromTs = fromTs;
+            this.toTs = toTs;
+            return this;
+        }
+
+        /**
+         * Bars per request, at most {@link #MAX_PAGE_SIZE}
+         * @param pageSize
+         * @return
+         */
+        public Builder pageSize(int pageSize) {
+            if (pageSize < 2 || pageSize > MAX_PAGE_SIZE) {
+                throw new IllegalArgumentException("pageSize must be between 2 and " + MAX_PAGE_SIZE);
+            }
+            this.pageSize = pageSize;
+            return this;
+        }
+
+        /**
+         * Pages fetched at the same time; the api's rate limiter still has the last word
+         * @param parallelism
+         * @return
+         */
+        public Builder parallelism(int parallelism) {
+            if (parallelism < 1) {
+                throw new IllegalArgumentException("parallelism must be positive");
+            }
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Extra parameters sent with every page, e.g. an exchange
+         * @param optionalParams
+         * @return
+         */
+        public Builder optionalParams(Map<String, Object> optionalParams) {
+            this.optionalParams = optionalParams;
+            return this;
+        }
+
+        /**
+         * File recording the pairs already done, so an interrupted run can be resumed
+         * @param checkpointFile
+         * @return
+         */
+        public Builder checkpoint(Path checkpointFile) {
+            this.checkpointFile = checkpointFile;
+            return this;
+        }
+
+        public HistoryBackfill build() {
+            return new HistoryBackfill(this);
+        }
+    }
+}
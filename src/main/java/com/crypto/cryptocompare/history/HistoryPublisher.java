@@ -0,0 +1,401 @@
+package com.crypto.cryptocompare.history;
+
+import com.crypto.cryptocompare.api.CryptoCompareApi;
+import com.crypto.cryptocompare.model.CurrencyPair;
+import com.crypto.cryptocompare.model.OhlcvSeries;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams the bars of one pair over a time range as a Reactive Streams {@link Publisher}
+ * of pages, oldest first. Reactor, RxJava and Akka Streams consume it as it is, and
+ * {@code org.reactivestreams.FlowAdapters} bridges it to {@code java.util.concurrent.Flow}
+ * on Java 9+. Each page is an {@link OhlcvSeries} of up to
+ * {@link HistoryBackfill#MAX_PAGE_SIZE} bars, trimmed to the range, with bars repeated by
+ * the API dropped.
+ *
+ * Nothing is fetched until the subscriber requests a page. Pages are then fetched one at
+ * a time, only while fewer pages are waiting or on their way than the subscriber has
+ * requested plus the prefetch depth, so at most that many pages are held whatever the
+ * length of the range. With a prefetch of 0 every request is made on demand; a deeper
+ * prefetch fetches the next pages while the subscriber works on the current one.
+ *
+ * Only one page request is in flight at a time, even when the demand covers several
+ * pages, so one subscriber never sends a burst against the rate limit; a pass over the
+ * range takes a round trip per page. {@link HistoryBackfill} fetches a range with parallel
+ * requests instead.
+ *
+ * Every subscriber gets its own pass over the range.
+ */
+public class HistoryPublisher implements Publisher<OhlcvSeries> {
+
+    public static final int DEFAULT_PREFETCH = 1;
+
+    private final CryptoCompareApi api;
+
+    private final CurrencyPair pair;
+
+    private final Resolution resolution;
+
+    /**
+     * First and last bar of the range, aligned to the resolution
+     */
+    private final long fromTs;
+
+    private final long toTs;
+
+    private final int pageSize;
+
+    private final int prefetch;
+
+    private final Map<String, Object> optionalParams;
+
+    private final Executor executor;
+
+    /*************************
+     * Constructors
+     *************************/
+
+    private HistoryPublisher(Builder builder) {
+        if (builder.pair == null || builder.resolution == null || builder.toTs < builder.fromTs) {
+            throw new IllegalArgumentException("A pair, a resolution and a range are required");
+        }
+        this.api = builder.api;
+        this.pair = builder.pair;
+        this.resolution = builder.resolution;
+        this.fromTs = builder.resolution.align(builder.fromTs);
+        this.toTs = builder.resolution.align(builder.toTs);
+        this.pageSize = builder.pageSize;
+        this.prefetch = builder.prefetch;
+        this.optionalParams = builder.optionalParams;
+        this.executor = (builder.executor != null) ? builder.executor : Fetchers.EXECUTOR;
+    }
+
+    public static Builder builder(CryptoCompareApi api) {
+        return new Builder(api);
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super OhlcvSeries> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber");
+        }
+        PageSubscription subscription = new PageSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    /**
+     * Pages in the range
+     * @return
+     */
+    public int pageCount() {
+        long span = (long) this.pageSize * this.resolution.seconds();
+        return (int) ((this.toTs - this.fromTs) / span + 1);
+    }
+
+    /**
+     * Fetch one page and keep its bars inside the page window and after the last bar sent
+     * @param page index, oldest first
+     * @param after time of the last bar of the previous page
+     * @return
+     */
+    OhlcvSeries fetch(int page, long after) {
+        long period = this.resolution.seconds();
+        long first = this.fromTs + (long) page * this.pageSize * period;
+        long last = Math.min(this.toTs, first + (long) (this.pageSize - 1) * period);
+
+        Map<String, Object> params = new LinkedHashMap<>(this.optionalParams);
+        params.put("toTs", last);
+        params.put("limit", Math.max(1, (last - first) / period));
+        OhlcvSeries series = this.resolution.fetch(this.api, this.pair.fsym(), this.pair.tsym(), params);
+
+        OhlcvSeries.Builder builder = OhlcvSeries.builder().timeFrom(first).timeTo(last);
+        long previous = after;
+        for (int i = 0; i < series.size(); i++) {
+            long time = series.time(i);
+            if (time < first || time > last || time <= previous) {
+                continue;
+            }
+            builder.add(time, series.open(i), series.high(i), series.low(i), series.close(i),
+                    series.volumeFrom(i), series.volumeTo(i));
+            previous = time;
+        }
+        return builder.build();
+    }
+
+    /**
+     * One subscriber's pass over the range. Signals to the subscriber are only made from
+     * {@link #drain()}, which one thread at a time runs.
+     */
+    private final class PageSubscription implements Subscription {
+
+        private final Subscriber<? super OhlcvSeries> subscriber;
+
+        /**
+         * Pages requested and not yet sent, capped at Long.MAX_VALUE
+         */
+        private final AtomicLong requested = new AtomicLong();
+
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private final int pageCount = HistoryPublisher.this.pageCount();
+
+        /*
+         * Owned by the thread in drain()
+         */
+        private final ArrayDeque<OhlcvSeries> ready = new ArrayDeque<>();
+
+        private int nextPage;
+
+        private boolean fetching;
+
+        private long lastTime = Long.MIN_VALUE;
+
+        private boolean done;
+
+        /*
+         * Handed over by the fetching thread
+         */
+        private volatile OhlcvSeries fetched;
+
+        private volatile Throwable error;
+
+        private volatile boolean cancelled;
+
+        private PageSubscription(Subscriber<? super OhlcvSeries> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                this.error = new IllegalArgumentException("Requested " + n + " pages, must be positive (rule 3.9)");
+            } else {
+                long current;
+                do {
+                    current = this.requested.get();
+                    if (current == Long.MAX_VALUE) {
+                        break;
+                    }
+                } while (!this.requested.compareAndSet(current, (current + n < 0) ? Long.MAX_VALUE : current + n));
+            }
+            this.drain();
+        }
+
+        @Override
+        public void cancel() {
+            this.cancelled = true;
+            this.drain();
+        }
+
+        private void drain() {
+            if (this.wip.getAndIncrement() != 0) {
+                return;
+            }
+            do {
+                if (this.done) {
+                    continue;
+                }
+                if (this.cancelled) {
+                    this.done = true;
+                    this.ready.clear();
+                    continue;
+                }
+
+                OhlcvSeries page = this.fetched;
+                if (page != null) {
+                    this.fetched = null;
+                    this.fetching = false;
+                    if (page.size() > 0) {
+                        this.lastTime = page.time(page.size() - 1);
+                        this.ready.add(page);
+                    }
+                }
+
+                while (!this.ready.isEmpty() && this.requested.get() > 0 && !this.cancelled) {
+                    if (this.requested.get() != Long.MAX_VALUE) {
+                        this.requested.decrementAndGet();
+                    }
+                    this.emit(this.ready.poll());
+                }
+                if (this.done || this.cancelled) {
+                    continue;
+                }
+
+                Throwable error = this.error;
+                if (error != null && !this.fetching) {
+                    this.done = true;
+                    this.ready.clear();
+                    this.subscriber.onError(error);
+                    continue;
+                }
+                if (this.nextPage == this.pageCount && !this.fetching && this.ready.isEmpty()) {
+                    this.done = true;
+                    this.subscriber.onComplete();
+                    continue;
+                }
+
+                long wanted = Math.min(Integer.MAX_VALUE, this.requested.get()) + HistoryPublisher.this.prefetch;
+                boolean started = this.requested.get() > 0 || this.nextPage > 0;
+                if (started && error == null && !this.fetching && this.nextPage < this.pageCount && this.ready.size() < wanted) {
+                    this.fetching = true;
+                    this.startFetch(this.nextPage++, this.lastTime);
+                }
+            } while (this.wip.decrementAndGet() != 0);
+        }
+
+        private void emit(OhlcvSeries page) {
+            try {
+                this.subscriber.onNext(page);
+            } catch (RuntimeException ex) {
+                // A subscriber that throws is treated as cancelled (rule 2.13)
+                this.cancelled = true;
+            }
+        }
+
+        private void startFetch(int page, long after) {
+            try {
+                HistoryPublisher.this.executor.execute(() -> {
+                    try {
+                        OhlcvSeries series = HistoryPublisher.this.fetch(page, after);
+                        this.fetched = series;
+                    } catch (RuntimeException ex) {
+                        this.error = ex;
+                        this.fetched = OhlcvSeries.EMPTY;
+                    }
+                    this.drain();
+                });
+            } catch (RuntimeException ex) {
+                this.error = ex;
+                this.fetched = OhlcvSeries.EMPTY;
+                // Picked up by the drain loop that is running now
+                this.wip.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Shared daemon threads running the page fetches, started on first use
+     */
+    private static final class Fetchers {
+
+        private static final AtomicInteger COUNT = new AtomicInteger();
+
+        private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "cryptocompare-history-" + COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Configuration for a HistoryPublisher
+     */
+    public static class Builder {
+
+        private final CryptoCompareApi api;
+
+        private CurrencyPair pair;
+
+        private Resolution resolution;
+
+        private long fromTs;
+
+        private long toTs = -1;
+
+        private int pageSize = HistoryBackfill.MAX_PAGE_SIZE;
+
+        private int prefetch = DEFAULT_PREFETCH;
+
+        private Map<String, Object> optionalParams = Collections.emptyMap();
+
+        private Executor executor;
+
+        private Builder(CryptoCompareApi api) {
+            this.api = api;
+        }
+
+        public Builder pair(String fsym, String tsym) {
+            this.pair = new CurrencyPair(fsym, tsym);
+            return this;
+        }
+
+        public Builder resolution(Resolution resolution) {
+            this.resolution = resolution;
+            return this;
+        }
+
+        /**
+         * Range to stream, both ends included
+         * @param fromTs unix timestamp in seconds
+         * @param toTs unix timestamp in seconds
+         * @return
+         */
+        public Builder range(long fromTs, long toTs) {
+            this.fromTs = fromTs;
+            this.toTs = toTs;
+            return this;
+        }
+
+        /**
+         * Bars per page, at most {@link HistoryBackfill#MAX_PAGE_SIZE}
+         * @param pageSize
+         * @return
+         */
+        public Builder pageSize(int pageSize) {
+            if (pageSize < 2 || pageSize > HistoryBackfill.MAX_PAGE_SIZE) {
+                throw new IllegalArgumentException("pageSize must be between 2 and " + HistoryBackfill.MAX_PAGE_SIZE);
+            }
+            this.pageSize = pageSize;
+            return this;
+        }
+
+        /**
+         * Pages fetched ahead of the subscriber's requests, {@link #DEFAULT_PREFETCH} by default
+         * @param prefetch
+         * @return
+         */
+        public Builder prefetch(int prefetch) {
+            if (prefetch < 0) {
+                throw new IllegalArgumentException("prefetch must not be negative");
+            }
+            this.prefetch = prefetch;
+            return this;
+        }
+
+        /**
+         * Extra parameters sent with every page, e.g. an exchange
+         * @param optionalParams
+         * @return
+         */
+        public Builder optionalParams(Map<String, Object> optionalParams) {
+            this.optionalParams = optionalParams;
+            return this;
+        }
+
+        /**
+         * Runs the page fetches; shared daemon threads by default
+         * @param executor
+         * @return
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public HistoryPublisher build() {
+            return new HistoryPublisher(this);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.crypto.cryptocompare.history;
+
+import com.crypto.cryptocompare.api.CryptoCompareApi;
+import com.crypto.cryptocompare.api.Endpoint;
+import com.crypto.cryptocompare.model.OhlcvSeries;
+
+import java.util.Map;
+
+/**
+ * Bar length of historical data, with the histo endpoint serving it
+ */
+public enum Resolution {
+    MINUTE(60, Endpoint.HISTO_MINUTE),
+    HOUR(60 * 60, Endpoint.HISTO_HOUR),
+    DAY(24 * 60 * 60, Endpoint.HISTO_DAY);
+
+    private final long seconds;
+
+    private final Endpoint endpoint;
+
+    Resolution(long seconds, Endpoint endpoint) {
+        this.seconds = seconds;
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * Length of one bar
+     * @return
+     */
+    public long seconds() {
+        return this.seconds;
+    }
+
+    public Endpoint endpoint() {
+        return this.endpoint;
+    }
+
+    /**
+     * Open time of the bar containing a timestamp
+     * @param epochSecond
+     * @return
+     */
+    public long align(long epochSecond) {
+        return Math.floorDiv(epochSecond, this.seconds) * this.seconds;
+    }
+
+    /**
+     * Fetch bars of this resolution
+     * @param api
+     * @param fsym
+     * @param tsym
+     * @param optionalParams e.g. toTs and limit
+     * @return
+     */
+    public OhlcvSeries fetch(CryptoCompareApi api, String fsym, String tsym, Map<String, Object> optionalParams) {
+        switch (this) {
+            case MINUTE:
+                return api.histoMinuteSeries(fsym, tsym, optionalParams);
+            case HOUR:
+                return api.histoHourSeries(fsym, tsym, optionalParams);
+            default:
+                return api.histoDaySeries(fsym, tsym, optionalParams);
+        }
+    }
+}
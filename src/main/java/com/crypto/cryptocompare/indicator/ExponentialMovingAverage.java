@@ -0,0 +1,66 @@
+package com.crypto.cryptocompare.indicator;
+
+/**
+ * Exponential moving average with smoothing 2 / (n + 1), seeded with the simple average of
+ * the first n values as most charting tools do. Not thread safe.
+ */
+public class ExponentialMovingAverage {
+
+    private final int period;
+
+    private final double alpha;
+
+    private int count;
+
+    private double value;
+
+    /*************************
+     * Constructors
+     *************************/
+
+    /**
+     * @param period number of values the smoothing corresponds to
+     */
+    public ExponentialMovingAverage(int period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("period must be positive");
+        }
+        this.period = period;
+        this.alpha = 2.0 / (period + 1);
+    }
+
+    /**
+     * @param value
+     * @return the average after the update
+     */
+    public double add(double value) {
+        if (this.count < this.period) {
+            this.count++;
+            this.value += (value - this.value) / this.count;
+        } else {
+            this.value += this.alpha * (value - this.value);
+        }
+        return this.value();
+    }
+
+    /**
+     * Current average, the simple average until n values have been added and NaN before the first
+     * @return
+     */
+    public double value() {
+        return (this.count == 0) ? Double.NaN : this.value;
+    }
+
+    public boolean isReady() {
+        return this.count == this.period;
+    }
+
+    public int period() {
+        return this.period;
+    }
+
+    public void clear() {
+        this.count = 0;
+        this.value = 0;
+    }
+}
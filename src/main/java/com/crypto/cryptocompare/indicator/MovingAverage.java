@@ -0,0 +1,55 @@
+package com.crypto.cryptocompare.indicator;
+
+/**
+ * Simple moving average of the last n values, updated in O(1). Not thread safe.
+ */
+public class MovingAverage {
+
+    private final RollingSum sum;
+
+    /*************************
+     * Constructors
+     *************************/
+
+    /**
+     * @param window number of values averaged
+     */
+    public MovingAverage(int window) {
+        this.sum = new RollingSum(window);
+    }
+
+    /**
+     * Add a value, dropping the oldest once the window is full
+     * @param value
+     * @return the average after the update
+     */
+    public double add(double value) {
+        this.sum.add(value);
+        return this.value();
+    }
+
+    /**
+     * Average of the values in the window, NaN before the first
+     * @return
+     */
+    public double value() {
+        int count = this.sum.count();
+        return (count == 0) ? Double.NaN : this.sum.sum() / count;
+    }
+
+    /**
+     * Whether the window is full, so the average covers n values
+     * @return
+     */
+    public boolean isReady() {
+        return this.sum.isFull();
+    }
+
+    public int window() {
+        return this.sum.window();
+    }
+
+    public void clear() {
+        this.sum.clear();
+    }
+}
@@ -0,0 +1,184 @@
+package com.crypto.cryptocompare.indicator;
+
+/**
+ * Highest high and lowest low of the last n updates, e.g. for Donchian channels or
+ * stochastics. Each side keeps a monotonic queue of the updates that can still become the
+ * extreme, in primitive ring buffers, so an update is O(1) amortized and reading is O(1)
+ * rather than a scan of the window. Not thread safe.
+ */
+public class RollingExtremes {
+
+    private final int window;
+
+    private final double[] highs;
+
+    private final double[] lows;
+
+    /**
+     * Updates seen, the sequence number of the next one
+     */
+    private long sequence;
+
+    private final MonotonicQueue maxima;
+
+    private final MonotonicQueue minima;
+
+    /*************************
+     * Constructors
+     *************************/
+
+    /**
+     * @param window number of updates covered
+     */
+    public RollingExtremes(int window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("window must be positive");
+        }
+        this.window = window;
+        this.highs = new double[window];
+        this.lows = new double[window];
+        this.maxima = new MonotonicQueue(window);
+        this.minima = new MonotonicQueue(window);
+    }
+
+    /**
+     * Add a single value, e.g. a price
+     * @param value
+     */
+    public void add(double value) {
+        this.add(value, value);
+    }
+
+    /**
+     * Add the high and low of a bar
+     * @param high
+     * @param low
+     */
+    public void add(double high, double low) {
+        long expired = this.sequence - this.window;
+        this.maxima.expire(expired);
+        this.minima.expire(expired);
+
+        int slot = (int) (this.sequence % this.window);
+        this.highs[slot] = high;
+        this.lows[slot] = low;
+
+        while (!this.maxima.isEmpty() && this.highs[this.slot(this.maxima.last())] <= high) {
+            this.maxima.removeLast();
+        }
+        this.maxima.addLast(this.sequence);
+        while (!this.minima.isEmpty() && this.lows[this.slot(this.minima.last())] >= low) {
+            this.minima.removeLast();
+        }
+        this.minima.addLast(this.sequence);
+        this.sequence++;
+    }
+
+    /**
+     * Highest high in the window, NaN before the first update
+     * @return
+     */
+    public double high() {
+        return this.maxima.isEmpty() ? Double.NaN : this.highs[this.slot(this.maxima.first())];
+    }
+
+    /**
+     * Lowest low in the window, NaN before the first update
+     * @return
+     */
+    public double low() {
+        return this.minima.isEmpty() ? Double.NaN : this.lows[this.slot(this.minima.first())];
+    }
+
+    /**
+     * Updates since the highest high, 0 when it is the latest
+     * @return
+     */
+    public int sinceHigh() {
+        return this.maxima.isEmpty() ? -1 : (int) (this.sequence - 1 - this.maxima.first());
+    }
+
+    /**
+     * Updates since the lowest low, 0 when it is the latest
+     * @return
+     */
+    public int sinceLow() {
+        return this.minima.isEmpty() ? -1 : (int) (this.sequence - 1 - this.minima.first());
+    }
+
+    public boolean isReady() {
+        return this.sequence >= this.window;
+    }
+
+    public int window() {
+        return this.window;
+    }
+
+    public void clear() {
+        this.sequence = 0;
+        this.maxima.clear();
+        this.minima.clear();
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % this.window);
+    }
+
+    /**
+     * Deque of sequence numbers in a ring buffer; it never holds more than a window of them
+     */
+    private static final class MonotonicQueue {
+
+        private final long[] sequences;
+
+        private int head;
+
+        private int size;
+
+        private MonotonicQueue(int capacity) {
+            this.sequences = new long[capacity];
+        }
+
+        private boolean isEmpty() {
+            return this.size == 0;
+        }
+
+        private long first() {
+            return this.sequences[this.head];
+        }
+
+        private long last() {
+            return this.sequences[this.index(this.size - 1)];
+        }
+
+        private void addLast(long sequence) {
+            this.sequences[this.index(this.size)] = sequence;
+            this.size++;
+        }
+
+        private void removeLast() {
+            this.size--;
+        }
+
+        /**
+         * Drop the sequence numbers at or before one that has left the window
+         * @param expired
+         */
+        private void expire(long expired) {
+            while (this.size > 0 && this.sequences[this.head] <= expired) {
+                this.head = this.index(1);
+                this.size--;
+            }
+        }
+
+        private void clear() {
+            this.head = 0;
+            this.size = 0;
+        }
+
+        private int index(int offset) {
+            int index = this.head + offset;
+            return (index >= this.sequences.length) ? index - this.sequences.length : index;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.crypto.cryptocompare.indicator;
+
+/**
+ * Sum of the last n values in a primitive ring buffer. Adding and removing one value per
+ * update lets rounding error build up, so the sum is recomputed from the buffer once every
+ * n updates, which keeps an update O(1) amortized.
+ */
+final class RollingSum {
+
+    private final double[] values;
+
+    private int next;
+
+    private int count;
+
+    private int sinceResync;
+
+    private double sum;
+
+    RollingSum(int window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("window must be positive");
+        }
+        this.values = new double[window];
+    }
+
+    void add(double value) {
+        if (this.count == this.values.length) {
+            this.sum -= this.values[this.next];
+        } else {
+            this.count++;
+        }
+        this.values[this.next] = value;
+        this.sum += value;
+        if (++this.next == this.values.length) {
+            this.next = 0;
+        }
+
+        if (++this.sinceResync == this.values.length) {
+            this.sinceResync = 0;
+            double exact = 0;
+            for (int i = 0; i < this.count; i++) {
+                exact += this.values[i];
+            }
+            this.sum = exact;
+        }
+    }
+
+    double sum() {
+        return this.sum;
+    }
+
+    int count() {
+        return this.count;
+    }
+
+    int window() {
+        return this.values.length;
+    }
+
+    boolean isFull() {
+        return this.count == this.values.length;
+    }
+
+    void clear() {
+        this.next = 0;
+        this.count = 0;
+        this.sinceResync = 0;
+        this.sum = 0;
+    }
+}
@@ -0,0 +1,76 @@
+package com.crypto.cryptocompare.indicator;
+
+/**
+ * Volume weighted average price over the last n updates, updated in O(1). For candles,
+ * {@link #addBar(double, double)} uses the volume in both symbols, whose ratio is exactly
+ * the average price traded; {@link #add(double, double)} takes a price and a volume, e.g.
+ * the close or the typical price of a bar, or a trade. Not thread safe.
+ */
+public class RollingVwap {
+
+    private final RollingSum turnover;
+
+    private final RollingSum volume;
+
+    /*************************
+     * Constructors
+     *************************/
+
+    /**
+     * @param window number of updates covered
+     */
+    public RollingVwap(int window) {
+        this.turnover = new RollingSum(window);
+        this.volume = new RollingSum(window);
+    }
+
+    /**
+     * @param price
+     * @param volume in the from symbol
+     * @return the VWAP after the update
+     */
+    public double add(double price, double volume) {
+        return this.addBar(volume, price * volume);
+    }
+
+    /**
+     * @param volumeFrom volume of the bar in the from symbol
+     * @param volumeTo volume of the bar in the to symbol
+     * @return the VWAP after the update
+     */
+    public double addBar(double volumeFrom, double volumeTo) {
+        this.volume.add(volumeFrom);
+        this.turnover.add(volumeTo);
+        return this.value();
+    }
+
+    /**
+     * VWAP over the window, NaN while nothing has traded in it
+     * @return
+     */
+    public double value() {
+        double volume = this.volume.sum();
+        return (volume > 0) ? this.turnover.sum() / volume : Double.NaN;
+    }
+
+    /**
+     * Volume in the from symbol over the window
+     * @return
+     */
+    public double volume() {
+        return this.volume.sum();
+    }
+
+    public boolean isReady() {
+        return this.volume.isFull();
+    }
+
+    public int window() {
+        return this.volume.window();
+    }
+
+    public void clear() {
+        this.turnover.clear();
+        this.volume.clear();
+    }
+}
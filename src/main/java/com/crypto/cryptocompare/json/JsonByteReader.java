@@ -0,0 +1,548 @@
+package com.crypto.cryptocompare.json;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Pull reader over raw UTF-8 JSON bytes for the typed decoders. Names are matched and
+ * numbers parsed in place, so reading a value allocates nothing unless a String is asked
+ * for. The input is trusted to be well formed: commas and colons are treated as
+ * separators rather than validated.
+ */
+public class JsonByteReader {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Powers of ten that are exact in a double
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * Largest mantissa a double holds exactly
+     */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private final InputStream in;
+
+    private final byte[] buffer;
+
+    private int position;
+
+    private int limit;
+
+    /**
+     * Bytes of the last name or string read, escapes resolved
+     */
+    private byte[] scratch = new byte[64];
+
+    private int scratchLength;
+
+    public JsonByteReader(InputStream in) {
+        this.in = in;
+        this.buffer = new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * Read from a byte array, without copying it
+     * @param bytes
+     * @param offset
+     * @param length
+     */
+    public JsonByteReader(byte[] bytes, int offset, int length) {
+        this.in = null;
+        this.buffer = bytes;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+
+    /**
+     * Type of the next value
+     * @return
+     * @throws IOException
+     */
+    public JsonType peek() throws IOException {
+        int b = this.peekByte();
+        switch (b) {
+            case '{':
+                return JsonType.OBJECT;
+            case '[':
+                return JsonType.ARRAY;
+            case '"':
+                return JsonType.STRING;
+            case 't':
+            case 'f':
+                return JsonType.BOOLEAN;
+            case 'n':
+                return JsonType.NULL;
+            case '}':
+            case ']':
+                return JsonType.END;
+            case -1:
+                return JsonType.END_OF_INPUT;
+            default:
+                return JsonType.NUMBER;
+        }
+    }
+
+    public void beginObject() throws IOException {
+        this.expect('{');
+    }
+
+    public void endObject() throws IOException {
+        this.expect('}');
+    }
+
+    public void beginArray() throws IOException {
+        this.expect('[');
+    }
+
+    public void endArray() throws IOException {
+        this.expect(']');
+    }
+
+    /**
+     * Whether the current object or array has another member
+     * @return
+     * @throws IOException
+     */
+    public boolean hasNext() throws IOException {
+        int b = this.peekByte();
+        return b != '}' && b != ']' && b != -1;
+    }
+
+    /**
+     * Read the next member name; compare it with {@link #nameEquals(byte[])}
+     * @throws IOException
+     */
+    public void nextName() throws IOException {
+        this.readStringBytes();
+    }
+
+    /**
+     * Whether the last name or string read equals the given ASCII bytes
+     * @param expected
+     * @return
+     */
+    public boolean nameEquals(byte[] expected) {
+        if (expected.length != this.scratchLength) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (this.scratch[i] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The last name or string read
+     * @return
+     */
+    public String lastString() {
+        return new String(this.scratch, 0, this.scratchLength, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Bytes of the last name or string read; valid until the next read
+     * @return
+     */
+    public byte[] lastBytes() {
+        return this.scratch;
+    }
+
+    public int lastLength() {
+        return this.scratchLength;
+    }
+
+    /**
+     * Read the next string without allocating; inspect it with {@link #nameEquals(byte[])}
+     * or {@link #lastBytes()}
+     * @throws IOException
+     */
+    public void nextStringBytes() throws IOException {
+        this.readStringBytes();
+    }
+
+    public String nextString() throws IOException {
+        if (this.peek() == JsonType.NULL) {
+            this.skipLiteral();
+            return null;
+        }
+        this.readStringBytes();
+        return this.lastString();
+    }
+
+    public boolean nextBoolean() throws IOException {
+        boolean value = this.peekByte() == 't';
+        this.skipLiteral();
+        return value;
+    }
+
+    /**
+     * Read a number; null and quoted numbers are accepted, null reads as NaN
+     * @return
+     * @throws IOException
+     */
+    public double nextDouble() throws IOException {
+        int b = this.peekByte();
+        if (b == 'n') {
+            this.skipLiteral();
+            return Double.NaN;
+        }
+        if (b == '"') {
+            this.readStringBytes();
+            return parseDouble(this.lastString());
+        }
+        return this.readNumber();
+    }
+
+    public long nextLong() throws IOException {
+        int b = this.peekByte();
+        if (b == 'n') {
+            this.skipLiteral();
+            return 0;
+        }
+        if (b == '"') {
+            this.readStringBytes();
+            return (long) parseDouble(this.lastString());
+        }
+
+        boolean negative = false;
+        if (b == '-') {
+            negative = true;
+            this.position++;
+        }
+
+        long value = 0;
+        boolean fraction = false;
+        while (true) {
+            int c = this.peekRaw();
+            if (c >= '0' && c <= '9') {
+                if (!fraction) {
+                    value = value * 10 + (c - '0');
+                }
+            } else if (c == '.') {
+                fraction = true;
+            } else if (c == 'e' || c == 'E') {
+                throw new IOException("Expected an integer but found an exponent");
+            } else {
+                break;
+            }
+            this.position++;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Skip the next value, including nested objects and arrays
+     * @throws IOException
+     */
+    public void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            int b = this.peekByte();
+            switch (b) {
+                case '{':
+                case '[':
+                    depth++;
+                    this.position++;
+                    break;
+                case '}':
+                case ']':
+                    depth--;
+                    this.position++;
+                    break;
+                case '"':
+                    this.skipString();
+                    break;
+                case -1:
+                    throw new EOFException("Unexpected end of JSON");
+                default:
+                    this.skipLiteral();
+            }
+        } while (depth > 0);
+    }
+
+    /*************************
+     * Scanning
+     *************************/
+
+    private void expect(char expected) throws IOException {
+        int b = this.peekByte();
+        if (b != expected) {
+            throw new IOException("Expected '" + expected + "' but found " + describe(b));
+        }
+        this.position++;
+    }
+
+    /**
+     * Next significant byte, skipping whitespace and separators, without consuming it
+     * @return
+     * @throws IOException
+     */
+    private int peekByte() throws IOException {
+        while (true) {
+            if (this.position == this.limit && !this.fill()) {
+                return -1;
+            }
+            byte b = this.buffer[this.position];
+            if (b == ' ' || b == ',' || b == ':' || b == '\n' || b == '\r' || b == '\t') {
+                this.position++;
+            } else {
+                return b;
+            }
+        }
+    }
+
+    /**
+     * Next byte without skipping anything, -1 at the end of input
+     * @return
+     * @throws IOException
+     */
+    private int peekRaw() throws IOException {
+        if (this.position == this.limit && !this.fill()) {
+            return -1;
+        }
+        return this.buffer[this.position];
+    }
+
+    private int readRaw() throws IOException {
+        if (this.position == this.limit && !this.fill()) {
+            throw new EOFException("Unexpected end of JSON");
+        }
+        return this.buffer[this.position++];
+    }
+
+    private boolean fill() throws IOException {
+        if (this.in == null) {
+            return false;
+        }
+        int read = this.in.read(this.buffer, 0, this.buffer.length);
+        if (read <= 0) {
+            return false;
+        }
+        this.position = 0;
+        this.limit = read;
+        return true;
+    }
+
+    private void skipLiteral() throws IOException {
+        while (true) {
+            int b = this.peekRaw();
+            if (b == -1 || b == ',' || b == '}' || b == ']' || b == ' ' || b == '\n' || b == '\r' || b == '\t') {
+                return;
+            }
+            this.position++;
+        }
+    }
+
+    private void skipString() throws IOException {
+        this.position++;
+        while (true) {
+            int b = this.readRaw();
+            if (b == '\\') {
+                this.readRaw();
+            } else if (b == '"') {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Read a quoted string into the scratch buffer as UTF-8, resolving escapes
+     * @throws IOException
+     */
+    private void readStringBytes() throws IOException {
+        this.expect('"');
+        this.scratchLength = 0;
+        while (true) {
+            int b = this.readRaw();
+            if (b == '"') {
+                return;
+            }
+            if (b != '\\') {
+                this.appendScratch(b);
+                continue;
+            }
+
+            int escaped = this.readRaw();
+            switch (escaped) {
+                case 'n':
+                    this.appendScratch('\n');
+                    break;
+                case 't':
+                    this.appendScratch('\t');
+                    break;
+                case 'r':
+                    this.appendScratch('\r');
+                    break;
+                case 'b':
+                    this.appendScratch('\b');
+                    break;
+                case 'f':
+                    this.appendScratch('\f');
+                    break;
+                case 'u':
+                    this.appendCodePoint(this.readUnicodeEscape());
+                    break;
+                default:
+                    // quote, backslash and slash stand for themselves
+                    this.appendScratch(escaped);
+            }
+        }
+    }
+
+    private int readUnicodeEscape() throws IOException {
+        int high = this.readHex4();
+        if (!Character.isHighSurrogate((char) high)) {
+            return high;
+        }
+
+        // A surrogate pair is written as two consecutive escapes
+        if (this.readRaw() != '\\' || this.readRaw() != 'u') {
+            throw new IOException("Unpaired surrogate in string");
+        }
+        int low = this.readHex4();
+        return Character.toCodePoint((char) high, (char) low);
+    }
+
+    private int readHex4() throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = Character.digit(this.readRaw(), 16);
+            if (digit < 0) {
+                throw new IOException("Malformed unicode escape");
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    private void appendCodePoint(int codePoint) {
+        if (codePoint < 0x80) {
+            this.appendScratch(codePoint);
+        } else if (codePoint < 0x800) {
+            this.appendScratch(0xC0 | (codePoint >> 6));
+            this.appendScratch(0x80 | (codePoint & 0x3F));
+        } else if (codePoint < 0x10000) {
+            this.appendScratch(0xE0 | (codePoint >> 12));
+            this.appendScratch(0x80 | ((codePoint >> 6) & 0x3F));
+            this.appendScratch(0x80 | (codePoint & 0x3F));
+        } else {
+            this.appendScratch(0xF0 | (codePoint >> 18));
+            this.appendScratch(0x80 | ((codePoint >> 12) & 0x3F));
+            this.appendScratch(0x80 | ((codePoint >> 6) & 0x3F));
+            this.appendScratch(0x80 | (codePoint & 0x3F));
+        }
+    }
+
+    private void appendScratch(int b) {
+        if (this.scratchLength == this.scratch.length) {
+            this.scratch = Arrays.copyOf(this.scratch, this.scratch.length * 2);
+        }
+        this.scratch[this.scratchLength++] = (byte) b;
+    }
+
+    /**
+     * Parse an unquoted number. Up to 15 significant digits with a small exponent are
+     * computed exactly from the mantissa; anything longer goes through Double.parseDouble.
+     * @return
+     * @throws IOException
+     */
+    private double readNumber() throws IOException {
+        this.scratchLength = 0;
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean negative = false;
+        boolean fraction = false;
+
+        int b = this.peekRaw();
+        if (b == '-') {
+            negative = true;
+            this.appendScratch(b);
+            this.position++;
+        }
+
+        while (true) {
+            b = this.peekRaw();
+            if (b >= '0' && b <= '9') {
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    if (mantissa != 0) {
+                        digits++;
+                    }
+                    if (fraction) {
+                        exponent--;
+                    }
+                } else {
+                    digits++;
+                    if (!fraction) {
+                        exponent++;
+                    }
+                }
+            } else if (b == '.') {
+                fraction = true;
+            } else if (b == 'e' || b == 'E') {
+                this.appendScratch(b);
+                this.position++;
+                exponent += this.readExponent();
+                break;
+            } else {
+                break;
+            }
+            this.appendScratch(b);
+            this.position++;
+        }
+
+        if (this.scratchLength == 0 || (negative && this.scratchLength == 1)) {
+            throw new IOException("Expected a number but found " + describe(b));
+        }
+
+        if (digits <= 15 && mantissa < MAX_EXACT_MANTISSA && exponent >= -22 && exponent <= 22) {
+            double value = exponent < 0
+                    ? mantissa / POWERS_OF_TEN[-exponent]
+                    : mantissa * POWERS_OF_TEN[exponent];
+            return negative ? -value : value;
+        }
+        return parseDouble(new String(this.scratch, 0, this.scratchLength, StandardCharsets.US_ASCII));
+    }
+
+    private int readExponent() throws IOException {
+        boolean negative = false;
+        int b = this.peekRaw();
+        if (b == '-' || b == '+') {
+            negative = b == '-';
+            this.appendScratch(b);
+            this.position++;
+        }
+
+        int value = 0;
+        while ((b = this.peekRaw()) >= '0' && b <= '9') {
+            value = Math.min(value * 10 + (b - '0'), 100000);
+            this.appendScratch(b);
+            this.position++;
+        }
+        return negative ? -value : value;
+    }
+
+    private static double parseDouble(String value) throws IOException {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException ex) {
+            throw new IOException("Malformed number " + value, ex);
+        }
+    }
+
+    private static String describe(int b) {
+        return b == -1 ? "end of input" : "'" + (char) b + "'";
+    }
+}
@@ -0,0 +1,18 @@
+package com.crypto.cryptocompare.json;
+
+/**
+ * Kind of the next token seen by a JsonByteReader
+ */
+public enum JsonType {
+    OBJECT,
+    ARRAY,
+    STRING,
+    NUMBER,
+    BOOLEAN,
+    NULL,
+    /**
+     * Closing brace or bracket of the current object or array
+     */
+    END,
+    END_OF_INPUT
+}
@@ -0,0 +1,591 @@
+package com.crypto.cryptocompare.json;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Read-only view of a JSON object over its raw UTF-8 bytes. Building it only records
+ * where each member's name and value start and end; a value is parsed the first time it
+ * is asked for, and nested objects are views themselves, indexed on first access. For a
+ * response like the coin list, where callers look at a few coins out of thousands, this
+ * keeps the body at the size of its bytes rather than a tree of JsonObjects many times
+ * larger, and skips most of the parsing.
+ *
+ * Member lookup goes through a hash table of the names' bytes and allocates nothing for
+ * ASCII names. Values handed out are cached and shared between callers, and must not be
+ * modified. Safe to read from several threads.
+ */
+public final class LazyJsonObject {
+
+    private static final JsonParser jsonParser = new JsonParser();
+
+    private final byte[] bytes;
+
+    private final int start;
+
+    private final int end;
+
+    private volatile Index index;
+
+    /*************************
+     * Constructors
+     *************************/
+
+    private LazyJsonObject(byte[] bytes, int start, int end) {
+        this.bytes = bytes;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Index a JSON object held in a byte array, without copying it
+     * @param bytes
+     * @param offset
+     * @param length
+     * @return
+     * @throws IOException if the bytes do not hold an object
+     */
+    public static LazyJsonObject of(byte[] bytes, int offset, int length) throws IOException {
+        int end = offset + length;
+        int start = skipWhitespace(bytes, offset, end);
+        if (start == end || bytes[start] != '{') {
+            throw new IOException("Expected a JSON object");
+        }
+        LazyJsonObject object = new LazyJsonObject(bytes, start, skipValue(bytes, start, end));
+        object.index();
+        return object;
+    }
+
+    /**
+     * Read a whole stream and index the object it holds
+     * @param in
+     * @return
+     * @throws IOException
+     */
+    public static LazyJsonObject read(InputStream in) throws IOException {
+        byte[] buffer = new byte[Math.max(8192, in.available() + 1)];
+        int length = 0;
+        int read;
+        while ((read = in.read(buffer, length, buffer.length - length)) > 0) {
+            length += read;
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+        }
+        return of(buffer, 0, length);
+    }
+
+    /**
+     * Number of members
+     * @return
+     */
+    public int size() {
+        return this.index().size;
+    }
+
+    public boolean has(String name) {
+        return this.find(name) >= 0;
+    }
+
+    /**
+     * Names of the members, in the order of the JSON, decoded as they are read
+     * @return
+     */
+    public List<String> names() {
+        Index index = this.index();
+        return new AbstractList<String>() {
+            @Override
+            public String get(int member) {
+                return LazyJsonObject.this.name(index, member);
+            }
+
+            @Override
+            public int size() {
+                return index.size;
+            }
+        };
+    }
+
+    /**
+     * Type of a member's value
+     * @param name
+     * @return the type, or null when there is no such member
+     */
+    public JsonType type(String name) {
+        int member = this.find(name);
+        if (member < 0) {
+            return null;
+        }
+        switch (this.bytes[this.index().valueStarts[member]]) {
+            case '{':
+                return JsonType.OBJECT;
+            case '[':
+                return JsonType.ARRAY;
+            case '"':
+                return JsonType.STRING;
+            case 't':
+            case 'f':
+                return JsonType.BOOLEAN;
+            case 'n':
+                return JsonType.NULL;
+            default:
+                return JsonType.NUMBER;
+        }
+    }
+
+    /**
+     * A member that is an object, as a view of its own
+     * @param name
+     * @return the view, or null when there is no such member or it is not an object
+     */
+    public LazyJsonObject getObject(String name) {
+        int member = this.find(name);
+        if (member < 0) {
+            return null;
+        }
+        Index index = this.index();
+        LazyJsonObject cached = index.views.get(member);
+        if (cached != null) {
+            return cached;
+        }
+        if (this.bytes[index.valueStarts[member]] != '{') {
+            return null;
+        }
+        LazyJsonObject object = new LazyJsonObject(this.bytes, index.valueStarts[member], index.valueEnds[member]);
+        return index.views.compareAndSet(member, null, object) ? object : index.views.get(member);
+    }
+
+    /**
+     * A member parsed into a Gson tree
+     * @param name
+     * @return the value, or null when there is no such member
+     */
+    public JsonElement get(String name) {
+        int member = this.find(name);
+        if (member < 0) {
+            return null;
+        }
+        Index index = this.index();
+        JsonElement cached = index.trees.get(member);
+        if (cached != null) {
+            return cached;
+        }
+        JsonElement element = parse(this.bytes, index.valueStarts[member], index.valueEnds[member]);
+        return index.trees.compareAndSet(member, null, element) ? element : index.trees.get(member);
+    }
+
+    /**
+     * A member read as a String, decoding numbers and literals as their text
+     * @param name
+     * @return the value, or null when there is no such member or it is null
+     */
+    public String getString(String name) {
+        int member = this.find(name);
+        if (member < 0) {
+            return null;
+        }
+        try {
+            JsonByteReader reader = this.reader(this.index(), member);
+            switch (reader.peek()) {
+                case STRING:
+                    return reader.nextString();
+                case NULL:
+                    return null;
+                default:
+                    return this.get(name).toString();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * A member read as a number; the API sends many numbers quoted, which are read too
+     * @param name
+     * @return the value, or NaN when there is no such member or it is not a number
+     */
+    public double getDouble(String name) {
+        int member = this.find(name);
+        if (member < 0) {
+            return Double.NaN;
+        }
+        try {
+            JsonByteReader reader = this.reader(this.index(), member);
+            JsonType type = reader.peek();
+            return (type == JsonType.NUMBER || type == JsonType.STRING) ? reader.nextDouble() : Double.NaN;
+        } catch (IOException | NumberFormatException ex) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Parse the whole object into a Gson tree
+     * @return
+     */
+    public JsonObject toJsonObject() {
+        return parse(this.bytes, this.start, this.end).getAsJsonObject();
+    }
+
+    /**
+     * Size of the object's JSON text in bytes
+     * @return
+     */
+    public int length() {
+        return this.end - this.start;
+    }
+
+    /**
+     * Write the object's JSON text as it was received
+     * @param out
+     * @throws IOException
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(this.bytes, this.start, this.end - this.start);
+    }
+
+    /**
+     * Stream over the object's JSON text, e.g. for a typed decoder
+     * @return
+     */
+    public InputStream newInputStream() {
+        return new ByteArrayInputStream(this.bytes, this.start, this.end - this.start);
+    }
+
+    /**
+     * The object's JSON text
+     * @return
+     */
+    @Override
+    public String toString() {
+        return new String(this.bytes, this.start, this.end - this.start, StandardCharsets.UTF_8);
+    }
+
+    /*************************
+     * Index
+     *************************/
+
+    /**
+     * Offsets of the members, built on first use; racing threads build equal indexes
+     * @return
+     */
+    private Index index() {
+        Index index = this.index;
+        if (index == null) {
+            try {
+                index = new Index(this.bytes, this.start, this.end);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            this.index = index;
+        }
+        return index;
+    }
+
+    private int find(String name) {
+        Index index = this.index();
+        int length = name.length();
+        byte[] key = null;
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            char c = name.charAt(i);
+            if (c >= 0x80) {
+                key = name.getBytes(StandardCharsets.UTF_8);
+                break;
+            }
+            hash = 31 * hash + c;
+        }
+        if (key != null) {
+            hash = hash(key, 0, key.length);
+            length = key.length;
+        }
+
+        int mask = index.table.length - 1;
+        for (int slot = mix(hash) & mask; index.table[slot] != 0; slot = (slot + 1) & mask) {
+            int member = index.table[slot] - 1;
+            if (index.hashes[member] == hash && this.nameEquals(index, member, name, key, length)) {
+                return member;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Compare a member's name with a looked up one, given as chars when ASCII and as UTF-8 otherwise
+     */
+    private boolean nameEquals(Index index, int member, String name, byte[] key, int length) {
+        int offset = index.nameStarts[member];
+        if (index.nameLengths[member] < 0) {
+            // The name has escapes, compare it decoded
+            String decoded = this.name(index, member);
+            return decoded.equals(name);
+        }
+        if (index.nameLengths[member] != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            int expected = (key != null) ? key[i] : name.charAt(i);
+            if (this.bytes[offset + i] != (byte) expected) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String name(Index index, int member) {
+        int offset = index.nameStarts[member];
+        int length = index.nameLengths[member];
+        if (length >= 0) {
+            return new String(this.bytes, offset, length, StandardCharsets.UTF_8);
+        }
+        try {
+            JsonByteReader reader = new JsonByteReader(this.bytes, offset - 1, this.end - offset + 1);
+            return reader.nextString();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private JsonByteReader reader(Index index, int member) {
+        int start = index.valueStarts[member];
+        return new JsonByteReader(this.bytes, start, index.valueEnds[member] - start);
+    }
+
+    private static JsonElement parse(byte[] bytes, int start, int end) {
+        JsonReader reader = new JsonReader(new InputStreamReader(
+                new ByteArrayInputStream(bytes, start, end - start), StandardCharsets.UTF_8));
+        reader.setLenient(true);
+        try {
+            return jsonParser.parse(reader);
+        } catch (JsonParseException ex) {
+            throw new UncheckedIOException(new IOException("Malformed JSON value", ex));
+        }
+    }
+
+    /*************************
+     * Scanning
+     *************************/
+
+    /**
+     * Skip whitespace and the separators between members
+     * @return the offset of the next significant byte, or end
+     */
+    private static int skipWhitespace(byte[] bytes, int position, int end) {
+        while (position < end) {
+            byte b = bytes[position];
+            if (b != ' ' && b != ',' && b != ':' && b != '\n' && b != '\r' && b != '\t') {
+                break;
+            }
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * Skip a value by looking only at quotes and brackets, which is all it takes to find
+     * its end and much cheaper than reading it
+     * @return the offset just past the value
+     */
+    private static int skipValue(byte[] bytes, int position, int end) throws IOException {
+        byte first = bytes[position];
+        if (first == '"') {
+            return skipString(bytes, position, end);
+        }
+        if (first != '{' && first != '[') {
+            while (position < end) {
+                byte b = bytes[position];
+                if (b == ',' || b == '}' || b == ']' || b == ' ' || b == '\n' || b == '\r' || b == '\t') {
+                    break;
+                }
+                position++;
+            }
+            return position;
+        }
+
+        int depth = 0;
+        while (position < end) {
+            byte b = bytes[position];
+            if (b == '"') {
+                position = skipString(bytes, position, end);
+                continue;
+            }
+            if (b == '{' || b == '[') {
+                depth++;
+            } else if ((b == '}' || b == ']') && --depth == 0) {
+                return position + 1;
+            }
+            position++;
+        }
+        throw new EOFException("Unexpected end of JSON");
+    }
+
+    /**
+     * @param position offset of the opening quote
+     * @return the offset just past the closing quote
+     */
+    private static int skipString(byte[] bytes, int position, int end) throws IOException {
+        for (int i = position + 1; i < end; i++) {
+            byte b = bytes[i];
+            if (b == '"') {
+                return i + 1;
+            }
+            if (b == '\\') {
+                i++;
+            }
+        }
+        throw new EOFException("Unexpected end of JSON");
+    }
+
+    private static int indexOf(byte[] bytes, int from, int to, byte b) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int hash(byte[] bytes, int offset, int length) {
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        return hash;
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Where each member's name and value lie, with an open addressing table from the hash
+     * of a name to its member
+     */
+    private static final class Index {
+
+        private int size;
+
+        /**
+         * First byte of each name after the opening quote
+         */
+        private int[] nameStarts;
+
+        /**
+         * Length of each name in bytes, -1 when it has escapes
+         */
+        private int[] nameLengths;
+
+        private int[] hashes;
+
+        private int[] valueStarts;
+
+        private int[] valueEnds;
+
+        /**
+         * Member + 1 per slot, 0 for an empty slot
+         */
+        private final int[] table;
+
+        /**
+         * Views handed out by getObject and trees by get, each made on first access
+         */
+        private final AtomicReferenceArray<LazyJsonObject> views;
+
+        private final AtomicReferenceArray<JsonElement> trees;
+
+        private Index(byte[] bytes, int start, int end) throws IOException {
+            int capacity = 16;
+            this.nameStarts = new int[capacity];
+            this.nameLengths = new int[capacity];
+            this.hashes = new int[capacity];
+            this.valueStarts = new int[capacity];
+            this.valueEnds = new int[capacity];
+
+            int position = start + 1;
+            while (true) {
+                position = skipWhitespace(bytes, position, end);
+                if (position == end || bytes[position] == '}') {
+                    break;
+                }
+                if (bytes[position] != '"') {
+                    throw new IOException("Expected a member name at " + position);
+                }
+                if (this.size == this.nameStarts.length) {
+                    this.grow();
+                }
+                int member = this.size++;
+                int nameStart = position + 1;
+                int nameEnd = skipString(bytes, position, end) - 1;
+                this.nameStarts[member] = nameStart;
+                if (indexOf(bytes, nameStart, nameEnd, (byte) '\\') < 0) {
+                    this.nameLengths[member] = nameEnd - nameStart;
+                    this.hashes[member] = hash(bytes, nameStart, nameEnd - nameStart);
+                } else {
+                    JsonByteReader reader = new JsonByteReader(bytes, position, nameEnd + 1 - position);
+                    reader.nextName();
+                    this.nameLengths[member] = -1;
+                    this.hashes[member] = hash(reader.lastBytes(), 0, reader.lastLength());
+                }
+
+                position = skipWhitespace(bytes, nameEnd + 1, end);
+                if (position == end) {
+                    throw new EOFException("Unexpected end of JSON");
+                }
+                this.valueStarts[member] = position;
+                position = skipValue(bytes, position, end);
+                this.valueEnds[member] = position;
+            }
+
+            // Twice the members, rounded up to a power of two; later duplicates win as in Gson
+            int slots = Integer.highestOneBit(Math.max(2, this.size) * 2 - 1) << 1;
+            this.table = new int[slots];
+            for (int member = 0; member < this.size; member++) {
+                int slot = mix(this.hashes[member]) & (slots - 1);
+                while (this.table[slot] != 0 && !this.sameName(bytes, this.table[slot] - 1, member)) {
+                    slot = (slot + 1) & (slots - 1);
+                }
+                this.table[slot] = member + 1;
+            }
+            this.views = new AtomicReferenceArray<>(this.size);
+            this.trees = new AtomicReferenceArray<>(this.size);
+        }
+
+        private boolean sameName(byte[] bytes, int a, int b) {
+            if (this.hashes[a] != this.hashes[b] || this.nameLengths[a] != this.nameLengths[b] || this.nameLengths[a] < 0) {
+                // Escaped names are rare enough to be kept apart
+                return false;
+            }
+            int length = this.nameLengths[a];
+            for (int i = 0; i < length; i++) {
+                if (bytes[this.nameStarts[a] + i] != bytes[this.nameStarts[b] + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void grow() {
+            int capacity = this.nameStarts.length * 2;
+            this.nameStarts = Arrays.copyOf(this.nameStarts, capacity);
+            this.nameLengths = Arrays.copyOf(this.nameLengths, capacity);
+            this.hashes = Arrays.copyOf(this.hashes, capacity);
+            this.valueStarts = Arrays.copyOf(this.valueStarts, capacity);
+            this.valueEnds = Arrays.copyOf(this.valueEnds, capacity);
+        }
+    }
+}
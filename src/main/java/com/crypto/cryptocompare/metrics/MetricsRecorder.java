@@ -0,0 +1,112 @@
+package com.crypto.cryptocompare.metrics;
+
+import com.crypto.cryptocompare.api.Endpoint;
+import com.crypto.cryptocompare.transport.RequestTimings;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Built-in listener keeping, for every endpoint, counters of requests, errors, cache hits
+ * and response bytes, and histograms of the total latency and of each phase. Recording
+ * touches only preallocated counters, so it allocates nothing per request.
+ */
+public class MetricsRecorder implements RequestListener {
+
+    private final EndpointMetrics[] endpoints;
+
+    public MetricsRecorder() {
+        Endpoint[] values = Endpoint.values();
+        this.endpoints = new EndpointMetrics[values.length];
+        for (int i = 0; i < values.length; i++) {
+            this.endpoints[i] = new EndpointMetrics();
+        }
+    }
+
+    @Override
+    public void onCacheHit(Endpoint endpoint) {
+        this.endpoints[endpoint.ordinal()].cacheHits.increment();
+    }
+
+    @Override
+    public void onResponse(Endpoint endpoint, RequestTimings timings) {
+        EndpointMetrics metrics = this.endpoints[endpoint.ordinal()];
+        metrics.responses.increment();
+        metrics.responseBytes.record(timings.responseBytes());
+        metrics.wireBytes.add(timings.wireBytes());
+        metrics.total.record(timings.totalNanos());
+        metrics.throttle.record(timings.throttleNanos());
+        metrics.connect.record(timings.connectNanos());
+        metrics.firstByte.record(timings.firstByteNanos());
+        metrics.download.record(timings.downloadNanos());
+        metrics.decode.record(timings.decodeNanos());
+        if (timings.attempts() > 1) {
+            metrics.retries.add(timings.attempts() - 1);
+        }
+    }
+
+    @Override
+    public void onError(Endpoint endpoint, RequestTimings timings, Exception error) {
+        EndpointMetrics metrics = this.endpoints[endpoint.ordinal()];
+        metrics.errors.increment();
+        if (timings.attempts() > 1) {
+            metrics.retries.add(timings.attempts() - 1);
+        }
+    }
+
+    /**
+     * Current values of every endpoint that saw any traffic
+     * @return
+     */
+    public MetricsSnapshot snapshot() {
+        Map<Endpoint, MetricsSnapshot.EndpointSnapshot> snapshots = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            EndpointMetrics metrics = this.endpoints[endpoint.ordinal()];
+            long responses = metrics.responses.sum();
+            long errors = metrics.errors.sum();
+            long cacheHits = metrics.cacheHits.sum();
+            if (responses + errors + cacheHits == 0) {
+                continue;
+            }
+            snapshots.put(endpoint, new MetricsSnapshot.EndpointSnapshot(endpoint, responses, errors, cacheHits,
+                    metrics.retries.sum(), metrics.wireBytes.sum(), metrics.responseBytes.snapshot(), metrics.total.snapshot(),
+                    metrics.throttle.snapshot(), metrics.connect.snapshot(), metrics.firstByte.snapshot(),
+                    metrics.download.snapshot(), metrics.decode.snapshot()));
+        }
+        return new MetricsSnapshot(snapshots);
+    }
+
+    /**
+     * Counters of one endpoint
+     */
+    private static final class EndpointMetrics {
+
+        private final LongAdder responses = new LongAdder();
+
+        private final LongAdder errors = new LongAdder();
+
+        private final LongAdder cacheHits = new LongAdder();
+
+        private final LongAdder retries = new LongAdder();
+
+        /**
+         * Body bytes as received, before decompression
+         */
+        private final LongAdder wireBytes = new LongAdder();
+
+        private final LatencyHistogram responseBytes = new LatencyHistogram();
+
+        private final LatencyHistogram total = new LatencyHistogram();
+
+        private final LatencyHistogram throttle = new LatencyHistogram();
+
+        private final LatencyHistogram connect = new LatencyHistogram();
+
+        private final LatencyHistogram firstByte = new LatencyHistogram();
+
+        private final LatencyHistogram download = new LatencyHistogram();
+
+        private final LatencyHistogram decode = new LatencyHistogram();
+    }
+}
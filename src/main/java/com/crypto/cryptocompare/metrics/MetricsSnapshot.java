@@ -0,0 +1,261 @@
+package com.crypto.cryptocompare.metrics;
+
+import com.crypto.cryptocompare.api.Endpoint;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Values of a {@link MetricsRecorder} at one point in time, exportable as a plain text
+ * table or in the Prometheus text format
+ */
+public final class MetricsSnapshot {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private final Map<Endpoint, EndpointSnapshot> endpoints;
+
+    MetricsSnapshot(Map<Endpoint, EndpointSnapshot> endpoints) {
+        this.endpoints = Collections.unmodifiableMap(endpoints);
+    }
+
+    /**
+     * Endpoints that saw any traffic
+     * @return
+     */
+    public Map<Endpoint, EndpointSnapshot> endpoints() {
+        return this.endpoints;
+    }
+
+    /**
+     * Values of an endpoint
+     * @param endpoint
+     * @return the values, or null when the endpoint saw no traffic
+     */
+    public EndpointSnapshot endpoint(Endpoint endpoint) {
+        return this.endpoints.get(endpoint);
+    }
+
+    /**
+     * One line per endpoint: counts, bytes, and p50/p99 of the total latency and of every
+     * phase in milliseconds
+     * @param out
+     */
+    public void writeText(Appendable out) {
+        try {
+            out.append(String.format(Locale.ROOT, "%-26s %8s %6s %6s %7s %10s %10s %17s %17s %17s %17s %17s %17s%n",
+                    "endpoint", "requests", "errors", "cached", "retries", "avg bytes", "avg wire",
+                    "total p50/p99", "throttle", "connect", "first byte", "download", "decode"));
+            for (EndpointSnapshot e : this.endpoints.values()) {
+                out.append(String.format(Locale.ROOT, "%-26s %8d %6d %6d %7d %10.0f %10.0f %17s %17s %17s %17s %17s %17s%n",
+                        e.endpoint().name(), e.responses(), e.errors(), e.cacheHits(), e.retries(), e.responseBytes().mean(),
+                        (e.responses() == 0) ? 0.0 : (double) e.wireBytes() / e.responses(),
+                        millis(e.total()), millis(e.throttle()), millis(e.connect()),
+                        millis(e.firstByte()), millis(e.download()), millis(e.decode())));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Prometheus text exposition format: counters per endpoint and a summary per phase,
+     * in seconds
+     * @param out
+     */
+    public void writePrometheus(Appendable out) {
+        try {
+            counter(out, "cryptocompare_requests_total", "Requests answered by the API");
+            for (EndpointSnapshot e : this.endpoints.values()) {
+                sample(out, "cryptocompare_requests_total", e, null, e.responses());
+            }
+            counter(out, "cryptocompare_errors_total", "Requests that failed");
+            for (EndpointSnapshot e : this.endpoints.values()) {
+                sample(out, "cryptocompare_errors_total", e, null, e.errors());
+            }
+            counter(out, "cryptocompare_cache_hits_total", "Calls answered from the response cache");
+            for (EndpointSnapshot e : this.endpoints.values()) {
+                sample(out, "cryptocompare_cache_hits_total", e, null, e.cacheHits());
+            }
+            counter(out, "cryptocompare_retries_total", "Attempts beyond the first");
+            for (EndpointSnapshot e : this.endpoints.values()) {
+                sample(out, "cryptocompare_retries_total", e, null, e.retries());
+            }
+            counter(out, "cryptocompare_response_bytes_total", "Response body bytes");
+            for (EndpointSnapshot e : this.endpoints.values()) {
+                sample(out, "cryptocompare_response_bytes_total", e, null, e.responseBytes().sum());
+            }
+            counter(out, "cryptocompare_wire_bytes_total", "Response body bytes as received, before decompression");
+            for (EndpointSnapshot e : this.endpoints.values()) {
+                sample(out, "cryptocompare_wire_bytes_total", e, null, e.wireBytes());
+            }
+
+            out.append("# HELP cryptocompare_request_seconds Request latency by phase\n");
+            out.append("# TYPE cryptocompare_request_seconds summary\n");
+            for (EndpointSnapshot e : this.endpoints.values()) {
+                summary(out, e, "total", e.total());
+                summary(out, e, "throttle", e.throttle());
+                summary(out, e, "connect", e.connect());
+                summary(out, e, "first_byte", e.firstByte());
+                summary(out, e, "download", e.download());
+                summary(out, e, "decode", e.decode());
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        this.writeText(sb);
+        return sb.toString();
+    }
+
+    private static String millis(LatencyHistogram.Snapshot histogram) {
+        return String.format(Locale.ROOT, "%.2f/%.2f", histogram.percentile(0.5) / 1e6, histogram.percentile(0.99) / 1e6);
+    }
+
+    private static void counter(Appendable out, String name, String help) throws IOException {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" counter\n");
+    }
+
+    private static void summary(Appendable out, EndpointSnapshot e, String phase, LatencyHistogram.Snapshot histogram) throws IOException {
+        for (double quantile : QUANTILES) {
+            out.append("cryptocompare_request_seconds{endpoint=\"").append(e.endpoint().name().toLowerCase(Locale.ROOT))
+                    .append("\",phase=\"").append(phase)
+                    .append("\",quantile=\"").append(Double.toString(quantile)).append("\"} ")
+                    .append(Double.toString(histogram.percentile(quantile) / 1e9)).append('\n');
+        }
+        sample(out, "cryptocompare_request_seconds_sum", e, phase, histogram.sum() / 1e9);
+        sample(out, "cryptocompare_request_seconds_count", e, phase, histogram.count());
+    }
+
+    private static void sample(Appendable out, String name, EndpointSnapshot e, String phase, Object value) throws IOException {
+        out.append(name).append("{endpoint=\"").append(e.endpoint().name().toLowerCase(Locale.ROOT)).append('"');
+        if (phase != null) {
+            out.append(",phase=\"").append(phase).append('"');
+        }
+        out.append("} ").append(String.valueOf(value)).append('\n');
+    }
+
+    /**
+     * Values of one endpoint; latencies are in nanoseconds
+     */
+    public static final class EndpointSnapshot {
+
+        private final Endpoint endpoint;
+
+        private final long responses;
+
+        private final long errors;
+
+        private final long cacheHits;
+
+        private final long retries;
+
+        private final long wireBytes;
+
+        private final LatencyHistogram.Snapshot responseBytes;
+
+        private final LatencyHistogram.Snapshot total;
+
+        private final LatencyHistogram.Snapshot throttle;
+
+        private final LatencyHistogram.Snapshot connect;
+
+        private final LatencyHistogram.Snapshot firstByte;
+
+        private final LatencyHistogram.Snapshot download;
+
+        private final LatencyHistogram.Snapshot decode;
+
+        EndpointSnapshot(Endpoint endpoint, long responses, long errors, long cacheHits, long retries,
+                         long wireBytes, LatencyHistogram.Snapshot responseBytes, LatencyHistogram.Snapshot total,
+                         LatencyHistogram.Snapshot throttle, LatencyHistogram.Snapshot connect,
+                         LatencyHistogram.Snapshot firstByte, LatencyHistogram.Snapshot download,
+                         LatencyHistogram.Snapshot decode) {
+            this.endpoint = endpoint;
+            this.responses = responses;
+            this.errors = errors;
+            this.cacheHits = cacheHits;
+            this.retries = retries;
+            this.wireBytes = wireBytes;
+            this.responseBytes = responseBytes;
+            this.total = total;
+            this.throttle = throttle;
+            this.connect = connect;
+            this.firstByte = firstByte;
+            this.download = download;
+            this.decode = decode;
+        }
+
+        public Endpoint endpoint() {
+            return this.endpoint;
+        }
+
+        /**
+         * Requests answered by the API
+         * @return
+         */
+        public long responses() {
+            return this.responses;
+        }
+
+        public long errors() {
+            return this.errors;
+        }
+
+        public long cacheHits() {
+            return this.cacheHits;
+        }
+
+        public long retries() {
+            return this.retries;
+        }
+
+        /**
+         * Body bytes as received; smaller than the response bytes when compressed
+         * @return
+         */
+        public long wireBytes() {
+            return this.wireBytes;
+        }
+
+        /**
+         * Decoded body size of each response
+         * @return
+         */
+        public LatencyHistogram.Snapshot responseBytes() {
+            return this.responseBytes;
+        }
+
+        public LatencyHistogram.Snapshot total() {
+            return this.total;
+        }
+
+        public LatencyHistogram.Snapshot throttle() {
+            return this.throttle;
+        }
+
+        public LatencyHistogram.Snapshot connect() {
+            return this.connect;
+        }
+
+        public LatencyHistogram.Snapshot firstByte() {
+            return this.firstByte;
+        }
+
+        public LatencyHistogram.Snapshot download() {
+            return this.download;
+        }
+
+        public LatencyHistogram.Snapshot decode() {
+            return this.decode;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.crypto.cryptocompare.metrics;
+
+import com.crypto.cryptocompare.api.Endpoint;
+import com.crypto.cryptocompare.transport.RequestTimings;
+
+/**
+ * Told about every call made through a CryptoCompareApi. Callbacks run on the thread making
+ * the request, so they should be quick; the timings passed in are reused for the next
+ * request of that thread and must not be kept.
+ */
+public interface RequestListener {
+
+    /**
+     * The call was answered from the response cache
+     * @param endpoint
+     */
+    default void onCacheHit(Endpoint endpoint) {}
+
+    /**
+     * A request went to the API and its response was decoded
+     * @param endpoint
+     * @param timings
+     */
+    default void onResponse(Endpoint endpoint, RequestTimings timings) {}
+
+    /**
+     * A request went to the API and failed
+     * @param endpoint
+     * @param timings phases measured up to the failure
+     * @param error
+     */
+    default void onError(Endpoint endpoint, RequestTimings timings, Exception error) {}
+}
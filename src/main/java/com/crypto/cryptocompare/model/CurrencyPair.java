@@ -0,0 +1,62 @@
+package com.crypto.cryptocompare.model;
+
+/**
+ * A from symbol and a to symbol, e.g. BTC/USD
+ */
+public final class CurrencyPair {
+
+    private final String fsym;
+
+    private final String tsym;
+
+    public CurrencyPair(String fsym, String tsym) {
+        if (fsym == null || tsym == null) {
+            throw new IllegalArgumentException("fsym and tsym are required");
+        }
+        this.fsym = fsym;
+        this.tsym = tsym;
+    }
+
+    /**
+     * Parse a pair written as FSYM/TSYM
+     * @param pair
+     * @return
+     */
+    public static CurrencyPair parse(String pair) {
+        int slash = pair.indexOf('/');
+        if (slash <= 0 || slash == pair.length() - 1) {
+            throw new IllegalArgumentException("Expected FSYM/TSYM but got " + pair);
+        }
+        return new CurrencyPair(pair.substring(0, slash).trim(), pair.substring(slash + 1).trim());
+    }
+
+    public String fsym() {
+        return this.fsym;
+    }
+
+    public String tsym() {
+        return this.tsym;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof CurrencyPair)) {
+            return false;
+        }
+        CurrencyPair pair = (CurrencyPair) other;
+        return this.fsym.equals(pair.fsym) && this.tsym.equals(pair.tsym);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * this.fsym.hashCode() + this.tsym.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return this.fsym + "/" + this.tsym;
+    }
+}
@@ -0,0 +1,61 @@
+package com.crypto.cryptocompare.model;
+
+/**
+ * RAW section of a priceMultiFull response as one dense matrix per numeric field, all
+ * sharing the same from and to symbol indices
+ */
+public final class FullPriceMatrix {
+
+    private static final PriceField[] FIELDS = PriceField.values();
+
+    private final PriceMatrix[] fields;
+
+    FullPriceMatrix(SymbolTable fromSymbols, SymbolTable toSymbols, double[][] cells) {
+        this.fields = new PriceMatrix[FIELDS.length];
+        for (int i = 0; i < FIELDS.length; i++) {
+            this.fields[i] = new PriceMatrix(fromSymbols, toSymbols, cells[i]);
+        }
+    }
+
+    /**
+     * Matrix of one field
+     * @param field
+     * @return
+     */
+    public PriceMatrix field(PriceField field) {
+        return this.fields[field.ordinal()];
+    }
+
+    /**
+     * Shortcut for field(PRICE)
+     * @return
+     */
+    public PriceMatrix prices() {
+        return this.fields[PriceField.PRICE.ordinal()];
+    }
+
+    public double get(PriceField field, int row, int column) {
+        return this.fields[field.ordinal()].get(row, column);
+    }
+
+    public int rows() {
+        return this.prices().rows();
+    }
+
+    public int columns() {
+        return this.prices().columns();
+    }
+
+    public int fromIndex(String fsym) {
+        return this.prices().fromIndex(fsym);
+    }
+
+    public int toIndex(String tsym) {
+        return this.prices().toIndex(tsym);
+    }
+
+    @Override
+    public String toString() {
+        return "FullPriceMatrix{rows=" + this.rows() + ", columns=" + this.columns() + "}";
+    }
+}
@@ -0,0 +1,94 @@
+package com.crypto.cryptocompare.model;
+
+import com.crypto.cryptocompare.json.JsonByteReader;
+import com.crypto.cryptocompare.json.JsonType;
+import com.crypto.cryptocompare.transport.ApiErrorException;
+import com.crypto.cryptocompare.transport.ResponseDecoder;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static com.crypto.cryptocompare.model.OhlcvSeriesDecoder.ascii;
+import static com.crypto.cryptocompare.model.PriceMatrixDecoder.ERROR;
+import static com.crypto.cryptocompare.model.PriceMatrixDecoder.MESSAGE;
+import static com.crypto.cryptocompare.model.PriceMatrixDecoder.RESPONSE;
+import static com.crypto.cryptocompare.model.PriceMatrixDecoder.isNumber;
+
+/**
+ * Streams the RAW section of a pricemultifull body into a FullPriceMatrix. The DISPLAY
+ * section and the text fields (MARKET, LASTMARKET, ...) are skipped.
+ */
+public class FullPriceMatrixDecoder implements ResponseDecoder<FullPriceMatrix> {
+
+    /**
+     * Shared instance, the decoder holds no state
+     */
+    public static final FullPriceMatrixDecoder INSTANCE = new FullPriceMatrixDecoder();
+
+    private static final byte[] RAW = ascii("RAW");
+
+    private static final int FIELD_COUNT = PriceField.values().length;
+
+    @Override
+    public FullPriceMatrix decode(InputStream body) throws IOException {
+        return decode(new JsonByteReader(body));
+    }
+
+    public FullPriceMatrix decode(JsonByteReader reader) throws IOException {
+        PriceMatrix.Builder builder = new PriceMatrix.Builder();
+        boolean error = false;
+        String message = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            reader.nextName();
+            JsonType type = reader.peek();
+            if (type == JsonType.OBJECT && reader.nameEquals(RAW)) {
+                readRows(reader, builder);
+            } else if (type == JsonType.STRING && reader.nameEquals(RESPONSE)) {
+                reader.nextStringBytes();
+                error = reader.nameEquals(ERROR);
+            } else if (type == JsonType.STRING && reader.nameEquals(MESSAGE)) {
+                message = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (error) {
+            throw new ApiErrorException(message);
+        }
+        return new FullPriceMatrix(builder.fromSymbols(), builder.toSymbols(), builder.build(FIELD_COUNT));
+    }
+
+    private static void readRows(JsonByteReader reader, PriceMatrix.Builder builder) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            reader.nextName();
+            int row = builder.row(reader);
+            reader.beginObject();
+            while (reader.hasNext()) {
+                reader.nextName();
+                int column = builder.column(reader);
+                readFields(reader, builder, row, column);
+            }
+            reader.endObject();
+        }
+        reader.endObject();
+    }
+
+    private static void readFields(JsonByteReader reader, PriceMatrix.Builder builder, int row, int column) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            reader.nextName();
+            int field = PriceField.NAMES.id(reader);
+            if (field != SymbolTable.NO_SYMBOL && isNumber(reader.peek())) {
+                builder.put(field, row, column, reader.nextDouble());
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+}
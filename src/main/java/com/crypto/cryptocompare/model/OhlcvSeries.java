@@ -0,0 +1,211 @@
+package com.crypto.cryptocompare.model;
+
+import java.util.Arrays;
+
+/**
+ * Columnar candles as returned by histoMinute, histoHour and histoDay. Each field is held
+ * in its own primitive array indexed by candle, in ascending time order, so no object is
+ * allocated per candle. The arrays are exposed directly and must not be modified.
+ */
+public class OhlcvSeries {
+
+    /**
+     * Empty series, e.g. for a range with no data
+     */
+    public static final OhlcvSeries EMPTY = new Builder().build();
+
+    private final int size;
+
+    /**
+     * Unix timestamps in seconds
+     */
+    private final long[] time;
+
+    private final double[] open;
+
+    private final double[] high;
+
+    private final double[] low;
+
+    private final double[] close;
+
+    private final double[] volumeFrom;
+
+    private final double[] volumeTo;
+
+    /**
+     * TimeFrom and TimeTo reported by the API, 0 when absent
+     */
+    private final long timeFrom;
+
+    private final long timeTo;
+
+    private OhlcvSeries(Builder builder) {
+        this.size = builder.size;
+        this.time = Arrays.copyOf(builder.time, builder.size);
+        this.open = Arrays.copyOf(builder.open, builder.size);
+        this.high = Arrays.copyOf(builder.high, builder.size);
+        this.low = Arrays.copyOf(builder.low, builder.size);
+        this.close = Arrays.copyOf(builder.close, builder.size);
+        this.volumeFrom = Arrays.copyOf(builder.volumeFrom, builder.size);
+        this.volumeTo = Arrays.copyOf(builder.volumeTo, builder.size);
+        this.timeFrom = builder.timeFrom;
+        this.timeTo = builder.timeTo;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public long[] time() {
+        return this.time;
+    }
+
+    public double[] open() {
+        return this.open;
+    }
+
+    public double[] high() {
+        return this.high;
+    }
+
+    public double[] low() {
+        return this.low;
+    }
+
+    public double[] close() {
+        return this.close;
+    }
+
+    public double[] volumeFrom() {
+        return this.volumeFrom;
+    }
+
+    public double[] volumeTo() {
+        return this.volumeTo;
+    }
+
+    public long time(int index) {
+        return this.time[index];
+    }
+
+    public double open(int index) {
+        return this.open[index];
+    }
+
+    public double high(int index) {
+        return this.high[index];
+    }
+
+    public double low(int index) {
+        return this.low[index];
+    }
+
+    public double close(int index) {
+        return this.close[index];
+    }
+
+    public double volumeFrom(int index) {
+        return this.volumeFrom[index];
+    }
+
+    public double volumeTo(int index) {
+        return this.volumeTo[index];
+    }
+
+    public long timeFrom() {
+        return this.timeFrom;
+    }
+
+    public long timeTo() {
+        return this.timeTo;
+    }
+
+    @Override
+    public String toString() {
+        return "OhlcvSeries{size=" + this.size + ", timeFrom=" + this.timeFrom + ", timeTo=" + this.timeTo + "}";
+    }
+
+    /**
+     * Accumulates candles into growable primitive arrays
+     */
+    public static class Builder {
+
+        private static final int INITIAL_CAPACITY = 256;
+
+        private int size;
+
+        private long[] time = new long[INITIAL_CAPACITY];
+
+        private double[] open = new double[INITIAL_CAPACITY];
+
+        private double[] high = new double[INITIAL_CAPACITY];
+
+        private double[] low = new double[INITIAL_CAPACITY];
+
+        private double[] close = new double[INITIAL_CAPACITY];
+
+        private double[] volumeFrom = new double[INITIAL_CAPACITY];
+
+        private double[] volumeTo = new double[INITIAL_CAPACITY];
+
+        private long timeFrom;
+
+        private long timeTo;
+
+        private Builder() {}
+
+        public Builder add(long time, double open, double high, double low, double close, double volumeFrom, double volumeTo) {
+            if (this.size == this.time.length) {
+                this.grow();
+            }
+
+            int i = this.size++;
+            this.time[i] = time;
+            this.open[i] = open;
+            this.high[i] = high;
+            this.low[i] = low;
+            this.close[i] = close;
+            this.volumeFrom[i] = volumeFrom;
+            this.volumeTo[i] = volumeTo;
+            return this;
+        }
+
+        public Builder timeFrom(long timeFrom) {
+            this.timeFrom = timeFrom;
+            return this;
+        }
+
+        public Builder timeTo(long timeTo) {
+            this.timeTo = timeTo;
+            return this;
+        }
+
+        public int size() {
+            return this.size;
+        }
+
+        public OhlcvSeries build() {
+            return new OhlcvSeries(this);
+        }
+
+        private void grow() {
+            int capacity = this.time.length * 2;
+            this.time = Arrays.copyOf(this.time, capacity);
+            this.open = Arrays.copyOf(this.open, capacity);
+            this.high = Arrays.copyOf(this.high, capacity);
+            this.low = Arrays.copyOf(this.low, capacity);
+            this.close = Arrays.copyOf(this.close, capacity);
+            this.volumeFrom = Arrays.copyOf(this.volumeFrom, capacity);
+            this.volumeTo = Arrays.copyOf(this.volumeTo, capacity);
+        }
+    }
+}
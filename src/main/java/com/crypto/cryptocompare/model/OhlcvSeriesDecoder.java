@@ -0,0 +1,120 @@
+package com.crypto.cryptocompare.model;
+
+import com.crypto.cryptocompare.json.JsonByteReader;
+import com.crypto.cryptocompare.json.JsonType;
+import com.crypto.cryptocompare.transport.ApiErrorException;
+import com.crypto.cryptocompare.transport.ResponseDecoder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streams a histominute/histohour/histoday body straight into an OhlcvSeries, without
+ * building a JsonObject, or even a String, per candle
+ */
+public class OhlcvSeriesDecoder implements ResponseDecoder<OhlcvSeries> {
+
+    /**
+     * Shared instance, the decoder holds no state
+     */
+    public static final OhlcvSeriesDecoder INSTANCE = new OhlcvSeriesDecoder();
+
+    private static final byte[] RESPONSE = ascii("Response");
+    private static final byte[] MESSAGE = ascii("Message");
+    private static final byte[] TIME_FROM = ascii("TimeFrom");
+    private static final byte[] TIME_TO = ascii("TimeTo");
+    private static final byte[] DATA = ascii("Data");
+    private static final byte[] TIME = ascii("time");
+    private static final byte[] OPEN = ascii("open");
+    private static final byte[] HIGH = ascii("high");
+    private static final byte[] LOW = ascii("low");
+    private static final byte[] CLOSE = ascii("close");
+    private static final byte[] VOLUME_FROM = ascii("volumefrom");
+    private static final byte[] VOLUME_TO = ascii("volumeto");
+    private static final byte[] ERROR = ascii("Error");
+
+    @Override
+    public OhlcvSeries decode(InputStream body) throws IOException {
+        return decode(new JsonByteReader(body));
+    }
+
+    public OhlcvSeries decode(JsonByteReader reader) throws IOException {
+        OhlcvSeries.Builder builder = OhlcvSeries.builder();
+        boolean error = false;
+        String message = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            reader.nextName();
+            if (reader.nameEquals(DATA)) {
+                // Error responses send an empty object instead of the array
+                if (reader.peek() == JsonType.ARRAY) {
+                    readCandles(reader, builder);
+                } else {
+                    reader.skipValue();
+                }
+            } else if (reader.nameEquals(TIME_FROM)) {
+                builder.timeFrom(reader.nextLong());
+            } else if (reader.nameEquals(TIME_TO)) {
+                builder.timeTo(reader.nextLong());
+            } else if (reader.nameEquals(RESPONSE)) {
+                reader.nextStringBytes();
+                error = reader.nameEquals(ERROR);
+            } else if (reader.nameEquals(MESSAGE)) {
+                message = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (error) {
+            throw new ApiErrorException(message);
+        }
+        return builder.build();
+    }
+
+    private static void readCandles(JsonByteReader reader, OhlcvSeries.Builder builder) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            long time = 0;
+            double open = Double.NaN;
+            double high = Double.NaN;
+            double low = Double.NaN;
+            double close = Double.NaN;
+            double volumeFrom = Double.NaN;
+            double volumeTo = Double.NaN;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                reader.nextName();
+                if (reader.nameEquals(TIME)) {
+                    time = reader.nextLong();
+                } else if (reader.nameEquals(OPEN)) {
+                    open = reader.nextDouble();
+                } else if (reader.nameEquals(HIGH)) {
+                    high = reader.nextDouble();
+                } else if (reader.nameEquals(LOW)) {
+                    low = reader.nextDouble();
+                } else if (reader.nameEquals(CLOSE)) {
+                    close = reader.nextDouble();
+                } else if (reader.nameEquals(VOLUME_FROM)) {
+                    volumeFrom = reader.nextDouble();
+                } else if (reader.nameEquals(VOLUME_TO)) {
+                    volumeTo = reader.nextDouble();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            builder.add(time, open, high, low, close, volumeFrom, volumeTo);
+        }
+        reader.endArray();
+    }
+
+    static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,42 @@
+package com.crypto.cryptocompare.model;
+
+/**
+ * Numeric fields of the RAW section of a pricemultifull response
+ */
+public enum PriceField {
+    PRICE,
+    LASTUPDATE,
+    LASTVOLUME,
+    LASTVOLUMETO,
+    VOLUMEDAY,
+    VOLUMEDAYTO,
+    VOLUME24HOUR,
+    VOLUME24HOURTO,
+    OPENDAY,
+    HIGHDAY,
+    LOWDAY,
+    OPEN24HOUR,
+    HIGH24HOUR,
+    LOW24HOUR,
+    CHANGE24HOUR,
+    CHANGEPCT24HOUR,
+    CHANGEDAY,
+    CHANGEPCTDAY,
+    SUPPLY,
+    MKTCAP,
+    TOTALVOLUME24H,
+    TOTALVOLUME24HTO;
+
+    /**
+     * Field names as they appear in the response, with each field's ordinal as its id
+     */
+    static final SymbolTable NAMES;
+
+    static {
+        SymbolTable.Builder builder = SymbolTable.builder();
+        for (PriceField field : values()) {
+            builder.add(field.name(), field.ordinal(), null, 0);
+        }
+        NAMES = builder.build();
+    }
+}
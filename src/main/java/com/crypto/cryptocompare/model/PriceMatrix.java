@@ -0,0 +1,176 @@
+package com.crypto.cryptocompare.model;
+
+import com.crypto.cryptocompare.json.JsonByteReader;
+
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+
+/**
+ * Prices of a priceMulti response in one flat row-major array: a row per from symbol and
+ * a column per to symbol, in the order the response lists them. Resolve the indices once
+ * with {@link #fromIndex(String)} and {@link #toIndex(String)}, then {@link #get(int, int)}
+ * is a single array read. A pair the API had no price for reads as NaN.
+ */
+public final class PriceMatrix {
+
+    private final SymbolTable fromSymbols;
+
+    private final SymbolTable toSymbols;
+
+    private final int columns;
+
+    private final double[] values;
+
+    PriceMatrix(SymbolTable fromSymbols, SymbolTable toSymbols, double[] values) {
+        this.fromSymbols = fromSymbols;
+        this.toSymbols = toSymbols;
+        this.columns = toSymbols.size();
+        this.values = values;
+    }
+
+    public int rows() {
+        return this.fromSymbols.size();
+    }
+
+    public int columns() {
+        return this.columns;
+    }
+
+    /**
+     * Row of a from symbol
+     * @param fsym
+     * @return the row, or SymbolTable.NO_SYMBOL when absent
+     */
+    public int fromIndex(String fsym) {
+        return this.fromSymbols.id(fsym);
+    }
+
+    /**
+     * Column of a to symbol
+     * @param tsym
+     * @return the column, or SymbolTable.NO_SYMBOL when absent
+     */
+    public int toIndex(String tsym) {
+        return this.toSymbols.id(tsym);
+    }
+
+    public String fromSymbol(int row) {
+        return this.fromSymbols.symbol(row);
+    }
+
+    public String toSymbol(int column) {
+        return this.toSymbols.symbol(column);
+    }
+
+    public double get(int row, int column) {
+        return this.values[row * this.columns + column];
+    }
+
+    /**
+     * Price of a pair by symbol
+     * @param fsym
+     * @param tsym
+     * @return the price, or NaN when the pair is not in the matrix
+     */
+    public double get(String fsym, String tsym) {
+        int row = this.fromIndex(fsym);
+        int column = this.toIndex(tsym);
+        return (row < 0 || column < 0) ? Double.NaN : this.get(row, column);
+    }
+
+    public boolean has(int row, int column) {
+        return !Double.isNaN(this.get(row, column));
+    }
+
+    /**
+     * Every price, row-major, as a read-only view of the backing array, which a
+     * FullPriceMatrix shares with the matrices of its fields
+     * @return a new buffer positioned at the first price
+     */
+    public DoubleBuffer values() {
+        return DoubleBuffer.wrap(this.values).asReadOnlyBuffer();
+    }
+
+    @Override
+    public String toString() {
+        return "PriceMatrix{rows=" + this.rows() + ", columns=" + this.columns + "}";
+    }
+
+    /**
+     * Collects cells as a decoder reads them, in whatever order the symbols come, then
+     * lays them out densely
+     */
+    static final class Builder {
+
+        private static final int INITIAL_CAPACITY = 256;
+
+        private final SymbolTable.Builder fromSymbols = SymbolTable.builder();
+
+        private final SymbolTable.Builder toSymbols = SymbolTable.builder();
+
+        private int size;
+
+        private int[] rows = new int[INITIAL_CAPACITY];
+
+        private int[] columns = new int[INITIAL_CAPACITY];
+
+        private int[] fields = new int[INITIAL_CAPACITY];
+
+        private double[] values = new double[INITIAL_CAPACITY];
+
+        /**
+         * Row of the symbol the reader read last
+         */
+        int row(JsonByteReader reader) {
+            return this.fromSymbols.intern(reader);
+        }
+
+        /**
+         * Column of the symbol the reader read last
+         */
+        int column(JsonByteReader reader) {
+            return this.toSymbols.intern(reader);
+        }
+
+        void put(int field, int row, int column, double value) {
+            if (this.size == this.values.length) {
+                int capacity = this.size * 2;
+                this.rows = Arrays.copyOf(this.rows, capacity);
+                this.columns = Arrays.copyOf(this.columns, capacity);
+                this.fields = Arrays.copyOf(this.fields, capacity);
+                this.values = Arrays.copyOf(this.values, capacity);
+            }
+            int i = this.size++;
+            this.rows[i] = row;
+            this.columns[i] = column;
+            this.fields[i] = field;
+            this.values[i] = value;
+        }
+
+        SymbolTable fromSymbols() {
+            return this.fromSymbols.build();
+        }
+
+        SymbolTable toSymbols() {
+            return this.toSymbols.build();
+        }
+
+        /**
+         * One dense row-major array per field, NaN where no value was read
+         * @param fieldCount
+         * @return
+         */
+        double[][] build(int fieldCount) {
+            int width = this.toSymbols.size();
+            double[][] cells = new double[fieldCount][];
+            for (int field = 0; field < fieldCount; field++) {
+                cells[field] = new double[this.fromSymbols.size() * width];
+                Arrays.fill(cells[field], Double.NaN);
+            }
+            for (int i = 0; i < this.size; i++) {
+                cells[this.fields[i]][this.rows[i] * width + this.columns[i]] = this.values[i];
+            }
+            return cells;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.crypto.cryptocompare.model;
+
+import com.crypto.cryptocompare.json.JsonByteReader;
+import com.crypto.cryptocompare.json.JsonType;
+import com.crypto.cryptocompare.transport.ApiErrorException;
+import com.crypto.cryptocompare.transport.ResponseDecoder;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static com.crypto.cryptocompare.model.OhlcvSeriesDecoder.ascii;
+
+/**
+ * Streams a pricemulti body into a PriceMatrix, with no JsonObject or boxed number per cell
+ */
+public class PriceMatrixDecoder implements ResponseDecoder<PriceMatrix> {
+
+    /**
+     * Shared instance, the decoder holds no state
+     */
+    public static final PriceMatrixDecoder INSTANCE = new PriceMatrixDecoder();
+
+    static final byte[] RESPONSE = ascii("Response");
+    static final byte[] MESSAGE = ascii("Message");
+    static final byte[] ERROR = ascii("Error");
+
+    @Override
+    public PriceMatrix decode(InputStream body) throws IOException {
+        return decode(new JsonByteReader(body));
+    }
+
+    public PriceMatrix decode(JsonByteReader reader) throws IOException {
+        PriceMatrix.Builder builder = new PriceMatrix.Builder();
+        boolean error = false;
+        String message = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            reader.nextName();
+            JsonType type = reader.peek();
+            if (type == JsonType.STRING && reader.nameEquals(RESPONSE)) {
+                reader.nextStringBytes();
+                error = reader.nameEquals(ERROR);
+            } else if (type == JsonType.STRING && reader.nameEquals(MESSAGE)) {
+                message = reader.nextString();
+            } else if (type == JsonType.OBJECT) {
+                readRow(reader, builder, builder.row(reader));
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (error) {
+            throw new ApiErrorException(message);
+        }
+        return new PriceMatrix(builder.fromSymbols(), builder.toSymbols(), builder.build(1)[0]);
+    }
+
+    private static void readRow(JsonByteReader reader, PriceMatrix.Builder builder, int row) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            reader.nextName();
+            if (isNumber(reader.peek())) {
+                int column = builder.column(reader);
+                builder.put(0, row, column, reader.nextDouble());
+            } else {
+                // e.g. the RateLimit object of an error response
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    static boolean isNumber(JsonType type) {
+        return type == JsonType.NUMBER || type == JsonType.NULL;
+    }
+}
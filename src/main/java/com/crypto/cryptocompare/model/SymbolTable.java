@@ -0,0 +1,436 @@
+package com.crypto.cryptocompare.model;
+
+import com.crypto.cryptocompare.json.JsonByteReader;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Dictionary of the coins in the coin list. Every symbol maps to a dense int id, so
+ * price data can be joined and indexed by int instead of by String. The metadata kept
+ * from the coin list (coin id, name, sort order) sits in primitive arrays indexed by that
+ * id. Symbols are found through an open addressing table over their UTF-8 bytes, either
+ * from a String or straight from the bytes a {@link JsonByteReader} just read.
+ *
+ * A table never changes once built. {@link #withIdsOf(SymbolTable)} carries the ids of an
+ * older table over to a newer one, so ids stay valid across refreshes.
+ */
+public final class SymbolTable {
+
+    /**
+     * Id returned for a symbol that is not in the table
+     */
+    public static final int NO_SYMBOL = -1;
+
+    public static final SymbolTable EMPTY = builder().build();
+
+    private final int size;
+
+    /**
+     * UTF-8 bytes of every symbol back to back; symbol i is
+     * [symbolOffsets[i], symbolOffsets[i + 1])
+     */
+    private final byte[] symbolBytes;
+
+    private final int[] symbolOffsets;
+
+    private final int[] hashes;
+
+    /**
+     * The same String instance is handed out for a symbol every time
+     */
+    private final String[] symbols;
+
+    private final int[] coinIds;
+
+    private final String[] names;
+
+    private final int[] sortOrders;
+
+    /**
+     * Open addressing table of id + 1, 0 marks a free slot
+     */
+    private final int[] slots;
+
+    private SymbolTable(Builder builder) {
+        this.size = builder.size;
+        this.symbolBytes = Arrays.copyOf(builder.symbolBytes, builder.symbolOffsets[builder.size]);
+        this.symbolOffsets = Arrays.copyOf(builder.symbolOffsets, builder.size + 1);
+        this.hashes = Arrays.copyOf(builder.hashes, builder.size);
+        this.coinIds = Arrays.copyOf(builder.coinIds, builder.size);
+        this.names = Arrays.copyOf(builder.names, builder.size);
+        this.sortOrders = Arrays.copyOf(builder.sortOrders, builder.size);
+        this.slots = builder.slots.clone();
+
+        this.symbols = Arrays.copyOf(builder.symbols, builder.size);
+        for (int id = 0; id < this.size; id++) {
+            if (this.symbols[id] == null) {
+                int offset = this.symbolOffsets[id];
+                this.symbols[id] = new String(this.symbolBytes, offset, this.symbolOffsets[id + 1] - offset, StandardCharsets.UTF_8);
+            }
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Id of a symbol
+     * @param symbol
+     * @return the id, or NO_SYMBOL when the symbol is unknown
+     */
+    public int id(String symbol) {
+        int length = symbol.length();
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            char c = symbol.charAt(i);
+            if (c >= 0x80) {
+                byte[] utf8 = symbol.getBytes(StandardCharsets.UTF_8);
+                return this.id(utf8, 0, utf8.length);
+            }
+            hash = 31 * hash + c;
+        }
+
+        int mask = this.slots.length - 1;
+        for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+            int entry = this.slots[slot];
+            if (entry == 0) {
+                return NO_SYMBOL;
+            }
+            int id = entry - 1;
+            if (this.hashes[id] == hash && this.asciiEquals(id, symbol)) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Id of a symbol given as UTF-8 bytes
+     * @param bytes
+     * @param offset
+     * @param length
+     * @return the id, or NO_SYMBOL when the symbol is unknown
+     */
+    public int id(byte[] bytes, int offset, int length) {
+        int hash = hash(bytes, offset, length);
+        int mask = this.slots.length - 1;
+        for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+            int entry = this.slots[slot];
+            if (entry == 0) {
+                return NO_SYMBOL;
+            }
+            int id = entry - 1;
+            if (this.hashes[id] == hash && this.bytesEqual(id, bytes, offset, length)) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Id of the name or string the reader read last, without allocating
+     * @param reader
+     * @return the id, or NO_SYMBOL when the symbol is unknown
+     */
+    public int id(JsonByteReader reader) {
+        return this.id(reader.lastBytes(), 0, reader.lastLength());
+    }
+
+    public boolean contains(String symbol) {
+        return this.id(symbol) != NO_SYMBOL;
+    }
+
+    public String symbol(int id) {
+        return this.symbols[id];
+    }
+
+    /**
+     * CryptoCompare's own id of the coin, as used by coinSnapshotFullById and socialStats
+     * @param id
+     * @return
+     */
+    public int coinId(int id) {
+        return this.coinIds[id];
+    }
+
+    /**
+     * Coin name, e.g. Bitcoin
+     * @param id
+     * @return
+     */
+    public String name(int id) {
+        return this.names[id];
+    }
+
+    /**
+     * Position of the coin on the website, lower is more prominent
+     * @param id
+     * @return
+     */
+    public int sortOrder(int id) {
+        return this.sortOrders[id];
+    }
+
+    /**
+     * A table with this table's metadata in which every symbol of the previous table keeps
+     * its id. Symbols new in this table are numbered after them, and symbols that were
+     * dropped from the coin list keep their id and last known metadata, so an id is never
+     * reused for another symbol.
+     * @param previous
+     * @return
+     */
+    public SymbolTable withIdsOf(SymbolTable previous) {
+        if (previous == null || previous.size == 0 || previous == this) {
+            return this;
+        }
+
+        Builder builder = new Builder(Math.max(this.size, previous.size));
+        for (int id = 0; id < previous.size; id++) {
+            int offset = previous.symbolOffsets[id];
+            int length = previous.symbolOffsets[id + 1] - offset;
+            int current = this.id(previous.symbolBytes, offset, length);
+            SymbolTable source = (current == NO_SYMBOL) ? previous : this;
+            int sourceId = (current == NO_SYMBOL) ? id : current;
+            builder.add(previous.symbolBytes, offset, length, previous.symbols[id],
+                    source.coinIds[sourceId], source.names[sourceId], source.sortOrders[sourceId]);
+        }
+        for (int id = 0; id < this.size; id++) {
+            int offset = this.symbolOffsets[id];
+            int length = this.symbolOffsets[id + 1] - offset;
+            if (previous.id(this.symbolBytes, offset, length) == NO_SYMBOL) {
+                builder.add(this.symbolBytes, offset, length, this.symbols[id],
+                        this.coinIds[id], this.names[id], this.sortOrders[id]);
+            }
+        }
+        return builder.build();
+    }
+
+    @Override
+    public String toString() {
+        return "SymbolTable{size=" + this.size + "}";
+    }
+
+    private boolean asciiEquals(int id, String symbol) {
+        int offset = this.symbolOffsets[id];
+        int length = this.symbolOffsets[id + 1] - offset;
+        if (length != symbol.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (this.symbolBytes[offset + i] != symbol.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean bytesEqual(int id, byte[] bytes, int offset, int length) {
+        int start = this.symbolOffsets[id];
+        if (this.symbolOffsets[id + 1] - start != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (this.symbolBytes[start + i] != bytes[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Same as String.hashCode for ASCII symbols, so either form hashes alike
+     */
+    private static int hash(byte[] bytes, int offset, int length) {
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + bytes[offset + i];
+        }
+        return hash;
+    }
+
+    private static int spread(int hash) {
+        return (hash ^ (hash >>> 16)) * 0x9E3779B9;
+    }
+
+    /**
+     * Accumulates symbols, numbered in the order they are first added. Adding a symbol
+     * again replaces its metadata and keeps its id.
+     */
+    public static class Builder {
+
+        private static final int INITIAL_CAPACITY = 64;
+
+        private int size;
+
+        private byte[] symbolBytes;
+
+        private int[] symbolOffsets;
+
+        private int[] hashes;
+
+        private String[] symbols;
+
+        private int[] coinIds;
+
+        private String[] names;
+
+        private int[] sortOrders;
+
+        private int[] slots;
+
+        private Builder() {
+            this(INITIAL_CAPACITY);
+        }
+
+        private Builder(int expectedSize) {
+            int capacity = Math.max(expectedSize, INITIAL_CAPACITY);
+            this.symbolBytes = new byte[capacity * 4];
+            this.symbolOffsets = new int[capacity + 1];
+            this.hashes = new int[capacity];
+            this.symbols = new String[capacity];
+            this.coinIds = new int[capacity];
+            this.names = new String[capacity];
+            this.sortOrders = new int[capacity];
+            this.slots = new int[tableSize(capacity)];
+        }
+
+        /**
+         * @param symbol e.g. BTC
+         * @param coinId CryptoCompare's id of the coin
+         * @param name e.g. Bitcoin
+         * @param sortOrder
+         * @return
+         */
+        public Builder add(String symbol, int coinId, String name, int sortOrder) {
+            byte[] bytes = symbol.getBytes(StandardCharsets.UTF_8);
+            this.add(bytes, 0, bytes.length, symbol, coinId, name, sortOrder);
+            return this;
+        }
+
+        /**
+         * Add a symbol given as UTF-8 bytes, which are copied
+         * @param bytes
+         * @param offset
+         * @param length
+         * @param coinId
+         * @param name
+         * @param sortOrder
+         * @return
+         */
+        public Builder add(byte[] bytes, int offset, int length, int coinId, String name, int sortOrder) {
+            this.add(bytes, offset, length, null, coinId, name, sortOrder);
+            return this;
+        }
+
+        /**
+         * Id of the last name or string a reader read, added without metadata if new
+         * @param reader
+         * @return
+         */
+        int intern(JsonByteReader reader) {
+            int length = reader.lastLength();
+            byte[] bytes = reader.lastBytes();
+            int hash = hash(bytes, 0, length);
+            int mask = this.slots.length - 1;
+            for (int slot = spread(hash) & mask; this.slots[slot] != 0; slot = (slot + 1) & mask) {
+                int id = this.slots[slot] - 1;
+                if (this.hashes[id] == hash && this.bytesEqual(id, bytes, 0, length)) {
+                    return id;
+                }
+            }
+            return this.add(bytes, 0, length, null, 0, null, 0);
+        }
+
+        public int size() {
+            return this.size;
+        }
+
+        public SymbolTable build() {
+            return new SymbolTable(this);
+        }
+
+        /**
+         * @param symbol String for the bytes if there already is one, so it is shared
+         * @return id of the symbol
+         */
+        private int add(byte[] bytes, int offset, int length, String symbol, int coinId, String name, int sortOrder) {
+            int hash = hash(bytes, offset, length);
+            int mask = this.slots.length - 1;
+            int slot = spread(hash) & mask;
+            for (int entry = this.slots[slot]; entry != 0; entry = this.slots[slot]) {
+                int id = entry - 1;
+                if (this.hashes[id] == hash && this.bytesEqual(id, bytes, offset, length)) {
+                    this.coinIds[id] = coinId;
+                    this.names[id] = name;
+                    this.sortOrders[id] = sortOrder;
+                    return id;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            if (this.size == this.hashes.length) {
+                this.grow();
+                return this.add(bytes, offset, length, symbol, coinId, name, sortOrder);
+            }
+
+            int id = this.size++;
+            int start = this.symbolOffsets[id];
+            if (start + length > this.symbolBytes.length) {
+                this.symbolBytes = Arrays.copyOf(this.symbolBytes, Math.max(this.symbolBytes.length * 2, start + length));
+            }
+            System.arraycopy(bytes, offset, this.symbolBytes, start, length);
+            this.symbolOffsets[id + 1] = start + length;
+            this.hashes[id] = hash;
+            this.symbols[id] = symbol;
+            this.coinIds[id] = coinId;
+            this.names[id] = name;
+            this.sortOrders[id] = sortOrder;
+            this.slots[slot] = id + 1;
+            return id;
+        }
+
+        private boolean bytesEqual(int id, byte[] bytes, int offset, int length) {
+            int start = this.symbolOffsets[id];
+            if (this.symbolOffsets[id + 1] - start != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (this.symbolBytes[start + i] != bytes[offset + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void grow() {
+            int capacity = this.hashes.length * 2;
+            this.symbolOffsets = Arrays.copyOf(this.symbolOffsets, capacity + 1);
+            this.hashes = Arrays.copyOf(this.hashes, capacity);
+            this.symbols = Arrays.copyOf(this.symbols, capacity);
+            this.coinIds = Arrays.copyOf(this.coinIds, capacity);
+            this.names = Arrays.copyOf(this.names, capacity);
+            this.sortOrders = Arrays.copyOf(this.sortOrders, capacity);
+
+            this.slots = new int[tableSize(capacity)];
+            int mask = this.slots.length - 1;
+            for (int id = 0; id < this.size; id++) {
+                int slot = spread(this.hashes[id]) & mask;
+                while (this.slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                this.slots[slot] = id + 1;
+            }
+        }
+
+        /**
+         * Power of two with the table at most half full
+         */
+        private static int tableSize(int capacity) {
+            return Integer.highestOneBit(capacity * 2 - 1) << 1;
+        }
+    }
+}
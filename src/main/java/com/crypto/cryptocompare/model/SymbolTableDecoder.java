@@ -0,0 +1,132 @@
+package com.crypto.cryptocompare.model;
+
+import com.crypto.cryptocompare.json.JsonByteReader;
+import com.crypto.cryptocompare.json.JsonType;
+import com.crypto.cryptocompare.transport.ApiErrorException;
+import com.crypto.cryptocompare.transport.ResponseDecoder;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static com.crypto.cryptocompare.model.OhlcvSeriesDecoder.ascii;
+
+/**
+ * Streams the coin list body into a SymbolTable, keeping only the symbol, id, coin name
+ * and sort order of each coin rather than the full JsonObject tree. Symbols are numbered
+ * in the order the response lists them.
+ */
+public class SymbolTableDecoder implements ResponseDecoder<SymbolTable> {
+
+    /**
+     * Shared instance, the decoder holds no state
+     */
+    public static final SymbolTableDecoder INSTANCE = new SymbolTableDecoder();
+
+    private static final byte[] RESPONSE = ascii("Response");
+    private static final byte[] MESSAGE = ascii("Message");
+    private static final byte[] DATA = ascii("Data");
+    private static final byte[] ID = ascii("Id");
+    private static final byte[] COIN_NAME = ascii("CoinName");
+    private static final byte[] SORT_ORDER = ascii("SortOrder");
+    private static final byte[] ERROR = ascii("Error");
+
+    @Override
+    public SymbolTable decode(InputStream body) throws IOException {
+        return decode(new JsonByteReader(body));
+    }
+
+    public SymbolTable decode(JsonByteReader reader) throws IOException {
+        SymbolTable.Builder builder = SymbolTable.builder();
+        boolean error = false;
+        String message = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            reader.nextName();
+            if (reader.nameEquals(DATA)) {
+                // Error responses may send an empty array instead of the object
+                if (reader.peek() == JsonType.OBJECT) {
+                    readCoins(reader, builder);
+                } else {
+                    reader.skipValue();
+                }
+            } else if (reader.nameEquals(RESPONSE)) {
+                reader.nextStringBytes();
+                error = reader.nameEquals(ERROR);
+            } else if (reader.nameEquals(MESSAGE)) {
+                message = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (error) {
+            throw new ApiErrorException(message);
+        }
+        return builder.build();
+    }
+
+    private static void readCoins(JsonByteReader reader, SymbolTable.Builder builder) throws IOException {
+        byte[] symbol = new byte[16];
+        reader.beginObject();
+        while (reader.hasNext()) {
+            reader.nextName();
+            // The reader reuses its buffer for the values that follow
+            int length = reader.lastLength();
+            if (length > symbol.length) {
+                symbol = new byte[Math.max(length, symbol.length * 2)];
+            }
+            System.arraycopy(reader.lastBytes(), 0, symbol, 0, length);
+
+            int coinId = 0;
+            String name = null;
+            int sortOrder = 0;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                reader.nextName();
+                if (reader.nameEquals(ID)) {
+                    coinId = nextInt(reader);
+                } else if (reader.nameEquals(COIN_NAME)) {
+                    name = reader.nextString();
+                } else if (reader.nameEquals(SORT_ORDER)) {
+                    sortOrder = nextInt(reader);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            builder.add(symbol, 0, length, coinId, name, sortOrder);
+        }
+        reader.endObject();
+    }
+
+    /**
+     * Read an int the coin list sends quoted, e.g. "1182", without making a String of it
+     * @param reader
+     * @return the value, or 0 when it is not a plain number
+     * @throws IOException
+     */
+    private static int nextInt(JsonByteReader reader) throws IOException {
+        if (reader.peek() != JsonType.STRING) {
+            return (int) reader.nextLong();
+        }
+
+        reader.nextStringBytes();
+        byte[] bytes = reader.lastBytes();
+        int length = reader.lastLength();
+        if (length == 0 || length > 9) {
+            return 0;
+        }
+        int value = 0;
+        for (int i = 0; i < length; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return 0;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,315 @@
+package com.crypto.cryptocompare.ratelimit;
+
+import com.crypto.cryptocompare.api.Endpoint;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Client side limiter keeping requests within the API quotas. Each host has its own budget
+ * made of several windows (per second, per minute, per hour), and a request goes out only
+ * when every window of its host allows it.
+ *
+ * Each window is a token bucket kept as a theoretical arrival time (GCRA): a window of
+ * {@code n} permits per {@code w} allows a burst of {@code n}, then one request every
+ * {@code w / n}. Taking a permit is a single compare-and-set on the host's state, with no
+ * lock, and reserves the earliest slot every window agrees on. The caller then waits for
+ * that slot: {@link #acquire} parks the thread, {@link #acquireAsync} completes a future
+ * from a timer once the slot comes.
+ */
+public class RateLimiter {
+
+    private final Map<Endpoint.Host, Budget> budgets = new EnumMap<>(Endpoint.Host.class);
+
+    private final LongSupplier nanoClock;
+
+    private final LongAdder granted = new LongAdder();
+
+    private final LongAdder delayed = new LongAdder();
+
+    /*************************
+     * Constructors
+     *************************/
+
+    private RateLimiter(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.limit(Endpoint.Host.MIN_API, 15, 1, TimeUnit.SECONDS);
+        this.limit(Endpoint.Host.MIN_API, 300, 1, TimeUnit.MINUTES);
+        this.limit(Endpoint.Host.MIN_API, 8000, 1, TimeUnit.HOURS);
+        this.limit(Endpoint.Host.DEPRECATED, 5, 1, TimeUnit.SECONDS);
+        this.limit(Endpoint.Host.DEPRECATED, 100, 1, TimeUnit.MINUTES);
+        this.limit(Endpoint.Host.DEPRECATED, 1000, 1, TimeUnit.HOURS);
+    }
+
+    /**
+     * Limiter with conservative quotas: 15/s, 300/min and 8000/h for min-api, and
+     * 5/s, 100/min and 1000/h for the deprecated host
+     * @return
+     */
+    public static RateLimiter defaults() {
+        return new RateLimiter(System::nanoTime);
+    }
+
+    static RateLimiter defaults(LongSupplier nanoClock) {
+        return new RateLimiter(nanoClock);
+    }
+
+    /**
+     * Set the quota of one window of a host, replacing any window of the same length.
+     * Configure the limiter before requests go through it.
+     * @param host
+     * @param permits requests allowed per window
+     * @param window
+     * @param unit
+     * @return
+     */
+    public RateLimiter limit(Endpoint.Host host, int permits, long window, TimeUnit unit) {
+        if (permits < 1 || window < 1) {
+            throw new IllegalArgumentException("permits and window must be positive");
+        }
+        Budget current = this.budgets.get(host);
+        this.budgets.put(host, (current == null)
+                ? new Budget(new long[] {unit.toNanos(window)}, new int[] {permits}, this.nanoClock.getAsLong())
+                : current.with(unit.toNanos(window), permits, this.nanoClock.getAsLong()));
+        return this;
+    }
+
+    /**
+     * Take a permit, blocking until the quota allows the request. Interrupts do not cut
+     * the wait short, since the slot is already reserved, but are preserved.
+     * @param host
+     */
+    public void acquire(Endpoint.Host host) {
+        long waitNanos = this.reserve(host, Long.MAX_VALUE);
+        if (waitNanos <= 0) {
+            return;
+        }
+
+        boolean interrupted = false;
+        long deadline = System.nanoTime() + waitNanos;
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(this, remaining);
+            interrupted |= Thread.interrupted();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Take a permit only if one is available right now
+     * @param host
+     * @return whether the permit was taken
+     */
+    public boolean tryAcquire(Endpoint.Host host) {
+        return this.reserve(host, 0) == 0;
+    }
+
+    /**
+     * Take a permit only if it becomes available within the timeout, waiting for it
+     * @param host
+     * @param timeout
+     * @param unit
+     * @return whether the permit was taken
+     */
+    public boolean tryAcquire(Endpoint.Host host, long timeout, TimeUnit unit) {
+        long waitNanos = this.reserve(host, unit.toNanos(timeout));
+        if (waitNanos < 0) {
+            return false;
+        }
+        if (waitNanos > 0) {
+            long deadline = System.nanoTime() + waitNanos;
+            long remaining;
+            while ((remaining = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, remaining);
+                if (Thread.interrupted()) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Take a permit without blocking. The future completes once the quota allows the
+     * request, straight away when a permit is available.
+     * @param host
+     * @return
+     */
+    public CompletableFuture<Void> acquireAsync(Endpoint.Host host) {
+        long waitNanos = this.reserve(host, Long.MAX_VALUE);
+        if (waitNanos <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<Void> permit = new CompletableFuture<>();
+        Timer.SCHEDULER.schedule(() -> permit.complete(null), waitNanos, TimeUnit.NANOSECONDS);
+        return permit;
+    }
+
+    /**
+     * Requests a host could send right now without waiting
+     * @param host
+     * @return
+     */
+    public int availablePermits(Endpoint.Host host) {
+        Budget budget = this.budgets.get(host);
+        return (budget == null) ? Integer.MAX_VALUE : budget.available(this.nanoClock.getAsLong());
+    }
+
+    /**
+     * Permits handed out
+     * @return
+     */
+    public long grantedCount() {
+        return this.granted.sum();
+    }
+
+    /**
+     * Permits that had to wait for the quota
+     * @return
+     */
+    public long delayedCount() {
+        return this.delayed.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "RateLimiter{granted=" + this.grantedCount()
+                + ", delayed=" + this.delayedCount()
+                + ", available=" + this.availablePermits(Endpoint.Host.MIN_API)
+                + "/" + this.availablePermits(Endpoint.Host.DEPRECATED) + "}";
+    }
+
+    /**
+     * Reserve the next slot of the host
+     * @param host
+     * @param maxWaitNanos longest acceptable wait
+     * @return nanoseconds until the slot, or -1 when it is further away than the maximum
+     */
+    private long reserve(Endpoint.Host host, long maxWaitNanos) {
+        Budget budget = this.budgets.get(host);
+        if (budget == null) {
+            return 0;
+        }
+
+        long waitNanos = budget.reserve(this.nanoClock.getAsLong(), maxWaitNanos);
+        if (waitNanos >= 0) {
+            this.granted.increment();
+            if (waitNanos > 0) {
+                this.delayed.increment();
+            }
+        }
+        return waitNanos;
+    }
+
+    /**
+     * The windows of one host with their theoretical arrival times
+     */
+    private static final class Budget {
+
+        private final long[] windowNanos;
+
+        private final long[] intervalNanos;
+
+        private final int[] permits;
+
+        /**
+         * Theoretical arrival time of each window, replaced as a whole so all windows
+         * move together
+         */
+        private final AtomicReference<long[]> arrivals;
+
+        private Budget(long[] windowNanos, int[] permits, long now) {
+            this.windowNanos = windowNanos;
+            this.permits = permits;
+            this.intervalNanos = new long[windowNanos.length];
+            long[] arrivals = new long[windowNanos.length];
+            for (int i = 0; i < windowNanos.length; i++) {
+                this.intervalNanos[i] = Math.max(1, windowNanos[i] / permits[i]);
+                arrivals[i] = now;
+            }
+            this.arrivals = new AtomicReference<>(arrivals);
+        }
+
+        /**
+         * Copy of the budget with a window added or replaced
+         * @param windowNanos
+         * @param permits
+         * @param now
+         * @return
+         */
+        private Budget with(long windowNanos, int permits, long now) {
+            int index = 0;
+            while (index < this.windowNanos.length && this.windowNanos[index] != windowNanos) {
+                index++;
+            }
+
+            int length = Math.max(this.windowNanos.length, index + 1);
+            long[] windows = new long[length];
+            int[] quotas = new int[length];
+            System.arraycopy(this.windowNanos, 0, windows, 0, this.windowNanos.length);
+            System.arraycopy(this.permits, 0, quotas, 0, this.permits.length);
+            windows[index] = windowNanos;
+            quotas[index] = permits;
+            return new Budget(windows, quotas, now);
+        }
+
+        private long reserve(long now, long maxWaitNanos) {
+            for (;;) {
+                long[] current = this.arrivals.get();
+
+                // Earliest time every window lets the request through
+                long slot = now;
+                for (int i = 0; i < current.length; i++) {
+                    slot = Math.max(slot, current[i] + this.intervalNanos[i] - this.windowNanos[i]);
+                }
+
+                long waitNanos = slot - now;
+                if (waitNanos > maxWaitNanos) {
+                    return -1;
+                }
+
+                long[] next = new long[current.length];
+                for (int i = 0; i < current.length; i++) {
+                    next[i] = Math.max(current[i], slot) + this.intervalNanos[i];
+                }
+                if (this.arrivals.compareAndSet(current, next)) {
+                    return waitNanos;
+                }
+            }
+        }
+
+        private int available(long now) {
+            long[] current = this.arrivals.get();
+            long available = Integer.MAX_VALUE;
+            for (int i = 0; i < current.length; i++) {
+                long unused = now + this.windowNanos[i] - Math.max(current[i], now);
+                available = Math.min(available, Math.min(this.permits[i], unused / this.intervalNanos[i]));
+            }
+            return (int) Math.max(0, available);
+        }
+    }
+
+    /**
+     * Shared daemon timer completing delayed async permits, started on first use
+     */
+    private static final class Timer {
+
+        private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cryptocompare-rate-limiter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
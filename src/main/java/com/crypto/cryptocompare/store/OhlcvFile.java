@@ -0,0 +1,273 @@
+package com.crypto.cryptocompare.store;
+
+import com.crypto.cryptocompare.history.Resolution;
+import com.crypto.cryptocompare.model.OhlcvSeries;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only file of bars of one pair at one resolution, read and written through a
+ * memory mapping. After a 64 byte header come fixed-width 56 byte records (time as a long,
+ * then open, high, low, close, volumefrom and volumeto as doubles, little endian) in
+ * ascending time order, so a time range is found by binary search.
+ *
+ * The bar count in the header is written after the bars it covers, so a crash during an
+ * append loses at most the bars of that append. Appends are serialized; reads need no lock.
+ */
+public class OhlcvFile implements Closeable {
+
+    /**
+     * "CCOHLCV1"
+     */
+    private static final long MAGIC = 0x43434F484C435631L;
+
+    private static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 64;
+
+    static final int RECORD_SIZE = 56;
+
+    static final int TIME = 0;
+    static final int OPEN = 8;
+    static final int HIGH = 16;
+    static final int LOW = 24;
+    static final int CLOSE = 32;
+    static final int VOLUME_FROM = 40;
+    static final int VOLUME_TO = 48;
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 8;
+    private static final int RECORD_SIZE_OFFSET = 12;
+    private static final int RESOLUTION_OFFSET = 16;
+    private static final int COUNT_OFFSET = 24;
+
+    /**
+     * Records the mapping grows by when full
+     */
+    private static final int GROWTH_RECORDS = 16384;
+
+    /**
+     * A single mapping is limited to 2GB
+     */
+    private static final int MAX_RECORDS = (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE;
+
+    private final Path path;
+
+    private final Resolution resolution;
+
+    private final FileChannel channel;
+
+    private volatile MappedByteBuffer mapping;
+
+    /**
+     * Bars stored; published after the bars themselves are written
+     */
+    private volatile int count;
+
+    private OhlcvFile(Path path, Resolution resolution, FileChannel channel) {
+        this.path = path;
+        this.resolution = resolution;
+        this.channel = channel;
+    }
+
+    /**
+     * Open the file, creating it when missing
+     * @param path
+     * @param resolution
+     * @return
+     * @throws IOException if the file is not a bar file of that resolution
+     */
+    public static OhlcvFile open(Path path, Resolution resolution) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        OhlcvFile file = new OhlcvFile(path, resolution, channel);
+        try {
+            if (channel.size() == 0) {
+                file.map(GROWTH_RECORDS);
+                file.mapping.putLong(MAGIC_OFFSET, MAGIC);
+                file.mapping.putInt(VERSION_OFFSET, VERSION);
+                file.mapping.putInt(RECORD_SIZE_OFFSET, RECORD_SIZE);
+                file.mapping.putLong(RESOLUTION_OFFSET, resolution.seconds());
+                file.mapping.putLong(COUNT_OFFSET, 0);
+            } else {
+                file.map((int) Math.max(0, (channel.size() - HEADER_SIZE) / RECORD_SIZE));
+                file.validate();
+                file.count = (int) file.mapping.getLong(COUNT_OFFSET);
+            }
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+        return file;
+    }
+
+    public Path path() {
+        return this.path;
+    }
+
+    public Resolution resolution() {
+        return this.resolution;
+    }
+
+    public int size() {
+        return this.count;
+    }
+
+    public boolean isEmpty() {
+        return this.count == 0;
+    }
+
+    /**
+     * Time of the newest bar
+     * @return unix timestamp in seconds, or -1 when empty
+     */
+    public long lastTime() {
+        int size = this.count;
+        return (size == 0) ? -1 : this.mapping.getLong(recordOffset(size - 1) + TIME);
+    }
+
+    /**
+     * Append the bars newer than the last one stored, in order
+     * @param series
+     * @return bars appended
+     * @throws IOException
+     */
+    public synchronized int append(OhlcvSeries series) throws IOException {
+        long last = this.lastTime();
+        int size = this.count;
+        int appended = 0;
+        for (int i = 0; i < series.size(); i++) {
+            long time = series.time(i);
+            if (time <= last) {
+                continue;
+            }
+            if (size + appended == this.capacity()) {
+                this.map(this.capacity() + GROWTH_RECORDS);
+            }
+
+            int offset = recordOffset(size + appended);
+            MappedByteBuffer buffer = this.mapping;
+            buffer.putLong(offset + TIME, time);
+            buffer.putDouble(offset + OPEN, series.open(i));
+            buffer.putDouble(offset + HIGH, series.high(i));
+            buffer.putDouble(offset + LOW, series.low(i));
+            buffer.putDouble(offset + CLOSE, series.close(i));
+            buffer.putDouble(offset + VOLUME_FROM, series.volumeFrom(i));
+            buffer.putDouble(offset + VOLUME_TO, series.volumeTo(i));
+            last = time;
+            appended++;
+        }
+
+        if (appended > 0) {
+            this.mapping.putLong(COUNT_OFFSET, size + appended);
+            this.count = size + appended;
+        }
+        return appended;
+    }
+
+    /**
+     * Bars with {@code fromTs <= time <= toTs}, read in place
+     * @param fromTs unix timestamp in seconds
+     * @param toTs unix timestamp in seconds
+     * @return
+     */
+    public OhlcvRange range(long fromTs, long toTs) {
+        // Count first: a mapping read after it always covers that many bars
+        int size = this.count;
+        MappedByteBuffer buffer = this.mapping;
+        int first = this.lowerBound(buffer, size, fromTs);
+        int end = (toTs == Long.MAX_VALUE) ? size : this.lowerBound(buffer, size, toTs + 1);
+        return new OhlcvRange(readOnly(buffer), recordOffset(first), Math.max(0, end - first));
+    }
+
+    /**
+     * Every stored bar, read in place
+     * @return
+     */
+    public OhlcvRange all() {
+        return this.range(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Write the mapped pages to disk
+     */
+    public synchronized void force() {
+        this.mapping.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        this.mapping.force();
+        this.channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return "OhlcvFile{path=" + this.path + ", resolution=" + this.resolution + ", size=" + this.count + "}";
+    }
+
+    /**
+     * Index of the first bar at or after a time
+     * @param buffer
+     * @param size
+     * @param time
+     * @return
+     */
+    private int lowerBound(MappedByteBuffer buffer, int size, long time) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (buffer.getLong(recordOffset(mid) + TIME) < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int capacity() {
+        return (this.mapping.capacity() - HEADER_SIZE) / RECORD_SIZE;
+    }
+
+    /**
+     * Map the file with room for a number of records, growing the file if needed
+     * @param records
+     * @throws IOException
+     */
+    private void map(int records) throws IOException {
+        if (records > MAX_RECORDS) {
+            throw new IOException("Bar file " + this.path + " is full");
+        }
+        MappedByteBuffer buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) records * RECORD_SIZE);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        this.mapping = buffer;
+    }
+
+    private void validate() throws IOException {
+        if (this.mapping.capacity() < HEADER_SIZE || this.mapping.getLong(MAGIC_OFFSET) != MAGIC) {
+            throw new IOException(this.path + " is not a bar file");
+        }
+        if (this.mapping.getInt(VERSION_OFFSET) != VERSION || this.mapping.getInt(RECORD_SIZE_OFFSET) != RECORD_SIZE) {
+            throw new IOException(this.path + " has an unsupported format");
+        }
+        if (this.mapping.getLong(RESOLUTION_OFFSET) != this.resolution.seconds()) {
+            throw new IOException(this.path + " holds bars of " + this.mapping.getLong(RESOLUTION_OFFSET) + " seconds, not " + this.resolution);
+        }
+    }
+
+    private static ByteBuffer readOnly(MappedByteBuffer buffer) {
+        return buffer.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static int recordOffset(int index) {
+        return HEADER_SIZE + index * RECORD_SIZE;
+    }
+}
@@ -0,0 +1,92 @@
+package com.crypto.cryptocompare.store;
+
+import com.crypto.cryptocompare.model.OhlcvSeries;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Bars of an {@link OhlcvFile} read in place from the mapped file, without copying. The
+ * view stays valid after the file grows or is closed, but only shows the bars that were
+ * stored when it was taken.
+ */
+public final class OhlcvRange {
+
+    private final ByteBuffer buffer;
+
+    /**
+     * Byte offset of the first bar of the range
+     */
+    private final int start;
+
+    private final int size;
+
+    OhlcvRange(ByteBuffer buffer, int start, int size) {
+        this.buffer = buffer;
+        this.start = start;
+        this.size = size;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public long time(int index) {
+        return this.buffer.getLong(this.offset(index) + OhlcvFile.TIME);
+    }
+
+    public double open(int index) {
+        return this.buffer.getDouble(this.offset(index) + OhlcvFile.OPEN);
+    }
+
+    public double high(int index) {
+        return this.buffer.getDouble(this.offset(index) + OhlcvFile.HIGH);
+    }
+
+    public double low(int index) {
+        return this.buffer.getDouble(this.offset(index) + OhlcvFile.LOW);
+    }
+
+    public double close(int index) {
+        return this.buffer.getDouble(this.offset(index) + OhlcvFile.CLOSE);
+    }
+
+    public double volumeFrom(int index) {
+        return this.buffer.getDouble(this.offset(index) + OhlcvFile.VOLUME_FROM);
+    }
+
+    public double volumeTo(int index) {
+        return this.buffer.getDouble(this.offset(index) + OhlcvFile.VOLUME_TO);
+    }
+
+    /**
+     * Copy the range onto the heap as a series
+     * @return
+     */
+    public OhlcvSeries toSeries() {
+        OhlcvSeries.Builder builder = OhlcvSeries.builder();
+        for (int i = 0; i < this.size; i++) {
+            builder.add(this.time(i), this.open(i), this.high(i), this.low(i), this.close(i), this.volumeFrom(i), this.volumeTo(i));
+        }
+        if (this.size > 0) {
+            builder.timeFrom(this.time(0)).timeTo(this.time(this.size - 1));
+        }
+        return builder.build();
+    }
+
+    private int offset(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of " + this.size);
+        }
+        return this.start + index * OhlcvFile.RECORD_SIZE;
+    }
+
+    @Override
+    public String toString() {
+        return "OhlcvRange{size=" + this.size
+                + (this.size > 0 ? ", from=" + this.time(0) + ", to=" + this.time(this.size - 1) : "") + "}";
+    }
+}
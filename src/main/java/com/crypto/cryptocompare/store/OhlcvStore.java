@@ -0,0 +1,191 @@
+package com.crypto.cryptocompare.store;
+
+import com.crypto.cryptocompare.api.CryptoCompareApi;
+import com.crypto.cryptocompare.history.HistoryBackfill;
+import com.crypto.cryptocompare.history.Resolution;
+import com.crypto.cryptocompare.model.CurrencyPair;
+import com.crypto.cryptocompare.model.OhlcvSeries;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Local store of bars, one {@link OhlcvFile} per pair and resolution in a directory.
+ * {@link #sync} asks the API only for the bars closed since the newest one stored, so
+ * history is downloaded once and later runs read it straight from the mapped files.
+ *
+ * Only closed bars are stored: the bar of the current period still changes and is never
+ * written, so nothing stored ever needs rewriting.
+ */
+public class OhlcvStore implements Closeable {
+
+    private final Path directory;
+
+    private final CryptoCompareApi api;
+
+    private final LongSupplier secondsClock;
+
+    private final ConcurrentHashMap<String, OhlcvFile> files = new ConcurrentHashMap<>();
+
+    /*************************
+     * Constructors
+     *************************/
+
+    /**
+     * @param directory created when missing
+     * @param api used by sync
+     * @throws IOException
+     */
+    public OhlcvStore(Path directory, CryptoCompareApi api) throws IOException {
+        this(directory, api, () -> System.currentTimeMillis() / 1000);
+    }
+
+    OhlcvStore(Path directory, CryptoCompareApi api, LongSupplier secondsClock) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.api = api;
+        this.secondsClock = secondsClock;
+    }
+
+    /**
+     * File of a pair at a resolution, opened or created on first use
+     * @param pair
+     * @param resolution
+     * @return
+     * @throws IOException
+     */
+    public OhlcvFile file(CurrencyPair pair, Resolution resolution) throws IOException {
+        String name = fileName(pair, resolution);
+        OhlcvFile file = this.files.get(name);
+        if (file != null) {
+            return file;
+        }
+
+        synchronized (this.files) {
+            file = this.files.get(name);
+            if (file == null) {
+                file = OhlcvFile.open(this.directory.resolve(name), resolution);
+                this.files.put(name, file);
+            }
+            return file;
+        }
+    }
+
+    /**
+     * Stored bars of a pair within a time range, read in place
+     * @param pair
+     * @param resolution
+     * @param fromTs unix timestamp in seconds
+     * @param toTs unix timestamp in seconds
+     * @return
+     * @throws IOException
+     */
+    public OhlcvRange range(CurrencyPair pair, Resolution resolution, long fromTs, long toTs) throws IOException {
+        return this.file(pair, resolution).range(fromTs, toTs);
+    }
+
+    /**
+     * Fetch and append the bars closed since the newest one stored
+     * @param pair
+     * @param resolution
+     * @param fromTs where history starts when nothing is stored yet, unix timestamp in seconds
+     * @return bars appended
+     * @throws IOException
+     */
+    public int sync(CurrencyPair pair, Resolution resolution, long fromTs) throws IOException {
+        OhlcvFile file = this.file(pair, resolution);
+        long period = resolution.seconds();
+        long lastClosed = resolution.align(this.secondsClock.getAsLong()) - period;
+
+        synchronized (file) {
+            long next = file.isEmpty() ? resolution.align(fromTs) : file.lastTime() + period;
+            int appended = 0;
+            while (next <= lastClosed) {
+                long toTs = Math.min(lastClosed, next + (HistoryBackfill.MAX_PAGE_SIZE - 1) * period);
+                Map<String, Object> params = new LinkedHashMap<>();
+                params.put("toTs", toTs);
+                params.put("limit", Math.max(1, (toTs - next) / period));
+                OhlcvSeries page = resolution.fetch(this.api, pair.fsym(), pair.tsym(), params);
+
+                appended += file.append(closedBars(page, lastClosed));
+                next = toTs + period;
+            }
+            return appended;
+        }
+    }
+
+    /**
+     * Write every open file to disk and close it
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        synchronized (this.files) {
+            for (OhlcvFile file : this.files.values()) {
+                try {
+                    file.close();
+                } catch (IOException ex) {
+                    failure = ex;
+                }
+            }
+            this.files.clear();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Drop the bars after the last closed one, e.g. the bar still in progress
+     * @param page
+     * @param lastClosed
+     * @return
+     */
+    private static OhlcvSeries closedBars(OhlcvSeries page, long lastClosed) {
+        int size = page.size();
+        while (size > 0 && page.time(size - 1) > lastClosed) {
+            size--;
+        }
+        if (size == page.size()) {
+            return page;
+        }
+
+        OhlcvSeries.Builder builder = OhlcvSeries.builder();
+        for (int i = 0; i < size; i++) {
+            builder.add(page.time(i), page.open(i), page.high(i), page.low(i), page.close(i), page.volumeFrom(i), page.volumeTo(i));
+        }
+        return builder.build();
+    }
+
+    /**
+     * File name of a pair, e.g. BTC-USD-MINUTE.ohlcv, with characters outside letters and
+     * digits percent-encoded so any symbol maps to a distinct, valid name
+     * @param pair
+     * @param resolution
+     * @return
+     */
+    static String fileName(CurrencyPair pair, Resolution resolution) {
+        return encode(pair.fsym()) + "-" + encode(pair.tsym()) + "-" + resolution + ".ohlcv";
+    }
+
+    private static String encode(String symbol) {
+        StringBuilder sb = new StringBuilder(symbol.length());
+        for (byte b : symbol.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xFF);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                sb.append(c);
+            } else {
+                sb.append('%').append(Character.toUpperCase(Character.forDigit(c >> 4, 16)))
+                        .append(Character.toUpperCase(Character.forDigit(c & 0xF, 16)));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,120 @@
+package com.crypto.cryptocompare.store;
+
+import com.crypto.cryptocompare.api.CryptoCompareApi;
+import com.crypto.cryptocompare.json.LazyJsonObject;
+import com.crypto.cryptocompare.model.SymbolTable;
+import com.crypto.cryptocompare.model.SymbolTableDecoder;
+import com.crypto.cryptocompare.transport.ApiErrorException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The reference data a client needs before it can serve anything: the coin list, the
+ * mining equipment list and a SymbolTable of the coins. The lists are kept as the bytes
+ * the API sent, as {@link LazyJsonObject}s, so they can be written to and loaded from a
+ * {@link ReferenceSnapshot} without any parsing. Immutable.
+ */
+public final class ReferenceData {
+
+    /**
+     * Nothing loaded yet
+     */
+    public static final ReferenceData EMPTY = new ReferenceData(empty(), empty(), SymbolTable.EMPTY, 0);
+
+    private final LazyJsonObject coinList;
+
+    private final LazyJsonObject miningEquipment;
+
+    private final SymbolTable symbols;
+
+    private final long fetchedAtMillis;
+
+    /*************************
+     * Constructors
+     *************************/
+
+    ReferenceData(LazyJsonObject coinList, LazyJsonObject miningEquipment, SymbolTable symbols, long fetchedAtMillis) {
+        this.coinList = coinList;
+        this.miningEquipment = miningEquipment;
+        this.symbols = symbols;
+        this.fetchedAtMillis = fetchedAtMillis;
+    }
+
+    /**
+     * Fetch the coin list and the mining equipment list
+     * @param api
+     * @return
+     * @throws UncheckedIOException when a request fails or the API answers with an error,
+     * which is never kept as reference data
+     */
+    public static ReferenceData fetch(CryptoCompareApi api) {
+        LazyJsonObject coinList = checked(api.coinListLazy());
+        LazyJsonObject miningEquipment = checked(api.miningEquipmentLazy());
+        try {
+            SymbolTable symbols = SymbolTableDecoder.INSTANCE.decode(coinList.newInputStream());
+            return new ReferenceData(coinList, miningEquipment, symbols, System.currentTimeMillis());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * The coin list response, as {@link CryptoCompareApi#coinListLazy()} returns it
+     * @return
+     */
+    public LazyJsonObject coinList() {
+        return this.coinList;
+    }
+
+    /**
+     * The mining equipment response, as {@link CryptoCompareApi#miningEquipmentLazy()} returns it
+     * @return
+     */
+    public LazyJsonObject miningEquipment() {
+        return this.miningEquipment;
+    }
+
+    public SymbolTable symbols() {
+        return this.symbols;
+    }
+
+    /**
+     * When the data was fetched from the API, epoch millis; 0 for {@link #EMPTY}
+     * @return
+     */
+    public long fetchedAtMillis() {
+        return this.fetchedAtMillis;
+    }
+
+    /**
+     * Same data with the symbol ids of an older copy kept, see {@link SymbolTable#withIdsOf(SymbolTable)}
+     * @param previous
+     * @return
+     */
+    public ReferenceData withIdsOf(ReferenceData previous) {
+        return new ReferenceData(this.coinList, this.miningEquipment, this.symbols.withIdsOf(previous.symbols), this.fetchedAtMillis);
+    }
+
+    @Override
+    public String toString() {
+        return "ReferenceData{symbols=" + this.symbols.size() + ", fetchedAtMillis=" + this.fetchedAtMillis + "}";
+    }
+
+    private static LazyJsonObject checked(LazyJsonObject response) {
+        if ("Error".equals(response.getString("Response"))) {
+            throw new UncheckedIOException(new ApiErrorException(response.getString("Message")));
+        }
+        return response;
+    }
+
+    private static LazyJsonObject empty() {
+        byte[] json = "{}".getBytes(StandardCharsets.US_ASCII);
+        try {
+            return LazyJsonObject.of(json, 0, json.length);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
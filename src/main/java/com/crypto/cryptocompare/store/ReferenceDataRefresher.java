@@ -0,0 +1,142 @@
+package com.crypto.cryptocompare.store;
+
+import com.crypto.cryptocompare.api.CryptoCompareApi;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps {@link ReferenceData} current and backed by a {@link ReferenceSnapshot} file.
+ * {@link #load()} starts from the snapshot when there is a readable one, so a process
+ * that boots next to a recent file makes no request at all; {@link #start(long, TimeUnit)}
+ * then refreshes in the background once the data is older than the maximum age, writes
+ * the new snapshot and swaps the data in whole. Readers get the latest copy with
+ * {@link #current()}, a single volatile read, and never wait on a refresh.
+ *
+ * The first background refresh is delayed by a random part of a tenth of the maximum age,
+ * so processes started together from the same snapshot do not all refresh at once.
+ */
+public class ReferenceDataRefresher implements Closeable {
+
+    /**
+     * Logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceDataRefresher.class);
+
+    private final CryptoCompareApi api;
+
+    private final Path snapshot;
+
+    private final AtomicReference<ReferenceData> data = new AtomicReference<>(ReferenceData.EMPTY);
+
+    private final ScheduledExecutorService scheduler;
+
+    /*************************
+     * Constructors
+     *************************/
+
+    /**
+     * @param api client the data is fetched through
+     * @param snapshot file the data is loaded from and saved to
+     */
+    public ReferenceDataRefresher(CryptoCompareApi api, Path snapshot) {
+        this.api = api;
+        this.snapshot = snapshot;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cryptocompare-reference-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Latest data, {@link ReferenceData#EMPTY} until the first load
+     * @return
+     */
+    public ReferenceData current() {
+        return this.data.get();
+    }
+
+    /**
+     * Load the snapshot, or fetch from the API when it is missing or unreadable
+     * @return the data now current
+     */
+    public synchronized ReferenceData load() {
+        if (Files.exists(this.snapshot)) {
+            try {
+                ReferenceData loaded = ReferenceSnapshot.read(this.snapshot);
+                this.data.set(loaded.withIdsOf(this.data.get()));
+                return this.data.get();
+            } catch (IOException ex) {
+                logger.warn("Could not load the reference snapshot {}, fetching instead", this.snapshot, ex);
+            }
+        }
+        return this.refresh();
+    }
+
+    /**
+     * Fetch from the API now, save the snapshot and swap in the new data. A snapshot that
+     * cannot be written is logged; the data is still used.
+     * @return the data now current
+     */
+    public synchronized ReferenceData refresh() {
+        ReferenceData fresh = ReferenceData.fetch(this.api).withIdsOf(this.data.get());
+        try {
+            ReferenceSnapshot.write(this.snapshot, fresh);
+        } catch (IOException ex) {
+            logger.warn("Could not save the reference snapshot {}", this.snapshot, ex);
+        }
+        this.data.set(fresh);
+        return fresh;
+    }
+
+    /**
+     * Refresh in the background whenever the data gets older than maxAge. A failed
+     * refresh is logged and the current data kept until the next attempt, a tenth of
+     * maxAge later.
+     * @param maxAge
+     * @param unit
+     * @return
+     */
+    public ReferenceDataRefresher start(long maxAge, TimeUnit unit) {
+        long maxAgeMillis = unit.toMillis(maxAge);
+        long age = System.currentTimeMillis() - this.current().fetchedAtMillis();
+        long jitter = ThreadLocalRandom.current().nextLong(Math.max(1, maxAgeMillis / 10));
+        this.schedule(Math.max(0, maxAgeMillis - age) + jitter, maxAgeMillis);
+        return this;
+    }
+
+    /**
+     * Stop refreshing; the current data stays readable
+     */
+    @Override
+    public void close() {
+        this.scheduler.shutdownNow();
+    }
+
+    private void schedule(long delayMillis, long maxAgeMillis) {
+        if (this.scheduler.isShutdown()) {
+            return;
+        }
+        this.scheduler.schedule(() -> {
+            long next = maxAgeMillis;
+            try {
+                this.refresh();
+            } catch (RuntimeException ex) {
+                next = Math.max(1, maxAgeMillis / 10);
+                logger.warn("Could not refresh the reference data, keeping the copy fetched at {}",
+                        this.current().fetchedAtMillis(), ex);
+            }
+            this.schedule(next, maxAgeMillis);
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+}
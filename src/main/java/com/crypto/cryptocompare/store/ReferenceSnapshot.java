@@ -0,0 +1,256 @@
+package com.crypto.cryptocompare.store;
+
+import com.crypto.cryptocompare.json.LazyJsonObject;
+import com.crypto.cryptocompare.model.SymbolTable;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshot of {@link ReferenceData}, so a process can start from a local file
+ * instead of downloading and parsing megabytes of JSON. Layout, little endian:
+ * <pre>
+ *   long  magic "CCREFSN1"
+ *   int   version
+ *   int   CRC32 of everything after the header
+ *   long  fetched at, epoch millis
+ *   long  coin list offset, int length
+ *   long  mining equipment offset, int length
+ *   long  symbols offset, int length
+ *   (header padded to 64 bytes)
+ *   coin list JSON, mining equipment JSON, symbols
+ * </pre>
+ * The symbols section holds the SymbolTable ready to use, its ids included, as a count and
+ * then per symbol its UTF-8 bytes, coin id, sort order and name, strings prefixed with
+ * their length and a null name written as -1.
+ *
+ * Reading maps the file and copies each JSON section once into the heap, where it is
+ * indexed as a LazyJsonObject; nothing is parsed until it is read. Writing goes to a
+ * temporary file in the same directory which is then moved over the old snapshot, so a
+ * reader sees either the old file or the new one whole.
+ */
+public final class ReferenceSnapshot {
+
+    /**
+     * "CCREFSN1"
+     */
+    static final long MAGIC = 0x4343524546534E31L;
+
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 64;
+
+    private ReferenceSnapshot() {}
+
+    /**
+     * Write a snapshot, replacing the file atomically
+     * @param path
+     * @param data
+     * @throws IOException
+     */
+    public static void write(Path path, ReferenceData data) throws IOException {
+        byte[] symbols = encodeSymbols(data.symbols());
+        long coinListOffset = HEADER_SIZE;
+        long miningOffset = coinListOffset + data.coinList().length();
+        long symbolsOffset = miningOffset + data.miningEquipment().length();
+
+        Path directory = path.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            CRC32 crc = new CRC32();
+            try (OutputStream out = new BufferedOutputStream(new ChecksumOutputStream(
+                    Files.newOutputStream(temp, StandardOpenOption.WRITE), crc), 64 * 1024)) {
+                data.coinList().writeTo(out);
+                data.miningEquipment().writeTo(out);
+                out.write(symbols);
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putLong(MAGIC)
+                    .putInt(VERSION)
+                    .putInt((int) crc.getValue())
+                    .putLong(data.fetchedAtMillis())
+                    .putLong(coinListOffset).putInt(data.coinList().length())
+                    .putLong(miningOffset).putInt(data.miningEquipment().length())
+                    .putLong(symbolsOffset).putInt(symbols.length);
+            header.clear();
+
+            // The body was written after room left for the header, which is only known now
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+                channel.force(true);
+            }
+
+            try {
+                Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Load a snapshot
+     * @param path
+     * @return
+     * @throws IOException when the file is missing, truncated or corrupt
+     */
+    public static ReferenceData read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("Not a reference snapshot: " + path);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (mapped.getLong(0) != MAGIC) {
+                throw new IOException("Not a reference snapshot: " + path);
+            }
+            if (mapped.getInt(8) != VERSION) {
+                throw new IOException("Unsupported reference snapshot version " + mapped.getInt(8) + ": " + path);
+            }
+
+            int expectedCrc = mapped.getInt(12);
+            long fetchedAtMillis = mapped.getLong(16);
+            byte[] coinList = section(mapped, 24, size, path);
+            byte[] miningEquipment = section(mapped, 36, size, path);
+            byte[] symbols = section(mapped, 48, size, path);
+
+            CRC32 crc = new CRC32();
+            crc.update(coinList);
+            crc.update(miningEquipment);
+            crc.update(symbols);
+            if ((int) crc.getValue() != expectedCrc) {
+                throw new IOException("Corrupt reference snapshot: " + path);
+            }
+
+            return new ReferenceData(
+                    LazyJsonObject.of(coinList, 0, coinList.length),
+                    LazyJsonObject.of(miningEquipment, 0, miningEquipment.length),
+                    decodeSymbols(ByteBuffer.wrap(symbols).order(ByteOrder.LITTLE_ENDIAN)),
+                    fetchedAtMillis);
+        } catch (RuntimeException ex) {
+            // Out of range reads of a damaged file
+            throw new IOException("Corrupt reference snapshot: " + path, ex);
+        }
+    }
+
+    /**
+     * Copy a section out of the mapped file
+     * @param mapped
+     * @param entry offset of the section's offset and length in the header
+     * @param size file size
+     * @param path
+     * @return
+     * @throws IOException
+     */
+    private static byte[] section(MappedByteBuffer mapped, int entry, long size, Path path) throws IOException {
+        long offset = mapped.getLong(entry);
+        int length = mapped.getInt(entry + 8);
+        if (offset < HEADER_SIZE || length < 0 || offset + length > size) {
+            throw new IOException("Corrupt reference snapshot: " + path);
+        }
+        byte[] bytes = new byte[length];
+        ByteBuffer slice = mapped.duplicate();
+        slice.position((int) offset);
+        slice.get(bytes);
+        return bytes;
+    }
+
+    static byte[] encodeSymbols(SymbolTable symbols) {
+        int size = 4;
+        byte[][] encoded = new byte[symbols.size() * 2][];
+        for (int id = 0; id < symbols.size(); id++) {
+            encoded[2 * id] = symbols.symbol(id).getBytes(StandardCharsets.UTF_8);
+            String name = symbols.name(id);
+            encoded[2 * id + 1] = (name == null) ? null : name.getBytes(StandardCharsets.UTF_8);
+            size += 4 + encoded[2 * id].length + 8 + 4 + ((name == null) ? 0 : encoded[2 * id + 1].length);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(symbols.size());
+        for (int id = 0; id < symbols.size(); id++) {
+            buffer.putInt(encoded[2 * id].length).put(encoded[2 * id]);
+            buffer.putInt(symbols.coinId(id)).putInt(symbols.sortOrder(id));
+            byte[] name = encoded[2 * id + 1];
+            if (name == null) {
+                buffer.putInt(-1);
+            } else {
+                buffer.putInt(name.length).put(name);
+            }
+        }
+        return buffer.array();
+    }
+
+    static SymbolTable decodeSymbols(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        SymbolTable.Builder builder = SymbolTable.builder();
+        byte[] symbol = new byte[16];
+        for (int i = 0; i < count; i++) {
+            int length = buffer.getInt();
+            if (length > symbol.length) {
+                symbol = new byte[Math.max(length, symbol.length * 2)];
+            }
+            buffer.get(symbol, 0, length);
+            int coinId = buffer.getInt();
+            int sortOrder = buffer.getInt();
+            int nameLength = buffer.getInt();
+            String name = null;
+            if (nameLength >= 0) {
+                name = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), nameLength, StandardCharsets.UTF_8);
+                buffer.position(buffer.position() + nameLength);
+            }
+            builder.add(symbol, 0, length, coinId, name, sortOrder);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Checksums what goes through it and leaves room for the header in front
+     */
+    private static final class ChecksumOutputStream extends OutputStream {
+
+        private final OutputStream out;
+
+        private final CRC32 crc;
+
+        private ChecksumOutputStream(OutputStream out, CRC32 crc) throws IOException {
+            this.out = out;
+            this.crc = crc;
+            out.write(new byte[HEADER_SIZE]);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            this.crc.update(b);
+            this.out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            this.crc.update(b, off, len);
+            this.out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.out.close();
+        }
+    }
+}
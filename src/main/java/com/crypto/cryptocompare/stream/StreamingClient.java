@@ -0,0 +1,437 @@
+package com.crypto.cryptocompare.stream;
+
+import com.crypto.cryptocompare.utils.UrlBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Push price feed from the CryptoCompare streamer. Subscriptions use the streamer's
+ * strings, e.g. {@code 5~CCCAGG~BTC~USD} or the {@code Subs} of coinSnapshotFullById,
+ * and are sent again after every reconnect.
+ *
+ * A reader thread decodes each update into a {@link Tick} taken from a fixed pool and
+ * queues it. Consumers {@link #take()} ticks and {@link #release(Tick)} them back to the
+ * pool. Once every tick is out, the reader stops reading the socket until one is
+ * released, so a slow consumer pushes back on the connection instead of growing a
+ * queue; {@link #stallCount()} counts those waits.
+ */
+public class StreamingClient implements Closeable {
+
+    /**
+     * Logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(StreamingClient.class);
+
+    public static final String DEFAULT_URL = "wss://streamer.cryptocompare.com/v2";
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final long MAX_RECONNECT_DELAY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final URI uri;
+
+    private final int connectTimeoutMillis;
+
+    private final long reconnectDelayNanos;
+
+    /**
+     * Ticks free to be filled, and ticks filled waiting for a consumer
+     */
+    private final BlockingQueue<Tick> free;
+
+    private final BlockingQueue<Tick> ready;
+
+    private final Set<String> subscriptions = new LinkedHashSet<>();
+
+    private final TickDecoder decoder = new TickDecoder();
+
+    private final Thread reader;
+
+    private final LongAdder messages = new LongAdder();
+
+    private final LongAdder ticks = new LongAdder();
+
+    private final LongAdder skipped = new LongAdder();
+
+    private final LongAdder stalls = new LongAdder();
+
+    private final LongAdder connects = new LongAdder();
+
+    private volatile WebSocket socket;
+
+    private volatile boolean closed;
+
+    /*************************
+     * Constructors
+     *************************/
+
+    private StreamingClient(Builder builder) {
+        StringBuilder url = new StringBuilder(builder.url);
+        if (builder.apiKey != null) {
+            url.append(url.indexOf("?") < 0 ? "?" : "&").append("api_key=");
+            UrlBuilder.appendEncoded(url, builder.apiKey);
+        }
+        this.uri = URI.create(url.toString());
+        this.connectTimeoutMillis = builder.connectTimeoutMillis;
+        this.reconnectDelayNanos = builder.reconnectDelayNanos;
+        this.free = new ArrayBlockingQueue<>(builder.capacity);
+        this.ready = new ArrayBlockingQueue<>(builder.capacity);
+        for (int i = 0; i < builder.capacity; i++) {
+            this.free.add(new Tick());
+        }
+        this.reader = new Thread(this::run, "cryptocompare-stream");
+        this.reader.setDaemon(true);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Subscription strings listed by a coinSnapshotFullById response
+     * @param coinSnapshotFullById
+     * @return
+     */
+    public static List<String> subscriptions(JsonObject coinSnapshotFullById) {
+        List<String> subs = new ArrayList<>();
+        JsonElement data = coinSnapshotFullById.get("Data");
+        if (data != null && data.isJsonObject()) {
+            JsonElement list = data.getAsJsonObject().get("Subs");
+            if (list != null && list.isJsonArray()) {
+                for (JsonElement sub : list.getAsJsonArray()) {
+                    subs.add(sub.getAsString());
+                }
+            }
+        }
+        return subs;
+    }
+
+    public StreamingClient subscribe(String... subs) {
+        return this.subscribe(Arrays.asList(subs));
+    }
+
+    /**
+     * Add subscriptions, sent right away when connected
+     * @param subs
+     * @return
+     */
+    public StreamingClient subscribe(Collection<String> subs) {
+        synchronized (this.subscriptions) {
+            this.subscriptions.addAll(subs);
+        }
+        this.send("SubAdd", subs);
+        return this;
+    }
+
+    /**
+     * Remove subscriptions
+     * @param subs
+     * @return
+     */
+    public StreamingClient unsubscribe(Collection<String> subs) {
+        synchronized (this.subscriptions) {
+            this.subscriptions.removeAll(subs);
+        }
+        this.send("SubRemove", subs);
+        return this;
+    }
+
+    /**
+     * Connect and start reading on a background thread
+     * @return
+     */
+    public StreamingClient start() {
+        this.reader.start();
+        return this;
+    }
+
+    /**
+     * Next tick, waiting for one; hand it back with {@link #release(Tick)}
+     * @return
+     * @throws InterruptedException
+     */
+    public Tick take() throws InterruptedException {
+        return this.ready.take();
+    }
+
+    /**
+     * Next tick, waiting at most the timeout; hand it back with {@link #release(Tick)}
+     * @param timeout
+     * @param unit
+     * @return null when none came in time
+     * @throws InterruptedException
+     */
+    public Tick poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return this.ready.poll(timeout, unit);
+    }
+
+    /**
+     * Give a tick back to the pool once done with it
+     * @param tick
+     */
+    public void release(Tick tick) {
+        this.free.offer(tick);
+    }
+
+    /**
+     * Hand every tick queued right now to the consumer, releasing each after it returns
+     * @param consumer
+     * @return ticks handed over
+     */
+    public int drain(Consumer<Tick> consumer) {
+        int count = 0;
+        Tick tick;
+        while ((tick = this.ready.poll()) != null) {
+            try {
+                consumer.accept(tick);
+            } finally {
+                this.release(tick);
+            }
+            count++;
+        }
+        return count;
+    }
+
+    public boolean isConnected() {
+        return this.socket != null;
+    }
+
+    /**
+     * Messages received, updates or not
+     * @return
+     */
+    public long messageCount() {
+        return this.messages.sum();
+    }
+
+    /**
+     * Price updates decoded into ticks
+     * @return
+     */
+    public long tickCount() {
+        return this.ticks.sum();
+    }
+
+    /**
+     * Messages that were not price updates, e.g. heartbeats and subscription replies
+     * @return
+     */
+    public long skippedCount() {
+        return this.skipped.sum();
+    }
+
+    /**
+     * Times the reader had to wait for a tick to be released
+     * @return
+     */
+    public long stallCount() {
+        return this.stalls.sum();
+    }
+
+    /**
+     * Connections opened, the first one included
+     * @return
+     */
+    public long connectCount() {
+        return this.connects.sum();
+    }
+
+    /**
+     * Disconnect and stop reading; ticks still queued can be taken
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        WebSocket socket = this.socket;
+        if (socket != null) {
+            closeQuietly(socket);
+        }
+        this.reader.interrupt();
+    }
+
+    private void run() {
+        long delayNanos = this.reconnectDelayNanos;
+        Tick tick = null;
+        while (!this.closed) {
+            WebSocket socket = null;
+            try {
+                socket = WebSocket.connect(this.uri, this.connectTimeoutMillis);
+                this.socket = socket;
+                this.connects.increment();
+                List<String> subs;
+                synchronized (this.subscriptions) {
+                    subs = new ArrayList<>(this.subscriptions);
+                }
+                if (!subs.isEmpty()) {
+                    socket.sendText(action("SubAdd", subs));
+                }
+                delayNanos = this.reconnectDelayNanos;
+
+                int length;
+                while (!this.closed && (length = socket.readMessage()) >= 0) {
+                    this.messages.increment();
+                    if (tick == null) {
+                        tick = this.acquire();
+                    }
+                    if (this.decoder.decode(socket.buffer(), 0, length, tick)) {
+                        this.ready.put(tick);
+                        tick = null;
+                        this.ticks.increment();
+                    } else {
+                        this.skipped.increment();
+                    }
+                }
+            } catch (IOException ex) {
+                if (!this.closed) {
+                    logger.warn("Streamer connection to {} lost", this.uri.getHost(), ex);
+                }
+            } catch (InterruptedException ex) {
+                break;
+            } finally {
+                this.socket = null;
+                if (socket != null) {
+                    closeQuietly(socket);
+                }
+            }
+
+            if (!this.closed) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(delayNanos);
+                } catch (InterruptedException ex) {
+                    break;
+                }
+                delayNanos = Math.min(MAX_RECONNECT_DELAY_NANOS, delayNanos * 2);
+            }
+        }
+    }
+
+    /**
+     * Free tick to decode into, waiting for the consumer when the pool is empty
+     * @return
+     * @throws InterruptedException
+     */
+    private Tick acquire() throws InterruptedException {
+        Tick tick = this.free.poll();
+        if (tick == null) {
+            this.stalls.increment();
+            tick = this.free.take();
+        }
+        return tick;
+    }
+
+    private void send(String action, Collection<String> subs) {
+        WebSocket socket = this.socket;
+        if (socket == null || subs.isEmpty()) {
+            return;
+        }
+        try {
+            socket.sendText(action(action, subs));
+        } catch (IOException ex) {
+            // The reader reconnects and sends every subscription again
+            logger.warn("Could not send {} to the streamer", action, ex);
+        }
+    }
+
+    private static String action(String action, Collection<String> subs) {
+        JsonArray list = new JsonArray();
+        for (String sub : subs) {
+            list.add(sub);
+        }
+        JsonObject message = new JsonObject();
+        message.addProperty("action", action);
+        message.add("subs", list);
+        return message.toString();
+    }
+
+    private static void closeQuietly(WebSocket socket) {
+        try {
+            socket.close();
+        } catch (IOException ex) {
+            logger.debug("Error closing the streamer connection", ex);
+        }
+    }
+
+    /**
+     * Configuration for a StreamingClient
+     */
+    public static class Builder {
+
+        private String url = DEFAULT_URL;
+
+        private String apiKey;
+
+        private int capacity = DEFAULT_CAPACITY;
+
+        private int connectTimeoutMillis = 10000;
+
+        private long reconnectDelayNanos = TimeUnit.SECONDS.toNanos(1);
+
+        private Builder() {}
+
+        /**
+         * Streamer url, {@link #DEFAULT_URL} by default
+         * @param url ws:// or wss:// url
+         * @return
+         */
+        public Builder url(String url) {
+            this.url = url;
+            return this;
+        }
+
+        public Builder apiKey(String apiKey) {
+            this.apiKey = apiKey;
+            return this;
+        }
+
+        /**
+         * Ticks in the pool, the most that can wait for a consumer
+         * @param capacity
+         * @return
+         */
+        public Builder capacity(int capacity) {
+            if (capacity < 1) {
+                throw new IllegalArgumentException("capacity must be positive");
+            }
+            this.capacity = capacity;
+            return this;
+        }
+
+        public Builder connectTimeout(long timeout, TimeUnit unit) {
+            this.connectTimeoutMillis = (int) unit.toMillis(timeout);
+            return this;
+        }
+
+        /**
+         * First wait before reconnecting, doubled on each failure up to a minute
+         * @param delay
+         * @param unit
+         * @return
+         */
+        public Builder reconnectDelay(long delay, TimeUnit unit) {
+            this.reconnectDelayNanos = unit.toNanos(delay);
+            return this;
+        }
+
+        public StreamingClient build() {
+            return new StreamingClient(this);
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package com.crypto.cryptocompare.stream;
+
+/**
+ * One CCCAGG or exchange price update from the streamer. Updates only carry the fields
+ * that changed, listed by {@link #fields()}; the others read as NaN or 0. Ticks handed
+ * out by a {@link StreamingClient} are pooled: they are filled in place by the next
+ * message once released, so copy what is needed, or {@link #mergeFrom(Tick)} them into
+ * a tick of your own to keep the full state of a pair.
+ */
+public final class Tick {
+
+    public static final int PRICE = 0x1;
+    public static final int BID = 0x2;
+    public static final int OFFER = 0x4;
+    public static final int LASTUPDATE = 0x8;
+    public static final int AVG = 0x10;
+    public static final int LASTVOLUME = 0x20;
+    public static final int LASTVOLUMETO = 0x40;
+    public static final int LASTTRADEID = 0x80;
+    public static final int VOLUMEHOUR = 0x100;
+    public static final int VOLUMEHOURTO = 0x200;
+    public static final int VOLUME24HOUR = 0x400;
+    public static final int VOLUME24HOURTO = 0x800;
+    public static final int OPENHOUR = 0x1000;
+    public static final int HIGHHOUR = 0x2000;
+    public static final int LOWHOUR = 0x4000;
+    public static final int OPEN24HOUR = 0x8000;
+    public static final int HIGH24HOUR = 0x10000;
+    public static final int LOW24HOUR = 0x20000;
+    public static final int LASTMARKET = 0x40000;
+
+    /**
+     * Highest field bit the streamer sends
+     */
+    static final int LAST_FIELD = LASTMARKET;
+
+    int type;
+
+    String market;
+
+    String fromSymbol;
+
+    String toSymbol;
+
+    int flags;
+
+    int fields;
+
+    double price;
+
+    double bid;
+
+    double offer;
+
+    long lastUpdate;
+
+    double avg;
+
+    double lastVolume;
+
+    double lastVolumeTo;
+
+    long lastTradeId;
+
+    double volumeHour;
+
+    double volumeHourTo;
+
+    double volume24Hour;
+
+    double volume24HourTo;
+
+    double openHour;
+
+    double highHour;
+
+    double lowHour;
+
+    double open24Hour;
+
+    double high24Hour;
+
+    double low24Hour;
+
+    String lastMarket;
+
+    public Tick() {
+        this.clear();
+    }
+
+    /**
+     * Message type, 2 for an exchange and 5 for CCCAGG
+     * @return
+     */
+    public int type() {
+        return this.type;
+    }
+
+    public String market() {
+        return this.market;
+    }
+
+    public String fromSymbol() {
+        return this.fromSymbol;
+    }
+
+    public String toSymbol() {
+        return this.toSymbol;
+    }
+
+    /**
+     * Price direction: 1 up, 2 down, 4 unchanged
+     * @return
+     */
+    public int flags() {
+        return this.flags;
+    }
+
+    /**
+     * Bit mask of the fields present, e.g. {@link #PRICE} | {@link #VOLUME24HOUR}
+     * @return
+     */
+    public int fields() {
+        return this.fields;
+    }
+
+    public boolean has(int field) {
+        return (this.fields & field) != 0;
+    }
+
+    public double price() {
+        return this.price;
+    }
+
+    public double bid() {
+        return this.bid;
+    }
+
+    public double offer() {
+        return this.offer;
+    }
+
+    /**
+     * Unix timestamp in seconds
+     * @return
+     */
+    public long lastUpdate() {
+        return this.lastUpdate;
+    }
+
+    public double avg() {
+        return this.avg;
+    }
+
+    public double lastVolume() {
+        return this.lastVolume;
+    }
+
+    public double lastVolumeTo() {
+        return this.lastVolumeTo;
+    }
+
+    /**
+     * Id of the last trade, 0 when absent or not a number
+     * @return
+     */
+    public long lastTradeId() {
+        return this.lastTradeId;
+    }
+
+    public double volumeHour() {
+        return this.volumeHour;
+    }
+
+    public double volumeHourTo() {
+        return this.volumeHourTo;
+    }
+
+    public double volume24Hour() {
+        return this.volume24Hour;
+    }
+
+    public double volume24HourTo() {
+        return this.volume24HourTo;
+    }
+
+    public double openHour() {
+        return this.openHour;
+    }
+
+    public double highHour() {
+        return this.highHour;
+    }
+
+    public double lowHour() {
+        return this.lowHour;
+    }
+
+    public double open24Hour() {
+        return this.open24Hour;
+    }
+
+    public double high24Hour() {
+        return this.high24Hour;
+    }
+
+    public double low24Hour() {
+        return this.low24Hour;
+    }
+
+    public String lastMarket() {
+        return this.lastMarket;
+    }
+
+    /**
+     * Apply an update: copy its identity and the fields it carries, keeping the others
+     * @param update
+     * @return this tick
+     */
+    public Tick mergeFrom(Tick update) {
+        int fields = update.fields;
+        this.type = update.type;
+        this.market = update.market;
+        this.fromSymbol = update.fromSymbol;
+        this.toSymbol = update.toSymbol;
+        this.flags = update.flags;
+        this.fields |= fields;
+        if ((fields & PRICE) != 0) {
+            this.price = update.price;
+        }
+        if ((fields & BID) != 0) {
+            this.bid = update.bid;
+        }
+        if ((fields & OFFER) != 0) {
+            this.offer = update.offer;
+        }
+        if ((fields & LASTUPDATE) != 0) {
+            this.lastUpdate = update.lastUpdate;
+        }
+        if ((fields & AVG) != 0) {
+            this.avg = update.avg;
+        }
+        if ((fields & LASTVOLUME) != 0) {
+            this.lastVolume = update.lastVolume;
+        }
+        if ((fields & LASTVOLUMETO) != 0) {
+            this.lastVolumeTo = update.lastVolumeTo;
+        }
+        if ((fields & LASTTRADEID) != 0) {
+            this.lastTradeId = update.lastTradeId;
+        }
+        if ((fields & VOLUMEHOUR) != 0) {
+            this.volumeHour = update.volumeHour;
+        }
+        if ((fields & VOLUMEHOURTO) != 0) {
+            this.volumeHourTo = update.volumeHourTo;
+        }
+        if ((fields & VOLUME24HOUR) != 0) {
+            this.volume24Hour = update.volume24Hour;
+        }
+        if ((fields & VOLUME24HOURTO) != 0) {
+            this.volume24HourTo = update.volume24HourTo;
+        }
+        if ((fields & OPENHOUR) != 0) {
+            this.openHour = update.openHour;
+        }
+        if ((fields & HIGHHOUR) != 0) {
+            this.highHour = update.highHour;
+        }
+        if ((fields & LOWHOUR) != 0) {
+            this.lowHour = update.lowHour;
+        }
+        if ((fields & OPEN24HOUR) != 0) {
+            this.open24Hour = update.open24Hour;
+        }
+        if ((fields & HIGH24HOUR) != 0) {
+            this.high24Hour = update.high24Hour;
+        }
+        if ((fields & LOW24HOUR) != 0) {
+            this.low24Hour = update.low24Hour;
+        }
+        if ((fields & LASTMARKET) != 0) {
+            this.lastMarket = update.lastMarket;
+        }
+        return this;
+    }
+
+    /**
+     * Reset every field before a message is decoded into the tick
+     */
+    void clear() {
+        this.type = 0;
+        this.market = null;
+        this.fromSymbol = null;
+        this.toSymbol = null;
+        this.flags = 0;
+        this.fields = 0;
+        this.price = Double.NaN;
+        this.bid = Double.NaN;
+        this.offer = Double.NaN;
+        this.lastUpdate = 0;
+        this.avg = Double.NaN;
+        this.lastVolume = Double.NaN;
+        this.lastVolumeTo = Double.NaN;
+        this.lastTradeId = 0;
+        this.volumeHour = Double.NaN;
+        this.volumeHourTo = Double.NaN;
+        this.volume24Hour = Double.NaN;
+        this.volume24HourTo = Double.NaN;
+        this.openHour = Double.NaN;
+        this.highHour = Double.NaN;
+        this.lowHour = Double.NaN;
+        this.open24Hour = Double.NaN;
+        this.high24Hour = Double.NaN;
+        this.low24Hour = Double.NaN;
+        this.lastMarket = null;
+    }
+
+    @Override
+    public String toString() {
+        return "Tick{" + this.type + "~" + this.market + "~" + this.fromSymbol + "~" + this.toSymbol
+                + ", price=" + this.price
+                + ", lastUpdate=" + this.lastUpdate
+                + ", volume24Hour=" + this.volume24Hour
+                + ", fields=0x" + Integer.toHexString(this.fields) + "}";
+    }
+}
@@ -0,0 +1,371 @@
+package com.crypto.cryptocompare.stream;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Decodes the streamer's {@code ~} separated price updates straight from the message
+ * bytes into a {@link Tick}, e.g.
+ * {@code 5~CCCAGG~BTC~USD~4~6500.12~1530000000~0.01~65.0~c09}. The type, market, from
+ * and to symbols and flags always come first and the last value is a hex mask of the
+ * fields that follow, in bit order. Numbers are parsed in place and markets and symbols
+ * are interned, so once every symbol has been seen a message decodes without allocating.
+ * A decoder is used by one thread at a time.
+ */
+public final class TickDecoder {
+
+    /**
+     * Price update of one exchange
+     */
+    public static final int TYPE_CURRENT = 2;
+
+    /**
+     * CCCAGG aggregate price update
+     */
+    public static final int TYPE_CURRENT_AGG = 5;
+
+    /**
+     * Powers of ten that are exact in a double
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * Largest mantissa a double holds exactly
+     */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    /**
+     * Interned markets and symbols, open addressing
+     */
+    private byte[][] internedBytes = new byte[256][];
+
+    private String[] interned = new String[256];
+
+    private int internedCount;
+
+    /**
+     * Start of the value being read and the separator ending it
+     */
+    private int start;
+
+    private int end;
+
+    /**
+     * Decode a message
+     * @param bytes
+     * @param offset
+     * @param length
+     * @param tick filled in place
+     * @return whether it was a price update; other messages leave the tick undefined
+     */
+    public boolean decode(byte[] bytes, int offset, int length, Tick tick) {
+        int limit = offset + length;
+        int maskStart = limit;
+        while (maskStart > offset && bytes[maskStart - 1] != '~') {
+            maskStart--;
+        }
+        if (maskStart == offset || maskStart == limit) {
+            return false;
+        }
+        int mask = parseHex(bytes, maskStart, limit);
+        if (mask < 0) {
+            return false;
+        }
+        // Last separator, before the mask
+        int valuesEnd = maskStart - 1;
+
+        tick.clear();
+        this.end = offset - 1;
+        if (!this.next(bytes, valuesEnd)) {
+            return false;
+        }
+        tick.type = (int) parseLong(bytes, this.start, this.end);
+        if (tick.type != TYPE_CURRENT && tick.type != TYPE_CURRENT_AGG) {
+            return false;
+        }
+        if (!this.next(bytes, valuesEnd)) {
+            return false;
+        }
+        tick.market = this.intern(bytes, this.start, this.end);
+        if (!this.next(bytes, valuesEnd)) {
+            return false;
+        }
+        tick.fromSymbol = this.intern(bytes, this.start, this.end);
+        if (!this.next(bytes, valuesEnd)) {
+            return false;
+        }
+        tick.toSymbol = this.intern(bytes, this.start, this.end);
+        if (!this.next(bytes, valuesEnd)) {
+            return false;
+        }
+        tick.flags = (int) parseLong(bytes, this.start, this.end);
+
+        for (int field = Tick.PRICE; field <= Tick.LAST_FIELD && field != 0; field <<= 1) {
+            if ((mask & field) == 0) {
+                continue;
+            }
+            if (!this.next(bytes, valuesEnd)) {
+                return false;
+            }
+            this.read(field, bytes, tick);
+        }
+        tick.fields = mask & ((Tick.LAST_FIELD << 1) - 1);
+        return true;
+    }
+
+    /**
+     * Move to the next value
+     * @param bytes
+     * @param limit end of the values
+     * @return false when there is none left
+     */
+    private boolean next(byte[] bytes, int limit) {
+        int position = this.end + 1;
+        if (position > limit) {
+            return false;
+        }
+        this.start = position;
+        while (position < limit && bytes[position] != '~') {
+            position++;
+        }
+        this.end = position;
+        return true;
+    }
+
+    private void read(int field, byte[] bytes, Tick tick) {
+        int start = this.start;
+        int end = this.end;
+        switch (field) {
+            case Tick.PRICE:
+                tick.price = parseDouble(bytes, start, end);
+                break;
+            case Tick.BID:
+                tick.bid = parseDouble(bytes, start, end);
+                break;
+            case Tick.OFFER:
+                tick.offer = parseDouble(bytes, start, end);
+                break;
+            case Tick.LASTUPDATE:
+                tick.lastUpdate = parseLong(bytes, start, end);
+                break;
+            case Tick.AVG:
+                tick.avg = parseDouble(bytes, start, end);
+                break;
+            case Tick.LASTVOLUME:
+                tick.lastVolume = parseDouble(bytes, start, end);
+                break;
+            case Tick.LASTVOLUMETO:
+                tick.lastVolumeTo = parseDouble(bytes, start, end);
+                break;
+            case Tick.LASTTRADEID:
+                tick.lastTradeId = parseLong(bytes, start, end);
+                break;
+            case Tick.VOLUMEHOUR:
+                tick.volumeHour = parseDouble(bytes, start, end);
+                break;
+            case Tick.VOLUMEHOURTO:
+                tick.volumeHourTo = parseDouble(bytes, start, end);
+                break;
+            case Tick.VOLUME24HOUR:
+                tick.volume24Hour = parseDouble(bytes, start, end);
+                break;
+            case Tick.VOLUME24HOURTO:
+                tick.volume24HourTo = parseDouble(bytes, start, end);
+                break;
+            case Tick.OPENHOUR:
+                tick.openHour = parseDouble(bytes, start, end);
+                break;
+            case Tick.HIGHHOUR:
+                tick.highHour = parseDouble(bytes, start, end);
+                break;
+            case Tick.LOWHOUR:
+                tick.lowHour = parseDouble(bytes, start, end);
+                break;
+            case Tick.OPEN24HOUR:
+                tick.open24Hour = parseDouble(bytes, start, end);
+                break;
+            case Tick.HIGH24HOUR:
+                tick.high24Hour = parseDouble(bytes, start, end);
+                break;
+            case Tick.LOW24HOUR:
+                tick.low24Hour = parseDouble(bytes, start, end);
+                break;
+            case Tick.LASTMARKET:
+                tick.lastMarket = this.intern(bytes, start, end);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * The String for a market or symbol, made once per distinct value
+     * @param bytes
+     * @param start
+     * @param end
+     * @return
+     */
+    String intern(byte[] bytes, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        int mask = this.interned.length - 1;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        int length = end - start;
+        while (this.interned[slot] != null) {
+            byte[] candidate = this.internedBytes[slot];
+            if (candidate.length == length && regionEquals(candidate, bytes, start, length)) {
+                return this.interned[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        String value = new String(bytes, start, length, StandardCharsets.UTF_8);
+        this.internedBytes[slot] = Arrays.copyOfRange(bytes, start, end);
+        this.interned[slot] = value;
+        if (++this.internedCount * 2 > this.interned.length) {
+            this.grow();
+        }
+        return value;
+    }
+
+    private void grow() {
+        byte[][] oldBytes = this.internedBytes;
+        String[] oldValues = this.interned;
+        this.internedBytes = new byte[oldBytes.length * 2][];
+        this.interned = new String[oldValues.length * 2];
+        int mask = this.interned.length - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] == null) {
+                continue;
+            }
+            byte[] key = oldBytes[i];
+            int hash = 0;
+            for (byte b : key) {
+                hash = 31 * hash + b;
+            }
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            while (this.interned[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            this.internedBytes[slot] = key;
+            this.interned[slot] = oldValues[i];
+        }
+    }
+
+    private static boolean regionEquals(byte[] candidate, byte[] bytes, int start, int length) {
+        for (int i = 0; i < length; i++) {
+            if (candidate[i] != bytes[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param bytes
+     * @param start
+     * @param end
+     * @return the value, or -1 when it is not hex
+     */
+    private static int parseHex(byte[] bytes, int start, int end) {
+        if (end - start > 8) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int b = bytes[i];
+            int digit;
+            if (b >= '0' && b <= '9') {
+                digit = b - '0';
+            } else if (b >= 'a' && b <= 'f') {
+                digit = b - 'a' + 10;
+            } else if (b >= 'A' && b <= 'F') {
+                digit = b - 'A' + 10;
+            } else {
+                return -1;
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    /**
+     * @param bytes
+     * @param start
+     * @param end
+     * @return the integer part, 0 when it is not a number
+     */
+    static long parseLong(byte[] bytes, int start, int end) {
+        boolean negative = start < end && bytes[start] == '-';
+        long value = 0;
+        for (int i = negative ? start + 1 : start; i < end; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return (bytes[i] == '.') ? (negative ? -value : value) : 0;
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parse a decimal number. Up to 18 significant digits and 22 decimals it is computed
+     * exactly from the mantissa; anything else goes through Double.parseDouble.
+     * @param bytes
+     * @param start
+     * @param end
+     * @return the value, NaN when it is empty or not a number
+     */
+    static double parseDouble(byte[] bytes, int start, int end) {
+        int position = start;
+        boolean negative = position < end && bytes[position] == '-';
+        if (negative) {
+            position++;
+        }
+        if (position == end) {
+            return Double.NaN;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int decimals = 0;
+        boolean fraction = false;
+        for (; position < end; position++) {
+            int b = bytes[position];
+            if (b >= '0' && b <= '9') {
+                if (digits >= 18) {
+                    return slowParse(bytes, start, end);
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                if (mantissa != 0) {
+                    digits++;
+                }
+                if (fraction) {
+                    decimals++;
+                }
+            } else if (b == '.' && !fraction) {
+                fraction = true;
+            } else {
+                return slowParse(bytes, start, end);
+            }
+        }
+        if (decimals >= POWERS_OF_TEN.length || mantissa > MAX_EXACT_MANTISSA) {
+            return slowParse(bytes, start, end);
+        }
+        double value = mantissa / POWERS_OF_TEN[decimals];
+        return negative ? -value : value;
+    }
+
+    private static double slowParse(byte[] bytes, int start, int end) {
+        try {
+            return Double.parseDouble(new String(bytes, start, end - start, StandardCharsets.US_ASCII));
+        } catch (NumberFormatException ex) {
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,400 @@
+package com.crypto.cryptocompare.stream;
+
+import javax.net.ssl.SNIHostName;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+
+/**
+ * Minimal RFC 6455 client: the upgrade handshake, masked text frames out, and text or
+ * binary messages in, reassembled from fragments into one reusable buffer. Pings are
+ * answered and a close from the server ends the stream. Not thread safe for reading;
+ * sends may come from any thread.
+ */
+final class WebSocket implements Closeable {
+
+    private static final String ACCEPT_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+    private static final int OPCODE_CONTINUATION = 0x0;
+    private static final int OPCODE_TEXT = 0x1;
+    private static final int OPCODE_BINARY = 0x2;
+    private static final int OPCODE_CLOSE = 0x8;
+    private static final int OPCODE_PING = 0x9;
+
+    /**
+     * Largest handshake response accepted
+     */
+    private static final int MAX_HANDSHAKE = 16 * 1024;
+
+    /**
+     * Largest message accepted, the feed only sends small ones
+     */
+    private static final int MAX_MESSAGE = 16 * 1024 * 1024;
+
+    private final Socket socket;
+
+    private final InputStream in;
+
+    private final OutputStream out;
+
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * Payload of the last message read
+     */
+    private byte[] message = new byte[4096];
+
+    /**
+     * Payload of control frames, at most 125 bytes
+     */
+    private final byte[] control = new byte[125];
+
+    /**
+     * Mask of the frame being read
+     */
+    private final byte[] mask = new byte[4];
+
+    /**
+     * Mask of the frame being sent, guarded by the send lock since sends come from any thread
+     */
+    private final byte[] sendMask = new byte[4];
+
+    private boolean closeSent;
+
+    private WebSocket(Socket socket) throws IOException {
+        this.socket = socket;
+        this.in = new BufferedInputStream(socket.getInputStream(), 64 * 1024);
+        this.out = new BufferedOutputStream(socket.getOutputStream(), 4096);
+    }
+
+    /**
+     * Open a connection and complete the handshake
+     * @param uri ws:// or wss:// url
+     * @param connectTimeoutMillis
+     * @return
+     * @throws IOException
+     */
+    static WebSocket connect(URI uri, int connectTimeoutMillis) throws IOException {
+        return connect(uri, connectTimeoutMillis, (SSLSocketFactory) SSLSocketFactory.getDefault());
+    }
+
+    /**
+     * Open a connection and complete the handshake
+     * @param uri ws:// or wss:// url
+     * @param connectTimeoutMillis
+     * @param sslSocketFactory layers TLS over the socket of a wss:// url
+     * @return
+     * @throws IOException
+     */
+    static WebSocket connect(URI uri, int connectTimeoutMillis, SSLSocketFactory sslSocketFactory) throws IOException {
+        boolean secure = "wss".equalsIgnoreCase(uri.getScheme());
+        if (!secure && !"ws".equalsIgnoreCase(uri.getScheme())) {
+            throw new IllegalArgumentException("Expected a ws:// or wss:// url but got " + uri);
+        }
+        int port = (uri.getPort() > 0) ? uri.getPort() : (secure ? 443 : 80);
+
+        Socket socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(uri.getHost(), port), connectTimeoutMillis);
+            if (secure) {
+                socket = startTls(sslSocketFactory, socket, uri.getHost(), port);
+            }
+            WebSocket webSocket = new WebSocket(socket);
+            webSocket.handshake(uri, port, connectTimeoutMillis);
+            return webSocket;
+        } catch (IOException | RuntimeException ex) {
+            socket.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Layer TLS over a connected socket, checking that the certificate is for the host and
+     * not just signed by a trusted authority
+     * @param factory
+     * @param socket
+     * @param host
+     * @param port
+     * @return
+     * @throws IOException if the TLS handshake fails
+     */
+    private static SSLSocket startTls(SSLSocketFactory factory, Socket socket, String host, int port) throws IOException {
+        SSLSocket sslSocket = (SSLSocket) factory.createSocket(socket, host, port, true);
+        SSLParameters parameters = sslSocket.getSSLParameters();
+        parameters.setEndpointIdentificationAlgorithm("HTTPS");
+        if (!isIpLiteral(host)) {
+            parameters.setServerNames(Collections.singletonList(new SNIHostName(host)));
+        }
+        sslSocket.setSSLParameters(parameters);
+        sslSocket.startHandshake();
+        return sslSocket;
+    }
+
+    /**
+     * Whether a host is an IPv4 or IPv6 address, which is sent without SNI
+     * @param host
+     * @return
+     */
+    private static boolean isIpLiteral(String host) {
+        if (host.indexOf(':') >= 0 || host.startsWith("[")) {
+            return true;
+        }
+        for (int i = 0; i < host.length(); i++) {
+            char c = host.charAt(i);
+            if (c != '.' && (c < '0' || c > '9')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void handshake(URI uri, int port, int timeoutMillis) throws IOException {
+        byte[] nonce = new byte[16];
+        this.random.nextBytes(nonce);
+        String key = Base64.getEncoder().encodeToString(nonce);
+
+        String path = (uri.getRawPath() == null || uri.getRawPath().isEmpty()) ? "/" : uri.getRawPath();
+        if (uri.getRawQuery() != null) {
+            path += "?" + uri.getRawQuery();
+        }
+        boolean defaultPort = port == 80 || port == 443;
+        String request = "GET " + path + " HTTP/1.1\r\n"
+                + "Host: " + uri.getHost() + (defaultPort ? "" : ":" + port) + "\r\n"
+                + "Upgrade: websocket\r\n"
+                + "Connection: Upgrade\r\n"
+                + "Sec-WebSocket-Key: " + key + "\r\n"
+                + "Sec-WebSocket-Version: 13\r\n\r\n";
+        this.out.write(request.getBytes(StandardCharsets.ISO_8859_1));
+        this.out.flush();
+
+        // Only the handshake is bounded by the timeout, the feed itself may go quiet
+        this.socket.setSoTimeout(timeoutMillis);
+        String response = this.readHeaders();
+        this.socket.setSoTimeout(0);
+
+        String[] lines = response.split("\r\n");
+        if (!lines[0].startsWith("HTTP/1.1 101")) {
+            throw new IOException("WebSocket upgrade refused: " + lines[0]);
+        }
+        String expected = accept(key);
+        for (String line : lines) {
+            int colon = line.indexOf(':');
+            if (colon > 0 && line.substring(0, colon).trim().equalsIgnoreCase("Sec-WebSocket-Accept")) {
+                if (!line.substring(colon + 1).trim().equals(expected)) {
+                    throw new IOException("WebSocket upgrade sent a wrong Sec-WebSocket-Accept");
+                }
+                return;
+            }
+        }
+        throw new IOException("WebSocket upgrade sent no Sec-WebSocket-Accept");
+    }
+
+    /**
+     * Accept value the server must answer a key with
+     * @param key
+     * @return
+     */
+    static String accept(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest((key + ACCEPT_GUID).getBytes(StandardCharsets.ISO_8859_1));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private String readHeaders() throws IOException {
+        byte[] buffer = new byte[1024];
+        int length = 0;
+        while (length < 4 || buffer[length - 4] != '\r' || buffer[length - 3] != '\n'
+                || buffer[length - 2] != '\r' || buffer[length - 1] != '\n') {
+            int b = this.in.read();
+            if (b < 0) {
+                throw new EOFException("Connection closed during the WebSocket handshake");
+            }
+            if (length == buffer.length) {
+                if (length >= MAX_HANDSHAKE) {
+                    throw new IOException("WebSocket handshake response too large");
+                }
+                buffer = Arrays.copyOf(buffer, length * 2);
+            }
+            buffer[length++] = (byte) b;
+        }
+        return new String(buffer, 0, length - 4, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Send a text message
+     * @param text
+     * @throws IOException
+     */
+    void sendText(String text) throws IOException {
+        byte[] payload = text.getBytes(StandardCharsets.UTF_8);
+        this.sendFrame(OPCODE_TEXT, payload, payload.length);
+    }
+
+    private synchronized void sendFrame(int opcode, byte[] payload, int length) throws IOException {
+        this.out.write(0x80 | opcode);
+        if (length < 126) {
+            this.out.write(0x80 | length);
+        } else if (length < 0x10000) {
+            this.out.write(0x80 | 126);
+            this.out.write(length >>> 8);
+            this.out.write(length);
+        } else {
+            this.out.write(0x80 | 127);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                this.out.write((int) ((long) length >>> shift));
+            }
+        }
+
+        // Client frames are always masked
+        byte[] mask = this.sendMask;
+        this.random.nextBytes(mask);
+        this.out.write(mask);
+        for (int i = 0; i < length; i++) {
+            this.out.write(payload[i] ^ mask[i & 3]);
+        }
+        this.out.flush();
+    }
+
+    /**
+     * Read the next text or binary message into {@link #buffer()}, answering any ping on
+     * the way
+     * @return length of the message, or -1 once the server closed the connection
+     * @throws IOException
+     */
+    int readMessage() throws IOException {
+        int length = 0;
+        while (true) {
+            int first = this.readByte();
+            int second = this.readByte();
+            boolean fin = (first & 0x80) != 0;
+            int opcode = first & 0x0F;
+            boolean masked = (second & 0x80) != 0;
+            long payloadLength = second & 0x7F;
+            if (payloadLength == 126) {
+                payloadLength = (this.readByte() << 8) | this.readByte();
+            } else if (payloadLength == 127) {
+                payloadLength = 0;
+                for (int i = 0; i < 8; i++) {
+                    payloadLength = (payloadLength << 8) | this.readByte();
+                }
+            }
+            if (masked) {
+                this.readFully(this.mask, 0, 4);
+            }
+
+            if (opcode >= OPCODE_CLOSE) {
+                if (payloadLength > this.control.length) {
+                    throw new IOException("Control frame too large: " + payloadLength);
+                }
+                int controlLength = (int) payloadLength;
+                this.readFully(this.control, 0, controlLength);
+                if (masked) {
+                    unmask(this.control, 0, controlLength, this.mask);
+                }
+                if (opcode == OPCODE_CLOSE) {
+                    this.sendClose();
+                    return -1;
+                }
+                if (opcode == OPCODE_PING) {
+                    this.sendFrame(0xA, this.control, controlLength);
+                }
+                continue;
+            }
+
+            if (opcode != OPCODE_TEXT && opcode != OPCODE_BINARY && opcode != OPCODE_CONTINUATION) {
+                throw new IOException("Unknown WebSocket opcode " + opcode);
+            }
+            if (length + payloadLength > MAX_MESSAGE) {
+                throw new IOException("WebSocket message too large: " + (length + payloadLength));
+            }
+            int frameLength = (int) payloadLength;
+            if (length + frameLength > this.message.length) {
+                this.message = Arrays.copyOf(this.message, Math.max(this.message.length * 2, length + frameLength));
+            }
+            this.readFully(this.message, length, frameLength);
+            if (masked) {
+                unmask(this.message, length, frameLength, this.mask);
+            }
+            length += frameLength;
+            if (fin) {
+                return length;
+            }
+        }
+    }
+
+    /**
+     * Payload of the last message read, valid until the next read
+     * @return
+     */
+    byte[] buffer() {
+        return this.message;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            this.sendClose();
+        } catch (IOException ignored) {
+            // Closing anyway
+        } finally {
+            this.socket.close();
+        }
+    }
+
+    private void sendClose() throws IOException {
+        synchronized (this) {
+            if (this.closeSent) {
+                return;
+            }
+            this.closeSent = true;
+        }
+        // 1000, normal closure
+        this.sendFrame(OPCODE_CLOSE, new byte[] {0x03, (byte) 0xE8}, 2);
+    }
+
+    private int readByte() throws IOException {
+        int b = this.in.read();
+        if (b < 0) {
+            throw new EOFException("WebSocket connection closed");
+        }
+        return b;
+    }
+
+    private void readFully(byte[] buffer, int offset, int length) throws IOException {
+        while (length > 0) {
+            int read = this.in.read(buffer, offset, length);
+            if (read < 0) {
+                throw new EOFException("WebSocket connection closed");
+            }
+            offset += read;
+            length -= read;
+        }
+    }
+
+    private static void unmask(byte[] buffer, int offset, int length, byte[] mask) {
+        for (int i = 0; i < length; i++) {
+            buffer[offset + i] ^= mask[i & 3];
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.crypto.cryptocompare.transport;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Raised by typed decoders when the API answers with {@code "Response":"Error"}
+ */
+public class ApiErrorException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final boolean rateLimited;
+
+    public ApiErrorException(String message) {
+        super(message);
+        this.rateLimited = isRateLimitMessage(message);
+    }
+
+    /**
+     * Whether the API turned the request down for exceeding a rate limit, in which case
+     * it can be sent again later
+     * @return
+     */
+    public boolean isRateLimited() {
+        return this.rateLimited;
+    }
+
+    /**
+     * Whether an error message from the API is about rate limits, e.g.
+     * "Rate limit excedeed!" or "You are over your rate limit please upgrade your account!"
+     * @param message
+     * @return
+     */
+    public static boolean isRateLimitMessage(String message) {
+        return message != null && message.toLowerCase(Locale.ROOT).contains("rate limit");
+    }
+}
@@ -0,0 +1,121 @@
+package com.crypto.cryptocompare.transport;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Stops sending requests to a host that keeps failing. After a number of consecutive
+ * failures the breaker opens and requests fail fast for a while. Once that time is up one
+ * trial request is let through: its success closes the breaker, its failure opens it again.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        /**
+         * Requests go through
+         */
+        CLOSED,
+        /**
+         * Requests fail fast
+         */
+        OPEN,
+        /**
+         * A single trial request is deciding whether to close again
+         */
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+
+    private final long openNanos;
+
+    private final LongSupplier nanoClock;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    private volatile long openedAtNanos;
+
+    /*************************
+     * Constructors
+     *************************/
+
+    /**
+     * @param failureThreshold consecutive failures that open the breaker
+     * @param openDuration how long the breaker stays open before a trial request
+     * @param unit
+     */
+    public CircuitBreaker(int failureThreshold, long openDuration, TimeUnit unit) {
+        this(failureThreshold, openDuration, unit, System::nanoTime);
+    }
+
+    CircuitBreaker(int failureThreshold, long openDuration, TimeUnit unit, LongSupplier nanoClock) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("failureThreshold must be positive");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openNanos = unit.toNanos(openDuration);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Whether a request may go out now. When the open period is over, only the first
+     * caller is let through as the trial.
+     * @return
+     */
+    public boolean allowRequest() {
+        State current = this.state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN && this.nanoClock.getAsLong() - this.openedAtNanos >= this.openNanos) {
+            return this.state.compareAndSet(State.OPEN, State.HALF_OPEN);
+        }
+        return false;
+    }
+
+    /**
+     * The host answered
+     */
+    public void recordSuccess() {
+        this.consecutiveFailures.set(0);
+        if (this.state.get() != State.CLOSED) {
+            this.state.set(State.CLOSED);
+        }
+    }
+
+    /**
+     * The host could not be reached or failed to answer
+     */
+    public void recordFailure() {
+        if (this.state.get() == State.HALF_OPEN
+                || this.consecutiveFailures.incrementAndGet() >= this.failureThreshold) {
+            this.openedAtNanos = this.nanoClock.getAsLong();
+            this.state.set(State.OPEN);
+        }
+    }
+
+    public State state() {
+        return this.state.get();
+    }
+
+    /**
+     * Time left before an open breaker lets a trial request through
+     * @return milliseconds, 0 when not open
+     */
+    public long remainingOpenMillis() {
+        if (this.state.get() != State.OPEN) {
+            return 0;
+        }
+        long remaining = this.openNanos - (this.nanoClock.getAsLong() - this.openedAtNanos);
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(remaining));
+    }
+
+    @Override
+    public String toString() {
+        return "CircuitBreaker{state=" + this.state() + ", consecutiveFailures=" + this.consecutiveFailures.get() + "}";
+    }
+}
@@ -0,0 +1,15 @@
+package com.crypto.cryptocompare.transport;
+
+import java.io.IOException;
+
+/**
+ * Raised without contacting the API while the circuit breaker of its host is open
+ */
+public class CircuitOpenException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CircuitOpenException(String message) {
+        super(message);
+    }
+}
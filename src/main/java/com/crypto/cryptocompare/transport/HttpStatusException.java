@@ -0,0 +1,51 @@
+package com.crypto.cryptocompare.transport;
+
+import java.io.IOException;
+
+/**
+ * Raised when the API answers with an HTTP error status
+ */
+public class HttpStatusException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+
+    private final long retryAfterMillis;
+
+    public HttpStatusException(String message, int statusCode) {
+        this(message, statusCode, -1);
+    }
+
+    /**
+     * @param message
+     * @param statusCode
+     * @param retryAfterMillis delay asked for by a Retry-After header, -1 when absent
+     */
+    public HttpStatusException(String message, int statusCode, long retryAfterMillis) {
+        super(message);
+        this.statusCode = statusCode;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public int statusCode() {
+        return this.statusCode;
+    }
+
+    /**
+     * Delay asked for by the server before trying again
+     * @return milliseconds, or -1 when the server did not say
+     */
+    public long retryAfterMillis() {
+        return this.retryAfterMillis;
+    }
+
+    /**
+     * Whether the same request may succeed later: throttling (429), request timeouts (408)
+     * and server errors (5xx)
+     * @return
+     */
+    public boolean isTransient() {
+        return this.statusCode == 429 || this.statusCode == 408 || this.statusCode >= 500;
+    }
+}
@@ -0,0 +1,317 @@
+package com.crypto.cryptocompare.transport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Default transport built on HttpURLConnection. Every body is read to the end and closed
+ * (never disconnected) so the underlying socket goes back to the JDK keep-alive cache
+ * and later requests to the same host skip the TCP and TLS handshakes. The JDK keeps at
+ * most {@code http.maxConnections} idle sockets per host (default 5), so raise that system
+ * property when allowing more concurrent connections than that.
+ *
+ * Unless turned off, responses are requested gzip or deflate encoded and decompressed as
+ * they are read, so the decoder consumes the body straight off the socket.
+ */
+public class HttpTransport implements Transport {
+
+    /**
+     * Logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(HttpTransport.class);
+
+    /**
+     * User agent for HTTP requests
+     */
+    public static final String DEFAULT_USER_AGENT = "Mozilla/5.0 (Macintosh; U; Intel Mac OS X 10.4; en-US; rv:1.9.2.2) Gecko/20100316 Firefox/3.6.2";
+
+    /**
+     * Default time allowed to establish a connection
+     */
+    public static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = 10000;
+
+    /**
+     * Default time allowed between two reads of the response
+     */
+    public static final int DEFAULT_READ_TIMEOUT_MILLIS = 30000;
+
+    /**
+     * Default number of requests allowed in flight at the same time
+     */
+    public static final int DEFAULT_MAX_CONNECTIONS = 5;
+
+    /**
+     * Size of the buffer used to drain unread response bytes
+     */
+    private static final int DRAIN_BUFFER_SIZE = 4096;
+
+    /**
+     * Encodings offered when compression is on
+     */
+    private static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    /**
+     * Buffer of the inflating stream, sized for the socket reads under it
+     */
+    private static final int INFLATE_BUFFER_SIZE = 8192;
+
+    private final int connectTimeoutMillis;
+
+    private final int readTimeoutMillis;
+
+    private final String userAgent;
+
+    private final boolean compression;
+
+    private final int maxConnections;
+
+    /**
+     * Bounds the number of open connections so they can all be kept alive
+     */
+    private final Semaphore connectionPermits;
+
+    /*************************
+     * Constructors
+     *************************/
+
+    public HttpTransport() {
+        this(builder());
+    }
+
+    private HttpTransport(Builder builder) {
+        this.connectTimeoutMillis = builder.connectTimeoutMillis;
+        this.readTimeoutMillis = builder.readTimeoutMillis;
+        this.userAgent = builder.userAgent;
+        this.compression = builder.compression;
+        this.maxConnections = builder.maxConnections;
+        this.connectionPermits = new Semaphore(builder.maxConnections, true);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public <T> T get(String requestUrl, ResponseDecoder<T> decoder) throws IOException {
+        try {
+            this.connectionPermits.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a connection to " + requestUrl, ex);
+        }
+
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) new URL(requestUrl).openConnection();
+            connection.setRequestMethod("GET");
+            connection.setRequestProperty("User-Agent", this.userAgent);
+            connection.setConnectTimeout(this.connectTimeoutMillis);
+            connection.setReadTimeout(this.readTimeoutMillis);
+            if (this.compression) {
+                connection.setRequestProperty("Accept-Encoding", ACCEPT_ENCODING);
+            }
+
+            RequestTimings timings = RequestTimings.current();
+            long start = System.nanoTime();
+            connection.connect();
+            long connected = System.nanoTime();
+            int status = connection.getResponseCode();
+            if (timings.isRecording()) {
+                timings.recordExchange(connected - start, System.nanoTime() - connected, status);
+            }
+            if (status >= HttpURLConnection.HTTP_MULT_CHOICE) {
+                drain(connection.getErrorStream());
+                throw new HttpStatusException("HTTP " + status + " returned for " + requestUrl, status,
+                        retryAfterMillis(connection.getHeaderField("Retry-After")));
+            }
+
+            T result;
+            try (InputStream body = decompress(timings.meter(connection.getInputStream()), connection.getContentEncoding(), timings)) {
+                long decodeStart = System.nanoTime();
+                result = decoder.decode(body);
+                if (timings.isRecording()) {
+                    timings.recordDecode(System.nanoTime() - decodeStart);
+                }
+                drain(body);
+            }
+            return result;
+        } catch (IOException | RuntimeException ex) {
+            // A half-read connection cannot be reused, so drop the socket
+            if (connection != null) {
+                connection.disconnect();
+            }
+            throw ex;
+        } finally {
+            this.connectionPermits.release();
+        }
+    }
+
+    /**
+     * Idle connections belong to the JDK keep-alive cache, which closes them on its own
+     */
+    @Override
+    public int maxConnections() {
+        return this.maxConnections;
+    }
+
+    @Override
+    public void close() {}
+
+    /**
+     * Decompress a body as it is read, according to its Content-Encoding
+     * @param body
+     * @param contentEncoding
+     * @param timings counts the decompressed bytes
+     * @return
+     * @throws IOException if the encoding is not supported or the header is corrupt
+     */
+    private static InputStream decompress(InputStream body, String contentEncoding, RequestTimings timings) throws IOException {
+        if (contentEncoding == null || contentEncoding.isEmpty() || contentEncoding.equalsIgnoreCase("identity")) {
+            return body;
+        }
+        if (contentEncoding.equalsIgnoreCase("gzip") || contentEncoding.equalsIgnoreCase("x-gzip")) {
+            return timings.meterDecompressed(new GZIPInputStream(body, INFLATE_BUFFER_SIZE));
+        }
+        if (contentEncoding.equalsIgnoreCase("deflate")) {
+            // Meant to be zlib wrapped, but some servers send raw deflate data
+            PushbackInputStream in = new PushbackInputStream(body, 2);
+            int cmf = in.read();
+            int flg = in.read();
+            if (flg >= 0) {
+                in.unread(flg);
+            }
+            if (cmf >= 0) {
+                in.unread(cmf);
+            }
+            boolean zlib = cmf >= 0 && flg >= 0 && (cmf & 0x0F) == 8 && ((cmf << 8) | flg) % 31 == 0;
+            return timings.meterDecompressed(new DeflateInputStream(in, new Inflater(!zlib)));
+        }
+        throw new IOException("Unsupported Content-Encoding " + contentEncoding);
+    }
+
+    /**
+     * Delay asked for by a Retry-After header given in seconds
+     * @param retryAfter header value, may be null
+     * @return milliseconds, or -1 when absent or given as a date
+     */
+    private static long retryAfterMillis(String retryAfter) {
+        if (retryAfter == null) {
+            return -1;
+        }
+        try {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    /**
+     * Read whatever the decoder left behind so the connection can be reused
+     * @param stream
+     */
+    private static void drain(InputStream stream) {
+        if (stream == null) {
+            return;
+        }
+
+        try (InputStream in = stream) {
+            byte[] buffer = new byte[DRAIN_BUFFER_SIZE];
+            while (in.read(buffer) != -1) {
+                // discard
+            }
+        } catch (IOException ex) {
+            logger.debug("Unable to drain response body", ex);
+        }
+    }
+
+    /**
+     * Inflates a deflate body and frees the native memory of its Inflater on close, which
+     * InflaterInputStream leaves to the finalizer when given an Inflater of its own
+     */
+    private static final class DeflateInputStream extends InflaterInputStream {
+
+        private DeflateInputStream(InputStream in, Inflater inflater) {
+            super(in, inflater, INFLATE_BUFFER_SIZE);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                this.inf.end();
+            }
+        }
+    }
+
+    /**
+     * Configuration for an HttpTransport
+     */
+    public static class Builder {
+
+        private int connectTimeoutMillis = DEFAULT_CONNECT_TIMEOUT_MILLIS;
+
+        private int readTimeoutMillis = DEFAULT_READ_TIMEOUT_MILLIS;
+
+        private int maxConnections = DEFAULT_MAX_CONNECTIONS;
+
+        private String userAgent = DEFAULT_USER_AGENT;
+
+        private boolean compression = true;
+
+        private Builder() {}
+
+        public Builder connectTimeout(long timeout, TimeUnit unit) {
+            this.connectTimeoutMillis = (int) unit.toMillis(timeout);
+            return this;
+        }
+
+        public Builder readTimeout(long timeout, TimeUnit unit) {
+            this.readTimeoutMillis = (int) unit.toMillis(timeout);
+            return this;
+        }
+
+        /**
+         * Maximum number of requests in flight; extra callers wait for a free connection
+         * @param maxConnections
+         * @return
+         */
+        public Builder maxConnections(int maxConnections) {
+            if (maxConnections < 1) {
+                throw new IllegalArgumentException("maxConnections must be positive");
+            }
+            this.maxConnections = maxConnections;
+            return this;
+        }
+
+        public Builder userAgent(String userAgent) {
+            this.userAgent = userAgent;
+            return this;
+        }
+
+        /**
+         * Whether to ask for gzip or deflate encoded responses, on by default
+         * @param compression
+         * @return
+         */
+        public Builder compression(boolean compression) {
+            this.compression = compression;
+            return this;
+        }
+
+        public HttpTransport build() {
+            return new HttpTransport(this);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.crypto.cryptocompare.transport;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Transport decorator that appends every response body it sees to a recording, for a
+ * {@link ReplayTransport} to serve later. Bodies are recorded as the decoder receives them,
+ * decompressed, and error bodies included; requests that fail without a body are not.
+ *
+ * The file starts with a 64 byte header, then one record per response, little endian:
+ * <pre>
+ *   int  record length, these 20 bytes included
+ *   long request time, unix epoch in microseconds
+ *   int  url length
+ *   int  body length
+ *   url (UTF-8), then body
+ * </pre>
+ * so a reader indexes the file by hopping from header to header without touching the
+ * bodies. The end of the last complete record is written to the header after the record,
+ * and a record cut short by a crash is overwritten by the next append.
+ */
+public class RecordingTransport implements Transport {
+
+    /**
+     * "CCREPLY1"
+     */
+    static final long MAGIC = 0x43435245504C5931L;
+
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 64;
+
+    static final int RECORD_HEADER_SIZE = 20;
+
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 8;
+    static final int END_OFFSET = 16;
+    static final int COUNT_OFFSET = 24;
+
+    private final Transport delegate;
+
+    private final Path path;
+
+    private final FileChannel channel;
+
+    /**
+     * Wall clock at open and the nano clock it matches, for microsecond timestamps
+     */
+    private final long baseMicros;
+
+    private final long baseNanos;
+
+    private final ByteBuffer header = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+
+    private ByteBuffer record = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+
+    private long end;
+
+    private long count;
+
+    private RecordingTransport(Transport delegate, Path path, FileChannel channel) {
+        this.delegate = delegate;
+        this.path = path;
+        this.channel = channel;
+        this.baseMicros = System.currentTimeMillis() * 1000;
+        this.baseNanos = System.nanoTime();
+    }
+
+    /**
+     * Record the responses of a transport, appending to the file when it exists
+     * @param delegate transport the requests go through
+     * @param path
+     * @return
+     * @throws IOException if the file is not a recording
+     */
+    public static RecordingTransport open(Transport delegate, Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        RecordingTransport transport = new RecordingTransport(delegate, path, channel);
+        try {
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                header.putLong(MAGIC_OFFSET, MAGIC);
+                header.putInt(VERSION_OFFSET, VERSION);
+                header.putLong(END_OFFSET, HEADER_SIZE);
+                header.putLong(COUNT_OFFSET, 0);
+                writeFully(channel, header, 0);
+                transport.end = HEADER_SIZE;
+            } else {
+                ByteBuffer header = readHeader(channel, path);
+                transport.end = header.getLong(END_OFFSET);
+                transport.count = header.getLong(COUNT_OFFSET);
+            }
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+        return transport;
+    }
+
+    @Override
+    public <T> T get(String requestUrl, ResponseDecoder<T> decoder) throws IOException {
+        long timeMicros = this.baseMicros + (System.nanoTime() - this.baseNanos) / 1000;
+        return this.delegate.get(requestUrl, body -> {
+            byte[] bytes = readAll(body);
+            this.append(timeMicros, requestUrl, bytes);
+            return decoder.decode(new ByteArrayInputStream(bytes));
+        });
+    }
+
+    public Path path() {
+        return this.path;
+    }
+
+    /**
+     * Responses in the file, including those of earlier sessions
+     * @return
+     */
+    public synchronized long size() {
+        return this.count;
+    }
+
+    @Override
+    public int maxConnections() {
+        return this.delegate.maxConnections();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            this.delegate.close();
+        } finally {
+            synchronized (this) {
+                if (this.channel.isOpen()) {
+                    this.channel.force(false);
+                    this.channel.close();
+                }
+            }
+        }
+    }
+
+    private synchronized void append(long timeMicros, String url, byte[] body) throws IOException {
+        byte[] urlBytes = url.getBytes(StandardCharsets.UTF_8);
+        int length = RECORD_HEADER_SIZE + urlBytes.length + body.length;
+        if (this.record.capacity() < length) {
+            this.record = ByteBuffer.allocate(Math.max(length, this.record.capacity() * 2)).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        ByteBuffer record = this.record;
+        record.clear();
+        record.putInt(length).putLong(timeMicros).putInt(urlBytes.length).putInt(body.length).put(urlBytes).put(body);
+        record.flip();
+        writeFully(this.channel, record, this.end);
+
+        // Only now does the record count
+        this.end += length;
+        this.count++;
+        this.header.clear();
+        this.header.putLong(this.end).putLong(this.count).flip();
+        writeFully(this.channel, this.header, END_OFFSET);
+    }
+
+    /**
+     * Read and check the header of a recording
+     * @param channel
+     * @param path
+     * @return
+     * @throws IOException
+     */
+    static ByteBuffer readHeader(FileChannel channel, Path path) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                throw new IOException(path + " is not a recording: too short");
+            }
+        }
+        if (header.getLong(MAGIC_OFFSET) != MAGIC) {
+            throw new IOException(path + " is not a recording");
+        }
+        if (header.getInt(VERSION_OFFSET) != VERSION) {
+            throw new IOException(path + " has unsupported version " + header.getInt(VERSION_OFFSET));
+        }
+        return header;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static byte[] readAll(InputStream body) throws IOException {
+        byte[] bytes = new byte[8192];
+        int length = 0;
+        int read;
+        while ((read = body.read(bytes, length, bytes.length - length)) >= 0) {
+            length += read;
+            if (length == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+        }
+        return Arrays.copyOf(bytes, length);
+    }
+}
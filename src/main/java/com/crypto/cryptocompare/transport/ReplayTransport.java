@@ -0,0 +1,285 @@
+package com.crypto.cryptocompare.transport;
+
+import com.crypto.cryptocompare.utils.ApiUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Transport serving the responses of a {@link RecordingTransport} file instead of calling
+ * the API. The file is memory-mapped and indexed by url when opened; bodies are decoded
+ * straight from the mapping without being copied. A url recorded several times gets its
+ * responses in recorded order, starting over after the last one, so a replay is the same
+ * every time. A url that was never recorded fails with a 404 {@link HttpStatusException}.
+ *
+ * With {@link Pacing#FAST} responses come back as fast as they are asked for. With
+ * {@link Pacing#ORIGINAL} each one is held until as much time has passed since the first
+ * request of the replay as had passed between the first recorded request and its own.
+ */
+public class ReplayTransport implements Transport {
+
+    /**
+     * When responses are served
+     */
+    public enum Pacing {
+        /**
+         * Right away
+         */
+        FAST,
+        /**
+         * At the pace they were recorded
+         */
+        ORIGINAL
+    }
+
+    private final Path path;
+
+    private final Pacing pacing;
+
+    private final MappedByteBuffer mapping;
+
+    /**
+     * Record offsets by normalized url, in recorded order
+     */
+    private final Map<String, Recording> index;
+
+    private final int size;
+
+    private final long firstMicros;
+
+    /**
+     * Nano clock at the first request of the replay, 0 before it
+     */
+    private final AtomicLong startNanos = new AtomicLong();
+
+    private final LongAdder served = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private ReplayTransport(Path path, Pacing pacing, MappedByteBuffer mapping, Map<String, Recording> index, int size, long firstMicros) {
+        this.path = path;
+        this.pacing = pacing;
+        this.mapping = mapping;
+        this.index = index;
+        this.size = size;
+        this.firstMicros = firstMicros;
+    }
+
+    public static ReplayTransport open(Path path) throws IOException {
+        return open(path, Pacing.FAST);
+    }
+
+    /**
+     * Map and index a recording
+     * @param path
+     * @param pacing
+     * @return
+     * @throws IOException if the file is not a recording
+     */
+    public static ReplayTransport open(Path path, Pacing pacing) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = RecordingTransport.readHeader(channel, path);
+            long end = header.getLong(RecordingTransport.END_OFFSET);
+            if (end > Integer.MAX_VALUE || end > channel.size()) {
+                throw new IOException(path + " is larger than 2GB or truncated");
+            }
+            MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, end);
+            mapping.order(ByteOrder.LITTLE_ENDIAN);
+
+            Map<String, Recording> index = new HashMap<>();
+            int size = 0;
+            long firstMicros = 0;
+            byte[] url = new byte[256];
+            int length;
+            for (int offset = RecordingTransport.HEADER_SIZE; offset < end; offset += length) {
+                length = mapping.getInt(offset);
+                if (length < RecordingTransport.RECORD_HEADER_SIZE || offset + length > end) {
+                    throw new IOException(path + " has a corrupt record at " + offset);
+                }
+                if (size++ == 0) {
+                    firstMicros = mapping.getLong(offset + 4);
+                }
+                int urlLength = mapping.getInt(offset + 12);
+                if (urlLength > url.length) {
+                    url = new byte[Math.max(urlLength, url.length * 2)];
+                }
+                ByteBuffer view = mapping.duplicate();
+                view.position(offset + RecordingTransport.RECORD_HEADER_SIZE);
+                view.get(url, 0, urlLength);
+                String key = ApiUtils.normalizeUrl(new String(url, 0, urlLength, StandardCharsets.UTF_8));
+                index.computeIfAbsent(key, k -> new Recording()).add(offset);
+            }
+            return new ReplayTransport(path, pacing, mapping, index, size, firstMicros);
+        }
+    }
+
+    @Override
+    public <T> T get(String requestUrl, ResponseDecoder<T> decoder) throws IOException {
+        Recording recording = this.index.get(ApiUtils.normalizeUrl(requestUrl));
+        if (recording == null) {
+            this.misses.increment();
+            throw new HttpStatusException("No recorded response for " + requestUrl, 404);
+        }
+
+        int offset = recording.next();
+        if (this.pacing == Pacing.ORIGINAL) {
+            this.await(this.mapping.getLong(offset + 4));
+        }
+
+        int urlLength = this.mapping.getInt(offset + 12);
+        int bodyLength = this.mapping.getInt(offset + 16);
+        ByteBuffer body = this.mapping.duplicate();
+        body.position(offset + RecordingTransport.RECORD_HEADER_SIZE + urlLength);
+        body.limit(body.position() + bodyLength);
+        this.served.increment();
+        return decoder.decode(new ByteBufferInputStream(body));
+    }
+
+    public Path path() {
+        return this.path;
+    }
+
+    /**
+     * Responses in the recording
+     * @return
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Distinct urls in the recording
+     * @return
+     */
+    public int urlCount() {
+        return this.index.size();
+    }
+
+    /**
+     * Responses served
+     * @return
+     */
+    public long servedCount() {
+        return this.served.sum();
+    }
+
+    /**
+     * Requests for urls that were never recorded
+     * @return
+     */
+    public long missCount() {
+        return this.misses.sum();
+    }
+
+    /**
+     * The mapping is released once the transport is no longer reachable
+     */
+    @Override
+    public void close() {}
+
+    /**
+     * Hold a response until its recorded offset has passed in the replay
+     * @param timeMicros
+     */
+    private void await(long timeMicros) {
+        long start = this.startNanos.get();
+        if (start == 0) {
+            // 0 means not started, so the start is made odd to never be 0
+            this.startNanos.compareAndSet(0, System.nanoTime() | 1);
+            start = this.startNanos.get();
+        }
+
+        long due = start + (timeMicros - this.firstMicros) * 1000;
+        long remaining;
+        while ((remaining = due - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(this, remaining);
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Offsets of the records of one url and the next one to serve
+     */
+    private static final class Recording {
+
+        private int[] offsets = new int[1];
+
+        private int count;
+
+        private final AtomicInteger next = new AtomicInteger();
+
+        private void add(int offset) {
+            if (this.count == this.offsets.length) {
+                this.offsets = Arrays.copyOf(this.offsets, this.count * 2);
+            }
+            this.offsets[this.count++] = offset;
+        }
+
+        private int next() {
+            if (this.count == 1) {
+                return this.offsets[0];
+            }
+            return this.offsets[Math.floorMod(this.next.getAndIncrement(), this.count)];
+        }
+    }
+
+    /**
+     * Reads a slice of the mapping
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            int remaining = this.buffer.remaining();
+            if (remaining == 0) {
+                return -1;
+            }
+            int count = Math.min(length, remaining);
+            this.buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long n) {
+            int count = (int) Math.max(0, Math.min(n, this.buffer.remaining()));
+            this.buffer.position(this.buffer.position() + count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return this.buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.crypto.cryptocompare.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Phase timings of the request running on the current thread. The api starts recording
+ * before handing a request to its transport, transports fill in the phases they can see,
+ * and listeners read the result. One instance is reused per thread, so recording
+ * allocates nothing; listeners must not keep it past their callback.
+ *
+ * Phases, all in nanoseconds and 0 when not measured:
+ * <ul>
+ *     <li>throttle: waiting for the rate limiter</li>
+ *     <li>connect: TCP connect and TLS handshake, near 0 on a reused connection</li>
+ *     <li>first byte: sending the request until the status line arrives</li>
+ *     <li>download: time spent blocked reading the body</li>
+ *     <li>decode: time spent decompressing and decoding, excluding the socket reads</li>
+ * </ul>
+ */
+public final class RequestTimings {
+
+    private static final ThreadLocal<RequestTimings> CURRENT = ThreadLocal.withInitial(RequestTimings::new);
+
+    private boolean recording;
+
+    private long throttleNanos;
+
+    private long connectNanos;
+
+    private long firstByteNanos;
+
+    private long downloadNanos;
+
+    private long decodeNanos;
+
+    private long totalNanos;
+
+    private long responseBytes;
+
+    private long wireBytes;
+
+    /**
+     * Whether the body came compressed, so decoded and wire bytes are counted apart
+     */
+    private boolean compressed;
+
+    private int statusCode;
+
+    private int attempts;
+
+    /**
+     * Reused around the body stream of each request, as it comes off the socket
+     */
+    private final MeteredInputStream meter = new MeteredInputStream(this, true);
+
+    /**
+     * Reused around the decompressed body of compressed responses
+     */
+    private final MeteredInputStream decodedMeter = new MeteredInputStream(this, false);
+
+    private RequestTimings() {}
+
+    /**
+     * Timings of the current thread, recording or not
+     * @return
+     */
+    public static RequestTimings current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Reset the timings of the current thread and start recording
+     * @return
+     */
+    public static RequestTimings start() {
+        RequestTimings timings = CURRENT.get();
+        timings.throttleNanos = 0;
+        timings.connectNanos = 0;
+        timings.firstByteNanos = 0;
+        timings.downloadNanos = 0;
+        timings.decodeNanos = 0;
+        timings.totalNanos = 0;
+        timings.responseBytes = 0;
+        timings.wireBytes = 0;
+        timings.compressed = false;
+        timings.statusCode = 0;
+        timings.attempts = 0;
+        timings.recording = true;
+        return timings;
+    }
+
+    /**
+     * Stop recording, leaving the values readable
+     * @param totalNanos time of the whole request
+     */
+    public void stop(long totalNanos) {
+        this.totalNanos = totalNanos;
+        this.recording = false;
+    }
+
+    public boolean isRecording() {
+        return this.recording;
+    }
+
+    public void recordThrottle(long nanos) {
+        this.throttleNanos += nanos;
+    }
+
+    /**
+     * A transport sent the request over the network; later attempts replace the phases of
+     * earlier ones
+     * @param connectNanos
+     * @param firstByteNanos
+     * @param statusCode
+     */
+    public void recordExchange(long connectNanos, long firstByteNanos, int statusCode) {
+        this.attempts++;
+        this.connectNanos = connectNanos;
+        this.firstByteNanos = firstByteNanos;
+        this.statusCode = statusCode;
+        this.downloadNanos = 0;
+        this.decodeNanos = 0;
+        this.responseBytes = 0;
+        this.wireBytes = 0;
+        this.compressed = false;
+    }
+
+    /**
+     * The body was decoded
+     * @param decodeAndReadNanos time in the decoder, reads included
+     */
+    public void recordDecode(long decodeAndReadNanos) {
+        this.decodeNanos = Math.max(0, decodeAndReadNanos - this.downloadNanos);
+    }
+
+    /**
+     * Count the bytes read from a body stream as received and the time spent blocked in reads
+     * @param body
+     * @return the body to read from
+     */
+    public InputStream meter(InputStream body) {
+        return this.recording ? this.meter.reset(body) : body;
+    }
+
+    /**
+     * Count the bytes of a compressed body once decompressed
+     * @param decompressed
+     * @return the body to hand to the decoder
+     */
+    public InputStream meterDecompressed(InputStream decompressed) {
+        if (!this.recording) {
+            return decompressed;
+        }
+        this.compressed = true;
+        return this.decodedMeter.reset(decompressed);
+    }
+
+    public long throttleNanos() {
+        return this.throttleNanos;
+    }
+
+    public long connectNanos() {
+        return this.connectNanos;
+    }
+
+    public long firstByteNanos() {
+        return this.firstByteNanos;
+    }
+
+    public long downloadNanos() {
+        return this.downloadNanos;
+    }
+
+    public long decodeNanos() {
+        return this.decodeNanos;
+    }
+
+    public long totalNanos() {
+        return this.totalNanos;
+    }
+
+    /**
+     * Body bytes handed to the decoder, after decompression
+     * @return
+     */
+    public long responseBytes() {
+        return this.compressed ? this.responseBytes : this.wireBytes;
+    }
+
+    /**
+     * Body bytes received, before decompression
+     * @return
+     */
+    public long wireBytes() {
+        return this.wireBytes;
+    }
+
+    /**
+     * HTTP status of the last attempt, 0 when nothing was sent
+     * @return
+     */
+    public int statusCode() {
+        return this.statusCode;
+    }
+
+    /**
+     * Times the request went over the network, more than 1 when retried
+     * @return
+     */
+    public int attempts() {
+        return this.attempts;
+    }
+
+    @Override
+    public String toString() {
+        return "RequestTimings{total=" + this.totalNanos
+                + ", throttle=" + this.throttleNanos
+                + ", connect=" + this.connectNanos
+                + ", firstByte=" + this.firstByteNanos
+                + ", download=" + this.downloadNanos
+                + ", decode=" + this.decodeNanos
+                + ", bytes=" + this.responseBytes()
+                + ", wireBytes=" + this.wireBytes
+                + ", status=" + this.statusCode
+                + ", attempts=" + this.attempts + "}";
+    }
+
+    /**
+     * Body stream wrapper adding up bytes, and for the wire side read time, into the timings
+     */
+    private static final class MeteredInputStream extends InputStream {
+
+        private final RequestTimings timings;
+
+        private final boolean wire;
+
+        private InputStream in;
+
+        private MeteredInputStream(RequestTimings timings, boolean wire) {
+            this.timings = timings;
+            this.wire = wire;
+        }
+
+        private MeteredInputStream reset(InputStream in) {
+            this.in = in;
+            return this;
+        }
+
+        @Override
+        public int read() throws IOException {
+            long start = this.wire ? System.nanoTime() : 0;
+            int b = this.in.read();
+            this.count(start, (b >= 0) ? 1 : 0);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            long start = this.wire ? System.nanoTime() : 0;
+            int read = this.in.read(buffer, offset, length);
+            this.count(start, Math.max(0, read));
+            return read;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return this.in.available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            InputStream stream = this.in;
+            this.in = null;
+            if (stream != null) {
+                stream.close();
+            }
+        }
+
+        private void count(long start, int bytes) {
+            if (this.wire) {
+                this.timings.downloadNanos += System.nanoTime() - start;
+                this.timings.wireBytes += bytes;
+            } else {
+                this.timings.responseBytes += bytes;
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.crypto.cryptocompare.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Turns a response body into a value. The stream is owned by the transport, so decoders
+ * must not hold on to it after returning.
+ * @param <T> decoded type
+ */
+public interface ResponseDecoder<T> {
+
+    /**
+     * Decode the response body
+     * @param body response body
+     * @return decoded value
+     * @throws IOException if the body cannot be read or decoded
+     */
+    T decode(InputStream body) throws IOException;
+}
@@ -0,0 +1,100 @@
+package com.crypto.cryptocompare.transport;
+
+import com.crypto.cryptocompare.json.LazyJsonObject;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decoders shared by the API clients. Bodies are parsed straight from the stream, so no
+ * intermediate String copy of the payload is ever built.
+ */
+public final class ResponseDecoders {
+
+    /**
+     * Google JSON parser, stateless and safe to share
+     */
+    private static final JsonParser jsonParser = new JsonParser();
+
+    /**
+     * Decodes the body into a Gson JsonObject
+     */
+    public static final ResponseDecoder<JsonObject> JSON_OBJECT = body -> {
+        JsonElement element = parse(newJsonReader(body));
+        if (!element.isJsonObject()) {
+            throw new IOException("Expected a JSON object in the response body");
+        }
+        return element.getAsJsonObject();
+    };
+
+    /**
+     * Keeps the body as bytes and only indexes its top-level members, see {@link LazyJsonObject}
+     */
+    public static final ResponseDecoder<LazyJsonObject> LAZY_JSON_OBJECT = LazyJsonObject::read;
+
+    private ResponseDecoders() {}
+
+    /**
+     * Wrap a response body in a JsonReader decoding UTF-8, which is what the API always sends
+     * @param body
+     * @return
+     */
+    public static JsonReader newJsonReader(InputStream body) {
+        JsonReader reader = new JsonReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        reader.setLenient(true);
+        return reader;
+    }
+
+    /**
+     * Parse the next value of the reader into a tree
+     * @param reader
+     * @return
+     * @throws IOException if the value is not valid JSON
+     */
+    private static JsonElement parse(JsonReader reader) throws IOException {
+        try {
+            return jsonParser.parse(reader);
+        } catch (JsonParseException ex) {
+            throw new IOException("Malformed response body", ex);
+        }
+    }
+
+    /**
+     * Whether a decoded body is a {@code "Response":"Error"} answer, kept as a JsonObject or
+     * a LazyJsonObject
+     * @param response
+     * @return
+     */
+    public static boolean isErrorResponse(Object response) {
+        if (response instanceof LazyJsonObject) {
+            return "Error".equals(((LazyJsonObject) response).getString("Response"));
+        }
+        return response instanceof JsonObject && "Error".equals(stringOf(((JsonObject) response).get("Response")));
+    }
+
+    /**
+     * Message of a {@code "Response":"Error"} body
+     * @param response
+     * @return the message, or null when the response is not an error or has no message
+     */
+    public static String errorMessage(Object response) {
+        if (!isErrorResponse(response)) {
+            return null;
+        }
+        if (response instanceof LazyJsonObject) {
+            return ((LazyJsonObject) response).getString("Message");
+        }
+        return stringOf(((JsonObject) response).get("Message"));
+    }
+
+    private static String stringOf(JsonElement element) {
+        return (element != null && element.isJsonPrimitive()) ? element.getAsString() : null;
+    }
+}
@@ -0,0 +1,370 @@
+package com.crypto.cryptocompare.transport;
+
+import com.crypto.cryptocompare.api.Endpoint;
+import com.crypto.cryptocompare.ratelimit.RateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Transport decorator that retries failed requests and stops calling hosts that are down.
+ * Every request of the API is an idempotent GET, so sending one again is always safe.
+ *
+ * A request is retried when the host could not be reached, timed out, answered 408, 429
+ * or 5xx, or answered with a {@code "Response":"Error"} body about rate limits. Between
+ * attempts it backs off exponentially with random jitter, so clients failing together do
+ * not retry together. Each host has a {@link CircuitBreaker} fed by the outcome of every
+ * attempt; while it is open, requests fail at once with a {@link CircuitOpenException}
+ * instead of waiting for timeouts.
+ *
+ * The client's {@link RateLimiter} only covers the first attempt of a request. Give the
+ * same limiter to {@link Builder#rateLimiter(RateLimiter)} so retries, e.g. after a 429,
+ * take a permit too instead of going past the budget.
+ */
+public class RetryingTransport implements Transport {
+
+    /**
+     * Logger
+     */
+    private static final Logger logger = LoggerFactory.getLogger(RetryingTransport.class);
+
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+    public static final long DEFAULT_INITIAL_BACKOFF_MILLIS = 200;
+
+    public static final long DEFAULT_MAX_BACKOFF_MILLIS = 5000;
+
+    public static final double DEFAULT_JITTER = 0.5;
+
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+
+    public static final long DEFAULT_OPEN_MILLIS = 30000;
+
+    private final Transport delegate;
+
+    private final int maxAttempts;
+
+    private final long initialBackoffMillis;
+
+    private final long maxBackoffMillis;
+
+    private final double jitter;
+
+    private final int failureThreshold;
+
+    private final long openMillis;
+
+    /**
+     * Takes a permit for every retry, null when retries are not rate limited
+     */
+    private final RateLimiter rateLimiter;
+
+    private final ConcurrentHashMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    private final LongAdder retries = new LongAdder();
+
+    private final LongAdder rejections = new LongAdder();
+
+    /*************************
+     * Constructors
+     *************************/
+
+    public RetryingTransport(Transport delegate) {
+        this(builder(delegate));
+    }
+
+    private RetryingTransport(Builder builder) {
+        this.delegate = builder.delegate;
+        this.maxAttempts = builder.maxAttempts;
+        this.initialBackoffMillis = builder.initialBackoffMillis;
+        this.maxBackoffMillis = builder.maxBackoffMillis;
+        this.jitter = builder.jitter;
+        this.failureThreshold = builder.failureThreshold;
+        this.openMillis = builder.openMillis;
+        this.rateLimiter = builder.rateLimiter;
+    }
+
+    public static Builder builder(Transport delegate) {
+        return new Builder(delegate);
+    }
+
+    @Override
+    public <T> T get(String requestUrl, ResponseDecoder<T> decoder) throws IOException {
+        String host = hostOf(requestUrl);
+        CircuitBreaker breaker = this.breakers.computeIfAbsent(host,
+                key -> new CircuitBreaker(this.failureThreshold, this.openMillis, TimeUnit.MILLISECONDS));
+
+        for (int attempt = 1; ; attempt++) {
+            if (!breaker.allowRequest()) {
+                this.rejections.increment();
+                throw new CircuitOpenException("Circuit open for " + host + ", next attempt allowed in "
+                        + breaker.remainingOpenMillis() + "ms");
+            }
+            if (attempt > 1 && this.rateLimiter != null) {
+                this.rateLimiter.acquire(Endpoint.hostOf(requestUrl));
+            }
+
+            IOException failure;
+            try {
+                T response = this.delegate.get(requestUrl, decoder);
+                breaker.recordSuccess();
+                String rateLimitMessage = rateLimitMessage(response);
+                if (rateLimitMessage == null) {
+                    return response;
+                }
+                failure = new ApiErrorException(rateLimitMessage);
+            } catch (IOException ex) {
+                if (isHostFailure(ex)) {
+                    breaker.recordFailure();
+                } else {
+                    breaker.recordSuccess();
+                }
+                failure = ex;
+            } catch (RuntimeException ex) {
+                breaker.recordSuccess();
+                throw ex;
+            }
+
+            long delayMillis = this.delayMillis(attempt, failure);
+            if (attempt >= this.maxAttempts || delayMillis < 0) {
+                throw failure;
+            }
+
+            logger.debug("Attempt {} of {} failed ({}), retrying in {}ms", attempt, requestUrl, failure.getMessage(), delayMillis);
+            this.retries.increment();
+            sleep(delayMillis);
+        }
+    }
+
+    @Override
+    public int maxConnections() {
+        return this.delegate.maxConnections();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.delegate.close();
+    }
+
+    /**
+     * Circuit breaker of a host, once a request has been sent to it
+     * @param host e.g. min-api.cryptocompare.com
+     * @return the breaker, or null when the host has not been used
+     */
+    public CircuitBreaker circuitBreaker(String host) {
+        return this.breakers.get(host);
+    }
+
+    /**
+     * Attempts made after a first one failed
+     * @return
+     */
+    public long retryCount() {
+        return this.retries.sum();
+    }
+
+    /**
+     * Requests failed fast by an open circuit breaker
+     * @return
+     */
+    public long rejectedCount() {
+        return this.rejections.sum();
+    }
+
+    /**
+     * Time to wait before the next attempt
+     * @param attempt attempts made so far
+     * @param failure
+     * @return milliseconds, or -1 when the failure is not worth retrying
+     */
+    private long delayMillis(int attempt, IOException failure) {
+        if (!isRetryable(failure)) {
+            return -1;
+        }
+
+        double backoff = Math.min(this.maxBackoffMillis, this.initialBackoffMillis * Math.pow(2, attempt - 1));
+        long delay = (long) (backoff * (1 - this.jitter * ThreadLocalRandom.current().nextDouble()));
+
+        if (failure instanceof HttpStatusException) {
+            long retryAfter = ((HttpStatusException) failure).retryAfterMillis();
+            if (retryAfter > this.maxBackoffMillis) {
+                return -1;
+            }
+            delay = Math.max(delay, retryAfter);
+        }
+        return delay;
+    }
+
+    private static boolean isRetryable(IOException failure) {
+        if (failure instanceof CircuitOpenException) {
+            return false;
+        }
+        if (failure instanceof ApiErrorException) {
+            return ((ApiErrorException) failure).isRateLimited();
+        }
+        if (failure instanceof HttpStatusException) {
+            return ((HttpStatusException) failure).isTransient();
+        }
+        return true;
+    }
+
+    /**
+     * Whether a failure says the host is unwell, as opposed to the request being refused
+     * @param failure
+     * @return
+     */
+    private static boolean isHostFailure(IOException failure) {
+        if (failure instanceof ApiErrorException) {
+            return false;
+        }
+        if (failure instanceof HttpStatusException) {
+            int status = ((HttpStatusException) failure).statusCode();
+            return status >= 500 || status == 408;
+        }
+        return true;
+    }
+
+    /**
+     * Error message of a {@code "Response":"Error"} body about rate limits
+     * @param response
+     * @return the message, or null for any other response
+     */
+    private static String rateLimitMessage(Object response) {
+        String message = ResponseDecoders.errorMessage(response);
+        return ApiErrorException.isRateLimitMessage(message) ? message : null;
+    }
+
+    /**
+     * Host part of a url, without the port
+     * @param url
+     * @return
+     */
+    private static String hostOf(String url) {
+        int start = url.indexOf("://");
+        start = (start < 0) ? 0 : start + 3;
+        int end = start;
+        while (end < url.length() && url.charAt(end) != '/' && url.charAt(end) != ':' && url.charAt(end) != '?') {
+            end++;
+        }
+        return url.substring(start, end);
+    }
+
+    private static void sleep(long millis) throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry");
+        }
+    }
+
+    /**
+     * Configuration for a RetryingTransport
+     */
+    public static class Builder {
+
+        private final Transport delegate;
+
+        private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+
+        private long initialBackoffMillis = DEFAULT_INITIAL_BACKOFF_MILLIS;
+
+        private long maxBackoffMillis = DEFAULT_MAX_BACKOFF_MILLIS;
+
+        private double jitter = DEFAULT_JITTER;
+
+        private int failureThreshold = DEFAULT_FAILURE_THRESHOLD;
+
+        private long openMillis = DEFAULT_OPEN_MILLIS;
+
+        private RateLimiter rateLimiter;
+
+        private Builder(Transport delegate) {
+            this.delegate = delegate;
+        }
+
+        /**
+         * Limiter every retry takes a permit from, the one the client uses; unset, retries
+         * are not rate limited
+         * @param rateLimiter
+         * @return
+         */
+        public Builder rateLimiter(RateLimiter rateLimiter) {
+            this.rateLimiter = rateLimiter;
+            return this;
+        }
+
+        /**
+         * Attempts per request, including the first one
+         * @param maxAttempts
+         * @return
+         */
+        public Builder maxAttempts(int maxAttempts) {
+            if (maxAttempts < 1) {
+                throw new IllegalArgumentException("maxAttempts must be positive");
+            }
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * Wait before the first retry, doubling for every further one up to the maximum
+         * @param initial
+         * @param max
+         * @param unit
+         * @return
+         */
+        public Builder backoff(long initial, long max, TimeUnit unit) {
+            this.initialBackoffMillis = unit.toMillis(initial);
+            this.maxBackoffMillis = unit.toMillis(max);
+            return this;
+        }
+
+        /**
+         * Share of each backoff that is randomized away, from 0 (none) to 1 (full jitter)
+         * @param jitter
+         * @return
+         */
+        public Builder jitter(double jitter) {
+            if (jitter < 0 || jitter > 1) {
+                throw new IllegalArgumentException("jitter must be between 0 and 1");
+            }
+            this.jitter = jitter;
+            return this;
+        }
+
+        /**
+         * Consecutive failures of a host that open its circuit breaker
+         * @param failureThreshold
+         * @return
+         */
+        public Builder failureThreshold(int failureThreshold) {
+            if (failureThreshold < 1) {
+                throw new IllegalArgumentException("failureThreshold must be positive");
+            }
+            this.failureThreshold = failureThreshold;
+            return this;
+        }
+
+        /**
+         * How long an open circuit breaker fails requests before letting a trial through
+         * @param duration
+         * @param unit
+         * @return
+         */
+        public Builder openDuration(long duration, TimeUnit unit) {
+            this.openMillis = unit.toMillis(duration);
+            return this;
+        }
+
+        public RetryingTransport build() {
+            return new RetryingTransport(this);
+        }
+    }
+}
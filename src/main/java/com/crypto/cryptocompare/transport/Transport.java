@@ -0,0 +1,29 @@
+package com.crypto.cryptocompare.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Carries a request to the CryptoCompare API and hands the response body to a decoder.
+ * Implementations own the body stream and release it once the decoder returns.
+ */
+public interface Transport extends Closeable {
+
+    /**
+     * Perform a GET request and decode the response body
+     * @param requestUrl fully qualified request url
+     * @param decoder decoder applied to the response body
+     * @param <T> type produced by the decoder
+     * @return the decoded response
+     * @throws IOException if the request fails or the body cannot be decoded
+     */
+    <T> T get(String requestUrl, ResponseDecoder<T> decoder) throws IOException;
+
+    /**
+     * Requests the transport sends at the same time, beyond which callers wait for a turn
+     * @return the limit, or 0 when there is none
+     */
+    default int maxConnections() {
+        return 0;
+    }
+}
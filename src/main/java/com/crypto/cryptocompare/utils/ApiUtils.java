@@ -1,15 +1,15 @@
 package com.crypto.cryptocompare.utils;
 
+import com.crypto.cryptocompare.transport.HttpTransport;
+import com.crypto.cryptocompare.transport.ResponseDecoders;
+import com.crypto.cryptocompare.transport.Transport;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.net.ssl.HttpsURLConnection;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.URL;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
 import java.util.Map;
 
 public class ApiUtils {
@@ -20,14 +20,9 @@ public class ApiUtils {
     private static final Logger logger = LoggerFactory.getLogger(ApiUtils.class);
 
     /**
-     * User agent for HTTP requests
+     * Shared transport so that standalone calls still reuse connections
      */
-    private static final String USER_AGENT = "Mozilla/5.0 (Macintosh; U; Intel Mac OS X 10.4; en-US; rv:1.9.2.2) Gecko/20100316 Firefox/3.6.2";
-
-    /**
-     * Google JSON parser
-     */
-    private static JsonParser jsonParser = new JsonParser();
+    private static final Transport transport = new HttpTransport();
 
     /**
      * Empty constructor
@@ -35,20 +30,88 @@ public class ApiUtils {
     public ApiUtils() {}
 
     /**
-     * Append the optional parameters to the URL
+     * Append the optional parameters to the URL, percent-encoded, in the map's order.
+     * {@link UrlBuilder} builds the whole url in one pass instead.
      * @param url
      * @param optionalParams
      * @return
      */
     public static String appendOptionalParameters(String url, Map<String, Object> optionalParams) {
+        if (optionalParams.isEmpty()) {
+            return url;
+        }
+
+        StringBuilder sb = new StringBuilder(url.length() + 16 * optionalParams.size());
+        sb.append(url);
         for (Map.Entry<String, Object> param : optionalParams.entrySet()) {
-            String value = (param.getKey().equals("extraParams"))
-                    ? param.getValue().toString().replaceAll(" ", "%20")
-                    : param.getValue().toString();
+            sb.append('&');
+            UrlBuilder.appendEncoded(sb, param.getKey());
+            sb.append('=');
+            UrlBuilder.appendEncoded(sb, param.getValue().toString());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Put the query parameters of a url in a stable order, so that the same request
+     * always maps to the same string whatever order the parameters were added in
+     * @param url
+     * @return
+     */
+    public static String normalizeUrl(String url) {
+        int queryStart = url.indexOf('?');
+        if (queryStart < 0 || url.indexOf('&', queryStart) < 0 || isSorted(url, queryStart + 1)) {
+            return url;
+        }
+
+        String[] params = url.substring(queryStart + 1).split("&");
+        Arrays.sort(params);
+
+        StringBuilder sb = new StringBuilder(url.length());
+        sb.append(url, 0, queryStart + 1);
+        for (int i = 0; i < params.length; i++) {
+            if (i > 0) {
+                sb.append('&');
+            }
+            sb.append(params[i]);
+        }
+        return sb.toString();
+    }
 
-            url += "&" + param.getKey() + "=" + value;
+    /**
+     * Whether the query parameters are already in order, as UrlBuilder leaves them
+     * @param url
+     * @param start first character of the query
+     * @return
+     */
+    private static boolean isSorted(String url, int start) {
+        int end = url.indexOf('&', start);
+        while (end >= 0) {
+            int nextEnd = url.indexOf('&', end + 1);
+            int nextStart = end + 1;
+            int nextLimit = (nextEnd < 0) ? url.length() : nextEnd;
+            if (compareRegions(url, start, end, nextStart, nextLimit) > 0) {
+                return false;
+            }
+            start = nextStart;
+            end = nextEnd;
         }
-        return url;
+        return true;
+    }
+
+    /**
+     * String.compareTo over two regions of the same string
+     */
+    private static int compareRegions(String s, int aStart, int aEnd, int bStart, int bEnd) {
+        int length = Math.min(aEnd - aStart, bEnd - bStart);
+        for (int i = 0; i < length; i++) {
+            char a = s.charAt(aStart + i);
+            char b = s.charAt(bStart + i);
+            if (a != b) {
+                return a - b;
+            }
+        }
+        return (aEnd - aStart) - (bEnd - bStart);
     }
 
     /**
@@ -57,30 +120,11 @@ public class ApiUtils {
      * @return
      */
     public static JsonObject getResponseBody(final String requestUrl) {
-        String result = null;
         try {
-            // Connect to the requested URL
-            URL url = new URL(requestUrl);
-            HttpsURLConnection httpsURLConnection = (HttpsURLConnection) url.openConnection();
-            httpsURLConnection.setRequestMethod("GET");
-            httpsURLConnection.setRequestProperty("User-Agent", USER_AGENT);
-
-            // Stream the response
-            BufferedReader reader = new BufferedReader(new InputStreamReader(httpsURLConnection.getInputStream()));
-
-            // Write each line of the response into a buffer
-            StringBuilder sb = new StringBuilder();
-            String line = "";
-            while ((line = reader.readLine()) != null) {
-                sb.append(line);
-            }
-
-            result = sb.toString();
+            return transport.get(requestUrl, ResponseDecoders.JSON_OBJECT);
         } catch (IOException ex) {
             logger.error("Error getting response body for {}", requestUrl);
+            throw new UncheckedIOException(ex);
         }
-
-        JsonObject jsonObject = (JsonObject) jsonParser.parse(result);
-        return jsonObject;
     }
 }
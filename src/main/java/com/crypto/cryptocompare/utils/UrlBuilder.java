@@ -0,0 +1,305 @@
+package com.crypto.cryptocompare.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Builds request urls in one pass into a per-thread byte buffer. Parameters are collected,
+ * sorted by name and percent-encoded as they are appended, so the only allocation left
+ * for a typical request is the final String, copied straight from the buffer since a url
+ * is all ASCII. The order matches {@link ApiUtils#normalizeUrl(String)},
+ * which is then a no-op and cache and coalescing keys come out the same however the
+ * optional parameters were put in the map.
+ *
+ * A builder belongs to the thread that got it from {@link #of(String)} until {@link #build()}.
+ */
+public final class UrlBuilder {
+
+    private static final int INITIAL_PARAMS = 8;
+
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * ASCII characters left as they are: the RFC 3986 unreserved set plus the comma
+     */
+    private static final boolean[] UNRESERVED = new boolean[0x80];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            UNRESERVED[c] = true;
+            UNRESERVED[Character.toUpperCase(c)] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            UNRESERVED[c] = true;
+        }
+        for (char c : "-._~,".toCharArray()) {
+            UNRESERVED[c] = true;
+        }
+    }
+
+    /**
+     * Reused by every request built on the thread
+     */
+    private static final ThreadLocal<UrlBuilder> CACHED = ThreadLocal.withInitial(UrlBuilder::new);
+
+    private byte[] buffer = new byte[256];
+
+    private int length;
+
+    private String prefix;
+
+    private String[] names = new String[INITIAL_PARAMS];
+
+    private Object[] values = new Object[INITIAL_PARAMS];
+
+    private int count;
+
+    private boolean inUse;
+
+    private UrlBuilder() {}
+
+    /**
+     * Start a url
+     * @param prefix scheme, host and path, e.g. an endpoint url; must already be ASCII
+     * @return the thread's builder, or a fresh one if it is already building a url
+     */
+    public static UrlBuilder of(String prefix) {
+        UrlBuilder builder = CACHED.get();
+        if (builder.inUse) {
+            builder = new UrlBuilder();
+        }
+        builder.inUse = true;
+        builder.prefix = prefix;
+        return builder;
+    }
+
+    /**
+     * Add a query parameter
+     * @param name
+     * @param value encoded from its toString; numbers and booleans are appended as is
+     * @return
+     * @throws NullPointerException if the value is null, after releasing the builder
+     */
+    public UrlBuilder param(String name, Object value) {
+        if (value == null) {
+            this.release();
+            throw new NullPointerException(name);
+        }
+        if (this.count == this.names.length) {
+            this.names = Arrays.copyOf(this.names, this.count * 2);
+            this.values = Arrays.copyOf(this.values, this.count * 2);
+        }
+        this.names[this.count] = name;
+        this.values[this.count] = value;
+        this.count++;
+        return this;
+    }
+
+    /**
+     * Add every entry of a map of optional parameters
+     * @param params may be null
+     * @return
+     */
+    public UrlBuilder params(Map<String, Object> params) {
+        if (params != null) {
+            for (Map.Entry<String, Object> param : params.entrySet()) {
+                this.param(param.getKey(), param.getValue());
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Sort and encode the parameters and release the builder
+     * @return
+     */
+    public String build() {
+        try {
+            if (this.count == 0) {
+                return this.prefix;
+            }
+
+            this.sort();
+            this.length = 0;
+            this.appendRaw(this.prefix);
+            for (int i = 0; i < this.count; i++) {
+                this.appendRaw(i == 0 ? '?' : '&');
+                this.appendEncoded(this.names[i]);
+                this.appendRaw('=');
+                this.appendValue(this.values[i]);
+            }
+            return new String(this.buffer, 0, this.length, StandardCharsets.ISO_8859_1);
+        } finally {
+            this.release();
+        }
+    }
+
+    private void release() {
+        Arrays.fill(this.values, 0, this.count, null);
+        this.count = 0;
+        this.prefix = null;
+        this.inUse = false;
+    }
+
+    /**
+     * Percent-encode a value as UTF-8, leaving the RFC 3986 unreserved characters and the
+     * comma that separates symbol lists as they are
+     * @param sb
+     * @param value
+     */
+    public static void appendEncoded(StringBuilder sb, CharSequence value) {
+        UrlBuilder builder = CACHED.get();
+        if (builder.inUse) {
+            builder = new UrlBuilder();
+        }
+        builder.length = 0;
+        builder.appendEncoded(value);
+        for (int i = 0; i < builder.length; i++) {
+            sb.append((char) builder.buffer[i]);
+        }
+    }
+
+    private void appendValue(Object value) {
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            this.appendLong(((Number) value).longValue());
+        } else if (value instanceof Boolean) {
+            this.appendRaw(((Boolean) value) ? "true" : "false");
+        } else if (value instanceof CharSequence) {
+            this.appendEncoded((CharSequence) value);
+        } else {
+            this.appendEncoded(value.toString());
+        }
+    }
+
+    private void appendEncoded(CharSequence value) {
+        int length = value.length();
+        // Worst case is three escaped bytes, nine characters, per char
+        this.ensureCapacity(length * 9);
+        byte[] buffer = this.buffer;
+        int position = this.length;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (isUnreserved(c)) {
+                buffer[position++] = (byte) c;
+            } else if (c < 0x80) {
+                position = escape(buffer, position, c);
+            } else if (c < 0x800) {
+                position = escape(buffer, position, 0xC0 | (c >> 6));
+                position = escape(buffer, position, 0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                position = escape(buffer, position, 0xF0 | (codePoint >> 18));
+                position = escape(buffer, position, 0x80 | ((codePoint >> 12) & 0x3F));
+                position = escape(buffer, position, 0x80 | ((codePoint >> 6) & 0x3F));
+                position = escape(buffer, position, 0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate, as URLEncoder does
+                position = escape(buffer, position, '?');
+            } else {
+                position = escape(buffer, position, 0xE0 | (c >> 12));
+                position = escape(buffer, position, 0x80 | ((c >> 6) & 0x3F));
+                position = escape(buffer, position, 0x80 | (c & 0x3F));
+            }
+        }
+        this.length = position;
+    }
+
+    private static int escape(byte[] buffer, int position, int b) {
+        buffer[position] = '%';
+        buffer[position + 1] = HEX[(b >> 4) & 0x0F];
+        buffer[position + 2] = HEX[b & 0x0F];
+        return position + 3;
+    }
+
+    /**
+     * Copy ASCII text as is
+     * @param value
+     */
+    @SuppressWarnings("deprecation")
+    private void appendRaw(String value) {
+        int length = value.length();
+        this.ensureCapacity(length);
+        // Drops the high byte of each char, which is exactly right for ASCII
+        value.getBytes(0, length, this.buffer, this.length);
+        this.length += length;
+    }
+
+    private void appendRaw(char c) {
+        this.ensureCapacity(1);
+        this.buffer[this.length++] = (byte) c;
+    }
+
+    private void appendLong(long value) {
+        // Long.MIN_VALUE has 20 characters
+        this.ensureCapacity(20);
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                this.appendRaw(Long.toString(value));
+                return;
+            }
+            this.buffer[this.length++] = (byte) '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest != 0; rest /= 10) {
+            digits++;
+        }
+        int position = this.length + digits;
+        this.length = position;
+        do {
+            this.buffer[--position] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value != 0);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (this.length + extra > this.buffer.length) {
+            this.buffer = Arrays.copyOf(this.buffer, Math.max(this.buffer.length * 2, this.length + extra));
+        }
+    }
+
+    private static boolean isUnreserved(char c) {
+        return c < 0x80 && UNRESERVED[c];
+    }
+
+    /**
+     * Stable insertion sort; there are only ever a handful of parameters
+     */
+    private void sort() {
+        for (int i = 1; i < this.count; i++) {
+            String name = this.names[i];
+            Object value = this.values[i];
+            int j = i - 1;
+            while (j >= 0 && compareNames(this.names[j], name) > 0) {
+                this.names[j + 1] = this.names[j];
+                this.values[j + 1] = this.values[j];
+                j--;
+            }
+            this.names[j + 1] = name;
+            this.values[j + 1] = value;
+        }
+    }
+
+    /**
+     * Order of {@code name=} prefixes, the order normalizeUrl sorts parameters in
+     * @param a
+     * @param b
+     * @return
+     */
+    static int compareNames(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        for (int i = 0; i < length; i++) {
+            char ca = a.charAt(i);
+            char cb = b.charAt(i);
+            if (ca != cb) {
+                return ca - cb;
+            }
+        }
+        if (a.length() == b.length()) {
+            return 0;
+        }
+        // The shorter name is followed by '='
+        return (a.length() < b.length()) ? '=' - b.charAt(length) : a.charAt(length) - '=';
+    }
+}
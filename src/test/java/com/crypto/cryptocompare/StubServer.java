@@ -0,0 +1,107 @@
+package com.crypto.cryptocompare;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Local HTTP server that stands in for the CryptoCompare API in tests
+ */
+public class StubServer implements AutoCloseable {
+
+    private final HttpServer server;
+
+    private final ExecutorService executor;
+
+    /**
+     * Request uris (path and query) in arrival order
+     */
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+
+    /**
+     * Client ports seen, one per TCP connection
+     */
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, HttpHandler> routes = new ConcurrentHashMap<>();
+
+    public StubServer() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.executor = Executors.newCachedThreadPool();
+        this.server.setExecutor(this.executor);
+        this.server.createContext("/", this::dispatch);
+        this.server.start();
+    }
+
+    /**
+     * Serve a fixed JSON body for every request whose path ends with the given suffix
+     * @param pathSuffix
+     * @param json
+     * @return
+     */
+    public StubServer respond(String pathSuffix, String json) {
+        return this.handle(pathSuffix, exchange -> send(exchange, 200, json));
+    }
+
+    public StubServer handle(String pathSuffix, HttpHandler handler) {
+        this.routes.put(pathSuffix, handler);
+        return this;
+    }
+
+    /**
+     * Base url to hand to the client, ending with a slash
+     * @return
+     */
+    public String baseUrl() {
+        return "http://127.0.0.1:" + this.server.getAddress().getPort() + "/data/";
+    }
+
+    public List<String> requests() {
+        return this.requests;
+    }
+
+    public int connectionCount() {
+        return this.clientPorts.size();
+    }
+
+    public static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        this.server.stop(0);
+        this.executor.shutdownNow();
+    }
+
+    private void dispatch(HttpExchange exchange) throws IOException {
+        this.requests.add(exchange.getRequestURI().toString());
+        this.clientPorts.add(exchange.getRemoteAddress().getPort());
+
+        String path = exchange.getRequestURI().getPath();
+        for (Map.Entry<String, HttpHandler> route : this.routes.entrySet()) {
+            if (path.endsWith(route.getKey())) {
+                route.getValue().handle(exchange);
+                return;
+            }
+        }
+        send(exchange, 404, "{\"Response\":\"Error\",\"Message\":\"Unknown path " + path + "\"}");
+    }
+}
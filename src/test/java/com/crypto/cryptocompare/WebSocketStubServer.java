@@ -0,0 +1,164 @@
+package com.crypto.cryptocompare;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local WebSocket server that stands in for the streamer in tests: it accepts one
+ * connection at a time, records the text messages it receives and, once the first one
+ * (the subscription) arrives, replays a recorded message log as fast as the client
+ * reads it, then closes the connection
+ */
+public class WebSocketStubServer implements AutoCloseable {
+
+    private final ServerSocket server;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private final List<String> received = new CopyOnWriteArrayList<>();
+
+    private final List<String> replay;
+
+    private volatile boolean closed;
+
+    public WebSocketStubServer(List<String> replay) throws IOException {
+        this.replay = replay;
+        this.server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        this.executor.execute(this::accept);
+    }
+
+    public String url() {
+        return "ws://127.0.0.1:" + this.server.getLocalPort() + "/v2";
+    }
+
+    /**
+     * Text messages received from clients, in arrival order
+     * @return
+     */
+    public List<String> received() {
+        return this.received;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.closed = true;
+        this.server.close();
+        this.executor.shutdownNow();
+    }
+
+    private void accept() {
+        while (!this.closed) {
+            try (Socket socket = this.server.accept()) {
+                this.serve(socket);
+            } catch (IOException ex) {
+                // Client went away or the server is closing
+            }
+        }
+    }
+
+    private void serve(Socket socket) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        OutputStream out = new BufferedOutputStream(socket.getOutputStream(), 64 * 1024);
+
+        String key = null;
+        StringBuilder line = new StringBuilder();
+        while (true) {
+            int b = in.read();
+            if (b < 0) {
+                return;
+            }
+            if (b != '\n') {
+                if (b != '\r') {
+                    line.append((char) b);
+                }
+                continue;
+            }
+            if (line.length() == 0) {
+                break;
+            }
+            if (line.toString().toLowerCase().startsWith("sec-websocket-key:")) {
+                key = line.substring(line.indexOf(":") + 1).trim();
+            }
+            line.setLength(0);
+        }
+        out.write(("HTTP/1.1 101 Switching Protocols\r\nUpgrade: websocket\r\nConnection: Upgrade\r\n"
+                + "Sec-WebSocket-Accept: " + accept(key) + "\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        out.flush();
+
+        this.received.add(readText(in));
+        for (String message : this.replay) {
+            writeFrame(out, 0x1, message.getBytes(StandardCharsets.UTF_8));
+        }
+        writeFrame(out, 0x8, new byte[] {0x03, (byte) 0xE8});
+        out.flush();
+
+        // Wait for the client's close reply, recording anything sent before it
+        while (true) {
+            String message = readText(in);
+            if (message == null) {
+                return;
+            }
+            this.received.add(message);
+        }
+    }
+
+    /**
+     * Read a masked client text frame
+     * @param in
+     * @return null on a close frame
+     * @throws IOException
+     */
+    private static String readText(DataInputStream in) throws IOException {
+        int first = in.readUnsignedByte();
+        int second = in.readUnsignedByte();
+        long length = second & 0x7F;
+        if (length == 126) {
+            length = in.readUnsignedShort();
+        } else if (length == 127) {
+            length = in.readLong();
+        }
+        byte[] mask = new byte[4];
+        in.readFully(mask);
+        byte[] payload = new byte[(int) length];
+        in.readFully(payload);
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] ^= mask[i & 3];
+        }
+        return ((first & 0x0F) == 0x8) ? null : new String(payload, StandardCharsets.UTF_8);
+    }
+
+    private static void writeFrame(OutputStream out, int opcode, byte[] payload) throws IOException {
+        out.write(0x80 | opcode);
+        if (payload.length < 126) {
+            out.write(payload.length);
+        } else {
+            out.write(126);
+            out.write(payload.length >>> 8);
+            out.write(payload.length);
+        }
+        out.write(payload);
+    }
+
+    private static String accept(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1")
+                    .digest((key + "258EAFA5-E914-47DA-95CA-C5AB0DC85B11").getBytes(StandardCharsets.ISO_8859_1));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.crypto.cryptocompare.api;
+
+import com.crypto.cryptocompare.StubServer;
+import com.crypto.cryptocompare.model.SymbolTable;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CrossRateEngineTest {
+
+    /**
+     * Answers pricemulti from a map of FSYM/TSYM to price, leaving out pairs it does not
+     * know, and fails when asked for FAIL
+     * @param prices
+     * @return
+     */
+    private static StubServer priceMultiServer(Map<String, Double> prices) throws Exception {
+        return new StubServer().handle("/pricemulti", exchange -> {
+            String fsyms = null;
+            String tsyms = null;
+            for (String param : exchange.getRequestURI().getRawQuery().split("&")) {
+                if (param.startsWith("fsyms=")) {
+                    fsyms = param.substring(6);
+                } else if (param.startsWith("tsyms=")) {
+                    tsyms = param.substring(6);
+                }
+            }
+            if (fsyms.contains("FAIL")) {
+                StubServer.send(exchange, 500, "{}");
+                return;
+            }
+
+            StringBuilder body = new StringBuilder("{");
+            for (String fsym : fsyms.split(",")) {
+                body.append(body.length() > 1 ? "," : "").append('"').append(fsym).append("\":{");
+                boolean first = true;
+                for (String tsym : tsyms.split(",")) {
+                    Double price = prices.get(fsym + "/" + tsym);
+                    if (price != null) {
+                        body.append(first ? "" : ",").append('"').append(tsym).append("\":").append(price);
+                        first = false;
+                    }
+                }
+                body.append('}');
+            }
+            StubServer.send(exchange, 200, body.append('}').toString());
+        });
+    }
+
+    private static Map<String, Double> prices() {
+        Map<String, Double> prices = new ConcurrentHashMap<>();
+        prices.put("ETH/BTC", 0.05);
+        prices.put("LTC/BTC", 0.01);
+        prices.put("XMR/BTC", 0.02);
+        prices.put("BTC/USD", 6000.0);
+        prices.put("BTC/EUR", 5000.0);
+        return prices;
+    }
+
+    @Test
+    public void ConvertTest() throws Exception {
+        try (StubServer server = priceMultiServer(prices());
+             CryptoCompareApi api = CryptoCompareApi.builder().baseUrl(server.baseUrl()).build();
+             CrossRateEngine engine = CrossRateEngine.builder(api)
+                     .coins("ETH", "LTC", "XMR", "BTC")
+                     .currencies("USD", "EUR")
+                     .build()) {
+
+            assertTrue(Double.isNaN(engine.convert("ETH", "USD")));
+            assertEquals(5, engine.refresh());
+            // One request for the coins and one for the currencies, not one per pair
+            assertEquals(2, server.requests().size());
+
+            assertEquals(300, engine.convert("ETH", "USD"), 1e-9);
+            assertEquals(250, engine.convert("ETH", "EUR"), 1e-9);
+            assertEquals(1.2, engine.convert("EUR", "USD"), 1e-12);
+            assertEquals(5, engine.convert("ETH", "LTC"), 1e-12);
+            assertEquals(6000, engine.convert("BTC", "USD"), 1e-9);
+            assertEquals(1.0 / 300, engine.convert("USD", "ETH"), 1e-15);
+            assertEquals(1, engine.convert("XMR", "XMR"), 0);
+
+            int eth = engine.id("ETH");
+            int usd = engine.id("USD");
+            assertEquals("ETH", engine.symbol(eth));
+            assertEquals(300, engine.convert(eth, usd), 1e-9);
+            assertEquals(SymbolTable.NO_SYMBOL, engine.id("DOGE"));
+            assertTrue(Double.isNaN(engine.convert("DOGE", "USD")));
+        }
+    }
+
+    @Test
+    public void CaseTest() throws Exception {
+        try (StubServer server = priceMultiServer(prices());
+             CryptoCompareApi api = CryptoCompareApi.builder().baseUrl(server.baseUrl()).build();
+             CrossRateEngine engine = CrossRateEngine.builder(api)
+                     .pivot("btc")
+                     .coins("eth")
+                     .currencies("usd")
+                     .build()) {
+
+            assertEquals("BTC", engine.pivot());
+            assertEquals(2, engine.refresh());
+            assertEquals(300, engine.convert("eth", "USD"), 1e-9);
+            assertEquals(engine.id("ETH"), engine.id("eth"));
+
+            assertTrue(engine.quote("eth", "btc", 0.06));
+            assertEquals(360, engine.convert("ETH", "usd"), 1e-9);
+        }
+    }
+
+    @Test
+    public void StalenessTest() throws Exception {
+        AtomicLong now = new AtomicLong(1000000);
+        Map<String, Double> prices = prices();
+        try (StubServer server = priceMultiServer(prices);
+             CryptoCompareApi api = CryptoCompareApi.builder().baseUrl(server.baseUrl()).build();
+             CrossRateEngine engine = CrossRateEngine.builder(api)
+                     .coins("ETH", "LTC")
+                     .currencies("USD")
+                     .clock(now::get)
+                     .build()) {
+
+            int eth = engine.id("ETH");
+            int ltc = engine.id("LTC");
+            int usd = engine.id("USD");
+            int btc = engine.id("BTC");
+            assertEquals(Long.MAX_VALUE, engine.ageMillis(eth, usd));
+
+            engine.refresh();
+            now.addAndGet(5000);
+            assertEquals(5000, engine.ageMillis(eth, usd));
+            assertEquals(5000, engine.ageMillis(btc, usd));
+
+            // A streaming tick refreshes one leg; the rate is as old as its other leg
+            assertTrue(engine.quote("ETH", "BTC", 0.06));
+            assertTrue(engine.quote("BTC", "LTC", 50));
+            assertFalse(engine.quote("ETH", "USD", 310));
+            assertFalse(engine.quote("DOGE", "BTC", 0.0000003));
+            assertEquals(0, engine.ageMillis(eth, ltc));
+            assertEquals(5000, engine.ageMillis(eth, usd));
+            assertEquals(360, engine.convert(eth, usd), 1e-9);
+            assertEquals(3, engine.convert(eth, ltc), 1e-12);
+            assertTrue(Double.isNaN(engine.convert(eth, usd, 4000)));
+            assertEquals(360, engine.convert(eth, usd, 5000), 1e-9);
+
+            // Only the leg older than the limit is fetched again
+            prices.put("BTC/USD", 6100.0);
+            int requests = server.requests().size();
+            assertEquals(1, engine.refreshStale(1, TimeUnit.SECONDS));
+            assertEquals(requests + 1, server.requests().size());
+            String query = server.requests().get(requests);
+            assertTrue(query, query.contains("fsyms=BTC") && query.contains("tsyms=USD"));
+            assertEquals(0, engine.ageMillis(eth, usd));
+            assertEquals(366, engine.convert(eth, usd), 1e-9);
+
+            assertEquals(0, engine.refreshStale(1, TimeUnit.SECONDS));
+            assertEquals(requests + 1, server.requests().size());
+        }
+    }
+
+    @Test
+    public void FailureTest() throws Exception {
+        AtomicLong now = new AtomicLong(1000000);
+        try (StubServer server = priceMultiServer(prices());
+             CryptoCompareApi api = CryptoCompareApi.builder().baseUrl(server.baseUrl()).build();
+             CrossRateEngine engine = CrossRateEngine.builder(api)
+                     .coins("ETH", "NONE")
+                     .currencies("USD")
+                     .clock(now::get)
+                     .build()) {
+
+            // A symbol the API has no price for stays unquoted
+            assertEquals(2, engine.refresh());
+            assertTrue(Double.isNaN(engine.convert("NONE", "USD")));
+            assertEquals(Long.MAX_VALUE, engine.ageMillis(engine.id("NONE"), engine.id("USD")));
+        }
+
+        try (StubServer server = priceMultiServer(prices());
+             CryptoCompareApi api = CryptoCompareApi.builder().baseUrl(server.baseUrl()).build();
+             CrossRateEngine engine = CrossRateEngine.builder(api)
+                     .coins("FAIL")
+                     .currencies("USD")
+                     .build()) {
+
+            // The currencies are still fetched when the coins fail
+            try {
+                engine.refresh();
+                fail("Expected the failed request to be reported");
+            } catch (RuntimeException ex) {
+                // expected
+            }
+            assertEquals(6000, engine.convert("BTC", "USD"), 1e-9);
+        }
+    }
+}
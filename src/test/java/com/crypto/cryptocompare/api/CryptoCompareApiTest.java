@@ -1,17 +1,54 @@
 package com.crypto.cryptocompare.api;
 
+import com.crypto.cryptocompare.transport.HttpTransport;
+import com.crypto.cryptocompare.transport.RecordingTransport;
+import com.crypto.cryptocompare.transport.ReplayTransport;
+import com.crypto.cryptocompare.transport.Transport;
 import com.google.gson.JsonObject;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
 import java.util.LinkedHashMap;
 
 import static org.junit.Assert.assertTrue;
 
 public class CryptoCompareApiTest {
 
+    /**
+     * Transport shared by every test when recording or replaying
+     */
+    private static Transport transport;
+
+    /**
+     * Client under test: against the live API by default, recording its responses with
+     * -Dcryptocompare.record=file, or without a network from such a recording with
+     * -Dcryptocompare.replay=file
+     * @return
+     */
+    private static synchronized CryptoCompareApi api() {
+        String record = System.getProperty("cryptocompare.record");
+        String replay = System.getProperty("cryptocompare.replay");
+        if (record == null && replay == null) {
+            return new CryptoCompareApi();
+        }
+        try {
+            if (transport == null) {
+                transport = (replay != null)
+                        ? ReplayTransport.open(Paths.get(replay))
+                        : RecordingTransport.open(new HttpTransport(), Paths.get(record));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        CryptoCompareApi.Builder builder = CryptoCompareApi.builder().transport(transport);
+        return (replay != null) ? builder.rateLimiter(null).build() : builder.build();
+    }
+
     @Test
     public void CoinListTest() {
-        CryptoCompareApi api = new CryptoCompareApi();
+        CryptoCompareApi api = api();
         JsonObject response = api.coinList();
 
         assertTrue(response.get("Response").getAsString().equals("Success"));
@@ -19,7 +56,7 @@ public class CryptoCompareApiTest {
 
     @Test
     public void PriceTest() {
-        CryptoCompareApi api = new CryptoCompareApi();
+        CryptoCompareApi api = api();
 
         // Test 1
         JsonObject basicResponse = api.price(
@@ -70,7 +107,7 @@ public class CryptoCompareApiTest {
 
     @Test
     public void PriceMultiTest() {
-        CryptoCompareApi api = new CryptoCompareApi();
+        CryptoCompareApi api = api();
 
         // Test 1
         JsonObject basicResponse = api.priceMulti(
@@ -152,7 +189,7 @@ public class CryptoCompareApiTest {
 
     @Test
     public void PriceMultiFullTest() {
-        CryptoCompareApi api = new CryptoCompareApi();
+        CryptoCompareApi api = api();
 
         // Test 1
         JsonObject basicResponse = api.priceMultiFull(
@@ -254,7 +291,7 @@ public class CryptoCompareApiTest {
 
     @Test
     public void GenerateAvgTest() {
-        CryptoCompareApi api = new CryptoCompareApi();
+        CryptoCompareApi api = api();
 
         // Test 1
         JsonObject basicResponse = api.generateAvg(
@@ -314,7 +351,7 @@ public class CryptoCompareApiTest {
 
     @Test
     public void DayAvgTest() {
-        CryptoCompareApi api = new CryptoCompareApi();
+        CryptoCompareApi api = api();
 
         // Test 1
         JsonObject basicResponse = api.dayAvg(
@@ -445,7 +482,7 @@ public class CryptoCompareApiTest {
 
     @Test
     public void PriceHistoricalTest() {
-        CryptoCompareApi api = new CryptoCompareApi();
+        CryptoCompareApi api = api();
 
         // Test 1
         JsonObject basicResponse = api.priceHistorical(
@@ -462,7 +499,7 @@ public class CryptoCompareApiTest {
 
     @Test
     public void CoinSnapshotTest() {
-        CryptoCompareApi api = new CryptoCompareApi();
+        CryptoCompareApi api = api();
 
         // Test 1
         JsonObject btcSnapshotResponse = api.coinSnapshot(
@@ -487,7 +524,7 @@ public class CryptoCompareApiTest {
 
     @Test
     public void CoinSnapshotFullByIdTest() {
-        CryptoCompareApi api = new CryptoCompareApi();
+        CryptoCompareApi api = api();
 
         // Test 1
         JsonObject btcResponse = api.coinSnapshotFullById(1182);
@@ -513,7 +550,7 @@ public class CryptoCompareApiTest {
 
     @Test
     public void SocialStats() {
-        CryptoCompareApi api = new CryptoCompareApi();
+        CryptoCompareApi api = api();
 
         // Test 1
         JsonObject btcResponse = api.socialStats(1182);
@@ -548,7 +585,7 @@ public class CryptoCompareApiTest {
 
     @Test
     public void HistoMinuteTest() {
-        CryptoCompareApi api = new CryptoCompareApi();
+        CryptoCompareApi api = api();
 
         // Test 1
         JsonObject btcUsdHistoMinute = api.histoMinute(
@@ -606,7 +643,7 @@ public class CryptoCompareApiTest {
 
     @Test
     public void HistoHourTest() {
-        CryptoCompareApi api = new CryptoCompareApi();
+        CryptoCompareApi api = api();
 
         // Test 1
         JsonObject btcUsdHistoHour = api.histoHour(
@@ -665,7 +702,7 @@ public class CryptoCompareApiTest {
 
     @Test
     public void HistoDayTest() {
-        CryptoCompareApi api = new CryptoCompareApi();
+        CryptoCompareApi api = api();
 
         // Test 1
         JsonObject btcUsdHistoDay = api.histoDay(
@@ -724,7 +761,7 @@ public class CryptoCompareApiTest {
 
     @Test
     public void MiningEquipmentTest() {
-        CryptoCompareApi api = new CryptoCompareApi();
+        CryptoCompareApi api = api();
 
         // Test 1
         JsonObject miningEquipmentResponse = api.miningEquipment();
@@ -735,7 +772,7 @@ public class CryptoCompareApiTest {
 
     @Test
     public void TopPairsTest() {
-        CryptoCompareApi api = new CryptoCompareApi();
+        CryptoCompareApi api = api();
 
         // Test 1
         JsonObject ethPairResponse = api.topPairs(
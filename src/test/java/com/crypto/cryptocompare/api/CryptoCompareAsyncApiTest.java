@@ -0,0 +1,107 @@
+package com.crypto.cryptocompare.api;
+
+import com.crypto.cryptocompare.StubServer;
+import com.crypto.cryptocompare.transport.HttpTransport;
+import com.google.gson.JsonObject;
+import org.junit.Test;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CryptoCompareAsyncApiTest {
+
+    @Test
+    public void FanOutTest() throws Exception {
+        try (StubServer server = new StubServer().respond("/pricemulti", "{\"ETH\":{\"USD\":712.5}}");
+             CryptoCompareAsyncApi asyncApi = new CryptoCompareAsyncApi(
+                     CryptoCompareApi.builder().baseUrl(server.baseUrl()).build())) {
+
+            List<CompletableFuture<JsonObject>> futures = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                futures.add(asyncApi.priceMulti("ETH", "USD", new LinkedHashMap<String, Object>()));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+
+            for (CompletableFuture<JsonObject> future : futures) {
+                assertTrue(future.get().get("ETH").getAsJsonObject().has("USD"));
+            }
+            assertEquals(50, server.requests().size());
+        }
+    }
+
+    @Test
+    public void BurstTest() throws Exception {
+        // Counted from the server side while requests are in flight
+        AtomicInteger maxThreads = new AtomicInteger();
+        try (StubServer server = new StubServer().handle("/pricemulti", exchange -> {
+                 maxThreads.accumulateAndGet(asyncThreads(), Math::max);
+                 StubServer.send(exchange, 200, "{\"ETH\":{\"USD\":712.5}}");
+             });
+             CryptoCompareAsyncApi asyncApi = new CryptoCompareAsyncApi(
+                     CryptoCompareApi.builder().baseUrl(server.baseUrl()).build())) {
+
+            List<CompletableFuture<JsonObject>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                futures.add(asyncApi.priceMulti("ETH", "USD", new LinkedHashMap<String, Object>()));
+            }
+            maxThreads.accumulateAndGet(asyncThreads(), Math::max);
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get();
+
+            assertEquals(200, server.requests().size());
+            // Waiting requests queue instead of each taking a thread; virtual threads,
+            // on Java 21+, are not counted at all
+            assertTrue("threads: " + maxThreads.get(), maxThreads.get() <= HttpTransport.DEFAULT_MAX_CONNECTIONS);
+        }
+    }
+
+    private static int asyncThreads() {
+        int count = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith(CryptoCompareAsyncApi.THREAD_NAME_PREFIX)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void PluggableExecutorTest() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        AtomicInteger submitted = new AtomicInteger();
+        Executor executor = command -> {
+            submitted.incrementAndGet();
+            pool.execute(command);
+        };
+
+        try (StubServer server = new StubServer().respond("/all/coinlist", "{\"Response\":\"Success\"}");
+             CryptoCompareAsyncApi asyncApi = new CryptoCompareAsyncApi(
+                     CryptoCompareApi.builder().baseUrl(server.baseUrl()).build(), executor)) {
+
+            assertEquals("Success", asyncApi.coinList().get().get("Response").getAsString());
+            assertEquals(1, submitted.get());
+
+            // Failures complete the future exceptionally rather than throwing
+            try {
+                asyncApi.topPairs("ETH", new LinkedHashMap<String, Object>()).get();
+                fail("Expected the 404 to fail the future");
+            } catch (ExecutionException ex) {
+                assertTrue(ex.getCause() instanceof UncheckedIOException);
+            }
+            assertEquals(2, submitted.get());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
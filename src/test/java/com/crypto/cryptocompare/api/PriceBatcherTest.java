@@ -0,0 +1,126 @@
+package com.crypto.cryptocompare.api;
+
+import com.crypto.cryptocompare.StubServer;
+import com.google.gson.JsonObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PriceBatcherTest {
+
+    /**
+     * Answers pricemulti with price = fsym length * 100 + tsym length, skipping unknown coins
+     * @return
+     */
+    private static StubServer priceMultiServer() throws Exception {
+        return new StubServer().handle("/pricemulti", exchange -> {
+            String fsyms = null;
+            String tsyms = null;
+            for (String param : exchange.getRequestURI().getRawQuery().split("&")) {
+                if (param.startsWith("fsyms=")) {
+                    fsyms = param.substring(6);
+                } else if (param.startsWith("tsyms=")) {
+                    tsyms = param.substring(6);
+                }
+            }
+
+            StringBuilder body = new StringBuilder("{");
+            for (String fsym : fsyms.split(",")) {
+                if (fsym.equals("NOPE")) {
+                    continue;
+                }
+                if (body.length() > 1) {
+                    body.append(',');
+                }
+                body.append('"').append(fsym).append("\":{");
+                String[] to = tsyms.split(",");
+                for (int i = 0; i < to.length; i++) {
+                    body.append(i > 0 ? "," : "").append('"').append(to[i]).append("\":")
+                            .append(fsym.length() * 100 + to[i].length());
+                }
+                body.append('}');
+            }
+            StubServer.send(exchange, 200, body.append('}').toString());
+        });
+    }
+
+    @Test
+    public void BatchWindowTest() throws Exception {
+        try (StubServer server = priceMultiServer();
+             CryptoCompareApi api = CryptoCompareApi.builder().baseUrl(server.baseUrl()).build();
+             PriceBatcher batcher = new PriceBatcher(api, 200, TimeUnit.MILLISECONDS, 100)) {
+
+            CompletableFuture<JsonObject> eth = batcher.price("ETH", "USD", new LinkedHashMap<String, Object>());
+            CompletableFuture<JsonObject> doge = batcher.price("DOGE", "USD,EURO", new LinkedHashMap<String, Object>());
+            CompletableFuture<JsonObject> nope = batcher.price("NOPE", "USD", new LinkedHashMap<String, Object>());
+            // Looked up the way the API spells the symbols back
+            CompletableFuture<JsonObject> lowerCase = batcher.price("eth", "usd", new LinkedHashMap<String, Object>());
+
+            JsonObject ethPrice = eth.get(5, TimeUnit.SECONDS);
+            assertEquals(303, ethPrice.get("USD").getAsInt());
+            assertFalse(ethPrice.has("EURO"));
+
+            JsonObject dogePrice = doge.get(5, TimeUnit.SECONDS);
+            assertEquals(403, dogePrice.get("USD").getAsInt());
+            assertEquals(404, dogePrice.get("EURO").getAsInt());
+
+            assertEquals("Error", nope.get(5, TimeUnit.SECONDS).get("Response").getAsString());
+            assertEquals(303, lowerCase.get(5, TimeUnit.SECONDS).get("USD").getAsInt());
+
+            assertEquals(1, server.requests().size());
+            assertEquals("/data/pricemulti?fsyms=ETH,DOGE,NOPE&tsyms=USD,EURO", server.requests().get(0));
+        }
+    }
+
+    @Test
+    public void MaxBatchSizeTest() throws Exception {
+        try (StubServer server = priceMultiServer();
+             CryptoCompareApi api = CryptoCompareApi.builder().baseUrl(server.baseUrl()).build();
+             PriceBatcher batcher = new PriceBatcher(api, 1, TimeUnit.HOURS, 2)) {
+
+            CompletableFuture<JsonObject> eth = batcher.price("ETH", "USD", new LinkedHashMap<String, Object>());
+            CompletableFuture<JsonObject> btc = batcher.price("BTC", "USD", new LinkedHashMap<String, Object>());
+
+            assertEquals(303, eth.get(5, TimeUnit.SECONDS).get("USD").getAsInt());
+            assertEquals(303, btc.get(5, TimeUnit.SECONDS).get("USD").getAsInt());
+            assertEquals(1, server.requests().size());
+        }
+    }
+
+    @Test
+    public void SplitTest() throws Exception {
+        try (StubServer server = priceMultiServer();
+             CryptoCompareApi api = CryptoCompareApi.builder().baseUrl(server.baseUrl()).build();
+             PriceBatcher batcher = new PriceBatcher(api, 200, TimeUnit.MILLISECONDS, 1000)) {
+
+            List<CompletableFuture<JsonObject>> futures = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                futures.add(batcher.price("C" + (1000 + i), "USD", new LinkedHashMap<String, Object>()));
+            }
+
+            LinkedHashMap<String, Object> params = new LinkedHashMap<>();
+            params.put("e", "Kraken");
+            CompletableFuture<JsonObject> kraken = batcher.price("ETH", "USD", params);
+
+            for (CompletableFuture<JsonObject> future : futures) {
+                assertEquals(503, future.get(5, TimeUnit.SECONDS).get("USD").getAsInt());
+            }
+            assertEquals(303, kraken.get(5, TimeUnit.SECONDS).get("USD").getAsInt());
+
+            // 5 character symbols: 50 fit in 300 characters, plus the Kraken group
+            assertEquals(3, server.requests().size());
+            for (String request : server.requests()) {
+                String fsyms = request.substring(request.indexOf("fsyms=") + 6, request.indexOf("&tsyms"));
+                assertTrue(fsyms.length() <= PriceBatcher.MAX_FSYMS_LENGTH);
+            }
+        }
+    }
+}
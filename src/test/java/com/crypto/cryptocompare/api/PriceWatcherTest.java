@@ -0,0 +1,265 @@
+package com.crypto.cryptocompare.api;
+
+import com.crypto.cryptocompare.StubServer;
+import com.crypto.cryptocompare.model.CurrencyPair;
+import com.crypto.cryptocompare.ratelimit.RateLimiter;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PriceWatcherTest {
+
+    /**
+     * Answers pricemulti from a map of FSYM/TSYM to price, leaving out pairs it does not know
+     * @param prices
+     * @return
+     */
+    private static StubServer priceMultiServer(Map<String, Double> prices) throws Exception {
+        return new StubServer().handle("/pricemulti", exchange -> {
+            String fsyms = null;
+            String tsyms = null;
+            for (String param : exchange.getRequestURI().getRawQuery().split("&")) {
+                if (param.startsWith("fsyms=")) {
+                    fsyms = param.substring(6);
+                } else if (param.startsWith("tsyms=")) {
+                    tsyms = param.substring(6);
+                }
+            }
+
+            StringBuilder body = new StringBuilder("{");
+            for (String fsym : fsyms.split(",")) {
+                body.append(body.length() > 1 ? "," : "").append('"').append(fsym).append("\":{");
+                boolean first = true;
+                for (String tsym : tsyms.split(",")) {
+                    Double price = prices.get(fsym + "/" + tsym);
+                    if (price != null) {
+                        body.append(first ? "" : ",").append('"').append(tsym).append("\":").append(price);
+                        first = false;
+                    }
+                }
+                body.append('}');
+            }
+            StubServer.send(exchange, 200, body.append('}').toString());
+        });
+    }
+
+    @Test
+    public void MergeTest() throws Exception {
+        Map<String, Double> prices = new ConcurrentHashMap<>();
+        prices.put("BTC/USD", 6500.0);
+        try (StubServer server = priceMultiServer(prices);
+             CryptoCompareApi api = CryptoCompareApi.builder().baseUrl(server.baseUrl()).build();
+             PriceWatcher watcher = PriceWatcher.builder(api).build()) {
+
+            watcher.watch("BTC,ETH", "USD", (pair, previous, current) -> {});
+            PriceWatcher.Subscription second = watcher.watch("ETH, LTC", "USD,EUR", (pair, previous, current) -> {});
+            assertEquals(1, watcher.requestsPerPoll());
+
+            assertTrue(watcher.poll());
+            assertEquals(1, server.requests().size());
+            String query = server.requests().get(0);
+            assertTrue(query, query.contains("fsyms=BTC,ETH,LTC"));
+            assertTrue(query, query.contains("tsyms=USD,EUR"));
+
+            second.close();
+            watcher.poll();
+            query = server.requests().get(1);
+            assertTrue(query, query.contains("fsyms=BTC,ETH&") || query.endsWith("fsyms=BTC,ETH"));
+            assertTrue(query, query.contains("tsyms=USD"));
+            assertFalse(query, query.contains("EUR"));
+        }
+
+        // Over the tsyms limit the to symbols are split and each chunk only asks for the
+        // from symbols that need it
+        List<PriceWatcher.Subscription> subscriptions = new ArrayList<>();
+        try (CryptoCompareApi api = CryptoCompareApi.builder().baseUrl("http://localhost:1/data/").build();
+             PriceWatcher watcher = PriceWatcher.builder(api).build()) {
+            StringBuilder tsyms = new StringBuilder();
+            for (int i = 0; i < 30; i++) {
+                tsyms.append(i > 0 ? "," : "").append("T").append(100 + i);
+            }
+            subscriptions.add(watcher.watch("BTC", tsyms.toString(), (pair, previous, current) -> {}));
+            subscriptions.add(watcher.watch("ETH", "T100", (pair, previous, current) -> {}));
+            assertEquals(2, watcher.requestsPerPoll());
+        }
+    }
+
+    @Test
+    public void DeltaTest() throws Exception {
+        Map<String, Double> prices = new ConcurrentHashMap<>();
+        prices.put("BTC/USD", 6500.0);
+        prices.put("ETH/USD", 470.0);
+        try (StubServer server = priceMultiServer(prices);
+             CryptoCompareApi api = CryptoCompareApi.builder().baseUrl(server.baseUrl()).build();
+             PriceWatcher watcher = PriceWatcher.builder(api).threshold(0.01).build()) {
+
+            List<String> changes = Collections.synchronizedList(new ArrayList<>());
+            PriceWatcher.Subscription subscription = watcher.watch("BTC,ETH,XMR", "USD",
+                    (pair, previous, current) -> changes.add(pair + " " + previous + " -> " + current));
+            List<CurrencyPair> anyChange = new ArrayList<>();
+            watcher.watch("BTC", "USD", 0, (pair, previous, current) -> anyChange.add(pair));
+
+            watcher.poll();
+            assertEquals(2, changes.size());
+            assertTrue(changes.contains("BTC/USD NaN -> 6500.0"));
+            assertEquals(1, anyChange.size());
+
+            // Nothing moved
+            watcher.poll();
+            assertEquals(2, changes.size());
+            assertEquals(1, anyChange.size());
+
+            // Under one percent: only the zero threshold subscription hears about it
+            prices.put("BTC/USD", 6550.0);
+            watcher.poll();
+            assertEquals(2, changes.size());
+            assertEquals(2, anyChange.size());
+
+            // Moves add up against the price last reported
+            prices.put("BTC/USD", 6570.0);
+            watcher.poll();
+            assertEquals(3, changes.size());
+            assertEquals("BTC/USD 6500.0 -> 6570.0", changes.get(2));
+            assertEquals(6570.0, subscription.price("BTC", "USD"), 0);
+            assertTrue(Double.isNaN(subscription.price("XMR", "USD")));
+        }
+    }
+
+    @Test
+    public void CaseTest() throws Exception {
+        Map<String, Double> prices = new ConcurrentHashMap<>();
+        prices.put("ETH/USD", 470.0);
+        try (StubServer server = priceMultiServer(prices);
+             CryptoCompareApi api = CryptoCompareApi.builder().baseUrl(server.baseUrl()).build();
+             PriceWatcher watcher = PriceWatcher.builder(api).build()) {
+
+            List<CurrencyPair> changes = new ArrayList<>();
+            PriceWatcher.Subscription lowerCase = watcher.watch("eth", "usd", (pair, previous, current) -> changes.add(pair));
+            watcher.watch("ETH", "USD", (pair, previous, current) -> changes.add(pair));
+            assertEquals(1, watcher.requestsPerPoll());
+
+            assertTrue(watcher.poll());
+            assertTrue(server.requests().get(0), server.requests().get(0).contains("fsyms=ETH&"));
+            assertEquals(2, changes.size());
+            assertEquals(changes.get(0), changes.get(1));
+            assertEquals(470.0, lowerCase.price("eth", "usd"), 0);
+        }
+    }
+
+    @Test
+    public void FailureTest() throws Exception {
+        try (StubServer server = new StubServer().handle("/pricemulti", exchange -> StubServer.send(exchange, 200,
+                     "{\"Response\":\"Error\",\"Message\":\"fsyms param seems to be missing.\"}"));
+             CryptoCompareApi api = CryptoCompareApi.builder().baseUrl(server.baseUrl()).build();
+             PriceWatcher watcher = PriceWatcher.builder(api)
+                     .interval(1, TimeUnit.SECONDS)
+                     .maxInterval(3, TimeUnit.SECONDS)
+                     .build()) {
+
+            List<RuntimeException> failures = new ArrayList<>();
+            watcher.watch("BTC", "USD", new PriceListener() {
+                @Override
+                public void onPriceChange(CurrencyPair pair, double previous, double current) {}
+
+                @Override
+                public void onFailure(RuntimeException error) {
+                    failures.add(error);
+                }
+            });
+
+            assertFalse(watcher.poll());
+            assertEquals(1, failures.size());
+            assertEquals(2, watcher.currentInterval(TimeUnit.SECONDS));
+            watcher.poll();
+            assertEquals(3, watcher.currentInterval(TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void PartialFailureTest() throws Exception {
+        // The thirty to symbols take two requests; the one with the first twenty fails
+        StringBuilder tsyms = new StringBuilder();
+        for (int i = 0; i < 30; i++) {
+            tsyms.append(i > 0 ? "," : "").append("T").append(100 + i);
+        }
+        try (StubServer server = new StubServer().handle("/pricemulti", exchange -> StubServer.send(exchange, 200,
+                     exchange.getRequestURI().getRawQuery().contains("T100")
+                             ? "{\"Response\":\"Error\",\"Message\":\"tsyms param is invalid.\"}"
+                             : "{\"BTC\":{\"T125\":1.5},\"ETH\":{\"T125\":2.5}}"));
+             CryptoCompareApi api = CryptoCompareApi.builder().baseUrl(server.baseUrl()).build();
+             PriceWatcher watcher = PriceWatcher.builder(api).build()) {
+
+            List<String> failed = new ArrayList<>();
+            watcher.watch("BTC", tsyms.toString(), failureListener(failed, "BTC"));
+            watcher.watch("ETH", "T125", failureListener(failed, "ETH"));
+            watcher.watch("ETH", "T100", failureListener(failed, "ETH/T100"));
+            assertEquals(2, watcher.requestsPerPoll());
+
+            assertFalse(watcher.poll());
+            assertEquals(2, failed.size());
+            assertTrue(failed.contains("BTC"));
+            assertTrue(failed.contains("ETH/T100"));
+        }
+    }
+
+    private static PriceListener failureListener(List<String> failed, String name) {
+        return new PriceListener() {
+            @Override
+            public void onPriceChange(CurrencyPair pair, double previous, double current) {}
+
+            @Override
+            public void onFailure(RuntimeException error) {
+                failed.add(name);
+            }
+        };
+    }
+
+    @Test
+    public void AdaptiveIntervalTest() {
+        long base = 10;
+        long max = 100;
+        assertEquals(10, PriceWatcher.nextInterval(10, base, max, true, 15, 3));
+        assertEquals(20, PriceWatcher.nextInterval(10, base, max, true, 5, 3));
+        assertEquals(80, PriceWatcher.nextInterval(40, base, max, true, 0, 3));
+        assertEquals(100, PriceWatcher.nextInterval(80, base, max, true, 0, 3));
+        assertEquals(100, PriceWatcher.nextInterval(100, base, max, false, 15, 1));
+        assertEquals(50, PriceWatcher.nextInterval(100, base, max, true, 15, 1));
+        assertEquals(10, PriceWatcher.nextInterval(15, base, max, true, 15, 1));
+    }
+
+    @Test
+    public void ScheduleTest() throws Exception {
+        Map<String, Double> prices = new ConcurrentHashMap<>();
+        prices.put("BTC/USD", 6500.0);
+        // A single permit a minute: after the first poll the budget is gone
+        RateLimiter limiter = RateLimiter.defaults().limit(Endpoint.Host.MIN_API, 1, 1, TimeUnit.MINUTES);
+        try (StubServer server = priceMultiServer(prices);
+             CryptoCompareApi api = CryptoCompareApi.builder().baseUrl(server.baseUrl()).rateLimiter(limiter).build();
+             PriceWatcher watcher = PriceWatcher.builder(api)
+                     .interval(50, TimeUnit.MILLISECONDS)
+                     .maxInterval(1, TimeUnit.HOURS)
+                     .build()) {
+
+            CountDownLatch seen = new CountDownLatch(1);
+            watcher.watch("BTC", "USD", (pair, previous, current) -> seen.countDown());
+            watcher.start();
+
+            assertTrue(seen.await(5, TimeUnit.SECONDS));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (watcher.currentInterval(TimeUnit.MILLISECONDS) == 50 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(100, watcher.currentInterval(TimeUnit.MILLISECONDS));
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.crypto.cryptocompare.cache;
+
+import com.crypto.cryptocompare.StubServer;
+import com.crypto.cryptocompare.api.CryptoCompareApi;
+import com.google.gson.JsonObject;
+import org.junit.Test;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RequestCoalescerTest {
+
+    private static final int CALLERS = 50;
+
+    @Test
+    public void CoalesceTest() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RequestCoalescer coalescer = new RequestCoalescer();
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+        try (StubServer server = new StubServer().handle("/pricemulti", exchange -> {
+            await(release);
+            StubServer.send(exchange, 200, "{\"BTC\":{\"USD\":15000},\"ETH\":{\"USD\":700}}");
+        });
+             CryptoCompareApi api = CryptoCompareApi.builder()
+                     .baseUrl(server.baseUrl())
+                     .coalescer(coalescer)
+                     .build()) {
+
+            List<Future<JsonObject>> futures = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                futures.add(executor.submit(() -> api.priceMulti("BTC,ETH", "USD", new LinkedHashMap<String, Object>())));
+            }
+            waitForWaiters(coalescer, CALLERS - 1);
+            release.countDown();
+
+            JsonObject first = futures.get(0).get();
+            for (Future<JsonObject> future : futures) {
+                assertSame(first, future.get());
+            }
+
+            assertEquals(1, server.requests().size());
+            assertEquals(1, coalescer.executedCount());
+            assertEquals(CALLERS - 1, coalescer.coalescedCount());
+            assertEquals(0, coalescer.inFlightCount());
+
+            // Once done, the next call goes to the API again
+            api.priceMulti("BTC,ETH", "USD", new LinkedHashMap<String, Object>());
+            assertEquals(2, server.requests().size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void FailureTest() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RequestCoalescer coalescer = new RequestCoalescer();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try (StubServer server = new StubServer().handle("/pricemulti", exchange -> {
+            await(release);
+            StubServer.send(exchange, 500, "oops");
+        });
+             CryptoCompareApi api = CryptoCompareApi.builder()
+                     .baseUrl(server.baseUrl())
+                     .coalescer(coalescer)
+                     .build()) {
+
+            List<Future<JsonObject>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(() -> api.priceMulti("BTC", "USD", new LinkedHashMap<String, Object>())));
+            }
+            waitForWaiters(coalescer, 3);
+            release.countDown();
+
+            for (Future<JsonObject> future : futures) {
+                try {
+                    future.get();
+                    fail("Expected every caller to see the failure");
+                } catch (ExecutionException ex) {
+                    assertTrue(ex.getCause() instanceof UncheckedIOException);
+                }
+            }
+            assertEquals(0, coalescer.inFlightCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void waitForWaiters(RequestCoalescer coalescer, int waiters) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (coalescer.coalescedCount() < waiters && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
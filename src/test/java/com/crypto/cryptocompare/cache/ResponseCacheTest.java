@@ -0,0 +1,138 @@
+package com.crypto.cryptocompare.cache;
+
+import com.crypto.cryptocompare.StubServer;
+import com.crypto.cryptocompare.api.CryptoCompareApi;
+import com.crypto.cryptocompare.api.Endpoint;
+import com.crypto.cryptocompare.transport.ResponseDecoders;
+import com.google.gson.JsonObject;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ResponseCacheTest {
+
+    private static final String BASE = "https://min-api.cryptocompare.com/data/";
+
+    /**
+     * 2018-01-03 12:00:30 UTC
+     */
+    private static final long NOW_MILLIS = 1514980830000L;
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Test
+    public void TtlTest() {
+        ResponseCache cache = this.newCache(100);
+        RequestKey price = key(Endpoint.PRICE, BASE + "price?fsym=ETH&tsyms=USD");
+        RequestKey coinList = key(Endpoint.COIN_LIST, BASE + "all/coinlist");
+
+        cache.put(price, "price");
+        cache.put(coinList, "coinList");
+        assertEquals("price", cache.get(price));
+
+        // Prices expire after a second, reference data lives on
+        this.advance(2, TimeUnit.SECONDS);
+        assertNull(cache.get(price));
+        assertEquals("coinList", cache.get(coinList));
+
+        this.advance(2, TimeUnit.HOURS);
+        assertNull(cache.get(coinList));
+
+        assertEquals(2, cache.hitCount());
+        assertEquals(2, cache.missCount());
+        assertEquals(2, cache.expirationCount());
+    }
+
+    @Test
+    public void ClosedBarsTest() {
+        ResponseCache cache = this.newCache(100);
+
+        // toTs on a previous day: every bar is final
+        RequestKey closed = key(Endpoint.HISTO_DAY, BASE + "histoday?fsym=BTC&tsym=USD&toTs=1514764800");
+        // no toTs: the last bar is still forming
+        RequestKey open = key(Endpoint.HISTO_DAY, BASE + "histoday?fsym=BTC&tsym=USD&limit=30");
+
+        cache.put(closed, "closed");
+        cache.put(open, "open");
+
+        this.advance(3650, TimeUnit.DAYS);
+        assertEquals("closed", cache.get(closed));
+        assertNull(cache.get(open));
+    }
+
+    @Test
+    public void NormalizedKeyTest() {
+        ResponseCache cache = this.newCache(100);
+        cache.put(key(Endpoint.HISTO_MINUTE, BASE + "histominute?fsym=BTC&tsym=USD&limit=60&e=CCCAGG"), "bars");
+
+        assertEquals("bars", cache.get(key(Endpoint.HISTO_MINUTE, BASE + "histominute?fsym=BTC&e=CCCAGG&tsym=USD&limit=60")));
+        // Same url decoded differently is a different entry
+        assertNull(cache.get(new RequestKey(Endpoint.HISTO_MINUTE, BASE + "histominute?fsym=BTC&tsym=USD&limit=60&e=CCCAGG", body -> null)));
+    }
+
+    @Test
+    public void LruEvictionTest() {
+        ResponseCache cache = this.newCache(10);
+        for (int i = 0; i < 10; i++) {
+            cache.put(key(Endpoint.COIN_SNAPSHOT_FULL_BY_ID, BASE + "coinsnapshotfullbyid?id=" + i), i);
+            this.advance(1, TimeUnit.MILLISECONDS);
+        }
+
+        // Touch the oldest entries so the next ones become the least recently used
+        assertNotNull(cache.get(key(Endpoint.COIN_SNAPSHOT_FULL_BY_ID, BASE + "coinsnapshotfullbyid?id=0")));
+        assertNotNull(cache.get(key(Endpoint.COIN_SNAPSHOT_FULL_BY_ID, BASE + "coinsnapshotfullbyid?id=1")));
+        this.advance(1, TimeUnit.MILLISECONDS);
+
+        cache.put(key(Endpoint.COIN_SNAPSHOT_FULL_BY_ID, BASE + "coinsnapshotfullbyid?id=10"), 10);
+
+        assertEquals(9, cache.size());
+        assertEquals(2, cache.evictionCount());
+        assertNotNull(cache.get(key(Endpoint.COIN_SNAPSHOT_FULL_BY_ID, BASE + "coinsnapshotfullbyid?id=0")));
+        assertNotNull(cache.get(key(Endpoint.COIN_SNAPSHOT_FULL_BY_ID, BASE + "coinsnapshotfullbyid?id=1")));
+        assertNull(cache.get(key(Endpoint.COIN_SNAPSHOT_FULL_BY_ID, BASE + "coinsnapshotfullbyid?id=2")));
+        assertNull(cache.get(key(Endpoint.COIN_SNAPSHOT_FULL_BY_ID, BASE + "coinsnapshotfullbyid?id=3")));
+        assertNotNull(cache.get(key(Endpoint.COIN_SNAPSHOT_FULL_BY_ID, BASE + "coinsnapshotfullbyid?id=10")));
+    }
+
+    @Test
+    public void ApiCacheTest() throws IOException {
+        try (StubServer server = new StubServer()
+                .respond("/all/coinlist", "{\"Response\":\"Success\",\"Data\":{}}")
+                .respond("/histominute", "{\"Response\":\"Error\",\"Message\":\"rate limit\"}");
+             CryptoCompareApi api = CryptoCompareApi.builder()
+                     .baseUrl(server.baseUrl())
+                     .cache(new ResponseCache(100))
+                     .build()) {
+
+            JsonObject first = api.coinList();
+            JsonObject second = api.coinList();
+            assertSame(first, second);
+
+            // Error responses are never cached
+            api.histoMinute("BTC", "USD", new LinkedHashMap<String, Object>());
+            api.histoMinute("BTC", "USD", new LinkedHashMap<String, Object>());
+
+            assertEquals(3, server.requests().size());
+        }
+    }
+
+    private ResponseCache newCache(int maxEntries) {
+        return new ResponseCache(maxEntries, CachePolicy.defaults(), this.nanos::get, () -> NOW_MILLIS);
+    }
+
+    private void advance(long duration, TimeUnit unit) {
+        this.nanos.addAndGet(unit.toNanos(duration));
+    }
+
+    private static RequestKey key(Endpoint endpoint, String url) {
+        return new RequestKey(endpoint, url, ResponseDecoders.JSON_OBJECT);
+    }
+}
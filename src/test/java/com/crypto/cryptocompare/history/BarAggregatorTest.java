@@ -0,0 +1,171 @@
+package com.crypto.cryptocompare.history;
+
+import com.crypto.cryptocompare.model.OhlcvSeries;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BarAggregatorTest {
+
+    private static final long START = 1500000000L - 1500000000L % 86400;
+
+    /**
+     * Three days of random minute bars starting at 00:00 UTC, with a gap of an hour and a half
+     */
+    private static OhlcvSeries minutes() {
+        Random random = new Random(7);
+        OhlcvSeries.Builder builder = OhlcvSeries.builder();
+        double price = 4000;
+        for (long time = START; time < START + 3 * 86400; time += 60) {
+            if (time >= START + 5 * 3600 && time < START + 6 * 3600 + 1800) {
+                continue;
+            }
+            double open = price;
+            price += random.nextGaussian();
+            double high = Math.max(open, price) + random.nextDouble();
+            double low = Math.min(open, price) - random.nextDouble();
+            double volume = random.nextDouble() * 10;
+            builder.add(time, open, high, low, price, volume, volume * (high + low) / 2);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Aggregate the slow way, scanning the source bars of each period
+     */
+    private static void assertResampled(OhlcvSeries source, OhlcvSeries resampled, long period) {
+        int i = 0;
+        for (int bar = 0; bar < resampled.size(); bar++) {
+            long time = resampled.time(bar);
+            assertEquals(time, source.time(i) / period * period);
+            double high = Double.NEGATIVE_INFINITY;
+            double low = Double.POSITIVE_INFINITY;
+            double volumeFrom = 0;
+            double volumeTo = 0;
+            int first = i;
+            for (; i < source.size() && source.time(i) < time + period; i++) {
+                high = Math.max(high, source.high(i));
+                low = Math.min(low, source.low(i));
+                volumeFrom += source.volumeFrom(i);
+                volumeTo += source.volumeTo(i);
+            }
+            assertEquals(source.open(first), resampled.open(bar), 0);
+            assertEquals(high, resampled.high(bar), 0);
+            assertEquals(low, resampled.low(bar), 0);
+            assertEquals(source.close(i - 1), resampled.close(bar), 0);
+            assertEquals(volumeFrom, resampled.volumeFrom(bar), 1e-9);
+            assertEquals(volumeTo, resampled.volumeTo(bar), 1e-6);
+        }
+        assertEquals(source.size(), i);
+    }
+
+    @Test
+    public void ResampleTest() {
+        OhlcvSeries minutes = minutes();
+
+        OhlcvSeries hours = BarAggregator.resample(minutes, Resolution.HOUR);
+        // The hour with no minutes at all is left out
+        assertEquals(3 * 24 - 1, hours.size());
+        assertEquals(START, hours.timeFrom());
+        assertEquals(START + 71 * 3600, hours.timeTo());
+        assertResampled(minutes, hours, 3600);
+
+        OhlcvSeries days = BarAggregator.resample(minutes, Resolution.DAY);
+        assertEquals(3, days.size());
+        assertResampled(minutes, days, 86400);
+
+        // Days built from the hours match days built from the minutes
+        OhlcvSeries chained = BarAggregator.resample(hours, Resolution.DAY);
+        for (int i = 0; i < days.size(); i++) {
+            assertEquals(days.time(i), chained.time(i));
+            assertEquals(days.open(i), chained.open(i), 0);
+            assertEquals(days.high(i), chained.high(i), 0);
+            assertEquals(days.low(i), chained.low(i), 0);
+            assertEquals(days.close(i), chained.close(i), 0);
+            assertEquals(days.volumeTo(i), chained.volumeTo(i), 1e-6);
+        }
+
+        assertEquals(0, BarAggregator.resample(OhlcvSeries.EMPTY, Resolution.HOUR).size());
+    }
+
+    @Test
+    public void LiveTest() {
+        List<double[]> closed = new ArrayList<>();
+        BarAggregator aggregator = new BarAggregator(Resolution.HOUR,
+                (time, open, high, low, close, volumeFrom, volumeTo) -> closed.add(new double[]{time, open, high, low, close, volumeFrom}));
+
+        assertFalse(aggregator.add(START, 10, 12, 9, 11, 1, 11));
+        // The forming minute polled again replaces the first version
+        assertFalse(aggregator.add(START + 60, 11, 20, 1, 15, 5, 75));
+        assertEquals(20, aggregator.high(), 0);
+        assertFalse(aggregator.add(START + 60, 11, 13, 10, 12, 2, 24));
+        assertEquals(START, aggregator.time());
+        assertEquals(10, aggregator.open(), 0);
+        assertEquals(13, aggregator.high(), 0);
+        assertEquals(9, aggregator.low(), 0);
+        assertEquals(12, aggregator.close(), 0);
+        assertEquals(3, aggregator.volumeFrom(), 0);
+        assertEquals(35, aggregator.volumeTo(), 0);
+
+        // Replacing the only minute of a bar also replaces its open
+        assertTrue(aggregator.add(START + 3600, 12, 12, 12, 12, 0, 0));
+        assertFalse(aggregator.add(START + 3600, 14, 15, 13, 14, 1, 14));
+        assertEquals(14, aggregator.open(), 0);
+        assertEquals(1, closed.size());
+        assertEquals(START, closed.get(0)[0], 0);
+        assertEquals(13, closed.get(0)[2], 0);
+
+        try {
+            aggregator.add(START + 1800, 1, 1, 1, 1, 1, 1);
+            fail("Expected an older bar to be rejected");
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+
+        assertFalse(aggregator.advanceTo(START + 2 * 3600 - 1));
+        assertTrue(aggregator.advanceTo(START + 2 * 3600));
+        assertFalse(aggregator.hasBar());
+        assertEquals(2, closed.size());
+        assertFalse(aggregator.flush());
+    }
+
+    @Test
+    public void ClosedBarTest() {
+        List<double[]> closed = new ArrayList<>();
+        BarAggregator aggregator = new BarAggregator(Resolution.HOUR,
+                (time, open, high, low, close, volumeFrom, volumeTo) -> closed.add(new double[]{time, open, high, low, close, volumeFrom}));
+
+        aggregator.add(START, 10, 12, 9, 11, 1, 11);
+        aggregator.add(START + 3540, 11, 13, 10, 12, 2, 24);
+        assertTrue(aggregator.advanceTo(START + 3600));
+
+        // A late update of the last minute must not open a second bar for the closed hour
+        try {
+            aggregator.add(START + 3540, 11, 14, 10, 13, 3, 39);
+            fail("Expected a bar of a closed period to be rejected");
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+        try {
+            aggregator.add(START + 1800, 1, 1, 1, 1, 1, 1);
+            fail("Expected an older bar to be rejected");
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+        assertFalse(aggregator.hasBar());
+        assertFalse(aggregator.flush());
+
+        assertFalse(aggregator.add(START + 3600, 12, 12, 12, 12, 0, 0));
+        assertTrue(aggregator.flush());
+        assertEquals(2, closed.size());
+        assertEquals(START, closed.get(0)[0], 0);
+        assertEquals(START + 3600, closed.get(1)[0], 0);
+    }
+}
@@ -0,0 +1,114 @@
+package com.crypto.cryptocompare.history;
+
+import com.crypto.cryptocompare.StubServer;
+import com.crypto.cryptocompare.api.CryptoCompareApi;
+import com.crypto.cryptocompare.model.CurrencyPair;
+import com.crypto.cryptocompare.model.OhlcvSeries;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HistoryBackfillTest {
+
+    private static final long START = 1500000000L - 1500000000L % 60;
+
+    /**
+     * Serves histominute like the API: limit + 1 bars ending at toTs, with close = time.
+     * One bar is missing, and BAD/USD always fails.
+     */
+    private static StubServer histoServer() throws Exception {
+        return new StubServer().handle("/histominute", exchange -> {
+            Map<String, String> query = new ConcurrentHashMap<>();
+            for (String param : exchange.getRequestURI().getRawQuery().split("&")) {
+                String[] pair = param.split("=");
+                query.put(pair[0], pair[1]);
+            }
+            if (query.get("fsym").equals("BAD")) {
+                StubServer.send(exchange, 500, "{}");
+                return;
+            }
+
+            long toTs = Long.parseLong(query.get("toTs")) / 60 * 60;
+            long limit = Long.parseLong(query.get("limit"));
+            StringBuilder body = new StringBuilder("{\"Response\":\"Success\",\"Data\":[");
+            for (long time = toTs - limit * 60; time <= toTs; time += 60) {
+                if (time == START + 60 * 100) {
+                    continue;
+                }
+                if (body.charAt(body.length() - 1) != '[') {
+                    body.append(',');
+                }
+                body.append("{\"time\":").append(time).append(",\"close\":").append(time)
+                        .append(",\"high\":").append(time).append(",\"low\":").append(time)
+                        .append(",\"open\":").append(time).append(",\"volumefrom\":1,\"volumeto\":1}");
+            }
+            StubServer.send(exchange, 200, body.append("]}").toString());
+        });
+    }
+
+    @Test
+    public void BackfillTest() throws Exception {
+        Path checkpoint = Files.createTempFile("backfill", ".checkpoint");
+        try (StubServer server = histoServer();
+             CryptoCompareApi api = CryptoCompareApi.builder().baseUrl(server.baseUrl()).build()) {
+
+            HistoryBackfill backfill = HistoryBackfill.builder(api)
+                    .pair("BTC", "USD")
+                    .pair("ETH", "USD")
+                    .pair("BAD", "USD")
+                    .resolution(Resolution.MINUTE)
+                    .range(START, START + 60 * 4999)
+                    .pageSize(2000)
+                    .checkpoint(checkpoint)
+                    .build();
+            assertEquals(3, backfill.pages().size());
+
+            Map<CurrencyPair, OhlcvSeries> results = new ConcurrentHashMap<>();
+            List<CurrencyPair> failures = new ArrayList<>();
+            BackfillProgress progress = backfill.run(new BackfillListener() {
+                @Override
+                public void onSeries(CurrencyPair pair, OhlcvSeries series) {
+                    results.put(pair, series);
+                }
+
+                @Override
+                public void onFailure(CurrencyPair pair, RuntimeException error) {
+                    failures.add(pair);
+                }
+            });
+
+            assertEquals(2, progress.completedPairs());
+            assertEquals(1, progress.failedPairs());
+            assertEquals(new CurrencyPair("BAD", "USD"), failures.get(0));
+
+            OhlcvSeries btc = results.get(new CurrencyPair("BTC", "USD"));
+            assertEquals(5000, btc.size());
+            for (int i = 0; i < btc.size(); i++) {
+                assertEquals(START + 60 * i, btc.time(i));
+            }
+            // Missing bar filled with the previous close
+            assertEquals(START + 60 * 99, btc.close(100), 0);
+            assertEquals(0, btc.volumeFrom(100), 0);
+
+            // Resuming only retries the pair that failed
+            int requests = server.requests().size();
+            BackfillProgress resumed = backfill.run(new BackfillListener() {
+                @Override
+                public void onSeries(CurrencyPair pair, OhlcvSeries series) {}
+            });
+            assertEquals(2, resumed.skippedPairs());
+            assertEquals(3, resumed.totalPages());
+            assertTrue(server.requests().size() - requests <= 3);
+        } finally {
+            Files.deleteIfExists(checkpoint);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.crypto.cryptocompare.history;
+
+import com.crypto.cryptocompare.StubServer;
+import com.crypto.cryptocompare.api.CryptoCompareApi;
+import com.crypto.cryptocompare.model.OhlcvSeries;
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class HistoryPublisherTest {
+
+    private static final long START = 1500000000L - 1500000000L % 60;
+
+    /**
+     * Serves histominute like the API: limit + 1 bars ending at toTs, with close = time.
+     * BAD/USD always fails.
+     */
+    private static StubServer histoServer() throws Exception {
+        return new StubServer().handle("/histominute", exchange -> {
+            Map<String, String> query = new ConcurrentHashMap<>();
+            for (String param : exchange.getRequestURI().getRawQuery().split("&")) {
+                String[] pair = param.split("=");
+                query.put(pair[0], pair[1]);
+            }
+            if (query.get("fsym").equals("BAD")) {
+                StubServer.send(exchange, 500, "{}");
+                return;
+            }
+
+            long toTs = Long.parseLong(query.get("toTs")) / 60 * 60;
+            long limit = Long.parseLong(query.get("limit"));
+            StringBuilder body = new StringBuilder("{\"Response\":\"Success\",\"Data\":[");
+            for (long time = toTs - limit * 60; time <= toTs; time += 60) {
+                if (body.charAt(body.length() - 1) != '[') {
+                    body.append(',');
+                }
+                body.append("{\"time\":").append(time).append(",\"close\":").append(time)
+                        .append(",\"high\":").append(time).append(",\"low\":").append(time)
+                        .append(",\"open\":").append(time).append(",\"volumefrom\":1,\"volumeto\":1}");
+            }
+            StubServer.send(exchange, 200, body.append("]}").toString());
+        });
+    }
+
+    /**
+     * Queues what it receives and leaves requesting to the test
+     */
+    private static class Collector implements Subscriber<OhlcvSeries> {
+
+        private final BlockingQueue<OhlcvSeries> pages = new LinkedBlockingQueue<>();
+
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        private volatile Subscription subscription;
+
+        private volatile Throwable error;
+
+        private volatile boolean completed;
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(OhlcvSeries item) {
+            this.pages.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            this.error = throwable;
+            this.done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            this.completed = true;
+            this.done.countDown();
+        }
+    }
+
+    @Test
+    public void StreamTest() throws Exception {
+        try (StubServer server = histoServer();
+             CryptoCompareApi api = CryptoCompareApi.builder().baseUrl(server.baseUrl()).build()) {
+
+            HistoryPublisher publisher = HistoryPublisher.builder(api)
+                    .pair("BTC", "USD")
+                    .resolution(Resolution.MINUTE)
+                    .range(START, START + 60 * 4999)
+                    .pageSize(2000)
+                    .prefetch(2)
+                    .build();
+            assertEquals(3, publisher.pageCount());
+
+            Collector collector = new Collector();
+            publisher.subscribe(collector);
+            collector.subscription.request(Long.MAX_VALUE);
+            assertTrue(collector.done.await(10, TimeUnit.SECONDS));
+            assertTrue(collector.completed);
+            assertEquals(3, collector.pages.size());
+
+            long expected = START;
+            for (OhlcvSeries page : collector.pages) {
+                for (int i = 0; i < page.size(); i++) {
+                    assertEquals(expected, page.time(i));
+                    assertEquals(expected, page.close(i), 0);
+                    expected += 60;
+                }
+            }
+            assertEquals(START + 60 * 5000, expected);
+            assertEquals(3, server.requests().size());
+        }
+    }
+
+    @Test
+    public void BackpressureTest() throws Exception {
+        try (StubServer server = histoServer();
+             CryptoCompareApi api = CryptoCompareApi.builder().baseUrl(server.baseUrl()).build()) {
+
+            HistoryPublisher publisher = HistoryPublisher.builder(api)
+                    .pair("BTC", "USD")
+                    .resolution(Resolution.MINUTE)
+                    .range(START, START + 60 * 9999)
+                    .pageSize(100)
+                    .prefetch(1)
+                    .build();
+            assertEquals(100, publisher.pageCount());
+
+            Collector collector = new Collector();
+            publisher.subscribe(collector);
+            Thread.sleep(100);
+            assertEquals(0, server.requests().size());
+
+            // One page asked for, at most one more fetched ahead
+            collector.subscription.request(1);
+            OhlcvSeries first = collector.pages.poll(10, TimeUnit.SECONDS);
+            assertNotNull(first);
+            assertEquals(START, first.time(0));
+            assertEquals(100, first.size());
+            Thread.sleep(200);
+            assertEquals(2, server.requests().size());
+            assertNull(collector.pages.poll());
+
+            collector.subscription.request(2);
+            assertNotNull(collector.pages.poll(10, TimeUnit.SECONDS));
+            assertNotNull(collector.pages.poll(10, TimeUnit.SECONDS));
+            Thread.sleep(200);
+            assertEquals(4, server.requests().size());
+
+            // Nothing more is fetched or sent once cancelled
+            collector.subscription.cancel();
+            collector.subscription.request(10);
+            Thread.sleep(200);
+            assertEquals(4, server.requests().size());
+            assertNull(collector.pages.poll());
+            assertEquals(1, collector.done.getCount());
+        }
+    }
+
+    @Test
+    public void ErrorTest() throws Exception {
+        try (StubServer server = histoServer();
+             CryptoCompareApi api = CryptoCompareApi.builder().baseUrl(server.baseUrl()).build()) {
+
+            Collector failing = new Collector();
+            HistoryPublisher.builder(api)
+                    .pair("BAD", "USD")
+                    .resolution(Resolution.MINUTE)
+                    .range(START, START + 60 * 4999)
+                    .build()
+                    .subscribe(failing);
+            failing.subscription.request(5);
+            assertTrue(failing.done.await(10, TimeUnit.SECONDS));
+            assertNotNull(failing.error);
+            assertTrue(failing.pages.isEmpty());
+
+            Collector invalid = new Collector();
+            HistoryPublisher.builder(api)
+                    .pair("BTC", "USD")
+                    .resolution(Resolution.MINUTE)
+                    .range(START, START + 60 * 4999)
+                    .build()
+                    .subscribe(invalid);
+            invalid.subscription.request(0);
+            assertTrue(invalid.done.await(10, TimeUnit.SECONDS));
+            assertTrue(invalid.error instanceof IllegalArgumentException);
+        }
+    }
+}
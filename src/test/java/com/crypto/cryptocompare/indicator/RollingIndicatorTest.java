@@ -0,0 +1,120 @@
+package com.crypto.cryptocompare.indicator;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RollingIndicatorTest {
+
+    private static final int WINDOW = 50;
+
+    private static double[] prices(int count) {
+        Random random = new Random(11);
+        double[] prices = new double[count];
+        double price = 4000;
+        for (int i = 0; i < count; i++) {
+            price += random.nextGaussian() * 5;
+            prices[i] = price;
+        }
+        return prices;
+    }
+
+    @Test
+    public void MovingAverageTest() {
+        double[] prices = prices(10000);
+        MovingAverage sma = new MovingAverage(WINDOW);
+        assertTrue(Double.isNaN(sma.value()));
+
+        for (int i = 0; i < prices.length; i++) {
+            double value = sma.add(prices[i]);
+            int from = Math.max(0, i - WINDOW + 1);
+            double sum = 0;
+            for (int j = from; j <= i; j++) {
+                sum += prices[j];
+            }
+            assertEquals(sum / (i - from + 1), value, 1e-9);
+            assertEquals(i >= WINDOW - 1, sma.isReady());
+        }
+
+        ExponentialMovingAverage ema = new ExponentialMovingAverage(3);
+        assertEquals(1, ema.add(1), 0);
+        assertEquals(2, ema.add(3), 0);
+        assertFalse(ema.isReady());
+        assertEquals(3, ema.add(5), 0);
+        assertTrue(ema.isReady());
+        assertEquals(3 + 0.5 * (7 - 3), ema.add(7), 1e-12);
+    }
+
+    @Test
+    public void VwapTest() {
+        double[] prices = prices(5000);
+        Random random = new Random(3);
+        double[] volumes = new double[prices.length];
+        RollingVwap vwap = new RollingVwap(WINDOW);
+        assertTrue(Double.isNaN(vwap.value()));
+
+        for (int i = 0; i < prices.length; i++) {
+            volumes[i] = (i % 7 == 0) ? 0 : random.nextDouble() * 3;
+            double value = vwap.add(prices[i], volumes[i]);
+            double turnover = 0;
+            double volume = 0;
+            for (int j = Math.max(0, i - WINDOW + 1); j <= i; j++) {
+                turnover += prices[j] * volumes[j];
+                volume += volumes[j];
+            }
+            if (volume == 0) {
+                assertTrue(Double.isNaN(value));
+            } else {
+                assertEquals(turnover / volume, value, 1e-6);
+            }
+        }
+
+        RollingVwap bars = new RollingVwap(2);
+        bars.addBar(2, 200);
+        bars.addBar(1, 130);
+        assertEquals(110, bars.value(), 1e-12);
+        bars.addBar(1, 90);
+        assertEquals(110, bars.value(), 1e-12);
+        assertEquals(2, bars.volume(), 0);
+    }
+
+    @Test
+    public void ExtremesTest() {
+        double[] prices = prices(10000);
+        RollingExtremes extremes = new RollingExtremes(WINDOW);
+        assertTrue(Double.isNaN(extremes.high()));
+
+        for (int i = 0; i < prices.length; i++) {
+            // Rounded so equal values come up and ties are covered
+            double high = Math.rint(prices[i] / 10) * 10 + 5;
+            double low = high - 10;
+            extremes.add(high, low);
+
+            double expectedHigh = Double.NEGATIVE_INFINITY;
+            double expectedLow = Double.POSITIVE_INFINITY;
+            for (int j = Math.max(0, i - WINDOW + 1); j <= i; j++) {
+                double h = Math.rint(prices[j] / 10) * 10 + 5;
+                expectedHigh = Math.max(expectedHigh, h);
+                expectedLow = Math.min(expectedLow, h - 10);
+            }
+            assertEquals(expectedHigh, extremes.high(), 0);
+            assertEquals(expectedLow, extremes.low(), 0);
+        }
+
+        RollingExtremes small = new RollingExtremes(3);
+        small.add(5);
+        small.add(1);
+        small.add(3);
+        assertEquals(2, small.sinceHigh());
+        assertEquals(1, small.sinceLow());
+        small.add(2);
+        assertEquals(3, small.high(), 0);
+        assertEquals(1, small.sinceHigh());
+        small.clear();
+        assertTrue(Double.isNaN(small.low()));
+    }
+}
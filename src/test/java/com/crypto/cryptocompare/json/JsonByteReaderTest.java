@@ -0,0 +1,133 @@
+package com.crypto.cryptocompare.json;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class JsonByteReaderTest {
+
+    @Test
+    public void NumberTest() throws IOException {
+        String[] numbers = {
+                "0", "-0", "1", "-1", "15100.5", "0.00001234", "-0.5", "1e3", "1.5E-7", "2.5e+10",
+                "123456789012345", "1234567890123456789", "0.1", "0.3", "9007199254740993",
+                "3.141592653589793238", "1e-400", "1e400", "4.9e-324"
+        };
+
+        StringBuilder sb = new StringBuilder("[");
+        for (String number : numbers) {
+            sb.append(number).append(',');
+        }
+        sb.setLength(sb.length() - 1);
+        sb.append(']');
+
+        JsonByteReader reader = reader(sb.toString());
+        reader.beginArray();
+        for (String number : numbers) {
+            assertEquals(number, Double.parseDouble(number), reader.nextDouble(), 0);
+        }
+        reader.endArray();
+    }
+
+    @Test
+    public void RandomNumberTest() throws IOException {
+        Random random = new Random(7);
+        StringBuilder sb = new StringBuilder("[");
+        double[] expected = new double[10000];
+        for (int i = 0; i < expected.length; i++) {
+            String text = (i % 2 == 0)
+                    ? Double.toString(random.nextDouble() * Math.pow(10, random.nextInt(12) - 4))
+                    : String.format(java.util.Locale.ROOT, "%.8f", random.nextDouble() * 20000);
+            expected[i] = Double.parseDouble(text);
+            sb.append(i > 0 ? "," : "").append(text);
+        }
+        sb.append(']');
+
+        JsonByteReader reader = reader(sb.toString());
+        reader.beginArray();
+        for (double value : expected) {
+            assertEquals(value, reader.nextDouble(), 0);
+        }
+        reader.endArray();
+    }
+
+    @Test
+    public void StructureTest() throws IOException {
+        JsonByteReader reader = reader("{ \"Response\" : \"Success\", \"Nested\": {\"a\":[1,{\"b\":\"}\"}],\"c\":null},"
+                + "\"Name\":\"Gold \\u20ac \\\"x\\\" \\ud83d\\ude00\", \"Flag\": true, \"Time\": 1515000060 }");
+
+        reader.beginObject();
+        reader.nextName();
+        assertTrue(reader.nameEquals("Response".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals("Success", reader.nextString());
+
+        reader.nextName();
+        assertEquals("Nested", reader.lastString());
+        reader.skipValue();
+
+        reader.nextName();
+        assertEquals("Gold \u20ac \"x\" \ud83d\ude00", reader.nextString());
+
+        reader.nextName();
+        assertTrue(reader.nextBoolean());
+
+        reader.nextName();
+        assertEquals(1515000060L, reader.nextLong());
+        assertFalse(reader.hasNext());
+        reader.endObject();
+        assertEquals(JsonType.END_OF_INPUT, reader.peek());
+    }
+
+    @Test
+    public void SmallReadsTest() throws IOException {
+        // A stream handing out one byte at a time exercises every buffer refill path
+        byte[] bytes = "{\"Data\":[{\"time\":1515000000,\"close\":15100.5}],\"Name\":\"\\u00fc\"}".getBytes(StandardCharsets.UTF_8);
+        InputStream trickle = new ByteArrayInputStream(bytes) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1));
+            }
+        };
+
+        JsonByteReader reader = new JsonByteReader(trickle);
+        reader.beginObject();
+        reader.nextName();
+        reader.beginArray();
+        reader.beginObject();
+        reader.nextName();
+        assertEquals(1515000000L, reader.nextLong());
+        reader.nextName();
+        assertEquals(15100.5, reader.nextDouble(), 0);
+        reader.endObject();
+        reader.endArray();
+        reader.nextName();
+        assertEquals("\u00fc", reader.nextString());
+        reader.endObject();
+    }
+
+    @Test
+    public void TruncatedTest() throws IOException {
+        JsonByteReader reader = reader("{\"Data\":[1,2");
+        reader.beginObject();
+        reader.nextName();
+        try {
+            reader.skipValue();
+            fail("Expected the truncated array to be rejected");
+        } catch (IOException ex) {
+            // expected
+        }
+    }
+
+    private static JsonByteReader reader(String json) {
+        return new JsonByteReader(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
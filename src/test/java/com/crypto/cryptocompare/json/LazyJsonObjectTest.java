@@ -0,0 +1,136 @@
+package com.crypto.cryptocompare.json;
+
+import com.crypto.cryptocompare.StubServer;
+import com.crypto.cryptocompare.api.CryptoCompareApi;
+import com.crypto.cryptocompare.cache.CachePolicy;
+import com.crypto.cryptocompare.cache.ResponseCache;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LazyJsonObjectTest {
+
+    /**
+     * A coin list shaped like the API's, with the given number of coins
+     * @param coins
+     * @return
+     */
+    private static String coinList(int coins) {
+        StringBuilder sb = new StringBuilder("{\"Response\":\"Success\",\"Message\":\"Coin list succesfully returned!\","
+                + "\"BaseImageUrl\":\"https://www.cryptocompare.com\",\"Data\":{");
+        for (int i = 0; i < coins; i++) {
+            sb.append(i == 0 ? "" : ",").append("\"C").append(i).append("\":{\"Id\":\"").append(1000 + i)
+                    .append("\",\"Url\":\"/coins/c").append(i).append("/overview\",\"ImageUrl\":\"/media/").append(i)
+                    .append("/c.png\",\"Name\":\"C").append(i).append("\",\"CoinName\":\"Coin \\\"").append(i)
+                    .append("\\\"\",\"Algorithm\":\"SHA256\",\"ProofType\":\"PoW\",\"SortOrder\":\"").append(i)
+                    .append("\",\"Sponsored\":false,\"Tags\":[\"a\",{\"b\":[1,2]}],\"TotalCoinSupply\":").append(i * 1.5)
+                    .append('}');
+        }
+        return sb.append("},\"Type\":100}").toString();
+    }
+
+    private static LazyJsonObject lazy(String json) throws IOException {
+        return LazyJsonObject.read(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void LookupTest() throws IOException {
+        String json = coinList(5000);
+        LazyJsonObject root = lazy(json);
+
+        assertEquals(5, root.size());
+        assertEquals("Success", root.getString("Response"));
+        assertEquals(100, root.getDouble("Type"), 0);
+        assertEquals(JsonType.OBJECT, root.type("Data"));
+        assertNull(root.type("Missing"));
+        assertEquals("Type", root.names().get(4));
+
+        LazyJsonObject data = root.getObject("Data");
+        assertSame(data, root.getObject("Data"));
+        assertEquals(5000, data.size());
+        for (int i = 0; i < 5000; i += 7) {
+            LazyJsonObject coin = data.getObject("C" + i);
+            assertEquals(1000 + i, coin.getDouble("Id"), 0);
+            assertEquals("Coin \"" + i + "\"", coin.getString("CoinName"));
+            assertEquals(i * 1.5, coin.getDouble("TotalCoinSupply"), 0);
+            assertEquals("false", coin.getString("Sponsored"));
+            assertTrue(Double.isNaN(coin.getDouble("Algorithm")));
+            assertEquals(2, coin.get("Tags").getAsJsonArray().size());
+        }
+        assertEquals("C4999", data.names().get(4999));
+        assertFalse(data.has("C5000"));
+        assertNull(data.getObject("C5000"));
+        assertNull(root.getObject("Response"));
+
+        JsonObject tree = new JsonParser().parse(json).getAsJsonObject();
+        assertEquals(tree, root.toJsonObject());
+        assertEquals(tree.get("Data").getAsJsonObject().get("C42"), data.get("C42"));
+        assertEquals(tree.get("Data").getAsJsonObject().get("C42"), new JsonParser().parse(data.getObject("C42").toString()));
+    }
+
+    @Test
+    public void CacheTest() throws IOException {
+        LazyJsonObject root = lazy(coinList(3));
+
+        // A tree and a view of the same member are cached apart, in either order
+        JsonElement tree = root.get("Data");
+        LazyJsonObject data = root.getObject("Data");
+        assertSame(tree, root.get("Data"));
+        assertSame(data, root.getObject("Data"));
+        assertEquals("1001", data.getObject("C1").getString("Id"));
+
+        LazyJsonObject coin = data.getObject("C2");
+        assertEquals(coin.toString(), data.get("C2").toString());
+        assertSame(coin, data.getObject("C2"));
+    }
+
+    @Test
+    public void NamesTest() throws IOException {
+        LazyJsonObject object = lazy(" { \"Æ€\" : 1 , \"a\\u0062c\":\"x\\ty\", \"dup\":1, \"dup\":2, \"\":null, \"n\":[] } ");
+
+        assertEquals(6, object.size());
+        assertEquals(1, object.getDouble("Æ€"), 0);
+        assertEquals("Æ€", object.names().get(0));
+        assertEquals("x\ty", object.getString("abc"));
+        assertEquals("abc", object.names().get(1));
+        // The last of duplicate names wins, as in Gson
+        assertEquals(2, object.getDouble("dup"), 0);
+        assertTrue(object.has(""));
+        assertNull(object.getString(""));
+        assertEquals(JsonType.ARRAY, object.type("n"));
+
+        try {
+            lazy("[1,2]");
+            fail("Expected an array to be rejected");
+        } catch (IOException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void ApiTest() throws Exception {
+        try (StubServer server = new StubServer().respond("/all/coinlist", coinList(3));
+             CryptoCompareApi api = CryptoCompareApi.builder()
+                     .baseUrl(server.baseUrl())
+                     .cache(new ResponseCache(100, CachePolicy.defaults()))
+                     .build()) {
+
+            LazyJsonObject coinList = api.coinListLazy();
+            assertEquals("1002", coinList.getObject("Data").getObject("C2").getString("Id"));
+            assertSame(coinList, api.coinListLazy());
+            assertEquals(1, server.requests().size());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.crypto.cryptocompare.metrics;
+
+import com.crypto.cryptocompare.StubServer;
+import com.crypto.cryptocompare.api.CryptoCompareApi;
+import com.crypto.cryptocompare.api.Endpoint;
+import com.crypto.cryptocompare.cache.ResponseCache;
+import org.junit.Test;
+
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MetricsRecorderTest {
+
+    private static final String PRICE_RESPONSE = "{\"BTC\":0.07,\"USD\":712.5,\"EUR\":650.1}";
+
+    @Test
+    public void RecorderTest() throws Exception {
+        MetricsRecorder recorder = new MetricsRecorder();
+        try (StubServer server = new StubServer()
+                .respond("/price", PRICE_RESPONSE)
+                .handle("/all/coinlist", exchange -> {
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                    StubServer.send(exchange, 200, "{\"Response\":\"Success\",\"Data\":{}}");
+                });
+             CryptoCompareApi api = CryptoCompareApi.builder()
+                     .baseUrl(server.baseUrl())
+                     .cache(new ResponseCache(100))
+                     .listener(recorder)
+                     .build()) {
+
+            for (int i = 0; i < 3; i++) {
+                api.price("ETH", "BTC,USD,EUR", new LinkedHashMap<String, Object>());
+            }
+            api.coinList();
+            try {
+                api.histoDay("BTC", "USD", new LinkedHashMap<String, Object>());
+                fail("Expected the 404 to surface");
+            } catch (UncheckedIOException ex) {
+                // expected
+            }
+        }
+
+        MetricsSnapshot snapshot = recorder.snapshot();
+
+        MetricsSnapshot.EndpointSnapshot price = snapshot.endpoint(Endpoint.PRICE);
+        assertEquals(1, price.responses());
+        assertEquals(2, price.cacheHits());
+        assertEquals(PRICE_RESPONSE.length(), price.responseBytes().sum());
+        assertTrue(price.total().max() >= price.firstByte().max());
+
+        MetricsSnapshot.EndpointSnapshot coinList = snapshot.endpoint(Endpoint.COIN_LIST);
+        assertTrue(coinList.firstByte().percentile(0.5) >= TimeUnit.MILLISECONDS.toNanos(40));
+
+        assertEquals(1, snapshot.endpoint(Endpoint.HISTO_DAY).errors());
+        assertEquals(null, snapshot.endpoint(Endpoint.TOP_PAIRS));
+
+        StringBuilder text = new StringBuilder();
+        snapshot.writeText(text);
+        assertTrue(text.toString().contains("COIN_LIST"));
+
+        StringBuilder prometheus = new StringBuilder();
+        snapshot.writePrometheus(prometheus);
+        assertTrue(prometheus.toString().contains("cryptocompare_requests_total{endpoint=\"price\"} 1\n"));
+        assertTrue(prometheus.toString().contains("cryptocompare_cache_hits_total{endpoint=\"price\"} 2\n"));
+    }
+
+    @Test
+    public void HistogramTest() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 10000; i++) {
+            histogram.record(i);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(10000, snapshot.count());
+        assertEquals(10000, snapshot.max());
+        assertEquals(5000.5, snapshot.mean(), 0.001);
+        assertEquals(5000, snapshot.percentile(0.5), 5000 * 0.125);
+        assertEquals(9900, snapshot.percentile(0.99), 9900 * 0.125);
+
+        for (long value = 0; value < 1000000; value = value * 3 + 1) {
+            assertTrue(LatencyHistogram.upperBound(LatencyHistogram.bucketOf(value)) >= value);
+        }
+    }
+}
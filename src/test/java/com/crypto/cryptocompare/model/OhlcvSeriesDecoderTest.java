@@ -0,0 +1,92 @@
+package com.crypto.cryptocompare.model;
+
+import com.crypto.cryptocompare.transport.ApiErrorException;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class OhlcvSeriesDecoderTest {
+
+    private static final String HISTO_MINUTE_RESPONSE = "{\"Response\":\"Success\",\"Type\":100,\"Aggregated\":false,"
+            + "\"Data\":["
+            + "{\"time\":1515000000,\"close\":15100.5,\"high\":15120,\"low\":15090.25,\"open\":15095,\"volumefrom\":12.5,\"volumeto\":188756.25},"
+            + "{\"time\":1515000060,\"close\":15110,\"high\":15115,\"low\":15098,\"open\":15100.5,\"volumefrom\":8.25,\"volumeto\":124650.75}"
+            + "],"
+            + "\"TimeTo\":1515000060,\"TimeFrom\":1515000000,\"FirstValueInArray\":true,"
+            + "\"ConversionType\":{\"type\":\"direct\",\"conversionSymbol\":\"\"}}";
+
+    @Test
+    public void DecodeTest() throws IOException {
+        OhlcvSeries series = decode(HISTO_MINUTE_RESPONSE);
+
+        assertEquals(2, series.size());
+        assertEquals(1515000000L, series.timeFrom());
+        assertEquals(1515000060L, series.timeTo());
+
+        assertEquals(1515000000L, series.time(0));
+        assertEquals(15095, series.open(0), 0);
+        assertEquals(15120, series.high(0), 0);
+        assertEquals(15090.25, series.low(0), 0);
+        assertEquals(15100.5, series.close(0), 0);
+        assertEquals(12.5, series.volumeFrom(0), 0);
+        assertEquals(188756.25, series.volumeTo(0), 0);
+
+        assertEquals(1515000060L, series.time()[1]);
+        assertEquals(15110, series.close()[1], 0);
+        assertEquals(2, series.close().length);
+    }
+
+    @Test
+    public void LargeSeriesTest() throws IOException {
+        StringBuilder sb = new StringBuilder("{\"Response\":\"Success\",\"Data\":[");
+        for (int i = 0; i < 2000; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"time\":").append(1515000000L + i * 60L)
+                    .append(",\"close\":").append(i)
+                    .append(",\"high\":1,\"low\":1,\"open\":1,\"volumefrom\":1,\"volumeto\":1}");
+        }
+        sb.append("]}");
+
+        OhlcvSeries series = decode(sb.toString());
+
+        assertEquals(2000, series.size());
+        assertEquals(1999, series.close(1999), 0);
+        assertEquals(1515000000L + 1999 * 60L, series.time(1999));
+    }
+
+    @Test
+    public void ErrorResponseTest() throws IOException {
+        try {
+            decode("{\"Response\":\"Error\",\"Message\":\"toTs param is not in range\",\"Type\":1,\"Data\":[]}");
+            fail("Expected the error response to be raised");
+        } catch (ApiErrorException ex) {
+            assertTrue(ex.getMessage().contains("toTs"));
+        }
+
+        // The API also sends an empty object as the data of an error
+        try {
+            decode("{\"Response\":\"Error\",\"Message\":\"Rate limit excedeed!\",\"Type\":99,\"Data\":{}}");
+            fail("Expected the error response to be raised");
+        } catch (ApiErrorException ex) {
+            assertEquals("Rate limit excedeed!", ex.getMessage());
+        }
+        try {
+            decode("{\"Data\":{},\"Response\":\"Error\",\"Message\":\"fsym is a required param.\"}");
+            fail("Expected the error response to be raised");
+        } catch (ApiErrorException ex) {
+            assertEquals("fsym is a required param.", ex.getMessage());
+        }
+    }
+
+    private static OhlcvSeries decode(String body) throws IOException {
+        return OhlcvSeriesDecoder.INSTANCE.decode(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+}
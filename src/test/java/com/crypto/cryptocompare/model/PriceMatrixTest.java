@@ -0,0 +1,109 @@
+package com.crypto.cryptocompare.model;
+
+import com.crypto.cryptocompare.StubServer;
+import com.crypto.cryptocompare.api.CryptoCompareApi;
+import com.crypto.cryptocompare.transport.ApiErrorException;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PriceMatrixTest {
+
+    private static final String PRICE_MULTI = "{\"BTC\":{\"USD\":6500.12,\"EUR\":5600.5},"
+            + "\"ETH\":{\"EUR\":410.25,\"JPY\":null}}";
+
+    private static final String PRICE_MULTI_FULL = "{\"RAW\":{"
+            + "\"BTC\":{\"USD\":{\"TYPE\":\"5\",\"MARKET\":\"CCCAGG\",\"FROMSYMBOL\":\"BTC\",\"TOSYMBOL\":\"USD\",\"FLAGS\":\"4\","
+            + "\"PRICE\":6500.12,\"LASTUPDATE\":1530000000,\"VOLUME24HOUR\":43210.5,\"HIGH24HOUR\":6600,\"LOW24HOUR\":6400.25,"
+            + "\"LASTMARKET\":\"Bitstamp\",\"CHANGEPCT24HOUR\":-1.5}},"
+            + "\"ETH\":{\"USD\":{\"PRICE\":470.3,\"VOLUME24HOUR\":120000},\"EUR\":{\"PRICE\":410.25}}},"
+            + "\"DISPLAY\":{\"BTC\":{\"USD\":{\"PRICE\":\"$ 6,500.12\"}}}}";
+
+    @Test
+    public void DecodeTest() throws IOException {
+        PriceMatrix matrix = PriceMatrixDecoder.INSTANCE.decode(stream(PRICE_MULTI));
+
+        assertEquals(2, matrix.rows());
+        assertEquals(3, matrix.columns());
+        int btc = matrix.fromIndex("BTC");
+        int eur = matrix.toIndex("EUR");
+        assertEquals("BTC", matrix.fromSymbol(btc));
+        assertEquals("EUR", matrix.toSymbol(eur));
+        assertEquals(5600.5, matrix.get(btc, eur), 0);
+        assertEquals(6500.12, matrix.get("BTC", "USD"), 0);
+        assertEquals(410.25, matrix.get("ETH", "EUR"), 0);
+
+        // Missing pairs, nulls and unknown symbols all read as NaN
+        assertTrue(Double.isNaN(matrix.get("ETH", "USD")));
+        assertFalse(matrix.has(matrix.fromIndex("ETH"), matrix.toIndex("USD")));
+        assertTrue(Double.isNaN(matrix.get("ETH", "JPY")));
+        assertTrue(Double.isNaN(matrix.get("XMR", "USD")));
+        assertEquals(SymbolTable.NO_SYMBOL, matrix.fromIndex("XMR"));
+        assertEquals(matrix.rows() * matrix.columns(), matrix.values().remaining());
+        assertTrue(matrix.values().isReadOnly());
+    }
+
+    @Test
+    public void FullDecodeTest() throws IOException {
+        FullPriceMatrix full = FullPriceMatrixDecoder.INSTANCE.decode(stream(PRICE_MULTI_FULL));
+
+        assertEquals(2, full.rows());
+        assertEquals(2, full.columns());
+        int btc = full.fromIndex("BTC");
+        int usd = full.toIndex("USD");
+        assertEquals(6500.12, full.prices().get(btc, usd), 0);
+        assertEquals(43210.5, full.get(PriceField.VOLUME24HOUR, btc, usd), 0);
+        assertEquals(6600, full.field(PriceField.HIGH24HOUR).get("BTC", "USD"), 0);
+        assertEquals(6400.25, full.field(PriceField.LOW24HOUR).get("BTC", "USD"), 0);
+        assertEquals(-1.5, full.field(PriceField.CHANGEPCT24HOUR).get("BTC", "USD"), 0);
+        assertEquals(1530000000, full.field(PriceField.LASTUPDATE).get("BTC", "USD"), 0);
+        assertEquals(120000, full.field(PriceField.VOLUME24HOUR).get("ETH", "USD"), 0);
+        assertEquals(410.25, full.prices().get("ETH", "EUR"), 0);
+        assertTrue(Double.isNaN(full.prices().get("BTC", "EUR")));
+        assertTrue(Double.isNaN(full.field(PriceField.HIGH24HOUR).get("ETH", "USD")));
+    }
+
+    @Test
+    public void ErrorTest() throws IOException {
+        String error = "{\"Response\":\"Error\",\"Message\":\"fsyms param seems to be missing.\",\"Type\":1,"
+                + "\"Aggregated\":false,\"Data\":[],\"RateLimit\":{},\"HasWarning\":false}";
+        try {
+            PriceMatrixDecoder.INSTANCE.decode(stream(error));
+            fail("Expected the error response to be rejected");
+        } catch (ApiErrorException ex) {
+            assertEquals("fsyms param seems to be missing.", ex.getMessage());
+        }
+        try {
+            FullPriceMatrixDecoder.INSTANCE.decode(stream(error));
+            fail("Expected the error response to be rejected");
+        } catch (ApiErrorException ex) {
+            assertEquals("fsyms param seems to be missing.", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void ApiTest() throws Exception {
+        try (StubServer server = new StubServer()
+                .respond("/pricemulti", PRICE_MULTI)
+                .respond("/pricemultifull", PRICE_MULTI_FULL);
+             CryptoCompareApi api = CryptoCompareApi.builder().baseUrl(server.baseUrl()).build()) {
+
+            PriceMatrix matrix = api.priceMultiMatrix("BTC,ETH", "USD,EUR", null);
+            assertEquals(6500.12, matrix.get("BTC", "USD"), 0);
+
+            FullPriceMatrix full = api.priceMultiFullMatrix("BTC,ETH", "USD,EUR", null);
+            assertEquals(43210.5, full.field(PriceField.VOLUME24HOUR).get("BTC", "USD"), 0);
+        }
+    }
+
+    private static ByteArrayInputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
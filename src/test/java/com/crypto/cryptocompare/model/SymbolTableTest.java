@@ -0,0 +1,146 @@
+package com.crypto.cryptocompare.model;
+
+import com.crypto.cryptocompare.StubServer;
+import com.crypto.cryptocompare.api.CryptoCompareApi;
+import com.crypto.cryptocompare.api.SymbolTableRefresher;
+import com.crypto.cryptocompare.json.JsonByteReader;
+import com.crypto.cryptocompare.transport.ApiErrorException;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SymbolTableTest {
+
+    private static final String COIN_LIST = "{\"Response\":\"Success\",\"Message\":\"Coin list succesfully returned!\","
+            + "\"BaseImageUrl\":\"https://www.cryptocompare.com\",\"Data\":{"
+            + "\"ETH\":{\"Id\":\"7605\",\"Url\":\"/coins/eth/overview\",\"Name\":\"ETH\",\"Symbol\":\"ETH\",\"CoinName\":\"Ethereum \",\"FullName\":\"Ethereum  (ETH)\",\"SortOrder\":\"2\",\"Sponsored\":false},"
+            + "\"BTC\":{\"Id\":\"1182\",\"Url\":\"/coins/btc/overview\",\"Name\":\"BTC\",\"Symbol\":\"BTC\",\"CoinName\":\"Bitcoin\",\"FullName\":\"Bitcoin (BTC)\",\"SortOrder\":\"1\",\"Sponsored\":false},"
+            + "\"Æ€\":{\"Id\":\"99\",\"CoinName\":\"Unicode\",\"SortOrder\":\"3000\"},"
+            + "\"LTC\":{\"Id\":\"3808\",\"CoinName\":\"Litecoin\",\"SortOrder\":\"3\"}"
+            + "},\"Type\":100}";
+
+    @Test
+    public void DecodeTest() throws IOException {
+        SymbolTable table = decode(COIN_LIST);
+
+        assertEquals(4, table.size());
+        int btc = table.id("BTC");
+        assertEquals(1, btc);
+        assertEquals("BTC", table.symbol(btc));
+        assertEquals(1182, table.coinId(btc));
+        assertEquals("Bitcoin", table.name(btc));
+        assertEquals(1, table.sortOrder(btc));
+        assertEquals(7605, table.coinId(table.id("ETH")));
+        assertEquals(3000, table.sortOrder(table.id("Æ€")));
+
+        try {
+            decode("{\"Response\":\"Error\",\"Message\":\"Rate limit excedeed!\",\"Data\":{}}");
+            fail("Expected the error response to be rejected");
+        } catch (ApiErrorException ex) {
+            assertEquals("Rate limit excedeed!", ex.getMessage());
+        }
+        try {
+            decode("{\"Data\":[],\"Response\":\"Error\",\"Message\":\"Rate limit excedeed!\"}");
+            fail("Expected the error response to be rejected");
+        } catch (ApiErrorException ex) {
+            assertEquals("Rate limit excedeed!", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void LookupTest() throws IOException {
+        SymbolTable.Builder builder = SymbolTable.builder();
+        for (int i = 0; i < 5000; i++) {
+            builder.add("C" + i, i, "Coin " + i, i);
+        }
+        builder.add("C42", 4242, "Renamed", 1);
+        SymbolTable table = builder.build();
+
+        assertEquals(5000, table.size());
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(i, table.id("C" + i));
+        }
+        assertEquals(4242, table.coinId(42));
+        assertEquals("Renamed", table.name(42));
+        assertEquals(SymbolTable.NO_SYMBOL, table.id("C5000"));
+        assertEquals(SymbolTable.NO_SYMBOL, table.id(""));
+        assertEquals(SymbolTable.NO_SYMBOL, SymbolTable.EMPTY.id("BTC"));
+        assertSame(table.symbol(7), table.symbol(table.id(new String("C7"))));
+
+        byte[] bytes = "xxC123yy".getBytes(StandardCharsets.UTF_8);
+        assertEquals(123, table.id(bytes, 2, 4));
+
+        byte[] json = "{\"C17\":1}".getBytes(StandardCharsets.UTF_8);
+        JsonByteReader reader = new JsonByteReader(json, 0, json.length);
+        reader.beginObject();
+        reader.nextName();
+        assertEquals(17, table.id(reader));
+    }
+
+    @Test
+    public void StableIdsTest() {
+        SymbolTable first = SymbolTable.builder()
+                .add("BTC", 1182, "Bitcoin", 1)
+                .add("ETH", 7605, "Ethereum", 2)
+                .add("DOGE", 4432, "Dogecoin", 9)
+                .build();
+        SymbolTable second = SymbolTable.builder()
+                .add("XMR", 5038, "Monero", 7)
+                .add("ETH", 7605, "Ether", 2)
+                .add("BTC", 1182, "Bitcoin", 1)
+                .build();
+
+        SymbolTable merged = second.withIdsOf(first);
+
+        assertEquals(4, merged.size());
+        assertEquals(0, merged.id("BTC"));
+        assertEquals(1, merged.id("ETH"));
+        assertEquals(2, merged.id("DOGE"));
+        assertEquals(3, merged.id("XMR"));
+        assertEquals("Ether", merged.name(1));
+        assertEquals("Dogecoin", merged.name(2));
+        assertSame(first.symbol(0), merged.symbol(0));
+    }
+
+    @Test
+    public void RefresherTest() throws Exception {
+        AtomicReference<String> body = new AtomicReference<>(COIN_LIST);
+        try (StubServer server = new StubServer().handle("/all/coinlist", exchange -> StubServer.send(exchange, 200, body.get()));
+             CryptoCompareApi api = CryptoCompareApi.builder().baseUrl(server.baseUrl()).build();
+             SymbolTableRefresher refresher = new SymbolTableRefresher(api)) {
+
+            assertEquals(0, refresher.current().size());
+
+            SymbolTable first = refresher.refresh();
+            assertSame(first, refresher.current());
+            int ltc = first.id("LTC");
+
+            body.set("{\"Response\":\"Success\",\"Data\":{\"DOGE\":{\"Id\":\"4432\",\"CoinName\":\"Dogecoin\",\"SortOrder\":\"9\"},"
+                    + "\"LTC\":{\"Id\":\"3808\",\"CoinName\":\"Litecoin\",\"SortOrder\":\"3\"}}}");
+            refresher.start(1, TimeUnit.HOURS);
+            long deadline = System.currentTimeMillis() + 5000;
+            while (refresher.current() == first && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            SymbolTable second = refresher.current();
+            assertEquals(5, second.size());
+            assertEquals(ltc, second.id("LTC"));
+            assertEquals(4, second.id("DOGE"));
+            assertTrue(second.contains("BTC"));
+        }
+    }
+
+    private static SymbolTable decode(String json) throws IOException {
+        return SymbolTableDecoder.INSTANCE.decode(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
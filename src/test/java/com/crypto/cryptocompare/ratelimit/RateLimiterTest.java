@@ -0,0 +1,73 @@
+package com.crypto.cryptocompare.ratelimit;
+
+import com.crypto.cryptocompare.api.Endpoint;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void BurstTest() {
+        AtomicLong clock = new AtomicLong();
+        RateLimiter limiter = RateLimiter.defaults(clock::get);
+
+        assertEquals(15, limiter.availablePermits(Endpoint.Host.MIN_API));
+        for (int i = 0; i < 15; i++) {
+            assertTrue(limiter.tryAcquire(Endpoint.Host.MIN_API));
+        }
+        assertFalse(limiter.tryAcquire(Endpoint.Host.MIN_API));
+        assertEquals(0, limiter.availablePermits(Endpoint.Host.MIN_API));
+
+        // Separate budget for the deprecated host
+        assertEquals(5, limiter.availablePermits(Endpoint.Host.DEPRECATED));
+        assertTrue(limiter.tryAcquire(Endpoint.Host.DEPRECATED));
+
+        clock.addAndGet(SECOND);
+        assertEquals(15, limiter.availablePermits(Endpoint.Host.MIN_API));
+    }
+
+    @Test
+    public void MultiWindowTest() {
+        AtomicLong clock = new AtomicLong();
+        RateLimiter limiter = RateLimiter.defaults(clock::get)
+                .limit(Endpoint.Host.MIN_API, 10, 1, TimeUnit.SECONDS)
+                .limit(Endpoint.Host.MIN_API, 20, 1, TimeUnit.MINUTES);
+
+        // Second window refills every second, the minute window caps the total
+        int granted = 0;
+        for (int second = 0; second < 10; second++) {
+            while (limiter.tryAcquire(Endpoint.Host.MIN_API)) {
+                granted++;
+            }
+            clock.addAndGet(SECOND);
+        }
+        assertEquals(20 + 3, granted);
+        assertEquals(granted, limiter.grantedCount());
+    }
+
+    @Test
+    public void AcquireWaitsTest() throws Exception {
+        RateLimiter limiter = RateLimiter.defaults()
+                .limit(Endpoint.Host.MIN_API, 5, 100, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire(Endpoint.Host.MIN_API);
+        }
+        // 5 in the burst, then one every 20ms
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(90));
+        assertEquals(5, limiter.delayedCount());
+
+        CompletableFuture<Void> permit = limiter.acquireAsync(Endpoint.Host.MIN_API);
+        permit.get(1, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,99 @@
+package com.crypto.cryptocompare.store;
+
+import com.crypto.cryptocompare.StubServer;
+import com.crypto.cryptocompare.api.CryptoCompareApi;
+import com.crypto.cryptocompare.history.Resolution;
+import com.crypto.cryptocompare.model.CurrencyPair;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class OhlcvStoreTest {
+
+    private static final long HOUR = 3600;
+
+    private static final long START = 1500000000L - 1500000000L % HOUR;
+
+    private static final CurrencyPair BTC_USD = new CurrencyPair("BTC", "USD");
+
+    /**
+     * Serves histohour like the API: limit + 1 bars ending at toTs, with close = time
+     */
+    private static StubServer histoServer() throws Exception {
+        return new StubServer().handle("/histohour", exchange -> {
+            Map<String, String> query = new HashMap<>();
+            for (String param : exchange.getRequestURI().getRawQuery().split("&")) {
+                String[] pair = param.split("=");
+                query.put(pair[0], pair[1]);
+            }
+
+            long toTs = Long.parseLong(query.get("toTs")) / HOUR * HOUR;
+            long limit = Long.parseLong(query.get("limit"));
+            StringBuilder body = new StringBuilder("{\"Response\":\"Success\",\"Data\":[");
+            for (long time = toTs - limit * HOUR; time <= toTs; time += HOUR) {
+                body.append(time > toTs - limit * HOUR ? "," : "")
+                        .append("{\"time\":").append(time).append(",\"close\":").append(time)
+                        .append(",\"high\":").append(time).append(",\"low\":").append(time)
+                        .append(",\"open\":").append(time).append(",\"volumefrom\":1,\"volumeto\":2}");
+            }
+            StubServer.send(exchange, 200, body.append("]}").toString());
+        });
+    }
+
+    @Test
+    public void SyncTest() throws Exception {
+        Path directory = Files.createTempDirectory("ohlcv");
+        AtomicLong clock = new AtomicLong(START + 5000 * HOUR + 1800);
+        try (StubServer server = histoServer();
+             CryptoCompareApi api = CryptoCompareApi.builder().baseUrl(server.baseUrl()).build()) {
+
+            try (OhlcvStore store = new OhlcvStore(directory, api, clock::get)) {
+                // The bar of the current hour is still open and is not stored
+                assertEquals(5000, store.sync(BTC_USD, Resolution.HOUR, START));
+                assertEquals(3, server.requests().size());
+
+                assertEquals(0, store.sync(BTC_USD, Resolution.HOUR, START));
+                assertEquals(3, server.requests().size());
+
+                clock.addAndGet(10 * HOUR);
+                assertEquals(10, store.sync(BTC_USD, Resolution.HOUR, START));
+                assertEquals(4, server.requests().size());
+
+                OhlcvRange range = store.range(BTC_USD, Resolution.HOUR, START + 100 * HOUR, START + 199 * HOUR);
+                assertEquals(100, range.size());
+                assertEquals(START + 100 * HOUR, range.time(0));
+                assertEquals(START + 199 * HOUR, range.close(99), 0);
+                assertEquals(2, range.volumeTo(50), 0);
+            }
+
+            // Everything is still there after reopening
+            try (OhlcvStore store = new OhlcvStore(directory, api, clock::get)) {
+                OhlcvFile file = store.file(BTC_USD, Resolution.HOUR);
+                assertEquals(5010, file.size());
+                assertEquals(START + 5009 * HOUR, file.lastTime());
+                for (int i = 0; i < file.size(); i++) {
+                    assertEquals(START + i * HOUR, file.all().time(i));
+                }
+                assertEquals(5010, file.all().toSeries().size());
+            }
+        }
+
+        try {
+            OhlcvFile.open(directory.resolve(OhlcvStore.fileName(BTC_USD, Resolution.HOUR)), Resolution.DAY);
+            fail("Expected the resolution mismatch to be rejected");
+        } catch (IOException ex) {
+            // expected
+        } finally {
+            Files.deleteIfExists(directory.resolve(OhlcvStore.fileName(BTC_USD, Resolution.HOUR)));
+            Files.deleteIfExists(directory);
+        }
+    }
+}
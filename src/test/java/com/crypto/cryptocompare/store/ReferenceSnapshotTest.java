@@ -0,0 +1,182 @@
+package com.crypto.cryptocompare.store;
+
+import com.crypto.cryptocompare.StubServer;
+import com.crypto.cryptocompare.api.CryptoCompareApi;
+import com.crypto.cryptocompare.model.SymbolTable;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ReferenceSnapshotTest {
+
+    private static final String COIN_LIST = "{\"Response\":\"Success\",\"Message\":\"Coin list succesfully returned!\",\"Data\":{"
+            + "\"BTC\":{\"Id\":\"1182\",\"Name\":\"BTC\",\"CoinName\":\"Bitcoin\",\"Algorithm\":\"SHA256\",\"SortOrder\":\"1\"},"
+            + "\"ETH\":{\"Id\":\"7605\",\"Name\":\"ETH\",\"CoinName\":\"Ethereum\",\"Algorithm\":\"Ethash\",\"SortOrder\":\"2\"},"
+            + "\"Æ€\":{\"Id\":\"99\",\"SortOrder\":\"3000\"}"
+            + "},\"Type\":100}";
+
+    private static final String MINING_EQUIPMENT = "{\"Response\":\"Success\",\"Message\":\"Mining equipment data successfully returned\","
+            + "\"CoinData\":{\"BTC\":{\"Symbol\":\"BTC\"}},\"MiningData\":{\"1\":{\"Id\":\"1\",\"Company\":\"AntMiner\",\"HashesPerSecond\":\"14000000000000\"}},\"Type\":100}";
+
+    private static StubServer referenceServer(AtomicReference<String> coinList) throws Exception {
+        return new StubServer()
+                .handle("/all/coinlist", exchange -> StubServer.send(exchange, 200, coinList.get()))
+                .respond("/miningequipment", MINING_EQUIPMENT);
+    }
+
+    private static CryptoCompareApi api(StubServer server) {
+        return CryptoCompareApi.builder().baseUrl(server.baseUrl()).deprecatedUrl(server.baseUrl()).build();
+    }
+
+    @Test
+    public void RoundTripTest() throws Exception {
+        Path file = Files.createTempFile("reference", ".snapshot");
+        try (StubServer server = referenceServer(new AtomicReference<>(COIN_LIST));
+             CryptoCompareApi api = api(server)) {
+
+            ReferenceData fetched = ReferenceData.fetch(api);
+            assertEquals(3, fetched.symbols().size());
+            ReferenceSnapshot.write(file, fetched);
+
+            ByteBuffer header = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+            assertEquals(ReferenceSnapshot.MAGIC, header.getLong(0));
+
+            ReferenceData loaded = ReferenceSnapshot.read(file);
+            assertEquals(fetched.fetchedAtMillis(), loaded.fetchedAtMillis());
+            assertEquals(fetched.coinList().toString(), loaded.coinList().toString());
+            assertEquals(fetched.miningEquipment().toString(), loaded.miningEquipment().toString());
+            assertEquals("Ethash", loaded.coinList().getObject("Data").getObject("ETH").getString("Algorithm"));
+            assertEquals("AntMiner", loaded.miningEquipment().getObject("MiningData").getObject("1").getString("Company"));
+
+            SymbolTable symbols = loaded.symbols();
+            assertEquals(3, symbols.size());
+            for (int id = 0; id < symbols.size(); id++) {
+                assertEquals(fetched.symbols().symbol(id), symbols.symbol(id));
+                assertEquals(fetched.symbols().coinId(id), symbols.coinId(id));
+                assertEquals(fetched.symbols().name(id), symbols.name(id));
+                assertEquals(fetched.symbols().sortOrder(id), symbols.sortOrder(id));
+            }
+            assertEquals(99, symbols.coinId(symbols.id("Æ€")));
+            assertNull(symbols.name(symbols.id("Æ€")));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void CorruptTest() throws Exception {
+        Path file = Files.createTempFile("reference", ".snapshot");
+        try (StubServer server = referenceServer(new AtomicReference<>(COIN_LIST));
+             CryptoCompareApi api = api(server)) {
+
+            ReferenceSnapshot.write(file, ReferenceData.fetch(api));
+            byte[] bytes = Files.readAllBytes(file);
+
+            byte[] flipped = bytes.clone();
+            flipped[ReferenceSnapshot.HEADER_SIZE + 20] ^= 1;
+            Files.write(file, flipped);
+            assertUnreadable(file);
+
+            Files.write(file, Arrays.copyOf(bytes, bytes.length - 10));
+            assertUnreadable(file);
+
+            Files.write(file, "{\"Response\":\"Success\"}".getBytes(StandardCharsets.UTF_8));
+            assertUnreadable(file);
+
+            // The refresher falls back to the API and replaces the bad file
+            int requests = server.requests().size();
+            try (ReferenceDataRefresher refresher = new ReferenceDataRefresher(api, file)) {
+                assertEquals(3, refresher.load().symbols().size());
+            }
+            assertEquals(requests + 2, server.requests().size());
+            assertEquals(3, ReferenceSnapshot.read(file).symbols().size());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void RefresherTest() throws Exception {
+        Path file = Files.createTempFile("reference", ".snapshot");
+        Files.delete(file);
+        AtomicReference<String> coinList = new AtomicReference<>(COIN_LIST);
+        try (StubServer server = referenceServer(coinList);
+             CryptoCompareApi api = api(server)) {
+
+            try (ReferenceDataRefresher first = new ReferenceDataRefresher(api, file)) {
+                assertEquals(0, first.current().symbols().size());
+                first.load();
+                assertEquals(2, server.requests().size());
+                assertTrue(Files.exists(file));
+            }
+
+            // A fresh snapshot means no requests at all, even once started
+            try (ReferenceDataRefresher second = new ReferenceDataRefresher(api, file)) {
+                ReferenceData loaded = second.load();
+                second.start(1, TimeUnit.HOURS);
+                Thread.sleep(100);
+                assertEquals(2, server.requests().size());
+                assertSame(loaded, second.current());
+                int eth = loaded.symbols().id("ETH");
+
+                // A refresh keeps the ids and replaces the snapshot
+                coinList.set("{\"Response\":\"Success\",\"Data\":{\"DOGE\":{\"Id\":\"4432\",\"SortOrder\":\"9\"},"
+                        + "\"ETH\":{\"Id\":\"7605\",\"SortOrder\":\"2\"}}}");
+                ReferenceData refreshed = second.refresh();
+                assertSame(refreshed, second.current());
+                assertEquals(eth, refreshed.symbols().id("ETH"));
+                assertEquals(3, refreshed.symbols().id("DOGE"));
+                assertEquals(3, ReferenceSnapshot.read(file).symbols().id("DOGE"));
+
+                // An error response is never kept
+                coinList.set("{\"Response\":\"Error\",\"Message\":\"Rate limit excedeed!\",\"Data\":{}}");
+                try {
+                    second.refresh();
+                    fail("Expected the error response to be rejected");
+                } catch (UncheckedIOException ex) {
+                    assertEquals("Rate limit excedeed!", ex.getCause().getMessage());
+                }
+                assertSame(refreshed, second.current());
+                assertEquals(4, ReferenceSnapshot.read(file).symbols().size());
+            }
+
+            // An old snapshot is refreshed in the background right after starting
+            coinList.set(COIN_LIST);
+            try (ReferenceDataRefresher third = new ReferenceDataRefresher(api, file)) {
+                ReferenceData loaded = third.load();
+                third.start(10, TimeUnit.MILLISECONDS);
+                long deadline = System.currentTimeMillis() + 5000;
+                while (third.current() == loaded && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(10);
+                }
+                assertTrue(third.current().fetchedAtMillis() > loaded.fetchedAtMillis());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void assertUnreadable(Path file) {
+        try {
+            ReferenceSnapshot.read(file);
+            fail("Expected " + file + " to be rejected");
+        } catch (IOException ex) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.crypto.cryptocompare.stream;
+
+import com.crypto.cryptocompare.WebSocketStubServer;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class StreamingClientTest {
+
+    @Test
+    public void DecodeTest() {
+        TickDecoder decoder = new TickDecoder();
+        Tick tick = new Tick();
+
+        // Every field up to LASTMARKET
+        String full = "5~CCCAGG~BTC~USD~1~6500.12~6500.1~6500.2~1530000000~6499.5~0.015~97.5~281289312"
+                + "~120.5~780000.25~43210.5~280000000~6490~6510~6480~6400~6600~6395.25~Bitstamp~7ffff";
+        assertTrue(decode(decoder, full, tick));
+        assertEquals(TickDecoder.TYPE_CURRENT_AGG, tick.type());
+        assertEquals("CCCAGG", tick.market());
+        assertEquals("BTC", tick.fromSymbol());
+        assertEquals("USD", tick.toSymbol());
+        assertEquals(1, tick.flags());
+        assertEquals(0x7ffff, tick.fields());
+        assertEquals(6500.12, tick.price(), 0);
+        assertEquals(6500.1, tick.bid(), 0);
+        assertEquals(6500.2, tick.offer(), 0);
+        assertEquals(1530000000L, tick.lastUpdate());
+        assertEquals(6499.5, tick.avg(), 0);
+        assertEquals(0.015, tick.lastVolume(), 0);
+        assertEquals(97.5, tick.lastVolumeTo(), 0);
+        assertEquals(281289312L, tick.lastTradeId());
+        assertEquals(120.5, tick.volumeHour(), 0);
+        assertEquals(780000.25, tick.volumeHourTo(), 0);
+        assertEquals(43210.5, tick.volume24Hour(), 0);
+        assertEquals(280000000, tick.volume24HourTo(), 0);
+        assertEquals(6490, tick.openHour(), 0);
+        assertEquals(6510, tick.highHour(), 0);
+        assertEquals(6480, tick.lowHour(), 0);
+        assertEquals(6400, tick.open24Hour(), 0);
+        assertEquals(6600, tick.high24Hour(), 0);
+        assertEquals(6395.25, tick.low24Hour(), 0);
+        assertEquals("Bitstamp", tick.lastMarket());
+
+        // Only the fields in the mask: PRICE, LASTUPDATE, VOLUME24HOUR and LASTMARKET
+        Tick state = new Tick().mergeFrom(tick);
+        assertTrue(decode(decoder, "5~CCCAGG~BTC~USD~2~6499.9~1530000005~43211~Coinbase~40409", tick));
+        assertEquals(Tick.PRICE | Tick.LASTUPDATE | Tick.VOLUME24HOUR | Tick.LASTMARKET, tick.fields());
+        assertTrue(tick.has(Tick.PRICE));
+        assertFalse(tick.has(Tick.BID));
+        assertTrue(Double.isNaN(tick.bid()));
+        assertEquals(6499.9, tick.price(), 0);
+        assertEquals(43211, tick.volume24Hour(), 0);
+        assertSame(state.market(), tick.market());
+
+        state.mergeFrom(tick);
+        assertEquals(6499.9, state.price(), 0);
+        assertEquals(6500.1, state.bid(), 0);
+        assertEquals(1530000005L, state.lastUpdate());
+        assertEquals("Coinbase", state.lastMarket());
+        assertEquals(0x7ffff, state.fields());
+
+        // Exchange updates, numbers the fast path leaves to Double.parseDouble
+        assertTrue(decode(decoder, "2~Poloniex~ETH~BTC~4~1.5e-2~0.00000001234~3", tick));
+        assertEquals(0.015, tick.price(), 0);
+        assertEquals(0.00000001234, tick.bid(), 0);
+        assertEquals(-12.5, TickDecoder.parseDouble(bytes("-12.5"), 0, 5), 0);
+        assertEquals(12345678901234567.0, TickDecoder.parseDouble(bytes("12345678901234567"), 0, 17), 0);
+
+        // Trades, heartbeats, JSON replies and truncated updates are not ticks
+        assertFalse(decode(decoder, "0~Coinbase~BTC~USD~1~281289312~1530000000~0.01~6500~65~7", tick));
+        assertFalse(decode(decoder, "999~HEARTBEAT~1530000000", tick));
+        assertFalse(decode(decoder, "{\"TYPE\":\"20\",\"MESSAGE\":\"STREAMERWELCOME\"}", tick));
+        assertFalse(decode(decoder, "5~CCCAGG~BTC~USD~2~6499.9~f", tick));
+        assertFalse(decode(decoder, "", tick));
+    }
+
+    @Test
+    public void SubscriptionsTest() {
+        JsonObject snapshot = new JsonParser().parse("{\"Response\":\"Success\",\"Data\":{\"General\":{},"
+                + "\"Subs\":[\"2~Poloniex~BTC~USD\",\"5~CCCAGG~BTC~USD\"]}}").getAsJsonObject();
+        assertEquals(Arrays.asList("2~Poloniex~BTC~USD", "5~CCCAGG~BTC~USD"), StreamingClient.subscriptions(snapshot));
+        assertTrue(StreamingClient.subscriptions(new JsonObject()).isEmpty());
+    }
+
+    @Test
+    public void ReplayTest() throws Exception {
+        int count = 50000;
+        List<String> log = new ArrayList<>(count + 2);
+        log.add("{\"TYPE\":\"20\",\"MESSAGE\":\"STREAMERWELCOME\"}");
+        for (int i = 0; i < count; i++) {
+            String fsym = (i % 2 == 0) ? "BTC" : "ETH";
+            log.add("5~CCCAGG~" + fsym + "~USD~" + (1 + i % 2) + "~" + (1000 + i) + ".25~" + (1530000000 + i) + "~9");
+            if (i % 1000 == 0) {
+                log.add("999~HEARTBEAT~" + i);
+            }
+        }
+
+        try (WebSocketStubServer server = new WebSocketStubServer(log);
+             StreamingClient client = StreamingClient.builder()
+                     .url(server.url())
+                     .capacity(64)
+                     .reconnectDelay(1, TimeUnit.MINUTES)
+                     .build()) {
+
+            client.subscribe("5~CCCAGG~BTC~USD", "5~CCCAGG~ETH~USD").start();
+
+            Tick btc = new Tick();
+            for (int i = 0; i < count; i++) {
+                Tick tick = client.poll(10, TimeUnit.SECONDS);
+                assertNotNull("tick " + i, tick);
+                assertEquals(1530000000L + i, tick.lastUpdate());
+                assertEquals(1000 + i + 0.25, tick.price(), 0);
+                if ("BTC".equals(tick.fromSymbol())) {
+                    btc.mergeFrom(tick);
+                }
+                client.release(tick);
+            }
+
+            assertEquals(1000 + count - 2 + 0.25, btc.price(), 0);
+            assertEquals(count, client.tickCount());
+            assertEquals(count / 1000 + 1, client.skippedCount());
+            assertEquals(1, client.connectCount());
+            assertEquals("{\"action\":\"SubAdd\",\"subs\":[\"5~CCCAGG~BTC~USD\",\"5~CCCAGG~ETH~USD\"]}", server.received().get(0));
+        }
+    }
+
+    @Test
+    public void ReconnectTest() throws Exception {
+        List<String> log = Arrays.asList("5~CCCAGG~BTC~USD~4~6500~1", "5~CCCAGG~BTC~USD~4~6501~1");
+        try (WebSocketStubServer server = new WebSocketStubServer(log);
+             StreamingClient client = StreamingClient.builder()
+                     .url(server.url())
+                     .capacity(2)
+                     .reconnectDelay(10, TimeUnit.MILLISECONDS)
+                     .build()) {
+
+            client.subscribe("5~CCCAGG~BTC~USD").start();
+
+            // The pool only holds two ticks: the reader waits for them to be released
+            for (int i = 0; i < 6; i++) {
+                Tick tick = client.poll(10, TimeUnit.SECONDS);
+                assertNotNull("tick " + i, tick);
+                assertEquals((i % 2 == 0) ? 6500 : 6501, tick.price(), 0);
+                Thread.sleep(1);
+                client.release(tick);
+            }
+
+            assertTrue(client.connectCount() >= 3);
+            assertEquals("{\"action\":\"SubAdd\",\"subs\":[\"5~CCCAGG~BTC~USD\"]}", server.received().get(2));
+        }
+    }
+
+    private static boolean decode(TickDecoder decoder, String message, Tick tick) {
+        byte[] bytes = bytes("xx" + message + "yy");
+        return decoder.decode(bytes, 2, bytes.length - 4, tick);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
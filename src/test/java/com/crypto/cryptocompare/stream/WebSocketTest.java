@@ -0,0 +1,130 @@
+package com.crypto.cryptocompare.stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLHandshakeException;
+import javax.net.ssl.SSLServerSocket;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStore;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class WebSocketTest {
+
+    private static final char[] PASSWORD = "changeit".toCharArray();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void HostnameTest() throws Exception {
+        // Trusted certificate for the host: TLS succeeds and the stand-in refuses the upgrade
+        try {
+            connect("localhost");
+            fail("Expected the upgrade to be refused");
+        } catch (SSLHandshakeException ex) {
+            throw new AssertionError("Certificate for localhost rejected", ex);
+        } catch (IOException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().startsWith("WebSocket upgrade refused"));
+        }
+
+        // Trusted certificate for another host: the handshake fails on the name
+        try {
+            connect("wrong.example");
+            fail("Expected a certificate for another host to be rejected");
+        } catch (SSLHandshakeException ex) {
+            // expected
+        }
+    }
+
+    /**
+     * Connect to wss://localhost through a TLS server presenting a self-signed certificate
+     * for the given name, which the client trusts
+     * @param certificateName
+     * @throws Exception
+     */
+    private void connect(String certificateName) throws Exception {
+        KeyStore keyStore = this.keyStore(certificateName);
+        KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagers.init(keyStore, PASSWORD);
+        TrustManagerFactory trustManagers = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagers.init(keyStore);
+        SSLContext context = SSLContext.getInstance("TLS");
+        context.init(keyManagers.getKeyManagers(), trustManagers.getTrustManagers(), null);
+
+        try (SSLServerSocket server = (SSLServerSocket) context.getServerSocketFactory()
+                .createServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            Thread acceptor = new Thread(() -> refuseUpgrade(server));
+            acceptor.setDaemon(true);
+            acceptor.start();
+
+            URI uri = URI.create("wss://localhost:" + server.getLocalPort() + "/v2");
+            WebSocket.connect(uri, 5000, context.getSocketFactory()).close();
+        }
+    }
+
+    private static void refuseUpgrade(SSLServerSocket server) {
+        try (SSLSocket socket = (SSLSocket) server.accept()) {
+            socket.startHandshake();
+            InputStream in = socket.getInputStream();
+            int matched = 0;
+            while (matched < 4) {
+                int b = in.read();
+                if (b < 0) {
+                    return;
+                }
+                matched = (b == ((matched % 2 == 0) ? '\r' : '\n')) ? matched + 1 : (b == '\r' ? 1 : 0);
+            }
+            OutputStream out = socket.getOutputStream();
+            out.write("HTTP/1.1 403 Forbidden\r\nContent-Length: 0\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+            out.flush();
+        } catch (IOException ex) {
+            // The client gave up on the certificate
+        }
+    }
+
+    /**
+     * Self-signed key pair for a name, made with the JDK's keytool
+     * @param name
+     * @return
+     * @throws Exception
+     */
+    private KeyStore keyStore(String name) throws Exception {
+        File file = new File(this.folder.getRoot(), name + ".p12");
+        String keytool = System.getProperty("java.home") + File.separator + "bin" + File.separator + "keytool";
+        Process process = new ProcessBuilder(keytool, "-genkeypair", "-alias", "server", "-keyalg", "RSA",
+                "-keysize", "2048", "-validity", "2", "-dname", "CN=" + name, "-ext", "SAN=dns:" + name,
+                "-storetype", "PKCS12", "-keystore", file.getPath(),
+                "-storepass", new String(PASSWORD), "-keypass", new String(PASSWORD))
+                .redirectErrorStream(true)
+                .start();
+        try (InputStream output = process.getInputStream()) {
+            while (output.read() >= 0) {
+                // discard
+            }
+        }
+        if (process.waitFor() != 0) {
+            throw new IOException("keytool failed for " + name);
+        }
+
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream in = new FileInputStream(file)) {
+            keyStore.load(in, PASSWORD);
+        }
+        return keyStore;
+    }
+}
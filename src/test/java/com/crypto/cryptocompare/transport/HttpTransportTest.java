@@ -0,0 +1,196 @@
+package com.crypto.cryptocompare.transport;
+
+import com.crypto.cryptocompare.StubServer;
+import com.crypto.cryptocompare.api.CryptoCompareApi;
+import com.crypto.cryptocompare.api.Endpoint;
+import com.crypto.cryptocompare.metrics.MetricsRecorder;
+import com.crypto.cryptocompare.metrics.MetricsSnapshot;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class HttpTransportTest {
+
+    private static final String PRICE_RESPONSE = "{\"BTC\":0.07,\"USD\":712.5,\"EUR\":650.1}";
+
+    @Test
+    public void BaseUrlTest() throws IOException {
+        try (StubServer server = new StubServer().respond("/price", PRICE_RESPONSE);
+             CryptoCompareApi api = CryptoCompareApi.builder().baseUrl(server.baseUrl()).build()) {
+
+            JsonObject response = api.price("ETH", "BTC,USD,EUR", new LinkedHashMap<String, Object>());
+
+            assertTrue(response.has("BTC"));
+            assertTrue(response.has("USD"));
+            assertTrue(response.has("EUR"));
+            assertEquals("/data/price?fsym=ETH&tsyms=BTC,USD,EUR", server.requests().get(0));
+        }
+    }
+
+    @Test
+    public void KeepAliveTest() throws IOException {
+        try (StubServer server = new StubServer().respond("/price", PRICE_RESPONSE);
+             CryptoCompareApi api = CryptoCompareApi.builder().baseUrl(server.baseUrl()).build()) {
+
+            for (int i = 0; i < 20; i++) {
+                api.price("ETH", "BTC,USD,EUR", new LinkedHashMap<String, Object>());
+            }
+
+            assertEquals(20, server.requests().size());
+            assertEquals(1, server.connectionCount());
+        }
+    }
+
+    @Test
+    public void ErrorStatusTest() throws IOException {
+        try (StubServer server = new StubServer();
+             CryptoCompareApi api = CryptoCompareApi.builder().baseUrl(server.baseUrl()).build()) {
+
+            try {
+                api.coinList();
+                fail("Expected the 404 to surface");
+            } catch (UncheckedIOException ex) {
+                assertTrue(ex.getCause().getMessage().contains("404"));
+            }
+        }
+    }
+
+    @Test
+    public void ReadTimeoutTest() throws IOException {
+        try (StubServer server = new StubServer().handle("/all/coinlist", exchange -> {
+            try {
+                Thread.sleep(2000);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            StubServer.send(exchange, 200, "{}");
+        })) {
+            HttpTransport transport = HttpTransport.builder()
+                    .readTimeout(200, TimeUnit.MILLISECONDS)
+                    .build();
+
+            long start = System.nanoTime();
+            try {
+                transport.get(server.baseUrl() + "all/coinlist", ResponseDecoders.JSON_OBJECT);
+                fail("Expected the read to time out");
+            } catch (IOException ex) {
+                assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1500);
+            }
+        }
+    }
+
+    @Test
+    public void StreamingDecodeTest() throws IOException {
+        try (StubServer server = new StubServer()
+                .respond("/all/coinlist", "{\"Response\":\"Success\",\"Data\":{\"XAU\":{\"CoinName\":\"Gold \u20ac \u00fc\"}}}")
+                .respond("/price", "{\"BTC\":0.07,")) {
+            HttpTransport transport = new HttpTransport();
+
+            JsonObject coinList = transport.get(server.baseUrl() + "all/coinlist", ResponseDecoders.JSON_OBJECT);
+            assertEquals("Gold \u20ac \u00fc", coinList.getAsJsonObject("Data").getAsJsonObject("XAU").get("CoinName").getAsString());
+
+            try {
+                transport.get(server.baseUrl() + "price?fsym=ETH&tsyms=BTC", ResponseDecoders.JSON_OBJECT);
+                fail("Expected a truncated body to be rejected");
+            } catch (IOException ex) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void CompressionTest() throws IOException {
+        StringBuilder json = new StringBuilder("{\"Response\":\"Success\",\"Data\":[");
+        for (int i = 0; i < 500; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"time\":").append(1500000000 + i * 60)
+                    .append(",\"close\":6500.5,\"high\":6510.25,\"low\":6490.75,\"open\":6500.5,\"volumefrom\":12.5,\"volumeto\":81256.25}");
+        }
+        json.append("]}");
+        byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+
+        try (StubServer server = new StubServer()
+                .handle("/histominute", exchange -> sendEncoded(exchange, body, "gzip"))
+                .handle("/histohour", exchange -> sendEncoded(exchange, body, "deflate"))
+                .handle("/histoday", exchange -> sendEncoded(exchange, body, "raw-deflate"))) {
+            MetricsRecorder metrics = new MetricsRecorder();
+            try (CryptoCompareApi api = CryptoCompareApi.builder().baseUrl(server.baseUrl()).listener(metrics).build()) {
+                JsonArray minutes = api.histoMinute("BTC", "USD", new LinkedHashMap<String, Object>()).getAsJsonArray("Data");
+                JsonArray hours = api.histoHour("BTC", "USD", new LinkedHashMap<String, Object>()).getAsJsonArray("Data");
+                JsonArray days = api.histoDay("BTC", "USD", new LinkedHashMap<String, Object>()).getAsJsonArray("Data");
+
+                assertEquals(500, minutes.size());
+                assertEquals(500, hours.size());
+                assertEquals(500, days.size());
+                assertEquals(1500000000 + 499 * 60, days.get(499).getAsJsonObject().get("time").getAsLong());
+            }
+
+            MetricsSnapshot.EndpointSnapshot minute = metrics.snapshot().endpoint(Endpoint.HISTO_MINUTE);
+            assertEquals(body.length, minute.responseBytes().sum());
+            assertTrue(minute.wireBytes() > 0);
+            assertTrue(minute.wireBytes() < body.length / 4);
+        }
+
+        try (StubServer server = new StubServer().handle("/price", exchange -> sendEncoded(exchange, PRICE_RESPONSE.getBytes(StandardCharsets.UTF_8), "gzip"))) {
+            HttpTransport transport = HttpTransport.builder().compression(false).build();
+
+            JsonObject response = transport.get(server.baseUrl() + "price?fsym=ETH&tsyms=BTC,USD,EUR", ResponseDecoders.JSON_OBJECT);
+            assertEquals(712.5, response.get("USD").getAsDouble(), 0.0);
+        }
+    }
+
+    /**
+     * Compress the body when the client offers the encoding, otherwise send it as is
+     * @param exchange
+     * @param body
+     * @param encoding gzip, deflate (zlib wrapped) or raw-deflate (sent as deflate without the zlib wrapper)
+     * @throws IOException
+     */
+    private static void sendEncoded(HttpExchange exchange, byte[] body, String encoding) throws IOException {
+        String accepted = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        String offered = encoding.equals("raw-deflate") ? "deflate" : encoding;
+        if (accepted == null || !accepted.contains(offered)) {
+            assertNull(accepted);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+            return;
+        }
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        OutputStream encoder;
+        if (encoding.equals("gzip")) {
+            encoder = new GZIPOutputStream(compressed);
+        } else {
+            encoder = new DeflaterOutputStream(compressed, new Deflater(Deflater.DEFAULT_COMPRESSION, encoding.equals("raw-deflate")));
+        }
+        try (OutputStream out = encoder) {
+            out.write(body);
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.getResponseHeaders().set("Content-Encoding", offered);
+        exchange.sendResponseHeaders(200, compressed.size());
+        try (OutputStream out = exchange.getResponseBody()) {
+            compressed.writeTo(out);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.crypto.cryptocompare.transport;
+
+import com.crypto.cryptocompare.StubServer;
+import com.crypto.cryptocompare.api.CryptoCompareApi;
+import com.crypto.cryptocompare.model.PriceMatrix;
+import com.google.gson.JsonObject;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ReplayTransportTest {
+
+    /**
+     * Answers price with a counter so each recorded response differs
+     * @return
+     */
+    private static StubServer counterServer(AtomicInteger counter) throws Exception {
+        return new StubServer()
+                .handle("/price", exchange -> StubServer.send(exchange, 200, "{\"USD\":" + counter.incrementAndGet() + "}"))
+                .respond("/pricemulti", "{\"BTC\":{\"USD\":6500.5}}")
+                .handle("/coinlist", exchange -> StubServer.send(exchange, 500, "down"));
+    }
+
+    @Test
+    public void RecordReplayTest() throws Exception {
+        Path file = Files.createTempFile("responses", ".replay");
+        Files.delete(file);
+        AtomicInteger counter = new AtomicInteger();
+        String baseUrl;
+        try (StubServer server = counterServer(counter)) {
+            baseUrl = server.baseUrl();
+            try (RecordingTransport recording = RecordingTransport.open(new HttpTransport(), file);
+                 CryptoCompareApi api = CryptoCompareApi.builder().baseUrl(baseUrl).transport(recording).build()) {
+                assertEquals(1, api.price("BTC", "USD", null).get("USD").getAsInt());
+                assertEquals(2, api.price("BTC", "USD", null).get("USD").getAsInt());
+                assertEquals(6500.5, api.priceMultiMatrix("BTC", "USD", null).get("BTC", "USD"), 0);
+                try {
+                    api.coinList();
+                    fail("Expected the 500 to fail");
+                } catch (RuntimeException expected) {
+                    // Not recorded, there was no body to decode
+                }
+                assertEquals(3, recording.size());
+            }
+
+            // Appending to an existing recording
+            try (RecordingTransport recording = RecordingTransport.open(new HttpTransport(), file);
+                 CryptoCompareApi api = CryptoCompareApi.builder().baseUrl(baseUrl).transport(recording).build()) {
+                Map<String, Object> params = new LinkedHashMap<>();
+                params.put("extraParams", "Crypto Compare Wrapper");
+                params.put("e", "Coinbase");
+                assertEquals(3, api.price("ETH", "USD", params).get("USD").getAsInt());
+                assertEquals(4, recording.size());
+            }
+        }
+
+        // The server is gone: everything comes from the recording
+        try (ReplayTransport replay = ReplayTransport.open(file);
+             CryptoCompareApi api = CryptoCompareApi.builder().baseUrl(baseUrl).transport(replay).rateLimiter(null).build()) {
+            assertEquals(4, replay.size());
+            assertEquals(3, replay.urlCount());
+
+            // Responses of a url come back in recorded order, then start over
+            assertEquals(1, api.price("BTC", "USD", null).get("USD").getAsInt());
+            assertEquals(2, api.price("BTC", "USD", null).get("USD").getAsInt());
+            assertEquals(1, api.price("BTC", "USD", null).get("USD").getAsInt());
+
+            PriceMatrix matrix = api.priceMultiMatrix("BTC", "USD", null);
+            assertEquals(6500.5, matrix.get("BTC", "USD"), 0);
+
+            // Parameters match whatever order they are given in
+            Map<String, Object> params = new LinkedHashMap<>();
+            params.put("e", "Coinbase");
+            params.put("extraParams", "Crypto Compare Wrapper");
+            JsonObject eth = api.price("ETH", "USD", params);
+            assertEquals(3, eth.get("USD").getAsInt());
+
+            try {
+                replay.get(baseUrl + "price?fsym=XMR&tsyms=USD", ResponseDecoders.JSON_OBJECT);
+                fail("Expected a miss");
+            } catch (HttpStatusException ex) {
+                assertEquals(404, ex.statusCode());
+            }
+            assertEquals(1, replay.missCount());
+            assertEquals(5, replay.servedCount());
+        }
+    }
+
+    @Test
+    public void CrashTest() throws Exception {
+        Path file = Files.createTempFile("crash", ".replay");
+        Files.delete(file);
+        Transport stub = new Transport() {
+            @Override
+            public <T> T get(String requestUrl, ResponseDecoder<T> decoder) throws IOException {
+                return decoder.decode(new ByteArrayInputStream("{\"USD\":1}".getBytes(StandardCharsets.UTF_8)));
+            }
+
+            @Override
+            public void close() {}
+        };
+        try (RecordingTransport recording = RecordingTransport.open(stub, file)) {
+            recording.get("http://localhost/data/price?fsym=BTC&tsyms=USD", ResponseDecoders.JSON_OBJECT);
+        }
+
+        // Half a record written after the last complete one
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[] {100, 0, 0, 0, 1, 2, 3}));
+        }
+
+        try (ReplayTransport replay = ReplayTransport.open(file)) {
+            assertEquals(1, replay.size());
+        }
+        try (RecordingTransport recording = RecordingTransport.open(stub, file)) {
+            recording.get("http://localhost/data/price?fsym=ETH&tsyms=USD", ResponseDecoders.JSON_OBJECT);
+        }
+        try (ReplayTransport replay = ReplayTransport.open(file)) {
+            assertEquals(2, replay.size());
+            assertEquals(1, replay.get("http://localhost/data/price?fsym=ETH&tsyms=USD", ResponseDecoders.JSON_OBJECT).get("USD").getAsInt());
+        }
+
+        Path other = Files.createTempFile("other", ".replay");
+        Files.write(other, new byte[100]);
+        try {
+            ReplayTransport.open(other);
+            fail("Expected a file that is not a recording to be refused");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage().contains("not a recording"));
+        }
+    }
+
+    @Test
+    public void PacingTest() throws Exception {
+        Path file = Files.createTempFile("pacing", ".replay");
+        Files.delete(file);
+        try (StubServer server = new StubServer().respond("/price", "{\"USD\":1}");
+             RecordingTransport recording = RecordingTransport.open(new HttpTransport(), file)) {
+            recording.get(server.baseUrl() + "price?fsym=BTC&tsyms=USD", ResponseDecoders.JSON_OBJECT);
+            Thread.sleep(300);
+            recording.get(server.baseUrl() + "price?fsym=ETH&tsyms=USD", ResponseDecoders.JSON_OBJECT);
+        }
+
+        try (ReplayTransport replay = ReplayTransport.open(file, ReplayTransport.Pacing.ORIGINAL)) {
+            long start = System.nanoTime();
+            replay.get(replayUrl(replay, "BTC"), ResponseDecoders.JSON_OBJECT);
+            replay.get(replayUrl(replay, "ETH"), ResponseDecoders.JSON_OBJECT);
+            long elapsedMillis = (System.nanoTime() - start) / 1000000;
+            assertTrue("elapsed " + elapsedMillis, elapsedMillis >= 290);
+        }
+    }
+
+    @Test
+    public void ThroughputTest() throws Exception {
+        Path file = Files.createTempFile("throughput", ".replay");
+        Files.delete(file);
+        try (StubServer server = new StubServer().respond("/price", "{\"BTC\":0.00015,\"USD\":1,\"EUR\":0.85}");
+             RecordingTransport recording = RecordingTransport.open(new HttpTransport(), file)) {
+            for (String fsym : new String[] {"BTC", "ETH", "LTC", "XMR"}) {
+                recording.get(server.baseUrl() + "price?fsym=" + fsym + "&tsyms=BTC,USD,EUR", ResponseDecoders.JSON_OBJECT);
+            }
+        }
+
+        try (ReplayTransport replay = ReplayTransport.open(file);
+             CryptoCompareApi api = CryptoCompareApi.builder().baseUrl(baseUrlOf(replay)).transport(replay).rateLimiter(null).build()) {
+            String[] fsyms = {"BTC", "ETH", "LTC", "XMR"};
+            for (int i = 0; i < 100000; i++) {
+                assertEquals(1, api.price(fsyms[i & 3], "BTC,USD,EUR", null).get("USD").getAsInt());
+            }
+            assertEquals(100000, replay.servedCount());
+        }
+    }
+
+    /**
+     * Url a replay recorded price request for the symbol under
+     * @param replay
+     * @param fsym
+     * @return
+     */
+    private static String replayUrl(ReplayTransport replay, String fsym) throws IOException {
+        return baseUrlOf(replay) + "price?fsym=" + fsym + "&tsyms=USD";
+    }
+
+    /**
+     * Base url of the stub server the recording was made against, read back from the file
+     * @param replay
+     * @return
+     */
+    private static String baseUrlOf(ReplayTransport replay) throws IOException {
+        byte[] bytes = Files.readAllBytes(replay.path());
+        String content = new String(bytes, StandardCharsets.ISO_8859_1);
+        int start = content.indexOf("http://");
+        return content.substring(start, content.indexOf("price?", start));
+    }
+}
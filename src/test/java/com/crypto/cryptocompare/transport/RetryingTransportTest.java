@@ -0,0 +1,186 @@
+package com.crypto.cryptocompare.transport;
+
+import com.crypto.cryptocompare.StubServer;
+import com.crypto.cryptocompare.api.CryptoCompareApi;
+import com.crypto.cryptocompare.api.Endpoint;
+import com.crypto.cryptocompare.json.LazyJsonObject;
+import com.crypto.cryptocompare.model.OhlcvSeriesDecoder;
+import com.crypto.cryptocompare.ratelimit.RateLimiter;
+import com.google.gson.JsonObject;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RetryingTransportTest {
+
+    private static final String PRICE_RESPONSE = "{\"USD\":712.5}";
+
+    private static RetryingTransport.Builder fastRetries() {
+        return RetryingTransport.builder(new HttpTransport())
+                .backoff(1, 10, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void RetryTest() throws IOException {
+        AtomicInteger calls = new AtomicInteger();
+        try (StubServer server = new StubServer().handle("/price", exchange -> {
+            if (calls.incrementAndGet() <= 2) {
+                StubServer.send(exchange, 503, "{}");
+            } else {
+                StubServer.send(exchange, 200, PRICE_RESPONSE);
+            }
+        })) {
+            RetryingTransport transport = fastRetries().maxAttempts(3).build();
+
+            JsonObject response = transport.get(server.baseUrl() + "price?fsym=ETH&tsyms=USD", ResponseDecoders.JSON_OBJECT);
+
+            assertEquals(712.5, response.get("USD").getAsDouble(), 0);
+            assertEquals(3, server.requests().size());
+            assertEquals(2, transport.retryCount());
+        }
+    }
+
+    @Test
+    public void RateLimitTest() throws IOException {
+        AtomicInteger calls = new AtomicInteger();
+        try (StubServer server = new StubServer().handle("/price", exchange -> {
+            if (calls.incrementAndGet() == 1) {
+                StubServer.send(exchange, 200, "{\"Response\":\"Error\",\"Message\":\"Rate limit excedeed!\",\"Type\":99}");
+            } else {
+                StubServer.send(exchange, 200, PRICE_RESPONSE);
+            }
+        })) {
+            RetryingTransport transport = fastRetries().build();
+
+            JsonObject response = transport.get(server.baseUrl() + "price?fsym=ETH&tsyms=USD", ResponseDecoders.JSON_OBJECT);
+
+            assertTrue(response.has("USD"));
+            assertEquals(2, server.requests().size());
+        }
+    }
+
+    @Test
+    public void RateLimitedRetryTest() throws IOException {
+        AtomicInteger calls = new AtomicInteger();
+        try (StubServer server = new StubServer().handle("/pricemulti", exchange -> {
+            if (calls.incrementAndGet() <= 2) {
+                StubServer.send(exchange, 429, "{}");
+            } else {
+                StubServer.send(exchange, 200, "{\"ETH\":{\"USD\":712.5}}");
+            }
+        })) {
+            RateLimiter limiter = RateLimiter.defaults();
+            CryptoCompareApi api = CryptoCompareApi.builder()
+                    .baseUrl(server.baseUrl())
+                    .rateLimiter(limiter)
+                    .transport(fastRetries().rateLimiter(limiter).build())
+                    .build();
+
+            api.priceMulti("ETH", "USD", new LinkedHashMap<String, Object>());
+
+            // One permit taken by the client, one per retry by the transport
+            assertEquals(3, server.requests().size());
+            assertEquals(3, limiter.grantedCount());
+        }
+
+        assertEquals(Endpoint.Host.DEPRECATED, Endpoint.hostOf("https://www.cryptocompare.com/api/data/coinsnapshot?fsym=BTC&tsym=USD"));
+        assertEquals(Endpoint.Host.MIN_API, Endpoint.hostOf("https://min-api.cryptocompare.com/data/top/pairs?fsym=BTC"));
+        assertEquals(Endpoint.Host.MIN_API, Endpoint.hostOf("http://127.0.0.1/unknown"));
+    }
+
+    @Test
+    public void RateLimitBodyTest() throws IOException {
+        String rateLimited = "{\"Response\":\"Error\",\"Message\":\"Rate limit excedeed!\",\"Type\":99,\"Data\":{}}";
+        AtomicInteger calls = new AtomicInteger();
+        try (StubServer server = new StubServer()
+                .handle("/price", exchange -> StubServer.send(exchange, 200,
+                        calls.incrementAndGet() % 2 == 1 ? rateLimited : PRICE_RESPONSE))
+                .respond("/histohour", rateLimited)) {
+            RetryingTransport transport = fastRetries()
+                    .maxAttempts(2)
+                    .failureThreshold(1)
+                    .build();
+
+            // Kept lazily, the error body is still recognised and retried
+            LazyJsonObject response = transport.get(server.baseUrl() + "price?fsym=ETH&tsyms=USD", ResponseDecoders.LAZY_JSON_OBJECT);
+            assertEquals(712.5, response.getDouble("USD"), 0);
+            assertEquals(1, transport.retryCount());
+
+            // Decoded as a series, it surfaces as a rate limit after the last attempt
+            try {
+                transport.get(server.baseUrl() + "histohour?fsym=ETH&tsym=USD", OhlcvSeriesDecoder.INSTANCE);
+                fail("Expected the rate limit to surface");
+            } catch (ApiErrorException ex) {
+                assertTrue(ex.isRateLimited());
+            }
+            assertEquals(4, server.requests().size());
+            assertEquals(2, transport.retryCount());
+
+            // Neither counts against the host
+            assertEquals(CircuitBreaker.State.CLOSED, transport.circuitBreaker("127.0.0.1").state());
+        }
+    }
+
+    @Test
+    public void NotRetryableTest() throws IOException {
+        try (StubServer server = new StubServer()) {
+            RetryingTransport transport = fastRetries().build();
+
+            try {
+                transport.get(server.baseUrl() + "all/coinlist", ResponseDecoders.JSON_OBJECT);
+                fail("Expected the 404 to surface");
+            } catch (HttpStatusException ex) {
+                assertEquals(404, ex.statusCode());
+            }
+            assertEquals(1, server.requests().size());
+            assertEquals(CircuitBreaker.State.CLOSED, transport.circuitBreaker("127.0.0.1").state());
+        }
+    }
+
+    @Test
+    public void CircuitBreakerTest() throws Exception {
+        AtomicBoolean down = new AtomicBoolean(true);
+        try (StubServer server = new StubServer().handle("/price", exchange ->
+                StubServer.send(exchange, down.get() ? 500 : 200, down.get() ? "{}" : PRICE_RESPONSE))) {
+            RetryingTransport transport = fastRetries()
+                    .maxAttempts(1)
+                    .failureThreshold(2)
+                    .openDuration(200, TimeUnit.MILLISECONDS)
+                    .build();
+            String url = server.baseUrl() + "price?fsym=ETH&tsyms=USD";
+
+            for (int i = 0; i < 2; i++) {
+                try {
+                    transport.get(url, ResponseDecoders.JSON_OBJECT);
+                    fail("Expected the 500 to surface");
+                } catch (HttpStatusException ex) {
+                    assertEquals(500, ex.statusCode());
+                }
+            }
+            assertEquals(CircuitBreaker.State.OPEN, transport.circuitBreaker("127.0.0.1").state());
+
+            try {
+                transport.get(url, ResponseDecoders.JSON_OBJECT);
+                fail("Expected the open circuit to fail fast");
+            } catch (CircuitOpenException ex) {
+                // expected
+            }
+            assertEquals(2, server.requests().size());
+            assertEquals(1, transport.rejectedCount());
+
+            // Trial request once the open period is over
+            down.set(false);
+            Thread.sleep(250);
+            assertTrue(transport.get(url, ResponseDecoders.JSON_OBJECT).has("USD"));
+            assertEquals(CircuitBreaker.State.CLOSED, transport.circuitBreaker("127.0.0.1").state());
+        }
+    }
+}
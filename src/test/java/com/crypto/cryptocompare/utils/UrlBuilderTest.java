@@ -0,0 +1,82 @@
+package com.crypto.cryptocompare.utils;
+
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class UrlBuilderTest {
+
+    private static final String PRICE = "https://min-api.cryptocompare.com/data/price";
+
+    @Test
+    public void EncodingTest() {
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("extraParams", "My App & Co/€");
+        params.put("sign", true);
+        params.put("limit", 2000);
+
+        String url = UrlBuilder.of(PRICE)
+                .param("fsym", "ETH")
+                .param("tsyms", "BTC, USD")
+                .params(params)
+                .build();
+
+        assertEquals(PRICE + "?extraParams=My%20App%20%26%20Co%2F%E2%82%AC&fsym=ETH&limit=2000&sign=true&tsyms=BTC,%20USD", url);
+    }
+
+    @Test
+    public void OrderTest() {
+        Map<String, Object> forward = new LinkedHashMap<>();
+        forward.put("e", "Coinbase");
+        forward.put("extraParams", "test");
+        forward.put("toTs", 1514764800L);
+        Map<String, Object> backward = new LinkedHashMap<>();
+        backward.put("toTs", 1514764800L);
+        backward.put("extraParams", "test");
+        backward.put("e", "Coinbase");
+
+        String a = UrlBuilder.of(PRICE).param("tsym", "USD").param("fsym", "BTC").params(forward).build();
+        String b = UrlBuilder.of(PRICE).param("fsym", "BTC").params(backward).param("tsym", "USD").build();
+
+        assertEquals(a, b);
+        assertSame(a, ApiUtils.normalizeUrl(a));
+        assertTrue(UrlBuilder.compareNames("to", "toTs") < 0);
+        assertTrue(UrlBuilder.compareNames("e", "extraParams") < 0);
+    }
+
+    @Test
+    public void ReuseTest() {
+        assertSame(PRICE, UrlBuilder.of(PRICE).build());
+        assertEquals(PRICE + "?fsym=ETH", UrlBuilder.of(PRICE).param("fsym", "ETH").build());
+        assertEquals(PRICE + "?fsym=BTC", UrlBuilder.of(PRICE).param("fsym", "BTC").build());
+
+        // A url started while another is being built on the same thread gets its own buffer
+        UrlBuilder outer = UrlBuilder.of(PRICE).param("fsym", "ETH");
+        String inner = UrlBuilder.of(PRICE).param("fsym", "XMR").build();
+        assertEquals(PRICE + "?fsym=XMR", inner);
+        assertEquals(PRICE + "?fsym=ETH&tsyms=USD", outer.param("tsyms", "USD").build());
+    }
+
+    @Test
+    public void NullValueTest() {
+        UrlBuilder cached = UrlBuilder.of(PRICE);
+        cached.build();
+        try {
+            UrlBuilder.of(PRICE).param("fsym", "ETH").param("tsyms", null);
+            fail("Expected a null value to be rejected");
+        } catch (NullPointerException ex) {
+            assertEquals("tsyms", ex.getMessage());
+        }
+
+        // The failed url released the thread's builder instead of leaving it in use
+        UrlBuilder next = UrlBuilder.of(PRICE);
+        assertSame(cached, next);
+        assertEquals(PRICE + "?fsym=BTC", next.param("fsym", "BTC").build());
+    }
+}